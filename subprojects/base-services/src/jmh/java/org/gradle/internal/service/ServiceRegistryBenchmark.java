@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simulates the creation of project scoped registries, which happens once per project for every build.
+ */
+@State(Scope.Benchmark)
+public class ServiceRegistryBenchmark {
+    private static final int PROJECT_COUNT = 1000;
+
+    private DefaultServiceRegistry buildServices;
+    private DefaultServiceRegistry projectServices;
+
+    @Setup
+    public void setup() {
+        buildServices = new DefaultServiceRegistry("build services");
+        buildServices.addProvider(new BuildScopeProvider());
+        projectServices = createProjectServices(buildServices);
+        projectServices.get(ProjectModel.class);
+    }
+
+    @Benchmark
+    public void createProjectRegistries(Blackhole bh) {
+        List<DefaultServiceRegistry> registries = new ArrayList<DefaultServiceRegistry>(PROJECT_COUNT);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            DefaultServiceRegistry registry = createProjectServices(buildServices);
+            bh.consume(registry.get(ProjectModel.class));
+            bh.consume(registry.get(TaskContainer.class));
+            registries.add(registry);
+        }
+        for (DefaultServiceRegistry registry : registries) {
+            registry.close();
+        }
+    }
+
+    @Benchmark
+    public void lookupResolvedService(Blackhole bh) {
+        bh.consume(projectServices.get(ProjectModel.class));
+        bh.consume(projectServices.get(BuildModel.class));
+    }
+
+    private static DefaultServiceRegistry createProjectServices(ServiceRegistry parent) {
+        DefaultServiceRegistry registry = new DefaultServiceRegistry("project services", parent);
+        registry.addProvider(new ProjectScopeProvider());
+        return registry;
+    }
+
+    public static class BuildModel {
+    }
+
+    public static class FileResolver {
+    }
+
+    public static class TaskContainer {
+        TaskContainer(FileResolver fileResolver, BuildModel buildModel) {
+        }
+    }
+
+    public static class ConfigurationContainer {
+        ConfigurationContainer(FileResolver fileResolver) {
+        }
+    }
+
+    public static class ProjectModel {
+        ProjectModel(TaskContainer tasks, ConfigurationContainer configurations, BuildModel buildModel) {
+        }
+    }
+
+    private static class BuildScopeProvider {
+        BuildModel createBuildModel() {
+            return new BuildModel();
+        }
+    }
+
+    private static class ProjectScopeProvider {
+        FileResolver createFileResolver() {
+            return new FileResolver();
+        }
+
+        TaskContainer createTaskContainer(FileResolver fileResolver, BuildModel buildModel) {
+            return new TaskContainer(fileResolver, buildModel);
+        }
+
+        ConfigurationContainer createConfigurationContainer(FileResolver fileResolver) {
+            return new ConfigurationContainer(fileResolver);
+        }
+
+        ProjectModel createProjectModel(TaskContainer tasks, ConfigurationContainer configurations, BuildModel buildModel) {
+            return new ProjectModel(tasks, configurations, buildModel);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.internal.util.BiFunction;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
@@ -40,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -78,14 +80,19 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private final static Object[] NO_PARAMS = new Object[0];
 
     private static final ConcurrentMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>> SERVICE_TYPE_PROVIDER_CACHE = new ConcurrentHashMap<Type, BiFunction<ServiceProvider, LookupContext, Provider>>();
+    // Weak keys and weakly referenced supertypes, so that the cache does not keep the ClassLoaders of plugins and build scripts alive. The supertypes of a type are strongly reachable from the type
+    // itself, so they cannot be collected while the type is still in use
+    private static final Map<Class<?>, List<WeakReference<Class<?>>>> SERVICE_TYPE_HIERARCHY_CACHE = new WeakHashMap<Class<?>, List<WeakReference<Class<?>>>>();
     private final Map<Type, ServiceProvider> providerCache = new IdentityHashMap<Type, ServiceProvider>();
+    // Services that have already been located and created, which can be looked up again without holding the lock
+    private final ConcurrentMap<Type, Object> resolvedServices = new ConcurrentHashMap<Type, Object>();
 
     private final Object lock = new Object();
     private final OwnServices ownServices;
     private final Provider allServices;
     private final Provider parentServices;
     private final String displayName;
-    private boolean closed;
+    private volatile boolean closed;
     private boolean mutable = true; // access under lock
 
     private Provider asParentServicesProvider;
@@ -265,6 +272,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
                 closed = true;
+                resolvedServices.clear();
             }
         }
     }
@@ -331,6 +339,10 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        Object service = resolvedServices.get(serviceType);
+        if (service != null && !closed) {
+            return service;
+        }
         synchronized (lock) {
             mutable = false;
             if (closed) {
@@ -341,7 +353,12 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 provider = getServiceProvider(serviceType);
                 providerCache.put(serviceType, provider);
             }
-            return provider.get();
+            service = provider.get();
+            if (service != null) {
+                // The registry is immutable from here on, so the service located for this type will not change
+                resolvedServices.put(serviceType, service);
+            }
+            return service;
         }
     }
 
@@ -527,21 +544,45 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             }
             this.providers.add(provider);
             if (provider instanceof SingletonService) {
-                addServiceType(((SingletonService) provider).serviceClass);
+                addTypeHierarchy(((SingletonService) provider).serviceClass, serviceTypes);
             } else {
                 throw new UnsupportedOperationException("Unsupported service provider type: " + provider);
             }
         }
+    }
 
-        private void addServiceType(Class<?> serviceType) {
-            if (serviceType!=null && serviceTypes.add(serviceType)) {
-                addServiceType(serviceType.getSuperclass());
-                Class<?>[] interfaces = serviceType.getInterfaces();
-                if (interfaces!=null) {
-                    for (Class<?> intf : interfaces) {
-                        addServiceType(intf);
-                    }
-                }
+    /**
+     * Adds the given type and all of its supertypes. The supertypes are calculated once per type and shared by all registries, as the same service types are registered for every
+     * instance of a given scope.
+     */
+    private static void addTypeHierarchy(Class<?> serviceType, Set<Class<?>> serviceTypes) {
+        List<WeakReference<Class<?>>> hierarchy;
+        synchronized (SERVICE_TYPE_HIERARCHY_CACHE) {
+            hierarchy = SERVICE_TYPE_HIERARCHY_CACHE.get(serviceType);
+        }
+        if (hierarchy != null) {
+            for (WeakReference<Class<?>> type : hierarchy) {
+                serviceTypes.add(type.get());
+            }
+            return;
+        }
+        Set<Class<?>> types = new HashSet<Class<?>>();
+        collectTypeHierarchy(serviceType, types);
+        hierarchy = new ArrayList<WeakReference<Class<?>>>(types.size());
+        for (Class<?> type : types) {
+            hierarchy.add(new WeakReference<Class<?>>(type));
+        }
+        synchronized (SERVICE_TYPE_HIERARCHY_CACHE) {
+            SERVICE_TYPE_HIERARCHY_CACHE.put(serviceType, hierarchy);
+        }
+        serviceTypes.addAll(types);
+    }
+
+    private static void collectTypeHierarchy(Class<?> serviceType, Set<Class<?>> types) {
+        if (serviceType != null && types.add(serviceType)) {
+            collectTypeHierarchy(serviceType.getSuperclass(), types);
+            for (Class<?> intf : serviceType.getInterfaces()) {
+                collectTypeHierarchy(intf, types);
             }
         }
     }
@@ -1154,6 +1154,57 @@ class DefaultServiceRegistryTest extends Specification {
         e.message == "Cannot locate factory for objects of type BigDecimal, as TestRegistry has been closed."
     }
 
+    def "locates a service only once and reuses it for later lookups"() {
+        def value = BigDecimal.TEN
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.get(BigDecimal)
+        def second = registry.get(BigDecimal)
+        def third = registry.get((Type) BigDecimal)
+
+        then:
+        first.is(value)
+        second.is(value)
+        third.is(value)
+
+        and:
+        _ * parent.hasService(BigDecimal) >> true
+        1 * parent.get(BigDecimal) >> value
+    }
+
+    def "reuses a located service across threads"() {
+        def registry = new DefaultServiceRegistry()
+        registry.add(String, "value")
+        def results = Collections.synchronizedList([])
+
+        when:
+        def threads = (1..10).collect { Thread.start { 100.times { results << registry.get(String) } } }
+        threads*.join()
+
+        then:
+        results.size() == 1000
+        results.every { it.is(registry.get(String)) }
+    }
+
+    def "does not remember a null service located in a parent"() {
+        def parent = Mock(ServiceRegistry)
+        def registry = new TestRegistry(parent)
+
+        when:
+        def first = registry.get(BigDecimal)
+        def second = registry.get(BigDecimal)
+
+        then:
+        first == null
+        second == BigDecimal.ONE
+
+        and:
+        _ * parent.hasService(BigDecimal) >> true
+        2 * parent.get(BigDecimal) >>> [null, BigDecimal.ONE]
+    }
+
     def "cannot add provider after getting a service via class"() {
         when:
         registry.get(Integer)
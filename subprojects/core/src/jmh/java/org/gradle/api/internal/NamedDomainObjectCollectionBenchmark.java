@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import org.gradle.api.Named;
+import org.gradle.internal.reflect.DirectInstantiator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exercises the lookup by name of a named container of the size seen in very large builds.
+ */
+@State(Scope.Benchmark)
+public class NamedDomainObjectCollectionBenchmark {
+    private static final int ELEMENT_COUNT = 10000;
+
+    private DefaultNamedDomainObjectSet<Element> container;
+    private List<Element> elements;
+    private int next;
+
+    @Setup
+    public void setup() {
+        elements = new ArrayList<Element>(ELEMENT_COUNT);
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            elements.add(new Element("element" + i));
+        }
+        container = createContainer();
+        container.addAll(elements);
+    }
+
+    @Benchmark
+    public void findByNameHit(Blackhole bh) {
+        next = (next + 1) % ELEMENT_COUNT;
+        bh.consume(container.findByName(elements.get(next).getName()));
+    }
+
+    @Benchmark
+    public void getByNameHit(Blackhole bh) {
+        next = (next + 1) % ELEMENT_COUNT;
+        bh.consume(container.getByName(elements.get(next).getName()));
+    }
+
+    private static DefaultNamedDomainObjectSet<Element> createContainer() {
+        return new DefaultNamedDomainObjectSet<Element>(Element.class, DirectInstantiator.INSTANCE);
+    }
+
+    public static class Element implements Named {
+        private final String name;
+
+        public Element(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -104,7 +104,13 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                     type.getSimpleName()));
         }
 
-        Class<? extends T> subclass;
+        Class<? extends T> subclass = loadGeneratedClass(type);
+        if (subclass != null) {
+            cache.put(type, subclass);
+            cache.put(subclass, subclass);
+            return subclass;
+        }
+
         try {
             ClassMetaData classMetaData = inspectType(type);
 
@@ -224,6 +230,14 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         return subclass;
     }
 
+    /**
+     * Returns a subclass for the given type that has been generated previously, possibly by another process, or null when the subclass needs to be generated.
+     */
+    @Nullable
+    protected <T> Class<? extends T> loadGeneratedClass(Class<T> type) {
+        return null;
+    }
+
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
     private ClassMetaData inspectType(Class<?> type) {
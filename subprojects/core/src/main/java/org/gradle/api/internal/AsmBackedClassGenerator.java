@@ -15,8 +15,13 @@
  */
 package org.gradle.api.internal;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
 import groovy.lang.GroovySystem;
@@ -24,9 +29,11 @@ import groovy.lang.MetaClass;
 import groovy.lang.MetaClassRegistry;
 import org.gradle.api.Action;
 import org.gradle.api.Transformer;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.metaobject.AbstractDynamicObject;
 import org.gradle.internal.metaobject.BeanDynamicObject;
 import org.gradle.internal.metaobject.DynamicObject;
@@ -36,14 +43,19 @@ import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.model.internal.asm.AsmClassGenerator;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
+import org.gradle.util.GradleVersion;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
@@ -51,19 +63,204 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import static org.gradle.model.internal.asm.AsmClassGeneratorUtils.signature;
 import static org.objectweb.asm.Opcodes.*;
 import static org.objectweb.asm.Type.VOID_TYPE;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsmBackedClassGenerator.class);
+    /**
+     * Should be incremented whenever the generated bytecode changes in a way that is not reflected in the Gradle version, to invalidate previously cached classes.
+     */
+    private static final int GENERATOR_VERSION = 1;
+    private static final String DECORATED_CLASS_SUFFIX = "_Decorated";
+
+    private static final HashCode UNAVAILABLE = HashCode.fromInt(0);
+
+    private volatile GeneratedClassCache generatedClassCache = GeneratedClassCache.NO_OP;
+    // The key of a type cannot change while it is loaded, so calculate it only once. Weak keys, so that the classes can still be collected
+    private final Map<Class<?>, HashCode> cacheKeys = new WeakHashMap<Class<?>, HashCode>();
+    // The hash of the bytecode of each class, shared by the keys of all the types whose hierarchy or signatures include it. Guarded by cacheKeys
+    private final Map<Class<?>, HashCode> classHashes = new WeakHashMap<Class<?>, HashCode>();
+
+    /**
+     * Uses the given cache to reuse generated classes, until the cache is detached.
+     */
+    public void attach(GeneratedClassCache generatedClassCache) {
+        this.generatedClassCache = generatedClassCache;
+    }
+
+    public void detach(GeneratedClassCache generatedClassCache) {
+        if (this.generatedClassCache == generatedClassCache) {
+            this.generatedClassCache = GeneratedClassCache.NO_OP;
+        }
+    }
+
+    @Nullable
+    @Override
+    protected <T> Class<? extends T> loadGeneratedClass(Class<T> type) {
+        GeneratedClassCache cache = generatedClassCache;
+        if (cache == GeneratedClassCache.NO_OP) {
+            return null;
+        }
+        HashCode key = cacheKeyFor(type);
+        if (key == null) {
+            return null;
+        }
+        byte[] bytecode = cache.get(key);
+        if (bytecode == null) {
+            return null;
+        }
+        Class<?> generatedClass;
+        try {
+            generatedClass = ClassLoaderUtils.define(type.getClassLoader(), type.getName() + DECORATED_CLASS_SUFFIX, bytecode);
+        } catch (LinkageError e) {
+            // A corrupt or stale cache entry, generate the class instead
+            LOGGER.debug("Could not define cached class for {}, generating it instead.", type.getName(), e);
+            return null;
+        }
+        return generatedClass.asSubclass(type);
+    }
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
-        return new ClassBuilderImpl<T>(type, classMetaData);
+        GeneratedClassCache cache = generatedClassCache;
+        HashCode key = cache == GeneratedClassCache.NO_OP ? null : cacheKeyFor(type);
+        return new ClassBuilderImpl<T>(type, classMetaData, cache, key);
+    }
+
+    @Nullable
+    private HashCode cacheKeyFor(Class<?> type) {
+        synchronized (cacheKeys) {
+            HashCode key = cacheKeys.get(type);
+            if (key == null) {
+                key = calculateCacheKey(type);
+                cacheKeys.put(type, key == null ? UNAVAILABLE : key);
+            }
+            return key == UNAVAILABLE ? null : key;
+        }
+    }
+
+    /**
+     * Calculates a key from the bytecode of the given type and all of its supertypes, as the generated class depends on all of these. Also includes the types of the
+     * constructor and method parameters and the return types of these, along with their supertypes, as the generator inspects these to decide what to generate.
+     * Returns null when the bytecode of some type is not available.
+     */
+    @Nullable
+    private HashCode calculateCacheKey(Class<?> type) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putInt(GENERATOR_VERSION);
+        hasher.putString(GradleVersion.current().getVersion(), Charsets.UTF_8);
+        Set<Class<?>> seen = new HashSet<Class<?>>();
+        Set<Class<?>> referencedTypes = new LinkedHashSet<Class<?>>();
+        if (!hashHierarchy(type, hasher, seen, referencedTypes)) {
+            return null;
+        }
+        for (Class<?> referencedType : referencedTypes) {
+            if (!hashHierarchy(referencedType, hasher, seen, null)) {
+                return null;
+            }
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Hashes the given type and its supertypes that have not been seen yet, collecting the types their signatures refer to when {@code referencedTypes} is not null.
+     */
+    private boolean hashHierarchy(Class<?> type, Hasher hasher, Set<Class<?>> seen, @Nullable Set<Class<?>> referencedTypes) {
+        Deque<Class<?>> queue = new ArrayDeque<Class<?>>();
+        queue.add(type);
+        while (!queue.isEmpty()) {
+            Class<?> current = queue.removeFirst();
+            if (!seen.add(current)) {
+                continue;
+            }
+            hasher.putString(current.getName(), Charsets.UTF_8);
+            ClassLoader classLoader = current.getClassLoader();
+            if (classLoader == null) {
+                // A JDK type, which is covered by the Gradle version and the name
+                continue;
+            }
+            HashCode classHash = hashOf(classLoader, current);
+            if (classHash == null) {
+                return false;
+            }
+            hasher.putBytes(classHash.asBytes());
+            if (current.getSuperclass() != null) {
+                queue.add(current.getSuperclass());
+            }
+            Collections.addAll(queue, current.getInterfaces());
+            if (referencedTypes != null) {
+                collectSignatureTypes(current, referencedTypes);
+            }
+        }
+        return true;
+    }
+
+    private static void collectSignatureTypes(Class<?> type, Set<Class<?>> referencedTypes) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            for (Class<?> parameterType : constructor.getParameterTypes()) {
+                addReferencedType(parameterType, referencedTypes);
+            }
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            addReferencedType(method.getReturnType(), referencedTypes);
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                addReferencedType(parameterType, referencedTypes);
+            }
+        }
+    }
+
+    private static void addReferencedType(Class<?> type, Set<Class<?>> referencedTypes) {
+        Class<?> current = type;
+        while (current.isArray()) {
+            current = current.getComponentType();
+        }
+        if (!current.isPrimitive()) {
+            referencedTypes.add(current);
+        }
+    }
+
+    /**
+     * Returns the hash of the bytecode of the given class, reading it only the first time, or null when the bytecode is not available.
+     */
+    @Nullable
+    private HashCode hashOf(ClassLoader classLoader, Class<?> type) {
+        HashCode hash = classHashes.get(type);
+        if (hash == null) {
+            byte[] bytecode = readBytecode(classLoader, type);
+            hash = bytecode == null ? UNAVAILABLE : Hashing.md5().hashBytes(bytecode);
+            classHashes.put(type, hash);
+        }
+        return hash == UNAVAILABLE ? null : hash;
+    }
+
+    @Nullable
+    private static byte[] readBytecode(ClassLoader classLoader, Class<?> type) {
+        InputStream inputStream = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (inputStream == null) {
+            return null;
+        }
+        try {
+            try {
+                return ByteStreams.toByteArray(inputStream);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     private static class ClassBuilderImpl<T> implements ClassBuilder<T> {
@@ -128,11 +325,15 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private final boolean conventionAware;
         private final boolean extensible;
         private final boolean providesOwnDynamicObject;
+        private final GeneratedClassCache generatedClassCache;
+        private final HashCode cacheKey;
 
-        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData) {
+        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData, GeneratedClassCache generatedClassCache, @Nullable HashCode cacheKey) {
             this.type = type;
+            this.generatedClassCache = generatedClassCache;
+            this.cacheKey = cacheKey;
 
-            classGenerator = new AsmClassGenerator(type, "_Decorated");
+            classGenerator = new AsmClassGenerator(type, DECORATED_CLASS_SUFFIX);
             visitor = classGenerator.getVisitor();
             generatedType = classGenerator.getGeneratedType();
             superclassType = Type.getType(type);
@@ -944,7 +1145,12 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             writeGenericReturnTypeFields();
             visitor.visitEnd();
 
-            return classGenerator.define().asSubclass(type);
+            byte[] bytecode = visitor.toByteArray();
+            Class<?> generatedClass = ClassLoaderUtils.define(type.getClassLoader(), classGenerator.getGeneratedTypeName(), bytecode);
+            if (cacheKey != null) {
+                generatedClassCache.put(cacheKey, bytecode);
+            }
+            return generatedClass.asSubclass(type);
         }
 
         private void writeGenericReturnTypeFields() {
@@ -39,6 +39,7 @@ import org.gradle.util.ConfigureUtil;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -390,9 +391,13 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
         <S extends T> Index<S> filter(CollectionFilter<S> filter);
     }
 
+    /**
+     * Keeps the elements sorted by name, along with a hash based lookup so that finding an element by name does not depend on the size of the collection.
+     */
     protected static class UnfilteredIndex<T> implements Index<T> {
 
         private final NavigableMap<String, T> map = new TreeMap<String, T>();
+        private final Map<String, T> byName = new HashMap<String, T>();
 
         @Override
         public NavigableMap<String, T> asMap() {
@@ -402,21 +407,24 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
         @Override
         public void put(String name, T value) {
             map.put(name, value);
+            byName.put(name, value);
         }
 
         @Override
         public T get(String name) {
-            return map.get(name);
+            return byName.get(name);
         }
 
         @Override
         public void remove(String name) {
             map.remove(name);
+            byName.remove(name);
         }
 
         @Override
         public void clear() {
             map.clear();
+            byName.clear();
         }
 
         @Override
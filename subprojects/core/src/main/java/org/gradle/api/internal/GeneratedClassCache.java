@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import com.google.common.hash.HashCode;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the bytecode of classes generated by a {@link ClassGenerator}, so that a generated class can be defined again without running the generator.
+ */
+public interface GeneratedClassCache {
+    GeneratedClassCache NO_OP = new GeneratedClassCache() {
+        @Nullable
+        @Override
+        public byte[] get(HashCode key) {
+            return null;
+        }
+
+        @Override
+        public void put(HashCode key, byte[] bytecode) {
+        }
+    };
+
+    /**
+     * Returns the bytecode stored for the given key, or null when not present.
+     */
+    @Nullable
+    byte[] get(HashCode key);
+
+    void put(HashCode key, byte[] bytecode);
+}
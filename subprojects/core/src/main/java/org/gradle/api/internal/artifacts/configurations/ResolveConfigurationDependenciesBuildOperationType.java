@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.configurations;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * Resolution of the dependency graph of a configuration.
+ *
+ * @since 4.2
+ */
+public final class ResolveConfigurationDependenciesBuildOperationType implements BuildOperationType<ResolveConfigurationDependenciesBuildOperationType.Details, ResolveConfigurationDependenciesBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The identity path of the configuration, including the path of the project and build that own it.
+         */
+        String getConfigurationPath();
+
+    }
+
+    public interface Result {
+
+    }
+
+    public static class DetailsImpl implements Details {
+
+        private final String configurationPath;
+
+        public DetailsImpl(String configurationPath) {
+            this.configurationPath = configurationPath;
+        }
+
+        public String getConfigurationPath() {
+            return configurationPath;
+        }
+
+    }
+
+    public final static Result RESULT = new Result() {
+    };
+
+    private ResolveConfigurationDependenciesBuildOperationType() {
+    }
+
+}
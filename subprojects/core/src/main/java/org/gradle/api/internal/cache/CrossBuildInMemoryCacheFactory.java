@@ -23,8 +23,10 @@ import org.gradle.internal.event.ListenerManager;
 
 import javax.annotation.Nullable;
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
@@ -40,6 +42,7 @@ import java.util.WeakHashMap;
 @ThreadSafe
 public class CrossBuildInMemoryCacheFactory {
     private final ListenerManager listenerManager;
+    private final List<DefaultCrossBuildInMemoryCache<?, ?>> caches = new ArrayList<DefaultCrossBuildInMemoryCache<?, ?>>();
 
     public CrossBuildInMemoryCacheFactory(ListenerManager listenerManager) {
         this.listenerManager = listenerManager;
@@ -52,7 +55,7 @@ public class CrossBuildInMemoryCacheFactory {
      */
     public <K, V> CrossBuildInMemoryCache<K, V> newCache() {
         DefaultCrossBuildInMemoryCache<K, V> cache = new DefaultCrossBuildInMemoryCache<K, V>(new HashMap<K, SoftReference<V>>());
-        listenerManager.addListener(cache);
+        register(cache);
         return cache;
     }
 
@@ -63,10 +66,35 @@ public class CrossBuildInMemoryCacheFactory {
      */
     public <V> CrossBuildInMemoryCache<Class<?>, V> newClassCache() {
         DefaultCrossBuildInMemoryCache<Class<?>, V> cache = new DefaultCrossBuildInMemoryCache<Class<?>, V>(new WeakHashMap<Class<?>, SoftReference<V>>());
-        listenerManager.addListener(cache);
+        register(cache);
         return cache;
     }
 
+    /**
+     * Drops the strong references that the caches created by this factory retain to the values used by the current and previous build sessions, so that the garbage collector can discard any value that is not otherwise in use.
+     * Values that are still reachable through their soft references can continue to be used.
+     *
+     * @return the number of values released.
+     */
+    public int releaseRetainedValues() {
+        List<DefaultCrossBuildInMemoryCache<?, ?>> caches;
+        synchronized (this.caches) {
+            caches = new ArrayList<DefaultCrossBuildInMemoryCache<?, ?>>(this.caches);
+        }
+        int released = 0;
+        for (DefaultCrossBuildInMemoryCache<?, ?> cache : caches) {
+            released += cache.releaseRetainedValues();
+        }
+        return released;
+    }
+
+    private void register(DefaultCrossBuildInMemoryCache<?, ?> cache) {
+        listenerManager.addListener(cache);
+        synchronized (caches) {
+            caches.add(cache);
+        }
+    }
+
     private static class DefaultCrossBuildInMemoryCache<K, V> implements CrossBuildInMemoryCache<K, V>, SessionLifecycleListener {
         private final Object lock = new Object();
         private final Map<K, V> valuesForThisSession = new HashMap<K, V>();
@@ -101,6 +129,15 @@ public class CrossBuildInMemoryCacheFactory {
             }
         }
 
+        public int releaseRetainedValues() {
+            synchronized (lock) {
+                int released = valuesForThisSession.size() + valuesForPreviousSession.size();
+                valuesForThisSession.clear();
+                valuesForPreviousSession.clear();
+                return released;
+            }
+        }
+
         @Nullable
         @Override
         public V get(K key) {
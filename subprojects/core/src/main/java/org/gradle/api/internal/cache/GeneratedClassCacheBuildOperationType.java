@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * Reports how many decorated classes were defined from the generated classes cache during a build session, and how many had to be generated.
+ *
+ * Fires once, at the end of the build session.
+ */
+public final class GeneratedClassCacheBuildOperationType implements BuildOperationType<GeneratedClassCacheBuildOperationType.Details, GeneratedClassCacheBuildOperationType.Result> {
+
+    public interface Details {
+
+    }
+
+    public interface Result {
+
+        int getHits();
+
+        int getMisses();
+
+    }
+
+    private GeneratedClassCacheBuildOperationType() {
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache;
+
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reports the hit and miss counts of the {@link PersistentGeneratedClassCache} for a build session, in the log and as a {@link GeneratedClassCacheBuildOperationType} build operation.
+ */
+public class GeneratedClassCacheStatisticsReporter implements SessionLifecycleListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeneratedClassCacheStatisticsReporter.class);
+    private static final GeneratedClassCacheBuildOperationType.Details DETAILS = new GeneratedClassCacheBuildOperationType.Details() {
+    };
+
+    private final PersistentGeneratedClassCache generatedClassCache;
+    private final BuildOperationExecutor buildOperationExecutor;
+
+    public GeneratedClassCacheStatisticsReporter(PersistentGeneratedClassCache generatedClassCache, BuildOperationExecutor buildOperationExecutor) {
+        this.generatedClassCache = generatedClassCache;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    @Override
+    public void afterStart() {
+    }
+
+    @Override
+    public void beforeComplete() {
+        final int hits = generatedClassCache.getHits();
+        final int misses = generatedClassCache.getMisses();
+        LOGGER.info("Generated classes cache: {} hits, {} misses.", hits, misses);
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                context.setResult(new GeneratedClassCacheBuildOperationType.Result() {
+                    @Override
+                    public int getHits() {
+                        return hits;
+                    }
+
+                    @Override
+                    public int getMisses() {
+                        return misses;
+                    }
+                });
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Report generated classes cache statistics").details(DETAILS);
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.AsmBackedClassGenerator;
+import org.gradle.api.internal.GeneratedClassCache;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * A {@link GeneratedClassCache} that stores the generated bytecode in the Gradle user home directory, so that it can be reused by other processes.
+ *
+ * Counts hits and misses for each build session, which {@link GeneratedClassCacheStatisticsReporter} reports.
+ */
+public class PersistentGeneratedClassCache implements GeneratedClassCache, SessionLifecycleListener, Closeable {
+    private final AsmBackedClassGenerator classGenerator;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, byte[]> bytecodeCache;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public PersistentGeneratedClassCache(AsmBackedClassGenerator classGenerator, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.classGenerator = classGenerator;
+        cache = cacheRepository
+            .cache("generated-classes")
+            .withDisplayName("generated classes cache")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .open();
+        PersistentIndexedCacheParameters<HashCode, byte[]> parameters = new PersistentIndexedCacheParameters<HashCode, byte[]>("decoratedClasses", new HashCodeSerializer(), BaseSerializerFactory.BYTE_ARRAY_SERIALIZER)
+            .cacheDecorator(inMemoryCacheDecoratorFactory.decorator(2000, false));
+        bytecodeCache = cache.createCache(parameters);
+        classGenerator.attach(this);
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(HashCode key) {
+        byte[] bytecode = bytecodeCache.get(key);
+        if (bytecode == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return bytecode;
+    }
+
+    @Override
+    public void put(HashCode key, byte[] bytecode) {
+        bytecodeCache.put(key, bytecode);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public void afterStart() {
+        hits.set(0);
+        misses.set(0);
+    }
+
+    @Override
+    public void beforeComplete() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        classGenerator.detach(this);
+        cache.close();
+    }
+}
@@ -25,8 +25,7 @@ import java.io.InputStream;
 import java.util.zip.ZipEntry;
 
 /**
- * Caches the result of hashing a {@link RegularFileSnapshot} with a {@link ResourceHasher}.
- * It does not cache the result of hashing {@link ZipEntry}s.
+ * Caches the result of hashing a {@link RegularFileSnapshot} or a {@link ZipEntry} with a {@link ResourceHasher}.
  * It also caches the absence of a hash.
  */
 public class CachingResourceHasher implements ResourceHasher {
@@ -49,7 +48,7 @@ public class CachingResourceHasher implements ResourceHasher {
 
     @Override
     public HashCode hash(ZipEntry zipEntry, InputStream zipInput) throws IOException {
-        return delegate.hash(zipEntry, zipInput);
+        return resourceSnapshotterCacheService.hashZipEntry(zipEntry, zipInput, delegate, delegateConfigurationHash);
     }
 
     @Override
@@ -33,6 +33,10 @@ import org.gradle.cache.internal.FileLock;
 import org.gradle.cache.internal.MultiProcessSafeAsyncPersistentIndexedCache;
 import org.gradle.cache.internal.MultiProcessSafePersistentIndexedCache;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -46,6 +50,8 @@ public class InMemoryCacheDecoratorFactory {
     private final boolean longLivingProcess;
     private final HeapProportionalCacheSizer cacheSizer = new HeapProportionalCacheSizer();
     private final CrossBuildInMemoryCache<String, CacheDetails> caches;
+    // Used only to find the in-memory stores to discard, without keeping them alive
+    private final Map<Cache<Object, Object>, Boolean> inMemoryStores = new WeakHashMap<Cache<Object, Object>, Boolean>();
 
     public InMemoryCacheDecoratorFactory(boolean longLivingProcess, CrossBuildInMemoryCacheFactory cacheFactory) {
         this.longLivingProcess = longLivingProcess;
@@ -56,6 +62,24 @@ public class InMemoryCacheDecoratorFactory {
         return new InMemoryCacheDecorator(maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses);
     }
 
+    /**
+     * Discards the entries of all in-memory stores. The entries are loaded again from the backing caches on demand.
+     *
+     * @return the number of entries discarded.
+     */
+    public long discardInMemoryEntries() {
+        List<Cache<Object, Object>> stores;
+        synchronized (inMemoryStores) {
+            stores = new ArrayList<Cache<Object, Object>>(inMemoryStores.keySet());
+        }
+        long discarded = 0;
+        for (Cache<Object, Object> store : stores) {
+            discarded += store.size();
+            store.invalidateAll();
+        }
+        return discarded;
+    }
+
     private <K, V> MultiProcessSafeAsyncPersistentIndexedCache<K, V> applyInMemoryCaching(String cacheId, MultiProcessSafeAsyncPersistentIndexedCache<K, V> backingCache, int maxEntriesToKeepInMemory, boolean cacheInMemoryForShortLivedProcesses) {
         if (!longLivingProcess && !cacheInMemoryForShortLivedProcesses) {
             // Short lived process, don't cache in memory
@@ -88,6 +112,9 @@ public class InMemoryCacheDecoratorFactory {
         final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().removalListener(evictionListener);
         Cache<Object, Object> inMemoryCache = cacheBuilder.build();
         evictionListener.setCache(inMemoryCache);
+        synchronized (inMemoryStores) {
+            inMemoryStores.put(inMemoryCache, Boolean.TRUE);
+        }
         return inMemoryCache;
     }
 
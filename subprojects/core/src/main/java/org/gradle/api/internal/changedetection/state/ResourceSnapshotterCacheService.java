@@ -19,12 +19,20 @@ package org.gradle.api.internal.changedetection.state;
 import com.google.common.base.Charsets;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.caching.internal.BuildCacheHasher;
 import org.gradle.caching.internal.DefaultBuildCacheHasher;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+
 public class ResourceSnapshotterCacheService {
     private static final HashCode NO_HASH = Hashing.md5().hashString(CachingResourceHasher.class.getName() + " : no hash", Charsets.UTF_8);
+    // Larger entries are read into memory to look up their hash, so they are hashed directly instead
+    private static final long MAX_CACHED_ZIP_ENTRY_SIZE = 1024 * 1024;
     private final PersistentIndexedCache<HashCode, HashCode> persistentCache;
 
     public ResourceSnapshotterCacheService(PersistentIndexedCache<HashCode, HashCode> persistentCache) {
@@ -52,6 +60,43 @@ public class ResourceSnapshotterCacheService {
         return resourceHash;
     }
 
+    /**
+     * Hashes a zip entry, reusing the hash of an earlier entry with the same name and contents. The contents are read and hashed to look up the entry,
+     * which is cheaper than the hashers that parse them. Entries without a known size and large entries are always hashed.
+     */
+    public HashCode hashZipEntry(ZipEntry zipEntry, InputStream zipInput, ResourceHasher hasher, byte[] configurationHash) throws IOException {
+        if (zipEntry.getSize() == -1 || zipEntry.getSize() > MAX_CACHED_ZIP_ENTRY_SIZE) {
+            return hasher.hash(zipEntry, zipInput);
+        }
+        byte[] content = ByteStreams.toByteArray(zipInput);
+        HashCode resourceHashCacheKey = zipEntryHashCacheKey(zipEntry, content, configurationHash);
+
+        HashCode resourceHash = persistentCache.get(resourceHashCacheKey);
+        if (resourceHash != null) {
+            if (resourceHash.equals(NO_HASH)) {
+                return null;
+            }
+            return resourceHash;
+        }
+
+        resourceHash = hasher.hash(zipEntry, new ByteArrayInputStream(content));
+
+        if (resourceHash != null) {
+            persistentCache.put(resourceHashCacheKey, resourceHash);
+        } else {
+            persistentCache.put(resourceHashCacheKey, NO_HASH);
+        }
+        return resourceHash;
+    }
+
+    private HashCode zipEntryHashCacheKey(ZipEntry zipEntry, byte[] content, byte[] configurationHash) {
+        BuildCacheHasher hasher = new DefaultBuildCacheHasher();
+        hasher.putBytes(configurationHash);
+        hasher.putString(zipEntry.getName());
+        hasher.putBytes(content);
+        return hasher.hash();
+    }
+
     private HashCode resourceHashCacheKey(RegularFileSnapshot fileSnapshot, byte[] configurationHash) {
         BuildCacheHasher hasher = new DefaultBuildCacheHasher();
         hasher.putBytes(configurationHash);
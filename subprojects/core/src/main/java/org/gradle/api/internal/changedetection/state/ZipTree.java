@@ -18,13 +18,23 @@ package org.gradle.api.internal.changedetection.state;
 
 import org.apache.commons.io.IOUtils;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Enumeration;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
+/**
+ * Visits the entries of a zip file. The entries are read from the central directory, so that their size and CRC are known before their contents are read,
+ * and the contents of an entry are only decompressed when the visitor reads them.
+ *
+ * <p>Files that cannot be opened as a zip file, such as empty files, are read as a stream of entries instead, which finds no entries in them.</p>
+ */
 public class ZipTree implements ResourceTree {
     private final FileSnapshot zipFile;
 
@@ -34,10 +44,36 @@ public class ZipTree implements ResourceTree {
 
     @Override
     public void visit(ResourceWithContentsVisitor visitor) throws IOException {
-        String zipFilePath = zipFile.getPath();
+        ZipFile zip;
+        try {
+            zip = new ZipFile(new File(zipFile.getPath()));
+        } catch (ZipException e) {
+            visitStream(visitor);
+            return;
+        }
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry zipEntry = entries.nextElement();
+                if (zipEntry.isDirectory()) {
+                    continue;
+                }
+                InputStream entryInput = zip.getInputStream(zipEntry);
+                try {
+                    visitor.visitZipFileEntry(zipEntry, entryInput);
+                } finally {
+                    IOUtils.closeQuietly(entryInput);
+                }
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
+    private void visitStream(ResourceWithContentsVisitor visitor) throws IOException {
         InputStream fileInputStream = null;
         try {
-            fileInputStream = Files.newInputStream(Paths.get(zipFilePath));
+            fileInputStream = Files.newInputStream(Paths.get(zipFile.getPath()));
             ZipInputStream zipInput = new ZipInputStream(fileInputStream);
             ZipEntry zipEntry;
 
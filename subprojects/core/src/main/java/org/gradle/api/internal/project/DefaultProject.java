@@ -55,19 +55,16 @@ import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvid
 import org.gradle.api.internal.file.DefaultProjectLayout;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
-import org.gradle.api.internal.file.SourceDirectorySetFactory;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
 import org.gradle.api.internal.initialization.ScriptHandlerFactory;
 import org.gradle.api.internal.plugins.DefaultObjectConfigurationAction;
 import org.gradle.api.internal.plugins.ExtensionContainerInternal;
 import org.gradle.api.internal.plugins.PluginManagerInternal;
-import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.plugins.Convention;
-import org.gradle.api.plugins.ExtensionContainer;
 import org.gradle.api.provider.PropertyState;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.ProviderFactory;
@@ -78,33 +75,23 @@ import org.gradle.configuration.project.ProjectConfigurationActionContainer;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Actions;
-import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.StandardOutputCapture;
+import org.gradle.internal.metaobject.AbstractDynamicObject;
 import org.gradle.internal.metaobject.BeanDynamicObject;
+import org.gradle.internal.metaobject.DynamicInvokeResult;
 import org.gradle.internal.metaobject.DynamicObject;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.resource.TextResourceLoader;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.ServiceRegistryFactory;
-import org.gradle.internal.typeconversion.TypeConverter;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
-import org.gradle.model.Model;
-import org.gradle.model.RuleSource;
 import org.gradle.model.dsl.internal.NonTransformedModelDslBacking;
 import org.gradle.model.dsl.internal.TransformedModelDslBacking;
-import org.gradle.model.internal.core.DefaultNodeInitializerRegistry;
-import org.gradle.model.internal.core.Hidden;
-import org.gradle.model.internal.core.ModelReference;
-import org.gradle.model.internal.core.ModelRegistrations;
-import org.gradle.model.internal.core.NodeInitializerRegistry;
-import org.gradle.model.internal.manage.binding.StructBindingsStore;
-import org.gradle.model.internal.manage.instance.ManagedProxyFactory;
 import org.gradle.model.internal.manage.schema.ModelSchemaStore;
 import org.gradle.model.internal.registry.ModelRegistry;
-import org.gradle.model.internal.type.ModelType;
 import org.gradle.normalization.InputNormalizationHandler;
 import org.gradle.process.ExecResult;
 import org.gradle.process.ExecSpec;
@@ -114,10 +101,12 @@ import org.gradle.util.ConfigureUtil;
 import org.gradle.util.DeprecationLogger;
 import org.gradle.util.Path;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -133,10 +122,6 @@ import static org.gradle.util.GUtil.addMaps;
 
 @NoConventionMapping
 public class DefaultProject extends AbstractPluginAware implements ProjectInternal, DynamicObjectAware {
-    private static final ModelType<ServiceRegistry> SERVICE_REGISTRY_MODEL_TYPE = ModelType.of(ServiceRegistry.class);
-    private static final ModelType<File> FILE_MODEL_TYPE = ModelType.of(File.class);
-    private static final ModelType<ProjectIdentifier> PROJECT_IDENTIFIER_MODEL_TYPE = ModelType.of(ProjectIdentifier.class);
-    private static final ModelType<ExtensionContainer> EXTENSION_CONTAINER_MODEL_TYPE = ModelType.of(ExtensionContainer.class);
     private static final Logger BUILD_LOGGER = Logging.getLogger(Project.class);
 
     private final ClassLoaderScope classLoaderScope;
@@ -177,7 +162,9 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     private final int depth;
 
-    private TaskContainerInternal taskContainer;
+    private final Object taskContainerLock = new Object();
+
+    private volatile TaskContainerInternal taskContainer;
 
     private DependencyHandler dependencyHandler;
 
@@ -222,104 +209,69 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         }
 
         services = serviceRegistryFactory.createFor(this);
-        taskContainer = services.newInstance(TaskContainerInternal.class);
 
         extensibleDynamicObject = new ExtensibleDynamicObject(this, Project.class, services.get(Instantiator.class));
         if (parent != null) {
             extensibleDynamicObject.setParent(parent.getInheritedScope());
         }
-        extensibleDynamicObject.addObject(taskContainer.getTasksAsDynamicObject(), ExtensibleDynamicObject.Location.AfterConvention);
+        extensibleDynamicObject.addObject(new TasksDynamicObject(), ExtensibleDynamicObject.Location.AfterConvention);
 
         evaluationListener.add(gradle.getProjectEvaluationBroadcaster());
-
-        populateModelRegistry(services.get(ModelRegistry.class));
     }
 
-    @SuppressWarnings("unused")
-    static class BasicServicesRules extends RuleSource {
-        @Hidden @Model
-        SourceDirectorySetFactory sourceDirectorySetFactory(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(SourceDirectorySetFactory.class);
-        }
-
-        @Hidden @Model
-        ITaskFactory taskFactory(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(ITaskFactory.class);
+    /**
+     * Exposes the tasks of this project as properties and methods. Until the task container has been created there are no tasks, so lookups
+     * do not create it.
+     */
+    private class TasksDynamicObject extends AbstractDynamicObject {
+        @Override
+        public String getDisplayName() {
+            return "tasks of " + DefaultProject.this;
         }
 
-        @Hidden @Model
-        Instantiator instantiator(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(Instantiator.class);
+        @Nullable
+        private DynamicObject getDelegate() {
+            TaskContainerInternal tasks = taskContainer;
+            return tasks == null ? null : tasks.getTasksAsDynamicObject();
         }
 
-        @Hidden @Model
-        ModelSchemaStore schemaStore(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(ModelSchemaStore.class);
+        @Override
+        public boolean hasProperty(String name) {
+            DynamicObject delegate = getDelegate();
+            return delegate != null && delegate.hasProperty(name);
         }
 
-        @Hidden @Model
-        ManagedProxyFactory proxyFactory(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(ManagedProxyFactory.class);
+        @Override
+        public DynamicInvokeResult tryGetProperty(String name) {
+            DynamicObject delegate = getDelegate();
+            return delegate == null ? DynamicInvokeResult.notFound() : delegate.tryGetProperty(name);
         }
 
-        @Hidden @Model
-        StructBindingsStore structBindingsStore(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(StructBindingsStore.class);
+        @Override
+        public DynamicInvokeResult trySetProperty(String name, Object value) {
+            DynamicObject delegate = getDelegate();
+            return delegate == null ? DynamicInvokeResult.notFound() : delegate.trySetProperty(name, value);
         }
 
-        @Hidden @Model
-        NodeInitializerRegistry nodeInitializerRegistry(ModelSchemaStore schemaStore, StructBindingsStore structBindingsStore) {
-            return new DefaultNodeInitializerRegistry(schemaStore, structBindingsStore);
+        @Override
+        public Map<String, ?> getProperties() {
+            DynamicObject delegate = getDelegate();
+            return delegate == null ? Collections.<String, Object>emptyMap() : delegate.getProperties();
         }
 
-        @Hidden @Model
-        TypeConverter typeConverter(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(TypeConverter.class);
+        @Override
+        public boolean hasMethod(String name, Object... arguments) {
+            DynamicObject delegate = getDelegate();
+            return delegate != null && delegate.hasMethod(name, arguments);
         }
 
-        @Hidden @Model
-        FileOperations fileOperations(ServiceRegistry serviceRegistry) {
-            return serviceRegistry.get(FileOperations.class);
+        @Override
+        public DynamicInvokeResult tryInvokeMethod(String name, Object... arguments) {
+            DynamicObject delegate = getDelegate();
+            return delegate == null ? DynamicInvokeResult.notFound() : delegate.tryInvokeMethod(name, arguments);
         }
     }
 
-    private void populateModelRegistry(ModelRegistry modelRegistry) {
-        registerServiceOn(modelRegistry, "serviceRegistry", SERVICE_REGISTRY_MODEL_TYPE, services, instanceDescriptorFor("serviceRegistry"));
-        // TODO:LPTR This ignores changes to Project.buildDir after model node has been created
-        registerFactoryOn(modelRegistry, "buildDir", FILE_MODEL_TYPE, new Factory<File>() {
-            @Override
-            public File create() {
-                return getBuildDir();
-            }
-        });
-        registerInstanceOn(modelRegistry, "projectIdentifier", PROJECT_IDENTIFIER_MODEL_TYPE, this);
-        registerInstanceOn(modelRegistry, "extensionContainer", EXTENSION_CONTAINER_MODEL_TYPE, getExtensions());
-        modelRegistry.getRoot().applyToSelf(BasicServicesRules.class);
-    }
-
-    private <T> void registerInstanceOn(ModelRegistry modelRegistry, String path, ModelType<T> type, T instance) {
-        registerFactoryOn(modelRegistry, path, type, Factories.constant(instance));
-    }
-
-    private <T> void registerFactoryOn(ModelRegistry modelRegistry, String path, ModelType<T> type, Factory<T> factory) {
-        modelRegistry.register(ModelRegistrations
-            .unmanagedInstance(ModelReference.of(path, type), factory)
-            .descriptor(instanceDescriptorFor(path))
-            .hidden(true)
-            .build());
-    }
-
-    private <T> void registerServiceOn(ModelRegistry modelRegistry, String path, ModelType<T> type, T instance, String descriptor) {
-        modelRegistry.register(ModelRegistrations.serviceInstance(ModelReference.of(path, type), instance)
-            .descriptor(descriptor)
-            .build()
-        );
-    }
-
-    private String instanceDescriptorFor(String path) {
-        return "Project.<init>." + path + "()";
-    }
-
     @Override
     public ProjectInternal getRootProject() {
         return rootProject;
@@ -665,7 +617,17 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public TaskContainerInternal getTasks() {
-        return taskContainer;
+        TaskContainerInternal tasks = taskContainer;
+        if (tasks == null) {
+            synchronized (taskContainerLock) {
+                tasks = taskContainer;
+                if (tasks == null) {
+                    tasks = services.newInstance(TaskContainerInternal.class);
+                    taskContainer = tasks;
+                }
+            }
+        }
+        return tasks;
     }
 
     @Override
@@ -1164,16 +1126,16 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(String task) {
-        return taskContainer.create(task);
+        return getTasks().create(task);
     }
 
     public Task task(Object task) {
-        return taskContainer.create(task.toString());
+        return getTasks().create(task.toString());
     }
 
     @Override
     public Task task(String task, Closure configureClosure) {
-        return taskContainer.create(task).configure(configureClosure);
+        return getTasks().create(task).configure(configureClosure);
     }
 
     public Task task(Object task, Closure configureClosure) {
@@ -1182,7 +1144,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(Map options, String task) {
-        return taskContainer.create(addMaps(options, singletonMap(Task.TASK_NAME, task)));
+        return getTasks().create(addMaps(options, singletonMap(Task.TASK_NAME, task)));
     }
 
     public Task task(Map options, Object task) {
@@ -1191,7 +1153,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Task task(Map options, String task, Closure configureClosure) {
-        return taskContainer.create(addMaps(options, singletonMap(Task.TASK_NAME, task))).configure(configureClosure);
+        return getTasks().create(addMaps(options, singletonMap(Task.TASK_NAME, task))).configure(configureClosure);
     }
 
     public Task task(Map options, Object task, Closure configureClosure) {
@@ -1205,11 +1167,11 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         throw new UnsupportedOperationException();
     }
 
-    @Inject
     @Override
     public ModelRegistry getModelRegistry() {
-        // Decoration takes care of the implementation
-        throw new UnsupportedOperationException();
+        // The task container contributes the 'tasks' element, so make sure it exists before the model is used
+        getTasks();
+        return services.get(ModelRegistry.class);
     }
 
     @Inject
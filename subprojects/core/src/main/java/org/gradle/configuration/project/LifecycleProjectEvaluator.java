@@ -35,10 +35,19 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private final BuildOperationExecutor buildOperationExecutor;
     private final ProjectEvaluator delegate;
+    private final boolean notifyListenersInOperations;
 
     public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate) {
+        this(buildOperationExecutor, delegate, false);
+    }
+
+    /**
+     * @param notifyListenersInOperations whether to notify the project evaluation listeners in their own build operations, so that their cost can be profiled separately.
+     */
+    public LifecycleProjectEvaluator(BuildOperationExecutor buildOperationExecutor, ProjectEvaluator delegate, boolean notifyListenersInOperations) {
         this.buildOperationExecutor = buildOperationExecutor;
         this.delegate = delegate;
+        this.notifyListenersInOperations = notifyListenersInOperations;
     }
 
     public void evaluate(final ProjectInternal project, final ProjectStateInternal state) {
@@ -52,7 +61,11 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
     private void doConfigure(ProjectInternal project, ProjectStateInternal state) {
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
         try {
-            listener.beforeEvaluate(project);
+            if (notifyListenersInOperations) {
+                buildOperationExecutor.run(new NotifyBeforeEvaluate(listener, project));
+            } else {
+                listener.beforeEvaluate(project);
+            }
         } catch (Exception e) {
             addConfigurationFailure(project, state, e);
             return;
@@ -72,7 +85,11 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private void notifyAfterEvaluate(ProjectEvaluationListener listener, ProjectInternal project, ProjectStateInternal state) {
         try {
-            listener.afterEvaluate(project, state);
+            if (notifyListenersInOperations) {
+                buildOperationExecutor.run(new NotifyAfterEvaluate(listener, project, state));
+            } else {
+                listener.afterEvaluate(project, state);
+            }
         } catch (Exception e) {
             if (state.hasFailure()) {
                 // Just log this failure, and pass the existing failure out in the project state
@@ -114,4 +131,54 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
         }
 
     }
+
+    private static class NotifyBeforeEvaluate implements RunnableBuildOperation {
+
+        private final ProjectEvaluationListener listener;
+        private final ProjectInternal project;
+
+        private NotifyBeforeEvaluate(ProjectEvaluationListener listener, ProjectInternal project) {
+            this.listener = listener;
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            listener.beforeEvaluate(project);
+            context.setResult(NotifyProjectEvaluationListenersBuildOperationType.RESULT);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Notify beforeEvaluate listeners of " + project.getIdentityPath())
+                .details(new NotifyProjectEvaluationListenersBuildOperationType.DetailsImpl(project.getProjectPath(), project.getGradle().getIdentityPath(), "beforeEvaluate"));
+        }
+
+    }
+
+    private static class NotifyAfterEvaluate implements RunnableBuildOperation {
+
+        private final ProjectEvaluationListener listener;
+        private final ProjectInternal project;
+        private final ProjectStateInternal state;
+
+        private NotifyAfterEvaluate(ProjectEvaluationListener listener, ProjectInternal project, ProjectStateInternal state) {
+            this.listener = listener;
+            this.project = project;
+            this.state = state;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            listener.afterEvaluate(project, state);
+            context.setResult(NotifyProjectEvaluationListenersBuildOperationType.RESULT);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Notify afterEvaluate listeners of " + project.getIdentityPath())
+                .details(new NotifyProjectEvaluationListenersBuildOperationType.DetailsImpl(project.getProjectPath(), project.getGradle().getIdentityPath(), "afterEvaluate"));
+        }
+
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration.project;
+
+import org.gradle.internal.operations.BuildOperationType;
+import org.gradle.util.Path;
+
+/**
+ * Execution of a project's beforeEvaluate or afterEvaluate hooks, including those registered by plugins.
+ *
+ * Only fires when the resource usage of build operations is being traced.
+ *
+ * @since 4.2
+ */
+public final class NotifyProjectEvaluationListenersBuildOperationType implements BuildOperationType<NotifyProjectEvaluationListenersBuildOperationType.Details, NotifyProjectEvaluationListenersBuildOperationType.Result> {
+
+    public interface Details {
+
+        String getProjectPath();
+
+        String getBuildPath();
+
+        /**
+         * Either "beforeEvaluate" or "afterEvaluate".
+         */
+        String getHook();
+
+    }
+
+    public interface Result {
+
+    }
+
+    static class DetailsImpl implements Details {
+
+        private final Path buildPath;
+        private final Path projectPath;
+        private final String hook;
+
+        DetailsImpl(Path projectPath, Path buildPath, String hook) {
+            this.projectPath = projectPath;
+            this.buildPath = buildPath;
+            this.hook = hook;
+        }
+
+        public String getProjectPath() {
+            return projectPath.getPath();
+        }
+
+        public String getBuildPath() {
+            return buildPath.getPath();
+        }
+
+        public String getHook() {
+            return hook;
+        }
+
+    }
+
+    final static Result RESULT = new Result() {
+    };
+
+    private NotifyProjectEvaluationListenersBuildOperationType() {
+    }
+
+}
@@ -16,10 +16,28 @@
 
 package org.gradle.internal.operations.logging;
 
+import java.io.File;
+import java.io.InputStream;
+
 public interface BuildOperationLogger {
     void start();
     void operationSuccess(String description, String output);
     void operationFailed(String description, String output);
+
+    /**
+     * Same as {@link #operationSuccess(String, String)}, but reads the output only as far as the current log level needs it. Closes the given stream.
+     */
+    void operationSuccess(String description, InputStream output);
+
+    /**
+     * Same as {@link #operationFailed(String, String)}, but reads the output only as far as the current log level needs it. Closes the given stream.
+     */
+    void operationFailed(String description, InputStream output);
     void done();
     String getLogLocation();
+
+    /**
+     * Returns the temporary directory of the task the operations belong to, where operations can keep their output until it has been logged.
+     */
+    File getTempDir();
 }
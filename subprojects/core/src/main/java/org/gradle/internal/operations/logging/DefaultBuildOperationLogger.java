@@ -25,6 +25,8 @@ import org.gradle.internal.logging.ConsoleRenderer;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
 
 class DefaultBuildOperationLogger implements BuildOperationLogger {
@@ -77,6 +79,29 @@ class DefaultBuildOperationLogger implements BuildOperationLogger {
         maybeShowFailure(output);
     }
 
+    @Override
+    public synchronized void operationSuccess(String description, InputStream output) {
+        assert started;
+        logInBoth(LogLevel.DEBUG, description.concat(" successful."));
+        if (logger.isInfoEnabled()) {
+            maybeShowSuccess(readAsString(output));
+        } else {
+            copyToLog(output);
+        }
+    }
+
+    @Override
+    public synchronized void operationFailed(String description, InputStream output) {
+        assert started;
+        logInBoth(LogLevel.DEBUG, description.concat(" failed."));
+        if (numberOfFailedOperationsSeen < configuration.getMaximumFailedOperationsShown()) {
+            maybeShowFailure(readAsString(output));
+        } else {
+            copyToLog(output);
+            numberOfFailedOperationsSeen++;
+        }
+    }
+
     @Override
     public void done() {
         assert started;
@@ -105,11 +130,40 @@ class DefaultBuildOperationLogger implements BuildOperationLogger {
         numberOfFailedOperationsSeen++;
     }
 
+    private static String readAsString(InputStream output) {
+        try {
+            return IOUtils.toString(output);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            IOUtils.closeQuietly(output);
+        }
+    }
+
+    /**
+     * Streams output that is not shown on the console straight into the log file, without holding all of it in memory.
+     */
+    private void copyToLog(InputStream output) {
+        try {
+            IOUtils.copy(new InputStreamReader(output), logWriter);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            IOUtils.closeQuietly(output);
+        }
+        logWriter.println();
+    }
+
     private void logInBoth(LogLevel logLevel, String message) {
         logger.log(logLevel, message);
         logWriter.println(message);
     }
 
+    @Override
+    public File getTempDir() {
+        return outputFile.getParentFile();
+    }
+
     public String getLogLocation() {
         return new ConsoleRenderer().asClickableFileUrl(configuration.getOutputFile());
     }
@@ -35,6 +35,8 @@ public final class BuildOperationRecord {
     public final Map<String, ?> result;
     private final String resultClassName;
     public final String failure;
+    public final Long cpuTime;
+    public final Long allocatedBytes;
 
     public final List<BuildOperationRecord> children;
 
@@ -49,6 +51,8 @@ public final class BuildOperationRecord {
         Map<String, ?> result,
         String resultClassName,
         String failure,
+        Long cpuTime,
+        Long allocatedBytes,
         List<BuildOperationRecord> children
     ) {
         this.id = id;
@@ -61,6 +65,8 @@ public final class BuildOperationRecord {
         this.result = result == null ? null : new StrictMap<String, Object>(result);
         this.resultClassName = resultClassName;
         this.failure = failure;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
         this.children = children;
     }
 
@@ -92,6 +98,14 @@ public final class BuildOperationRecord {
             map.put("failure", failure);
         }
 
+        if (cpuTime != null) {
+            map.put("cpuTime", cpuTime);
+        }
+
+        if (allocatedBytes != null) {
+            map.put("allocatedBytes", allocatedBytes);
+        }
+
         if (!children.isEmpty()) {
             map.put("children", Lists.transform(children, new Function<BuildOperationRecord, Map<String, ?>>() {
                 @Override
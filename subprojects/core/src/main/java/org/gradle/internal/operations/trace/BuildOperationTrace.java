@@ -63,6 +63,11 @@ import static org.gradle.internal.Cast.uncheckedCast;
  * Generally, the simplified tree view is best for browsing.
  * The JSON tree view can be used for more detailed analysis — open in a JSON tree viewer, like Chrome.
  *
+ * When also invoked with `-Dorg.gradle.internal.operations.trace.resources`, the CPU time and allocated bytes of each operation are recorded,
+ * and a further file is created:
+ *
+ * - «path-base»-profile.txt: the cost of script plugins, plugins, evaluation listeners and dependency resolution, most expensive first
+ *
  * The «path-base» param is optional.
  * If invoked as `-Dorg.gradle.internal.operations.trace`, a base value of "operations" will be used.
  *
@@ -75,8 +80,10 @@ import static org.gradle.internal.Cast.uncheckedCast;
 public class BuildOperationTrace implements Stoppable {
 
     public static final String SYSPROP = "org.gradle.internal.operations.trace";
+    public static final String RESOURCES_SYSPROP = "org.gradle.internal.operations.trace.resources";
 
     private final String basePath;
+    private final boolean recordResourceUsage;
     private final OutputStream logOutputStream;
     private final BuildOperationListenerManager listenerManager;
 
@@ -93,9 +100,11 @@ public class BuildOperationTrace implements Stoppable {
 
         this.basePath = basePath;
         if (this.basePath == null) {
+            this.recordResourceUsage = false;
             this.logOutputStream = null;
             return;
         }
+        this.recordResourceUsage = sysProps.containsKey(RESOURCES_SYSPROP) || System.getProperty(RESOURCES_SYSPROP) != null;
 
         try {
             File logFile = logFile(basePath);
@@ -111,11 +120,18 @@ public class BuildOperationTrace implements Stoppable {
             throw UncheckedException.throwAsUncheckedException(e);
         }
 
-        listener = new SerializingBuildOperationListener(logOutputStream);
+        listener = new SerializingBuildOperationListener(logOutputStream, recordResourceUsage ? new ThreadResourceUsage() : null);
         listenerManager.addListener(listener);
     }
 
 
+    /**
+     * Returns true when the CPU time and allocated bytes of build operations are being traced, to profile the configuration of the build.
+     */
+    public boolean isRecordingResourceUsage() {
+        return recordResourceUsage;
+    }
+
     @Override
     public void stop() {
         if (listener != null) {
@@ -129,6 +145,9 @@ public class BuildOperationTrace implements Stoppable {
                 final List<BuildOperationRecord> roots = readLogToTreeRoots(logFile(basePath));
                 writeDetailTree(roots);
                 writeSummaryTree(roots);
+                if (recordResourceUsage) {
+                    new ConfigurationProfileReport(roots).writeTo(file(basePath, "-profile.txt"));
+                }
             } catch (IOException e) {
                 throw UncheckedException.throwAsUncheckedException(e);
             }
@@ -191,7 +210,18 @@ public class BuildOperationTrace implements Stoppable {
 
                         stringBuilder.append(" [");
                         stringBuilder.append(record.endTime - record.startTime);
-                        stringBuilder.append("ms]");
+                        stringBuilder.append("ms");
+                        if (record.cpuTime != null) {
+                            stringBuilder.append(", cpu ");
+                            stringBuilder.append(record.cpuTime);
+                            stringBuilder.append("ms");
+                        }
+                        if (record.allocatedBytes != null) {
+                            stringBuilder.append(", allocated ");
+                            stringBuilder.append(record.allocatedBytes / 1024);
+                            stringBuilder.append("kB");
+                        }
+                        stringBuilder.append("]");
 
                         stringBuilder.append(" (");
                         stringBuilder.append(record.id);
@@ -254,6 +284,8 @@ public class BuildOperationTrace implements Stoppable {
                             resultMap == null ? null : Collections.unmodifiableMap(resultMap),
                             finish.resultClassName,
                             finish.failureMsg,
+                            finish.cpuTime,
+                            finish.allocatedBytes,
                             children
                         );
 
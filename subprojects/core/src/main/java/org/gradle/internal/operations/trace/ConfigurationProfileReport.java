@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.gradle.api.internal.artifacts.configurations.ResolveConfigurationDependenciesBuildOperationType;
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType;
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType;
+import org.gradle.configuration.project.NotifyProjectEvaluationListenersBuildOperationType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summarizes the cost of the build operations that make up build configuration, using the resource usage recorded in the trace.
+ */
+class ConfigurationProfileReport {
+
+    private static final String SCRIPT_PLUGINS = "Script plugins";
+    private static final String PLUGINS = "Plugins";
+    private static final String EVALUATION_LISTENERS = "Project evaluation listeners";
+    private static final String DEPENDENCY_RESOLUTION = "Dependency resolution";
+
+    private static final Comparator<BuildOperationRecord> MOST_EXPENSIVE_FIRST = new Comparator<BuildOperationRecord>() {
+        @Override
+        public int compare(BuildOperationRecord o1, BuildOperationRecord o2) {
+            int result = compareNullable(o2.cpuTime, o1.cpuTime);
+            if (result != 0) {
+                return result;
+            }
+            return compareNullable(o2.endTime - o2.startTime, o1.endTime - o1.startTime);
+        }
+
+        private int compareNullable(Long l1, Long l2) {
+            long v1 = l1 == null ? -1 : l1;
+            long v2 = l2 == null ? -1 : l2;
+            return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+        }
+    };
+
+    private final Map<String, List<BuildOperationRecord>> categories = new LinkedHashMap<String, List<BuildOperationRecord>>();
+
+    ConfigurationProfileReport(List<BuildOperationRecord> roots) {
+        categories.put(SCRIPT_PLUGINS, new ArrayList<BuildOperationRecord>());
+        categories.put(PLUGINS, new ArrayList<BuildOperationRecord>());
+        categories.put(EVALUATION_LISTENERS, new ArrayList<BuildOperationRecord>());
+        categories.put(DEPENDENCY_RESOLUTION, new ArrayList<BuildOperationRecord>());
+        collect(roots);
+    }
+
+    private void collect(List<BuildOperationRecord> records) {
+        for (BuildOperationRecord record : records) {
+            String category = categoryOf(record);
+            if (category != null) {
+                categories.get(category).add(record);
+            }
+            collect(record.children);
+        }
+    }
+
+    private static String categoryOf(BuildOperationRecord record) {
+        Class<?> detailsType;
+        try {
+            detailsType = record.getDetailsType();
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (detailsType == null) {
+            return null;
+        }
+        if (ApplyScriptPluginBuildOperationType.Details.class.isAssignableFrom(detailsType)) {
+            return SCRIPT_PLUGINS;
+        }
+        if (ApplyPluginBuildOperationType.Details.class.isAssignableFrom(detailsType)) {
+            return PLUGINS;
+        }
+        if (NotifyProjectEvaluationListenersBuildOperationType.Details.class.isAssignableFrom(detailsType)) {
+            return EVALUATION_LISTENERS;
+        }
+        if (ResolveConfigurationDependenciesBuildOperationType.Details.class.isAssignableFrom(detailsType)) {
+            return DEPENDENCY_RESOLUTION;
+        }
+        return null;
+    }
+
+    void writeTo(File file) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        lines.add("CPU time and allocations include nested operations executed on the same thread.");
+        for (Map.Entry<String, List<BuildOperationRecord>> entry : categories.entrySet()) {
+            List<BuildOperationRecord> records = entry.getValue();
+            Collections.sort(records, MOST_EXPENSIVE_FIRST);
+            long wallTime = 0;
+            long cpuTime = 0;
+            long allocatedBytes = 0;
+            for (BuildOperationRecord record : records) {
+                wallTime += record.endTime - record.startTime;
+                cpuTime += record.cpuTime == null ? 0 : record.cpuTime;
+                allocatedBytes += record.allocatedBytes == null ? 0 : record.allocatedBytes;
+            }
+            lines.add("");
+            lines.add(String.format("%s (%d operations): %s", entry.getKey(), records.size(), format(wallTime, cpuTime, allocatedBytes)));
+            for (BuildOperationRecord record : records) {
+                long recordCpuTime = record.cpuTime == null ? 0 : record.cpuTime;
+                long recordAllocatedBytes = record.allocatedBytes == null ? 0 : record.allocatedBytes;
+                lines.add(String.format("  %s  %s", format(record.endTime - record.startTime, recordCpuTime, recordAllocatedBytes), record.displayName));
+            }
+        }
+        Files.asCharSink(file, Charsets.UTF_8).writeLines(lines);
+    }
+
+    private static String format(long wallTime, long cpuTime, long allocatedBytes) {
+        return String.format("%8dms wall %8dms cpu %10dkB allocated", wallTime, cpuTime, allocatedBytes / 1024);
+    }
+}
@@ -21,6 +21,7 @@ import org.gradle.internal.logging.events.OperationIdentifier;
 import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.gradle.internal.progress.OperationFinishEvent;
 
+import javax.annotation.Nullable;
 import java.util.Map;
 
 class SerializedOperationFinish {
@@ -34,12 +35,17 @@ class SerializedOperationFinish {
 
     final String failureMsg;
 
-    SerializedOperationFinish(BuildOperationDescriptor descriptor, OperationFinishEvent finishEvent) {
+    final Long cpuTime;
+    final Long allocatedBytes;
+
+    SerializedOperationFinish(BuildOperationDescriptor descriptor, OperationFinishEvent finishEvent, @Nullable Long cpuTime, @Nullable Long allocatedBytes) {
         this.id = ((OperationIdentifier) descriptor.getId()).getId();
         this.endTime = finishEvent.getEndTime();
         this.result = finishEvent.getResult();
         this.resultClassName = result == null ? null : finishEvent.getResult().getClass().getName();
         this.failureMsg = finishEvent.getFailure() == null ? null : finishEvent.getFailure().toString();
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
     }
 
     SerializedOperationFinish(Map<String, ?> map) {
@@ -48,6 +54,12 @@ class SerializedOperationFinish {
         this.result = map.get("result");
         this.resultClassName = (String) map.get("resultClassName");
         this.failureMsg = (String) map.get("failure");
+        this.cpuTime = toLong(map.get("cpuTime"));
+        this.allocatedBytes = toLong(map.get("allocatedBytes"));
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
     }
 
     Map<String, ?> toMap() {
@@ -68,6 +80,14 @@ class SerializedOperationFinish {
 
         map.put("endTime", endTime);
 
+        if (cpuTime != null) {
+            map.put("cpuTime", cpuTime);
+        }
+
+        if (allocatedBytes != null) {
+            map.put("allocatedBytes", allocatedBytes);
+        }
+
         return map.build();
     }
 
@@ -23,13 +23,18 @@ import org.gradle.internal.progress.BuildOperationListener;
 import org.gradle.internal.progress.OperationFinishEvent;
 import org.gradle.internal.progress.OperationStartEvent;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Note: this is relying on Gradle's listener infrastructure serializing dispatch
  * and prevent concurrent invocations of started/finished.
+ *
+ * When given a {@link ThreadResourceUsage}, also records the CPU time and allocated bytes of each operation.
+ * These include the usage of any child operations executed on the same thread.
  */
 class SerializingBuildOperationListener implements BuildOperationListener {
 
@@ -37,19 +42,36 @@ class SerializingBuildOperationListener implements BuildOperationListener {
     private static final byte[] INDENT = "    ".getBytes();
 
     private OutputStream out;
+    private final ThreadResourceUsage resourceUsage;
+    private final Map<Object, ThreadResourceUsage.Sample> startSamples = new HashMap<Object, ThreadResourceUsage.Sample>();
 
-    SerializingBuildOperationListener(OutputStream out) {
+    SerializingBuildOperationListener(OutputStream out, @Nullable ThreadResourceUsage resourceUsage) {
         this.out = out;
+        this.resourceUsage = resourceUsage;
     }
 
     @Override
     public void started(BuildOperationDescriptor buildOperation, OperationStartEvent startEvent) {
         write(new SerializedOperationStart(buildOperation, startEvent).toMap(), false);
+        if (resourceUsage != null) {
+            // Sample after writing, so that the cost of writing the log is not attributed to the operation
+            startSamples.put(buildOperation.getId(), resourceUsage.sample());
+        }
     }
 
     @Override
     public void finished(BuildOperationDescriptor buildOperation, OperationFinishEvent finishEvent) {
-        write(new SerializedOperationFinish(buildOperation, finishEvent).toMap(), true);
+        Long cpuTime = null;
+        Long allocatedBytes = null;
+        if (resourceUsage != null) {
+            ThreadResourceUsage.Sample start = startSamples.remove(buildOperation.getId());
+            if (start != null) {
+                ThreadResourceUsage.Sample end = resourceUsage.sample();
+                cpuTime = end.cpuTimeSince(start);
+                allocatedBytes = end.allocatedBytesSince(start);
+            }
+        }
+        write(new SerializedOperationFinish(buildOperation, finishEvent, cpuTime, allocatedBytes).toMap(), true);
     }
 
     private void write(Map<String, ?> entry, boolean indent) {
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace;
+
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Samples the CPU time and allocated bytes of the current thread, where supported by the JVM.
+ *
+ * The allocated bytes are read through the JDK specific {@code com.sun.management.ThreadMXBean} extension, which is accessed reflectively as it is not available on all JVMs.
+ */
+class ThreadResourceUsage {
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+    private final Method getThreadAllocatedBytes = findGetThreadAllocatedBytes(threadMXBean);
+
+    Sample sample() {
+        Thread thread = Thread.currentThread();
+        long cpuTime = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1;
+        return new Sample(thread.getId(), cpuTime, allocatedBytes(thread));
+    }
+
+    private long allocatedBytes(Thread thread) {
+        if (getThreadAllocatedBytes == null) {
+            return -1;
+        }
+        try {
+            return (Long) getThreadAllocatedBytes.invoke(threadMXBean, thread.getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Nullable
+    private static Method findGetThreadAllocatedBytes(ThreadMXBean threadMXBean) {
+        try {
+            Class<?> extensionType = Class.forName("com.sun.management.ThreadMXBean");
+            if (!extensionType.isInstance(threadMXBean)) {
+                return null;
+            }
+            if (!(Boolean) extensionType.getMethod("isThreadAllocatedMemorySupported").invoke(threadMXBean)) {
+                return null;
+            }
+            return extensionType.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (Exception e) {
+            // Not available on this JVM
+            return null;
+        }
+    }
+
+    static class Sample {
+        final long threadId;
+        final long cpuTimeNanos;
+        final long allocatedBytes;
+
+        Sample(long threadId, long cpuTimeNanos, long allocatedBytes) {
+            this.threadId = threadId;
+            this.cpuTimeNanos = cpuTimeNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * Returns the CPU time in milliseconds used since the given sample, or null when not known.
+         * Operations that finish on a different thread to the one they started on have no usage recorded.
+         */
+        Long cpuTimeSince(Sample start) {
+            if (start.threadId != threadId || cpuTimeNanos < 0) {
+                return null;
+            }
+            return (cpuTimeNanos - start.cpuTimeNanos) / 1000000;
+        }
+
+        Long allocatedBytesSince(Sample start) {
+            if (start.threadId != threadId || allocatedBytes < 0) {
+                return null;
+            }
+            return allocatedBytes - start.allocatedBytes;
+        }
+    }
+}
@@ -23,6 +23,8 @@ import org.gradle.api.internal.attributes.DefaultImmutableAttributesFactory;
 import org.gradle.api.internal.attributes.ImmutableAttributesFactory;
 import org.gradle.api.internal.cache.DefaultGeneratedGradleJarCache;
 import org.gradle.api.internal.cache.GeneratedGradleJarCache;
+import org.gradle.api.internal.cache.GeneratedClassCacheStatisticsReporter;
+import org.gradle.api.internal.cache.PersistentGeneratedClassCache;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.BuildScopeFileTimeStampInspector;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
@@ -143,9 +145,10 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
         ResourceLockCoordinationService resourceLockCoordinationService,
         ParallelismConfigurationManager parallelismConfigurationManager,
         BuildOperationIdFactory buildOperationIdFactory,
-        @SuppressWarnings("unused") BuildOperationTrace buildOperationTrace // required in order to init this
+        @SuppressWarnings("unused") BuildOperationTrace buildOperationTrace, // required in order to init this
+        PersistentGeneratedClassCache generatedClassCache
     ) {
-        return new DefaultBuildOperationExecutor(
+        BuildOperationExecutor buildOperationExecutor = new DefaultBuildOperationExecutor(
             listenerManager.getBroadcaster(BuildOperationListener.class),
             timeProvider, progressLoggerFactory,
             new DefaultBuildOperationQueueFactory(workerLeaseService),
@@ -154,6 +157,8 @@ public class BuildSessionScopeServices extends DefaultServiceRegistry {
             parallelismConfigurationManager,
             buildOperationIdFactory
         );
+        listenerManager.addListener(new GeneratedClassCacheStatisticsReporter(generatedClassCache, buildOperationExecutor));
+        return buildOperationExecutor;
     }
 
     GeneratedGradleJarCache createGeneratedGradleJarCache(CacheRepository cacheRepository) {
@@ -24,6 +24,7 @@ import org.gradle.internal.service.ServiceRegistryBuilder;
 import java.io.Closeable;
 import java.io.File;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -126,6 +127,27 @@ public class DefaultGradleUserHomeScopeServiceRegistry implements GradleUserHome
         throw new IllegalStateException("Gradle user home directory scoped services have already been released.");
     }
 
+    @Override
+    public boolean stopUnusedServices() {
+        CompositeStoppable stoppable = new CompositeStoppable();
+        boolean stopped = false;
+        lock.lock();
+        try {
+            for (Iterator<Services> iterator = servicesForHomeDir.values().iterator(); iterator.hasNext();) {
+                Services services = iterator.next();
+                if (services.count == 0) {
+                    stoppable.add(services.registry);
+                    iterator.remove();
+                    stopped = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        stoppable.stop();
+        return stopped;
+    }
+
     private static class Services {
         private final ServiceRegistry registry;
         private int count;
@@ -220,7 +220,7 @@ public class GlobalScopeServices extends BasicGlobalScopeServices {
         return messagingServices.get(MessagingServer.class);
     }
 
-    ClassGenerator createClassGenerator() {
+    AsmBackedClassGenerator createClassGenerator() {
         return new AsmBackedClassGenerator();
     }
 
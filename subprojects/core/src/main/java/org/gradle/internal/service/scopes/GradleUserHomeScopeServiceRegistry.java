@@ -39,4 +39,11 @@ public interface GradleUserHomeScopeServiceRegistry {
      * Releases a service registry created by {@link #getServicesFor(File)}.
      */
     void release(ServiceRegistry services);
+
+    /**
+     * Stops the shared services that are kept for reuse but are not currently in use by any build invocation, discarding the classloaders and other state they retain.
+     *
+     * @return true if any services were stopped.
+     */
+    boolean stopUnusedServices();
 }
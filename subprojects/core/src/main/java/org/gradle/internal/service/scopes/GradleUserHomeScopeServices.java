@@ -17,10 +17,12 @@
 package org.gradle.internal.service.scopes;
 
 import com.google.common.hash.HashCode;
+import org.gradle.api.internal.AsmBackedClassGenerator;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
 import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory;
+import org.gradle.api.internal.cache.PersistentGeneratedClassCache;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.ClasspathSnapshotter;
@@ -117,6 +119,12 @@ public class GradleUserHomeScopeServices {
         return fileHasher;
     }
 
+    PersistentGeneratedClassCache createGeneratedClassCache(AsmBackedClassGenerator classGenerator, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, ListenerManager listenerManager) {
+        PersistentGeneratedClassCache generatedClassCache = new PersistentGeneratedClassCache(classGenerator, cacheRepository, inMemoryCacheDecoratorFactory);
+        listenerManager.addListener(generatedClassCache);
+        return generatedClassCache;
+    }
+
     CrossBuildInMemoryCachingScriptClassCache createCachingScriptCompiler(FileHasher hasher, CrossBuildInMemoryCacheFactory cacheFactory) {
         return new CrossBuildInMemoryCachingScriptClassCache(hasher, cacheFactory);
     }
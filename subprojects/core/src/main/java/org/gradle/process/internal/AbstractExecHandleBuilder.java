@@ -18,10 +18,12 @@ package org.gradle.process.internal;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.internal.file.PathToFileResolver;
 import org.gradle.process.BaseExecSpec;
+import org.gradle.process.internal.streams.CapturedOutput;
 import org.gradle.process.internal.streams.SafeStreams;
 import org.gradle.process.internal.streams.StreamsForwarder;
 import org.gradle.process.internal.streams.StreamsHandler;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -88,6 +90,18 @@ public abstract class AbstractExecHandleBuilder extends DefaultProcessForkOption
         return errorOutput;
     }
 
+    /**
+     * Captures the standard output and error output of the process with bounded memory, rather than writing them to the current streams.
+     *
+     * @param spillDir the directory to spill output that does not fit in memory to, or null to use the default temporary directory.
+     */
+    public CapturedOutput captureOutput(File spillDir) {
+        CapturedOutput output = new CapturedOutput(spillDir);
+        setStandardOutput(output.getStandardOutput());
+        setErrorOutput(output.getErrorOutput());
+        return output;
+    }
+
     public boolean isIgnoreExitValue() {
         return ignoreExitValue;
     }
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import com.google.common.base.Joiner;
+import org.gradle.api.JavaVersion;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.process.ExecResult;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains the application Class Data Sharing archives for the JVMs that Gradle starts, so that a JVM can map the classes of its system class path from an archive
+ * rather than load them from jars.
+ *
+ * <p>An archive is created in two steps. The first JVM started with a given Java installation and class path records the classes it loads. A later launch with the same
+ * Java installation and class path dumps those classes into an archive, in a short-lived JVM in the background, and the launches after that use the archive.
+ * The archives are kept in the Gradle user home, keyed by the Java installation and the path, size and modification time of each class path entry.</p>
+ *
+ * <p>Only Java 10 is supported: earlier versions only support class data sharing for application classes as a commercial feature.
+ * Directories cannot be archived, so class paths that contain them are not archived either.</p>
+ */
+public class ClassDataSharingArchives {
+    /**
+     * Set to false to disable the use of archives.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.internal.classDataSharing";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassDataSharingArchives.class);
+    private static final String ARCHIVE_FILE_NAME = "classes.jsa";
+    private static final String CLASS_LIST_PREFIX = "classes-";
+    private static final String CLASS_LIST_SUFFIX = ".lst";
+    private static final String TEMP_ARCHIVE_SUFFIX = ".jsa.tmp";
+    // How long a class list must have been left alone before its classes are dumped, so that the recording JVM has finished starting up
+    private static final long CLASS_LIST_QUIET_PERIOD_MILLIS = 10000;
+    private static final long STALE_TEMP_ARCHIVE_MILLIS = 60 * 60 * 1000;
+
+    private final File baseDir;
+    private final boolean enabled;
+    private final Set<File> pendingArchives = new HashSet<File>();
+
+    public ClassDataSharingArchives(File gradleUserHomeDir) {
+        this(new File(gradleUserHomeDir, "caches/" + GradleVersion.current().getVersion() + "/class-data-sharing"), !"false".equals(System.getProperty(ENABLED_PROPERTY)));
+    }
+
+    ClassDataSharingArchives(File baseDir, boolean enabled) {
+        this.baseDir = baseDir;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the JVM arguments that make a new JVM use the archive for its class path, or record the classes to archive. Starts creating the archive when the classes have been recorded.
+     *
+     * @param javaCommand the {@code java} command that starts the JVM.
+     * @param javaVersion the version of the JVM, or null when unknown.
+     * @param classpath the system class path of the JVM, or the part of it that does not change between launches.
+     */
+    public List<String> getJvmArgs(String javaCommand, @Nullable JavaVersion javaVersion, List<File> classpath) {
+        if (!enabled || javaVersion != JavaVersion.VERSION_1_10 || !isArchivable(classpath)) {
+            return Collections.emptyList();
+        }
+        File dir = new File(baseDir, key(javaCommand, classpath));
+        File archive = new File(dir, ARCHIVE_FILE_NAME);
+        if (archive.isFile()) {
+            return Arrays.asList("-XX:+UseAppCDS", "-Xshare:auto", "-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+        }
+        File classList = findClassList(dir);
+        if (classList == null) {
+            GFileUtils.mkdirs(dir);
+            File newClassList = new File(dir, CLASS_LIST_PREFIX + UUID.randomUUID() + CLASS_LIST_SUFFIX);
+            return Arrays.asList("-XX:+UseAppCDS", "-XX:DumpLoadedClassList=" + newClassList.getAbsolutePath());
+        }
+        if (classList.lastModified() < System.currentTimeMillis() - CLASS_LIST_QUIET_PERIOD_MILLIS) {
+            startCreatingArchive(javaCommand, classpath, classList, archive);
+        }
+        return Collections.emptyList();
+    }
+
+    private static boolean isArchivable(List<File> classpath) {
+        if (classpath.isEmpty()) {
+            return false;
+        }
+        for (File file : classpath) {
+            if (!file.isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String javaCommand, List<File> classpath) {
+        StringBuilder builder = new StringBuilder(javaCommand);
+        for (File file : classpath) {
+            builder.append('\n').append(file.getAbsolutePath()).append(':').append(file.length()).append(':').append(file.lastModified());
+        }
+        return HashUtil.createCompactMD5(builder.toString());
+    }
+
+    @Nullable
+    private static File findClassList(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return null;
+        }
+        File largest = null;
+        for (File file : files) {
+            String name = file.getName();
+            if (name.startsWith(CLASS_LIST_PREFIX) && name.endsWith(CLASS_LIST_SUFFIX) && (largest == null || file.length() > largest.length())) {
+                largest = file;
+            }
+        }
+        return largest;
+    }
+
+    private void startCreatingArchive(final String javaCommand, final List<File> classpath, final File classList, final File archive) {
+        synchronized (pendingArchives) {
+            if (!pendingArchives.add(archive)) {
+                return;
+            }
+        }
+        // A daemon thread, so that a short-lived process does not wait for the archive on exit. The archive is created by a later launch in that case.
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    createArchive(javaCommand, classpath, classList, archive);
+                } catch (Exception e) {
+                    LOGGER.debug("Could not create class data sharing archive " + archive + ".", e);
+                } finally {
+                    synchronized (pendingArchives) {
+                        pendingArchives.remove(archive);
+                    }
+                }
+            }
+        }, "Class data sharing archive creator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void createArchive(String javaCommand, List<File> classpath, File classList, File archive) {
+        File dir = archive.getParentFile();
+        deleteStaleTempArchives(dir);
+        File tempArchive = new File(dir, UUID.randomUUID() + TEMP_ARCHIVE_SUFFIX);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DefaultExecHandleBuilder builder = new DefaultExecHandleBuilder();
+        builder.commandLine(javaCommand, "-XX:+UseAppCDS", "-Xshare:dump", "-XX:SharedClassListFile=" + classList.getAbsolutePath(), "-XX:SharedArchiveFile=" + tempArchive.getAbsolutePath(),
+            "-cp", Joiner.on(File.pathSeparator).join(classpath));
+        builder.setWorkingDir(dir);
+        builder.setStandardOutput(output);
+        builder.setErrorOutput(output);
+        builder.setIgnoreExitValue(true);
+        builder.setDisplayName("class data sharing archive creator");
+        ExecResult result = builder.build().start().waitForFinish();
+        // Publish the archive only once complete, so that no JVM maps a partially written one
+        if (result.getExitValue() == 0 && tempArchive.isFile() && tempArchive.renameTo(archive)) {
+            LOGGER.debug("Created class data sharing archive {}.", archive);
+        } else {
+            GFileUtils.deleteQuietly(tempArchive);
+            LOGGER.debug("Could not create class data sharing archive {}. Output:\n{}", archive, output);
+        }
+    }
+
+    private static void deleteStaleTempArchives(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_ARCHIVE_MILLIS;
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_ARCHIVE_SUFFIX) && file.lastModified() < staleBefore) {
+                GFileUtils.deleteQuietly(file);
+            }
+        }
+    }
+}
@@ -18,8 +18,18 @@ package org.gradle.process.internal;
 import org.gradle.api.NonExtensible;
 import org.gradle.process.ExecResult;
 import org.gradle.process.ExecSpec;
+import org.gradle.process.internal.streams.CapturedOutput;
+
+import java.io.File;
 
 @NonExtensible
 public interface ExecAction extends ExecSpec {
     ExecResult execute() throws ExecException;
+
+    /**
+     * Captures the standard output and error output of the process with bounded memory, rather than writing them to the current streams.
+     *
+     * @param spillDir the directory to spill output that does not fit in memory to, or null to use the default temporary directory.
+     */
+    CapturedOutput captureOutput(File spillDir);
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.streams;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * The standard output and error output of a process, captured with bounded memory rather than forwarded as the process produces them.
+ * Each is kept in a {@link SpillingOutputStream}, so only a small window of it is held in memory and the rest goes to a spill file.
+ *
+ * Call {@link #discard()} once the output has been read to remove the spill files.
+ */
+public class CapturedOutput {
+    private final SpillingOutputStream standardOutput;
+    private final SpillingOutputStream errorOutput;
+
+    /**
+     * @param spillDir the directory to create the spill files in, or null to use the default temporary directory.
+     */
+    public CapturedOutput(File spillDir) {
+        this.standardOutput = new SpillingOutputStream(spillDir);
+        this.errorOutput = new SpillingOutputStream(spillDir);
+    }
+
+    public OutputStream getStandardOutput() {
+        return standardOutput;
+    }
+
+    public OutputStream getErrorOutput() {
+        return errorOutput;
+    }
+
+    /**
+     * Opens a stream over the standard output followed by the error output. The output is read lazily, see {@link SpillingOutputStream#openInputStream()}.
+     */
+    public InputStream openInputStream() throws IOException {
+        return new SequenceInputStream(standardOutput.openInputStream(), errorOutput.openInputStream());
+    }
+
+    /**
+     * Drops the captured output and removes the spill files, if any.
+     */
+    public void discard() {
+        standardOutput.discard();
+        errorOutput.discard();
+    }
+}
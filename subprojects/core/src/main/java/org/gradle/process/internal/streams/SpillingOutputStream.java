@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.streams;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Captures the output of a process with bounded memory: output is kept in a small in-memory window until it outgrows the window, after which the window
+ * and all further output are appended to a spill file. The captured output can be read back through {@link #openInputStream()} once the process has finished.
+ *
+ * Call {@link #discard()} when the output is no longer needed to remove the spill file.
+ */
+public class SpillingOutputStream extends OutputStream {
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+
+    private final File spillDir;
+    private final byte[] window;
+    private int windowCount;
+    private File spillFile;
+    private OutputStream spillOutput;
+    private long size;
+    private boolean closed;
+
+    /**
+     * @param spillDir the directory to create the spill file in, or null to use the default temporary directory.
+     */
+    public SpillingOutputStream(File spillDir) {
+        this(spillDir, DEFAULT_WINDOW_SIZE);
+    }
+
+    SpillingOutputStream(File spillDir, int windowSize) {
+        this.spillDir = spillDir;
+        this.window = new byte[windowSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        assertNotClosed();
+        if (windowCount == window.length) {
+            spillWindow();
+        }
+        window[windowCount++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        assertNotClosed();
+        if (windowCount + len > window.length) {
+            spillWindow();
+            if (len >= window.length) {
+                spillOutput.write(b, off, len);
+                size += len;
+                return;
+            }
+        }
+        System.arraycopy(b, off, window, windowCount, len);
+        windowCount += len;
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (spillOutput != null && !closed) {
+            spillWindow();
+            spillOutput.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spillOutput != null && !closed) {
+            spillWindow();
+            spillOutput.close();
+        }
+        closed = true;
+    }
+
+    /**
+     * The number of bytes written to this stream so far.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns true when the output has outgrown the in-memory window and has been written to a spill file.
+     */
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Opens a stream over the output captured so far. The output is read lazily, so only the part of it that the caller consumes is ever loaded into memory.
+     */
+    public InputStream openInputStream() throws IOException {
+        if (spillFile == null) {
+            return new ByteArrayInputStream(window, 0, windowCount);
+        }
+        flush();
+        return new FileInputStream(spillFile);
+    }
+
+    /**
+     * Closes this stream, dropping any output that has not been read, and removes the spill file, if any.
+     */
+    public void discard() {
+        windowCount = 0;
+        if (spillOutput != null) {
+            IOUtils.closeQuietly(spillOutput);
+            spillFile.delete();
+            spillFile = null;
+            spillOutput = null;
+        }
+        closed = true;
+    }
+
+    private void assertNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("Cannot write to a closed stream.");
+        }
+    }
+
+    private void spillWindow() throws IOException {
+        assertNotClosed();
+        if (spillOutput == null) {
+            spillFile = File.createTempFile("output", ".bin", spillDir);
+            spillOutput = new FileOutputStream(spillFile);
+        }
+        spillOutput.write(window, 0, windowCount);
+        windowCount = 0;
+    }
+}
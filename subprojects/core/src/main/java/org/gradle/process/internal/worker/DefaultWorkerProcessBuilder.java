@@ -18,12 +18,14 @@ package org.gradle.process.internal.worker;
 
 import org.gradle.api.Action;
 import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.Factory;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.internal.remote.Address;
 import org.gradle.internal.remote.ConnectionAcceptor;
 import org.gradle.internal.remote.MessagingServer;
 import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.internal.inet.TcpOutgoingConnector;
 import org.gradle.process.ExecResult;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.process.internal.JavaExecHandleBuilder;
@@ -40,6 +42,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -57,6 +60,7 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
     private final Set<String> packages = new HashSet<String>();
     private final Set<File> applicationClasspath = new LinkedHashSet<File>();
     private final MemoryManager memoryManager;
+    private final Factory<ReusableWorkerProcessPool> processPoolFactory;
     private Action<? super WorkerProcessContext> action;
     private LogLevel logLevel = LogLevel.LIFECYCLE;
     private String baseName = "Gradle Worker";
@@ -64,14 +68,16 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
     private int connectTimeoutSeconds;
     private List<URL> implementationClassPath;
     private boolean shouldPublishJvmMemoryInfo;
+    private boolean reuseProcess;
 
-    DefaultWorkerProcessBuilder(JavaExecHandleFactory execHandleFactory, MessagingServer server, IdGenerator<?> idGenerator, ApplicationClassesInSystemClassLoaderWorkerImplementationFactory workerImplementationFactory, OutputEventListener outputEventListener, MemoryManager memoryManager) {
+    DefaultWorkerProcessBuilder(JavaExecHandleFactory execHandleFactory, MessagingServer server, IdGenerator<?> idGenerator, ApplicationClassesInSystemClassLoaderWorkerImplementationFactory workerImplementationFactory, OutputEventListener outputEventListener, MemoryManager memoryManager, Factory<ReusableWorkerProcessPool> processPoolFactory) {
         this.javaCommand = execHandleFactory.newJavaExec();
         this.server = server;
         this.idGenerator = idGenerator;
         this.workerImplementationFactory = workerImplementationFactory;
         this.outputEventListener = outputEventListener;
         this.memoryManager = memoryManager;
+        this.processPoolFactory = processPoolFactory;
     }
 
     public int getConnectTimeoutSeconds() {
@@ -157,24 +163,22 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
         this.shouldPublishJvmMemoryInfo = shouldPublish;
     }
 
+    @Override
+    public void enableProcessReuse(boolean reuseProcess) {
+        this.reuseProcess = reuseProcess;
+    }
+
     @Override
     public WorkerProcess build() {
+        if (reuseProcess && ReusableWorkerProcessPool.canReuse(getJavaCommand())) {
+            return buildReusedProcess();
+        }
+
         final WorkerJvmMemoryStatus memoryStatus = shouldPublishJvmMemoryInfo ? new WorkerJvmMemoryStatus() : null;
         final DefaultWorkerProcess workerProcess = new DefaultWorkerProcess(connectTimeoutSeconds, TimeUnit.SECONDS, memoryStatus);
         ConnectionAcceptor acceptor = server.accept(new Action<ObjectConnection>() {
             public void execute(final ObjectConnection connection) {
-                workerProcess.onConnect(connection, new Runnable() {
-                    @Override
-                    public void run() {
-                        DefaultWorkerLoggingProtocol defaultWorkerLoggingProtocol = new DefaultWorkerLoggingProtocol(outputEventListener);
-                        connection.useParameterSerializers(WorkerLoggingSerializer.create());
-                        connection.addIncoming(WorkerLoggingProtocol.class, defaultWorkerLoggingProtocol);
-                        if (shouldPublishJvmMemoryInfo) {
-                            connection.useParameterSerializers(WorkerJvmMemoryInfoSerializer.create());
-                            connection.addIncoming(WorkerJvmMemoryInfoProtocol.class, memoryStatus);
-                        }
-                    }
-                });
+                workerProcess.onConnect(connection, connectionHandler(connection, memoryStatus));
             }
         });
         workerProcess.startAccepting(acceptor);
@@ -190,6 +194,10 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
 
         JavaExecHandleBuilder javaCommand = getJavaCommand();
         javaCommand.setDisplayName(displayName);
+        if (acceptor.isSharedMemoryAccepted()) {
+            // The worker only offers shared memory when this process accepts it, as the setting is read once when the process starts
+            javaCommand.systemProperty(TcpOutgoingConnector.SHARED_MEMORY_PROPERTY, "true");
+        }
 
         workerImplementationFactory.prepareJavaCommand(id, displayName, this, implementationClassPath, localAddress, javaCommand, shouldPublishJvmMemoryInfo);
 
@@ -201,6 +209,41 @@ public class DefaultWorkerProcessBuilder implements WorkerProcessBuilder {
         return new MemoryRequestingWorkerProcess(workerProcess, memoryManager, MemoryAmount.parseNotation(javaCommand.getMinHeapSize()));
     }
 
+    private WorkerProcess buildReusedProcess() {
+        final WorkerJvmMemoryStatus memoryStatus = shouldPublishJvmMemoryInfo ? new WorkerJvmMemoryStatus() : null;
+        Object id = idGenerator.generateId();
+        String displayName = getBaseName() + " " + id;
+        final ReusedWorkerProcess workerProcess = new ReusedWorkerProcess(processPoolFactory.create(), getJavaCommand(), getBaseName(), displayName, connectTimeoutSeconds, TimeUnit.SECONDS, memoryStatus);
+        ConnectionAcceptor acceptor = server.accept(new Action<ObjectConnection>() {
+            public void execute(final ObjectConnection connection) {
+                workerProcess.onConnect(connection, connectionHandler(connection, memoryStatus));
+            }
+        });
+
+        LOGGER.debug("Creating {} in a reusable worker process", displayName);
+        LOGGER.debug("Using application classpath {}", applicationClasspath);
+        LOGGER.debug("Using implementation classpath {}", implementationClassPath);
+
+        byte[] workerConfig = workerImplementationFactory.createSessionConfig(id, displayName, this, implementationClassPath, acceptor.getAddress(), shouldPublishJvmMemoryInfo);
+        workerProcess.startAccepting(acceptor, new ArrayList<File>(applicationClasspath), workerConfig);
+        return workerProcess;
+    }
+
+    private Runnable connectionHandler(final ObjectConnection connection, final WorkerJvmMemoryStatus memoryStatus) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                DefaultWorkerLoggingProtocol defaultWorkerLoggingProtocol = new DefaultWorkerLoggingProtocol(outputEventListener);
+                connection.useParameterSerializers(WorkerLoggingSerializer.create());
+                connection.addIncoming(WorkerLoggingProtocol.class, defaultWorkerLoggingProtocol);
+                if (shouldPublishJvmMemoryInfo) {
+                    connection.useParameterSerializers(WorkerJvmMemoryInfoSerializer.create());
+                    connection.addIncoming(WorkerJvmMemoryInfoProtocol.class, memoryStatus);
+                }
+            }
+        };
+    }
+
     private static class MemoryRequestingWorkerProcess implements WorkerProcess {
         private final WorkerProcess delegate;
         private final MemoryManager memoryResourceManager;
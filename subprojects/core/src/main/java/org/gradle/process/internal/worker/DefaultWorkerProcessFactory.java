@@ -20,7 +20,9 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.api.logging.LoggingManager;
+import org.gradle.internal.Factory;
 import org.gradle.internal.classloader.ClasspathUtil;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.logging.events.OutputEventListener;
@@ -31,7 +33,7 @@ import org.gradle.process.internal.worker.child.ApplicationClassesInSystemClassL
 
 import java.io.File;
 
-public class DefaultWorkerProcessFactory implements WorkerProcessFactory {
+public class DefaultWorkerProcessFactory implements WorkerProcessFactory, Stoppable {
 
     private final LoggingManager loggingManager;
     private final MessagingServer server;
@@ -41,6 +43,8 @@ public class DefaultWorkerProcessFactory implements WorkerProcessFactory {
     private final OutputEventListener outputEventListener;
     private final ApplicationClassesInSystemClassLoaderWorkerImplementationFactory workerImplementationFactory;
     private final MemoryManager memoryManager;
+    private final Object processPoolLock = new Object();
+    private ReusableWorkerProcessPool processPool;
     private int connectTimeoutSeconds = 120;
 
     public DefaultWorkerProcessFactory(LoggingManager loggingManager, MessagingServer server, ClassPathRegistry classPathRegistry, IdGenerator<?> idGenerator,
@@ -79,10 +83,39 @@ public class DefaultWorkerProcessFactory implements WorkerProcessFactory {
     }
 
     private DefaultWorkerProcessBuilder newWorkerProcessBuilder() {
-        DefaultWorkerProcessBuilder builder = new DefaultWorkerProcessBuilder(execHandleFactory, server, idGenerator, workerImplementationFactory, outputEventListener, memoryManager);
+        DefaultWorkerProcessBuilder builder = new DefaultWorkerProcessBuilder(execHandleFactory, server, idGenerator, workerImplementationFactory, outputEventListener, memoryManager, new Factory<ReusableWorkerProcessPool>() {
+            @Override
+            public ReusableWorkerProcessPool create() {
+                return getProcessPool();
+            }
+        });
         builder.setLogLevel(loggingManager.getLevel());
         builder.setGradleUserHomeDir(gradleUserHomeDir);
         builder.setConnectTimeoutSeconds(connectTimeoutSeconds);
         return builder;
     }
+
+    /**
+     * Returns the pool of reusable worker processes, creating it when a worker first asks to run in a reused process.
+     */
+    private ReusableWorkerProcessPool getProcessPool() {
+        synchronized (processPoolLock) {
+            if (processPool == null) {
+                processPool = new ReusableWorkerProcessPool(this, memoryManager);
+            }
+            return processPool;
+        }
+    }
+
+    @Override
+    public void stop() {
+        ReusableWorkerProcessPool pool;
+        synchronized (processPoolLock) {
+            pool = processPool;
+            processPool = null;
+        }
+        if (pool != null) {
+            pool.stop();
+        }
+    }
 }
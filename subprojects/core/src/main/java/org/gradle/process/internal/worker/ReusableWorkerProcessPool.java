@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.worker.child.WorkerHost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps worker processes alive after their worker has completed, so that they can run later workers that need a JVM with the same configuration.
+ * Processes are retired once they have run {@link #MAX_USES} workers, or when they report that they are no longer healthy. Idle processes are
+ * stopped when the {@link MemoryManager} asks for memory to be released.
+ */
+public class ReusableWorkerProcessPool implements Stoppable, MemoryHolder {
+    private static final Logger LOGGER = Logging.getLogger(ReusableWorkerProcessPool.class);
+    static final int MAX_USES = 100;
+
+    private final Object lock = new Object();
+    private final WorkerProcessFactory workerProcessFactory;
+    private final MemoryManager memoryManager;
+    private final ManagedExecutor executor;
+    private final int maxIdleProcesses;
+    private final List<WorkerHostClient> allHosts = new ArrayList<WorkerHostClient>();
+    private final List<WorkerHostClient> idleHosts = new ArrayList<WorkerHostClient>();
+
+    public ReusableWorkerProcessPool(WorkerProcessFactory workerProcessFactory, MemoryManager memoryManager) {
+        this.workerProcessFactory = workerProcessFactory;
+        this.memoryManager = memoryManager;
+        this.executor = new DefaultExecutorFactory().create("Reusable worker process watcher");
+        this.maxIdleProcesses = Runtime.getRuntime().availableProcessors();
+        memoryManager.addMemoryHolder(this);
+    }
+
+    /**
+     * Returns whether a worker with the given JVM configuration can run in a reusable worker process. Java and native agents instrument or
+     * observe the whole JVM, so their state would carry over from one worker to the next.
+     */
+    public static boolean canReuse(JavaExecHandleBuilder javaCommand) {
+        for (String jvmArg : javaCommand.getAllJvmArgs()) {
+            if (jvmArg.startsWith("-javaagent:") || jvmArg.startsWith("-agentlib:") || jvmArg.startsWith("-agentpath:")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns an idle worker process whose JVM was started with the same configuration as the given command, starting a new one if there is none.
+     */
+    WorkerHostClient reserve(JavaExecHandleBuilder javaCommand, String baseName) {
+        Object key = keyFor(javaCommand);
+        List<WorkerHostClient> discarded = new ArrayList<WorkerHostClient>();
+        try {
+            synchronized (lock) {
+                Iterator<WorkerHostClient> iterator = idleHosts.iterator();
+                while (iterator.hasNext()) {
+                    WorkerHostClient host = iterator.next();
+                    if (host.getKey().equals(key)) {
+                        iterator.remove();
+                        if (host.isReusable()) {
+                            LOGGER.debug("Reusing {}.", host);
+                            return host;
+                        }
+                        allHosts.remove(host);
+                        discarded.add(host);
+                    }
+                }
+            }
+        } finally {
+            CompositeStoppable.stoppable(discarded).stop();
+        }
+
+        WorkerProcessBuilder builder = workerProcessFactory.create(new WorkerHost());
+        builder.setBaseName(baseName + " Host");
+        JavaExecHandleBuilder hostCommand = builder.getJavaCommand();
+        hostCommand.setExecutable(javaCommand.getExecutable());
+        hostCommand.setWorkingDir(javaCommand.getWorkingDir());
+        hostCommand.setEnvironment(javaCommand.getEnvironment());
+        hostCommand.jvmArgs(javaCommand.getAllJvmArgs());
+        WorkerProcess process = builder.build();
+        process.start();
+        WorkerHostClient host = new WorkerHostClient(key, hostCommand.getDisplayName(), MemoryAmount.parseNotation(javaCommand.getMaxHeapSize()), process, executor);
+        synchronized (lock) {
+            allHosts.add(host);
+        }
+        return host;
+    }
+
+    /**
+     * Returns the given worker process to the pool once its worker has completed, or stops it when it should not be reused.
+     */
+    void release(WorkerHostClient host) {
+        synchronized (lock) {
+            if (host.isReusable() && host.getUses() < MAX_USES && idleHosts.size() < maxIdleProcesses) {
+                idleHosts.add(host);
+                return;
+            }
+            allHosts.remove(host);
+        }
+        LOGGER.debug("Stopping {} after {} uses.", host, host.getUses());
+        host.stop();
+    }
+
+    private static Object keyFor(JavaExecHandleBuilder javaCommand) {
+        // The requested SecurityManager is installed when the process starts, rather than by each worker
+        Object securityManager = javaCommand.getSystemProperties().get("java.security.manager");
+        return Arrays.asList(javaCommand.getExecutable(), javaCommand.getWorkingDir(), new HashMap<String, Object>(javaCommand.getEnvironment()), javaCommand.getAllJvmArgs(), String.valueOf(securityManager));
+    }
+
+    /**
+     * Stops idle processes, least recently used first, until their maximum heap sizes add up to the requested amount.
+     */
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        List<WorkerHostClient> toStop = new ArrayList<WorkerHostClient>();
+        long releasedBytes = 0;
+        synchronized (lock) {
+            Iterator<WorkerHostClient> iterator = idleHosts.iterator();
+            while (iterator.hasNext() && releasedBytes < memoryAmountBytes) {
+                WorkerHostClient host = iterator.next();
+                iterator.remove();
+                allHosts.remove(host);
+                toStop.add(host);
+                releasedBytes += Math.max(0, host.getMaxHeapBytes());
+            }
+        }
+        if (!toStop.isEmpty()) {
+            LOGGER.debug("Stopping {} idle reusable worker process(es) to free some system memory.", toStop.size());
+            CompositeStoppable.stoppable(toStop).stop();
+        }
+        return releasedBytes;
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeMemoryHolder(this);
+        List<WorkerHostClient> hosts;
+        synchronized (lock) {
+            hosts = new ArrayList<WorkerHostClient>(allHosts);
+            allHosts.clear();
+            idleHosts.clear();
+        }
+        if (!hosts.isEmpty()) {
+            LOGGER.debug("Stopping {} reusable worker process(es).", hosts.size());
+        }
+        CompositeStoppable.stoppable(hosts).add(executor).stop();
+    }
+}
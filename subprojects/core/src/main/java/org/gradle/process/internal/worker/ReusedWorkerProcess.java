@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.health.memory.JvmMemoryStatus;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+
+/**
+ * A worker that runs as a session in a worker process from a {@link ReusableWorkerProcessPool}. The worker connects back to this process
+ * through its own connection, in the same way as a worker in a new process.
+ */
+class ReusedWorkerProcess implements WorkerProcess, WorkerHostClient.SessionListener {
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final ReusableWorkerProcessPool processPool;
+    private final JavaExecHandleBuilder javaCommand;
+    private final String baseName;
+    private final String displayName;
+    private final long connectTimeout;
+    private final JvmMemoryStatus jvmMemoryStatus;
+    private ConnectionAcceptor acceptor;
+    private List<File> applicationClasspath;
+    private byte[] workerConfig;
+    private WorkerHostClient host;
+    private ObjectConnection connection;
+    private boolean sessionCompleted;
+
+    ReusedWorkerProcess(ReusableWorkerProcessPool processPool, JavaExecHandleBuilder javaCommand, String baseName, String displayName, int connectTimeoutValue, TimeUnit connectTimeoutUnits, @Nullable JvmMemoryStatus jvmMemoryStatus) {
+        this.processPool = processPool;
+        this.javaCommand = javaCommand;
+        this.baseName = baseName;
+        this.displayName = displayName;
+        this.connectTimeout = connectTimeoutUnits.toMillis(connectTimeoutValue);
+        this.jvmMemoryStatus = jvmMemoryStatus;
+    }
+
+    void startAccepting(ConnectionAcceptor acceptor, List<File> applicationClasspath, byte[] workerConfig) {
+        lock.lock();
+        try {
+            this.acceptor = acceptor;
+            this.applicationClasspath = applicationClasspath;
+            this.workerConfig = workerConfig;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onConnect(ObjectConnection connection, Runnable connectionHandler) {
+        ConnectionAcceptor stoppable;
+        lock.lock();
+        try {
+            connectionHandler.run();
+            this.connection = connection;
+            condition.signalAll();
+            stoppable = acceptor;
+        } finally {
+            lock.unlock();
+        }
+
+        if (stoppable != null) {
+            stoppable.requestStop();
+        }
+    }
+
+    @Override
+    public void sessionCompleted() {
+        lock.lock();
+        try {
+            sessionCompleted = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public WorkerProcess start() {
+        try {
+            host = processPool.reserve(javaCommand, baseName);
+            host.runSession(displayName, applicationClasspath, workerConfig, this);
+            awaitConnection();
+        } catch (Throwable t) {
+            cleanup();
+            if (host != null) {
+                processPool.release(host);
+            }
+            throw UncheckedException.throwAsUncheckedException(t);
+        }
+        return this;
+    }
+
+    private void awaitConnection() {
+        Date connectExpiry = new Date(System.currentTimeMillis() + connectTimeout);
+        lock.lock();
+        try {
+            while (connection == null && !sessionCompleted) {
+                try {
+                    if (!condition.awaitUntil(connectExpiry)) {
+                        throw new ExecException(format("Unable to connect to %s running in %s.\n"
+                            + "The connection attempt hit a timeout after %.1f seconds.", displayName, host, ((double) connectTimeout) / 1000));
+                    }
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (connection == null) {
+                host.rethrowSessionFailure(displayName);
+                throw new ExecException(format("Never received a connection from %s running in %s.", displayName, host));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ObjectConnection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public ExecResult waitForStop() {
+        try {
+            host.awaitSessionCompletion();
+            host.rethrowSessionFailure(displayName);
+            return new SessionResult();
+        } finally {
+            cleanup();
+            processPool.release(host);
+        }
+    }
+
+    @Override
+    public JvmMemoryStatus getJvmMemoryStatus() {
+        if (jvmMemoryStatus != null) {
+            return jvmMemoryStatus;
+        } else {
+            throw new UnsupportedOperationException("This worker process does not support reporting JVM memory status.");
+        }
+    }
+
+    private void cleanup() {
+        CompositeStoppable stoppable;
+        lock.lock();
+        try {
+            stoppable = CompositeStoppable.stoppable(acceptor, connection);
+        } finally {
+            this.connection = null;
+            this.acceptor = null;
+            lock.unlock();
+        }
+        stoppable.stop();
+    }
+
+    @Override
+    public String toString() {
+        return "ReusedWorkerProcess{"
+            + "displayName=" + displayName
+            + ", host=" + host
+            + '}';
+    }
+
+    private static class SessionResult implements ExecResult {
+        @Override
+        public int getExitValue() {
+            return 0;
+        }
+
+        @Override
+        public ExecResult assertNormalExitValue() throws ExecException {
+            return this;
+        }
+
+        @Override
+        public ExecResult rethrowFailure() throws ExecException {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.worker.child.WorkerHostClientProtocol;
+import org.gradle.process.internal.worker.child.WorkerHostProtocol;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.String.format;
+
+/**
+ * The build process side of a reusable worker process, see {@link org.gradle.process.internal.worker.child.WorkerHost}.
+ */
+class WorkerHostClient implements WorkerHostClientProtocol, Stoppable {
+    interface SessionListener {
+        void sessionCompleted();
+    }
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Object key;
+    private final String displayName;
+    private final long maxHeapBytes;
+    private final WorkerProcess process;
+    private final WorkerHostProtocol host;
+    private SessionListener sessionListener;
+    private boolean sessionRunning;
+    private String sessionFailure;
+    private boolean healthy = true;
+    private boolean stopped;
+    private Throwable processFailure;
+    private int uses;
+
+    WorkerHostClient(Object key, String displayName, long maxHeapBytes, WorkerProcess process, Executor executor) {
+        this.key = key;
+        this.displayName = displayName;
+        this.maxHeapBytes = maxHeapBytes;
+        this.process = process;
+        ObjectConnection connection = process.getConnection();
+        connection.addIncoming(WorkerHostClientProtocol.class, this);
+        host = connection.addOutgoing(WorkerHostProtocol.class);
+        connection.connect();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                waitForProcessStop();
+            }
+        });
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the maximum heap size of the process, or -1 when it is not known.
+     */
+    long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    int getUses() {
+        lock.lock();
+        try {
+            return uses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isReusable() {
+        lock.lock();
+        try {
+            return healthy && !stopped && !sessionRunning;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void runSession(String sessionDisplayName, List<File> applicationClasspath, byte[] workerConfig, SessionListener listener) {
+        lock.lock();
+        try {
+            if (stopped) {
+                throw new ExecException(format("Cannot run %s, as %s has stopped.", sessionDisplayName, displayName));
+            }
+            sessionListener = listener;
+            sessionRunning = true;
+            sessionFailure = null;
+            uses++;
+        } finally {
+            lock.unlock();
+        }
+        host.runSession(sessionDisplayName, applicationClasspath, workerConfig);
+    }
+
+    @Override
+    public void sessionCompleted(boolean healthy, @Nullable String failure) {
+        onSessionCompleted(healthy, failure);
+    }
+
+    void awaitSessionCompletion() {
+        lock.lock();
+        try {
+            while (sessionRunning) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void rethrowSessionFailure(String sessionDisplayName) {
+        lock.lock();
+        try {
+            if (sessionFailure != null) {
+                throw new ExecException(format("%s failed in %s:%n%s", sessionDisplayName, displayName, sessionFailure), processFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            if (stopped) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        host.stop();
+        lock.lock();
+        try {
+            while (!stopped) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void waitForProcessStop() {
+        Throwable failure = null;
+        try {
+            process.waitForStop();
+        } catch (Throwable t) {
+            failure = t;
+        }
+        lock.lock();
+        try {
+            stopped = true;
+            processFailure = failure;
+        } finally {
+            lock.unlock();
+        }
+        onSessionCompleted(false, "The worker process stopped unexpectedly.");
+    }
+
+    private void onSessionCompleted(boolean healthy, @Nullable String failure) {
+        SessionListener listener;
+        lock.lock();
+        try {
+            this.healthy &= healthy;
+            if (!sessionRunning) {
+                condition.signalAll();
+                return;
+            }
+            sessionRunning = false;
+            sessionFailure = failure;
+            listener = sessionListener;
+            sessionListener = null;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        listener.sessionCompleted();
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
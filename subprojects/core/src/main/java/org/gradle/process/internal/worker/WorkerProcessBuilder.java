@@ -54,6 +54,13 @@ public interface WorkerProcessBuilder extends WorkerProcessSettings {
 
     void enableJvmMemoryInfoPublishing(boolean shouldPublish);
 
+    /**
+     * When enabled, the worker runs in an idle worker process with the same JVM configuration left behind by an earlier worker, if there is one,
+     * instead of in a new process. The worker's application classes are then loaded by a ClassLoader created for the worker rather than by the
+     * system ClassLoader.
+     */
+    void enableProcessReuse(boolean reuseProcess);
+
     /**
      * Creates the worker process. The process is not started until {@link WorkerProcess#start()} is called.
      *
@@ -30,12 +30,14 @@ import org.gradle.internal.remote.Address;
 import org.gradle.internal.remote.internal.inet.MultiChoiceAddress;
 import org.gradle.internal.remote.internal.inet.MultiChoiceAddressSerializer;
 import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.gradle.process.internal.ClassDataSharingArchives;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.streams.EncodedStream;
 import org.gradle.process.internal.worker.DefaultWorkerProcessBuilder;
 import org.gradle.process.internal.worker.GradleWorkerMain;
 import org.gradle.util.GUtil;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -72,25 +74,29 @@ public class ApplicationClassesInSystemClassLoaderWorkerImplementationFactory im
     private final TemporaryFileProvider temporaryFileProvider;
     private final JvmVersionDetector jvmVersionDetector;
     private final File gradleUserHomeDir;
+    private final ClassDataSharingArchives classDataSharingArchives;
 
     public ApplicationClassesInSystemClassLoaderWorkerImplementationFactory(ClassPathRegistry classPathRegistry, TemporaryFileProvider temporaryFileProvider, JvmVersionDetector jvmVersionDetector, File gradleUserHomeDir) {
         this.classPathRegistry = classPathRegistry;
         this.temporaryFileProvider = temporaryFileProvider;
         this.jvmVersionDetector = jvmVersionDetector;
         this.gradleUserHomeDir = gradleUserHomeDir;
+        this.classDataSharingArchives = new ClassDataSharingArchives(gradleUserHomeDir);
     }
 
     @Override
     public void prepareJavaCommand(Object workerId, String displayName, DefaultWorkerProcessBuilder processBuilder, List<URL> implementationClassPath, Address serverAddress, JavaExecHandleBuilder execSpec, boolean publishProcessInfo) {
         Collection<File> applicationClasspath = processBuilder.getApplicationClasspath();
-        LogLevel logLevel = processBuilder.getLogLevel();
-        Set<String> sharedPackages = processBuilder.getSharedPackages();
         Object requestedSecurityManager = execSpec.getSystemProperties().get("java.security.manager");
         ClassPath workerMainClassPath = classPathRegistry.getClassPath("WORKER_MAIN");
 
         execSpec.setMain("worker." + GradleWorkerMain.class.getName());
 
-        boolean useOptionsFile = shouldUseOptionsFile(execSpec);
+        JavaVersion executableVersion = jvmVersionDetector.getJavaVersion(execSpec.getExecutable());
+        // The worker main jar comes first on the class path and is the same for every worker, so its classes can be archived
+        execSpec.jvmArgs(classDataSharingArchives.getJvmArgs(execSpec.getExecutable(), executableVersion, workerMainClassPath.getAsFiles()));
+
+        boolean useOptionsFile = executableVersion != null && executableVersion.isJava9Compatible();
         if (useOptionsFile) {
             // Use an options file to pass across application classpath
             File optionsFile = temporaryFileProvider.createTemporaryFile("gradle-worker-classpath", "txt");
@@ -117,40 +123,56 @@ public class ApplicationClassesInSystemClassLoaderWorkerImplementationFactory im
                 outstr.writeUTF(requestedSecurityManager == null ? "" : requestedSecurityManager.toString());
             }
 
-            // Serialize the shared packages, this is consumed by GradleWorkerMain
-            outstr.writeInt(sharedPackages.size());
-            for (String str : sharedPackages) {
-                outstr.writeUTF(str);
-            }
-
-            // Serialize the worker implementation classpath, this is consumed by GradleWorkerMain
-            outstr.writeInt(implementationClassPath.size());
-            for (URL entry : implementationClassPath) {
-                outstr.writeUTF(entry.toString());
-            }
-
-            // Serialize the worker config, this is consumed by SystemApplicationClassLoaderWorker
-            OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(outstr);
-            encoder.writeSmallInt(logLevel.ordinal());
-            encoder.writeBoolean(publishProcessInfo);
-            encoder.writeString(gradleUserHomeDir.getAbsolutePath());
-            new MultiChoiceAddressSerializer().write(encoder, (MultiChoiceAddress) serverAddress);
-
-            // Serialize the worker, this is consumed by SystemApplicationClassLoaderWorker
-            ActionExecutionWorker worker = new ActionExecutionWorker(processBuilder.getWorker(), workerId, displayName, gradleUserHomeDir);
-            byte[] serializedWorker = GUtil.serialize(worker);
-            encoder.writeBinary(serializedWorker);
-
-            encoder.flush();
+            writeWorkerConfig(workerId, displayName, processBuilder, implementationClassPath, serverAddress, publishProcessInfo, outstr);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
         execSpec.setStandardInput(buffer.getInputStream());
     }
 
-    private boolean shouldUseOptionsFile(JavaExecHandleBuilder execSpec) {
-        JavaVersion executableVersion = jvmVersionDetector.getJavaVersion(execSpec.getExecutable());
-        return executableVersion != null && executableVersion.isJava9Compatible();
+    /**
+     * Creates the configuration for a worker that runs in an existing worker process, see {@link WorkerHost}.
+     */
+    public byte[] createSessionConfig(Object workerId, String displayName, DefaultWorkerProcessBuilder processBuilder, List<URL> implementationClassPath, Address serverAddress, boolean publishProcessInfo) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            DataOutputStream outstr = new DataOutputStream(buffer);
+            writeWorkerConfig(workerId, displayName, processBuilder, implementationClassPath, serverAddress, publishProcessInfo, outstr);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private void writeWorkerConfig(Object workerId, String displayName, DefaultWorkerProcessBuilder processBuilder, List<URL> implementationClassPath, Address serverAddress, boolean publishProcessInfo, DataOutputStream outstr) throws IOException {
+        LogLevel logLevel = processBuilder.getLogLevel();
+        Set<String> sharedPackages = processBuilder.getSharedPackages();
+
+        // Serialize the shared packages, this is consumed by GradleWorkerMain
+        outstr.writeInt(sharedPackages.size());
+        for (String str : sharedPackages) {
+            outstr.writeUTF(str);
+        }
+
+        // Serialize the worker implementation classpath, this is consumed by GradleWorkerMain
+        outstr.writeInt(implementationClassPath.size());
+        for (URL entry : implementationClassPath) {
+            outstr.writeUTF(entry.toString());
+        }
+
+        // Serialize the worker config, this is consumed by SystemApplicationClassLoaderWorker
+        OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(outstr);
+        encoder.writeSmallInt(logLevel.ordinal());
+        encoder.writeBoolean(publishProcessInfo);
+        encoder.writeString(gradleUserHomeDir.getAbsolutePath());
+        new MultiChoiceAddressSerializer().write(encoder, (MultiChoiceAddress) serverAddress);
+
+        // Serialize the worker, this is consumed by SystemApplicationClassLoaderWorker
+        ActionExecutionWorker worker = new ActionExecutionWorker(processBuilder.getWorker(), workerId, displayName, gradleUserHomeDir);
+        byte[] serializedWorker = GUtil.serialize(worker);
+        encoder.writeBinary(serializedWorker);
+
+        encoder.flush();
     }
 
     private List<String> writeOptionsFile(Collection<File> workerMainClassPath, Collection<File> applicationClasspath, File optionsFile) {
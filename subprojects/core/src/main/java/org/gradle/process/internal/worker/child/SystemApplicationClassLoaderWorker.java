@@ -61,9 +61,18 @@ import java.util.concurrent.Callable;
  */
 public class SystemApplicationClassLoaderWorker implements Callable<Void> {
     private final DataInputStream configInputStream;
+    private final ClassLoader applicationClassLoader;
 
     public SystemApplicationClassLoaderWorker(DataInputStream configInputStream) {
+        this(configInputStream, ClassLoader.getSystemClassLoader());
+    }
+
+    /**
+     * Used by {@link WorkerHost} to run a worker whose application classes are loaded by the given ClassLoader rather than the system ClassLoader.
+     */
+    public SystemApplicationClassLoaderWorker(DataInputStream configInputStream, ClassLoader applicationClassLoader) {
         this.configInputStream = configInputStream;
+        this.applicationClassLoader = applicationClassLoader;
     }
 
     public Void call() throws Exception {
@@ -116,7 +125,7 @@ public class SystemApplicationClassLoaderWorker implements Callable<Void> {
             final ObjectConnection serverConnection = connection;
             action.execute(new WorkerContext() {
                 public ClassLoader getApplicationClassLoader() {
-                    return ClassLoader.getSystemClassLoader();
+                    return applicationClassLoader;
                 }
 
                 @Override
@@ -136,6 +145,7 @@ public class SystemApplicationClassLoaderWorker implements Callable<Void> {
             if (connection != null) {
                 connection.stop();
             }
+            workerServices.close();
             messagingServices.close();
             loggingManager.stop();
         }
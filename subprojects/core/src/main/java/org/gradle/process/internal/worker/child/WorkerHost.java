@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker.child;
+
+import org.gradle.api.Action;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * <p>A worker action that keeps a worker process alive so that it can run several workers, one after the other. Each worker runs as a session
+ * that sets up its own application and implementation ClassLoaders, in the same way as {@link org.gradle.process.internal.worker.GradleWorkerMain}
+ * does for a new process, and connects back to the build process through its own connection.</p>
+ *
+ * <p>After each session the host checks whether it is still fit to be reused. It reports itself unhealthy when the session failed, when the
+ * session installed a SecurityManager that cannot be removed again, when the session left non-daemon threads running, or when the heap is
+ * still mostly in use after a garbage collection.</p>
+ */
+public class WorkerHost implements Action<WorkerProcessContext>, WorkerHostProtocol, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerHost.class);
+    private static final double HEAP_USAGE_CHECK_THRESHOLD = 0.75;
+    private static final double MAX_RETAINED_HEAP_USAGE = 0.5;
+    private static final Session STOP = new Session(null, null, null);
+
+    private transient BlockingQueue<Session> sessions;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        sessions = new LinkedBlockingQueue<Session>();
+        ObjectConnection connection = workerProcessContext.getServerConnection();
+        WorkerHostClientProtocol client = connection.addOutgoing(WorkerHostClientProtocol.class);
+        connection.addIncoming(WorkerHostProtocol.class, this);
+        connection.connect();
+
+        while (true) {
+            Session session;
+            try {
+                session = sessions.take();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            if (session == STOP) {
+                break;
+            }
+            Set<Thread> threadsBeforeSession = new HashSet<Thread>(Thread.getAllStackTraces().keySet());
+            SecurityManager securityManager = System.getSecurityManager();
+            String failure = null;
+            try {
+                run(session);
+            } catch (Throwable t) {
+                LOGGER.error("Failed to run " + session.displayName + ".", t);
+                failure = stackTraceOf(t);
+            }
+            boolean healthy = restoreSecurityManager(securityManager) && failure == null && isHealthy(threadsBeforeSession);
+            client.sessionCompleted(healthy, failure);
+        }
+    }
+
+    @Override
+    public void runSession(String displayName, List<File> applicationClasspath, byte[] workerConfig) {
+        sessions.add(new Session(displayName, applicationClasspath, workerConfig));
+    }
+
+    @Override
+    public void stop() {
+        sessions.add(STOP);
+    }
+
+    private void run(Session session) throws Exception {
+        Properties systemProperties = (Properties) System.getProperties().clone();
+        Locale locale = Locale.getDefault();
+        TimeZone timeZone = TimeZone.getDefault();
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        URLClassLoader applicationClassLoader = new URLClassLoader(toUrls(session.applicationClasspath), ClassLoader.getSystemClassLoader());
+        URLClassLoader implementationClassLoader = null;
+        try {
+            DataInputStream config = new DataInputStream(new ByteArrayInputStream(session.workerConfig));
+
+            // Read shared packages and worker implementation classpath, as GradleWorkerMain does for a new process
+            FilteringClassLoader.Spec filteringClassLoaderSpec = new FilteringClassLoader.Spec();
+            int sharedPackagesCount = config.readInt();
+            for (int i = 0; i < sharedPackagesCount; i++) {
+                filteringClassLoaderSpec.allowPackage(config.readUTF());
+            }
+            int classPathLength = config.readInt();
+            URL[] implementationClassPath = new URL[classPathLength];
+            for (int i = 0; i < classPathLength; i++) {
+                implementationClassPath[i] = new URL(config.readUTF());
+            }
+            implementationClassLoader = new URLClassLoader(implementationClassPath, new FilteringClassLoader(applicationClassLoader, filteringClassLoaderSpec));
+
+            Class<? extends Callable> workerClass = implementationClassLoader.loadClass(SystemApplicationClassLoaderWorker.class.getName()).asSubclass(Callable.class);
+            Callable<?> worker = workerClass.getConstructor(DataInputStream.class, ClassLoader.class).newInstance(config, applicationClassLoader);
+            Thread.currentThread().setContextClassLoader(applicationClassLoader);
+            worker.call();
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+            System.setProperties(systemProperties);
+            Locale.setDefault(locale);
+            TimeZone.setDefault(timeZone);
+            ClassLoaderUtils.tryClose(implementationClassLoader);
+            ClassLoaderUtils.tryClose(applicationClassLoader);
+        }
+    }
+
+    private static boolean restoreSecurityManager(SecurityManager securityManager) {
+        if (System.getSecurityManager() == securityManager) {
+            return true;
+        }
+        try {
+            System.setSecurityManager(securityManager);
+            return true;
+        } catch (SecurityException e) {
+            LOGGER.info("Worker host will not be reused, as the SecurityManager installed by the session cannot be removed.");
+            return false;
+        }
+    }
+
+    private static boolean isHealthy(Set<Thread> threadsBeforeSession) {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && !thread.isDaemon() && !threadsBeforeSession.contains(thread)) {
+                LOGGER.info("Worker host will not be reused, as thread '{}' is still running.", thread.getName());
+                return false;
+            }
+        }
+        if (heapUsage() > HEAP_USAGE_CHECK_THRESHOLD) {
+            System.gc();
+            double heapUsage = heapUsage();
+            if (heapUsage > MAX_RETAINED_HEAP_USAGE) {
+                LOGGER.info("Worker host will not be reused, as {}% of the heap is in use.", Math.round(heapUsage * 100));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double heapUsage() {
+        Runtime runtime = Runtime.getRuntime();
+        return (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+    }
+
+    private static URL[] toUrls(List<File> files) throws MalformedURLException {
+        URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = files.get(i).toURI().toURL();
+        }
+        return urls;
+    }
+
+    private static String stackTraceOf(Throwable throwable) {
+        StringWriter stackTrace = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.toString();
+    }
+
+    private static class Session {
+        final String displayName;
+        final List<File> applicationClasspath;
+        final byte[] workerConfig;
+
+        Session(String displayName, List<File> applicationClasspath, byte[] workerConfig) {
+            this.displayName = displayName;
+            this.applicationClasspath = applicationClasspath;
+            this.workerConfig = workerConfig;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker.child;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Requests sent to a reusable worker process, see {@link WorkerHost}.
+ */
+public interface WorkerHostProtocol {
+    /**
+     * Runs a worker in the host, using the given application classpath and the worker configuration that would otherwise be passed to a new process. Does not block.
+     */
+    void runSession(String displayName, List<File> applicationClasspath, byte[] workerConfig);
+
+    /**
+     * Stops the host once the current session has completed. Does not block.
+     */
+    void stop();
+}
@@ -15,6 +15,8 @@
  */
 package org.gradle.api.internal;
 
+import com.google.common.hash.HashCode;
+import com.google.common.io.ByteStreams;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
 import groovy.lang.MissingMethodException;
@@ -46,7 +48,9 @@ import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import static org.gradle.api.internal.AbstractClassGeneratorTestGroovy.BeanWithGroovyBoolean;
@@ -67,6 +71,69 @@ public class AsmBackedClassGeneratorTest {
         assertEquals(Bean.class, GeneratedSubclasses.unpack(generatedClass));
     }
 
+    @Test
+    public void reusesBytecodeFromAttachedCache() throws Exception {
+        AsmBackedClassGenerator generator = new AsmBackedClassGenerator();
+        RecordingGeneratedClassCache cache = new RecordingGeneratedClassCache();
+        generator.attach(cache);
+        try {
+            Class<?> first = generator.generate(loadIsolated(CachedBean.class));
+            assertThat(cache.entries.size(), equalTo(1));
+            assertThat(cache.hits, equalTo(0));
+
+            Class<?> second = generator.generate(loadIsolated(CachedBean.class));
+            assertThat(cache.entries.size(), equalTo(1));
+            assertThat(cache.hits, equalTo(1));
+            assertThat(second, not(sameInstance((Object) first)));
+            assertThat(second.getName(), equalTo(first.getName()));
+            assertTrue(DynamicObjectAware.class.isAssignableFrom(second));
+            assertThat(second.newInstance(), notNullValue());
+        } finally {
+            generator.detach(cache);
+        }
+    }
+
+    @Test
+    public void generatesClassWhenCachedBytecodeCannotBeDefined() throws Exception {
+        AsmBackedClassGenerator generator = new AsmBackedClassGenerator();
+        RecordingGeneratedClassCache cache = new RecordingGeneratedClassCache();
+        generator.attach(cache);
+        try {
+            generator.generate(loadIsolated(CachedBean.class));
+            HashCode key = cache.entries.keySet().iterator().next();
+            cache.entries.put(key, new byte[]{1, 2, 3});
+
+            Class<?> generated = generator.generate(loadIsolated(CachedBean.class));
+            assertThat(cache.hits, equalTo(1));
+            assertTrue(DynamicObjectAware.class.isAssignableFrom(generated));
+            assertThat(generated.newInstance(), notNullValue());
+        } finally {
+            generator.detach(cache);
+        }
+    }
+
+    private static Class<?> loadIsolated(final Class<?> type) throws Exception {
+        ClassLoader classLoader = new ClassLoader(type.getClassLoader()) {
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.equals(type.getName())) {
+                    return super.loadClass(name, resolve);
+                }
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded != null) {
+                    return loaded;
+                }
+                try {
+                    byte[] bytecode = ByteStreams.toByteArray(getResourceAsStream(name.replace('.', '/') + ".class"));
+                    return defineClass(name, bytecode, 0, bytecode.length);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        };
+        return classLoader.loadClass(type.getName());
+    }
+
     @Test
     public void mixesInConventionAwareInterface() throws Exception {
         Class<? extends Bean> generatedClass = generator.generate(Bean.class);
@@ -1293,6 +1360,37 @@ public class AsmBackedClassGeneratorTest {
         NestedBeanAnnotation[] annotations();
     }
 
+    public static class CachedBean {
+        private String prop;
+
+        public String getProp() {
+            return prop;
+        }
+
+        public void setProp(String prop) {
+            this.prop = prop;
+        }
+    }
+
+    private static class RecordingGeneratedClassCache implements GeneratedClassCache {
+        final Map<HashCode, byte[]> entries = new HashMap<HashCode, byte[]>();
+        int hits;
+
+        @Override
+        public byte[] get(HashCode key) {
+            byte[] bytecode = entries.get(key);
+            if (bytecode != null) {
+                hits++;
+            }
+            return bytecode;
+        }
+
+        @Override
+        public void put(HashCode key, byte[] bytecode) {
+            entries.put(key, bytecode);
+        }
+    }
+
     @BeanAnnotation(
         value = "test",
         values = {"1", "2"},
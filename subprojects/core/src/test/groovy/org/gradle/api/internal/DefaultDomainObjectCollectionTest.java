@@ -29,6 +29,7 @@ import org.jmock.integration.junit4.JUnit4Mockery;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -434,6 +435,24 @@ public class DefaultDomainObjectCollectionTest {
         container.all(action);
     }
 
+    @Test
+    public void addAllCallsActionForEachObjectBeforeAddingTheNext() {
+        final List<String> notified = new ArrayList<String>();
+        container.whenObjectAdded(new Action<CharSequence>() {
+            public void execute(CharSequence object) {
+                notified.add(object + (container.contains("b") ? " after b" : " before b"));
+                if (object.equals("a")) {
+                    container.add("c");
+                }
+            }
+        });
+
+        container.addAll(toList("a", "b"));
+
+        assertThat(notified, equalTo(toList("a before b", "c before b", "b after b")));
+        assertThat(toList(container), equalTo(toList((CharSequence) "a", "c", "b")));
+    }
+
     @Test
     public void callsVetoActionBeforeObjectIsAdded() {
         final Action action = context.mock(Action.class);
@@ -147,6 +147,21 @@ class CrossBuildInMemoryCacheFactoryTest extends ConcurrentSpec {
         0 * transformer._
     }
 
+    def "can release strong references to values"() {
+        def transformer = Mock(Transformer)
+
+        given:
+        transformer.transform(_) >> { new Object() }
+        def cache = factory.newCache()
+        cache.get("a", transformer)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+        cache.get("b", transformer)
+
+        expect:
+        factory.releaseRetainedValues() == 2
+        factory.releaseRetainedValues() == 0
+    }
+
     def "creates a cache whose keys are classes"() {
         def a = new Object()
         def b = new Object()
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache
+
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import spock.lang.Specification
+
+class GeneratedClassCacheStatisticsReporterTest extends Specification {
+    def generatedClassCache = Stub(PersistentGeneratedClassCache)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def reporter = new GeneratedClassCacheStatisticsReporter(generatedClassCache, buildOperationExecutor)
+
+    def "reports hits and misses at the end of the session"() {
+        given:
+        generatedClassCache.hits >> 12
+        generatedClassCache.misses >> 3
+
+        when:
+        reporter.afterStart()
+
+        then:
+        buildOperationExecutor.operations.empty
+
+        when:
+        reporter.beforeComplete()
+
+        then:
+        def result = buildOperationExecutor.log.mostRecentResult(GeneratedClassCacheBuildOperationType)
+        result.hits == 12
+        result.misses == 3
+    }
+}
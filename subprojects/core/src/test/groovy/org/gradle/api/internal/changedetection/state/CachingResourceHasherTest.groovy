@@ -71,10 +71,52 @@ class CachingResourceHasherTest extends Specification {
         0 * _
     }
 
-    def "does not cache zip entries"() {
+    def "caches zip entries by name and contents"() {
+        def expectedHash = Hashing.md5().hashInt(1)
+        def zipEntry = zipEntry("Foo.class", 3, 1234)
+
+        when:
+        def actualHash = cachingHasher.hash(zipEntry, input("abc"))
+
+        then:
+        1 * delegate.hash(zipEntry, _) >> { ZipEntry entry, InputStream content -> assert content.text == "abc"; expectedHash }
+        0 * _
+
+        actualHash == expectedHash
+
+        when:
+        actualHash = cachingHasher.hash(zipEntry("Foo.class", 3, 1234), input("abc"))
+
+        then:
+        0 * _
+
+        actualHash == expectedHash
+
+        when:
+        def changedEntry = zipEntry("Foo.class", 3, 1234)
+        actualHash = cachingHasher.hash(changedEntry, input("abd"))
+
+        then:
+        1 * delegate.hash(changedEntry, _) >> null
+        0 * _
+
+        actualHash == null
+
+        when:
+        def renamedEntry = zipEntry("Bar.class", 3, 1234)
+        actualHash = cachingHasher.hash(renamedEntry, input("abc"))
+
+        then:
+        1 * delegate.hash(renamedEntry, _) >> expectedHash
+        0 * _
+
+        actualHash == expectedHash
+    }
+
+    def "does not cache zip entries without size"() {
         def expectedHash = Hashing.md5().hashInt(1)
         def inputStream = Mock(InputStream)
-        def zipEntry = Mock(ZipEntry)
+        def zipEntry = new ZipEntry("Foo.class")
 
         when:
         def actualHash = cachingHasher.hash(zipEntry, inputStream)
@@ -94,4 +136,15 @@ class CachingResourceHasherTest extends Specification {
 
         actualHash == expectedHash
     }
+
+    private static InputStream input(String content) {
+        new ByteArrayInputStream(content.bytes)
+    }
+
+    private static ZipEntry zipEntry(String name, long size, long crc) {
+        def entry = new ZipEntry(name)
+        entry.size = size
+        entry.crc = crc
+        entry
+    }
 }
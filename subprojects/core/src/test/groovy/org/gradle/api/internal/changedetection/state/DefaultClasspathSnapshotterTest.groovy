@@ -31,6 +31,8 @@ import org.gradle.util.UsesNativeServices
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.zip.ZipOutputStream
+
 @CleanupTestDirectory(fieldName = "tmpDir")
 @UsesNativeServices
 class DefaultClasspathSnapshotterTest extends Specification {
@@ -203,6 +205,15 @@ class DefaultClasspathSnapshotterTest extends Specification {
         values == ['f31495fd1bb4b8c3b8fb1f46a68adf9e', '4c54ecab47d005e6862ced54627c6208'] as Set
     }
 
+    def "zero byte and empty jars are ignored"() {
+        def zeroByteJar = file('zero-byte.jar').createFile()
+        def emptyJar = file('empty.jar')
+        new ZipOutputStream(new FileOutputStream(emptyJar)).close()
+
+        expect:
+        snapshot(zeroByteJar, emptyJar).empty
+    }
+
     def snapshot(TestFile... classpath) {
         fileSystemMirror.beforeTaskOutputsGenerated()
         def fileCollectionSnapshot = snapshotter.snapshot(files(classpath), null, InputNormalizationStrategy.NOT_CONFIGURED)
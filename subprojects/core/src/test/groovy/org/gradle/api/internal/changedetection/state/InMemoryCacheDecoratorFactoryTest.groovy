@@ -124,6 +124,37 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         0 * target._
     }
 
+    def "reloads result from backing cache after in-memory entries are discarded"() {
+        given:
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+
+        when:
+        def result = cache.get("key")
+
+        then:
+        result == "result"
+
+        and:
+        1 * crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        1 * asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+        1 * target.get("key") >> "result"
+        0 * target._
+
+        when:
+        def discarded = cacheFactory.discardInMemoryEntries()
+        result = cache.get("key")
+
+        then:
+        discarded == 1
+        result == "result 2"
+
+        and:
+        1 * crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        1 * asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+        1 * target.get("key") >> "result 2"
+        0 * target._
+    }
+
     def "caches result of putting item"() {
         def lock = Mock(Runnable)
 
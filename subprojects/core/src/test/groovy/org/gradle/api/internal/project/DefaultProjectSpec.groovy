@@ -144,10 +144,31 @@ class DefaultProjectSpec extends Specification {
         nestedChild2.identityPath == Path.path(":nested:child1:child2")
     }
 
-    def project(String name, ProjectInternal parent, GradleInternal build) {
+    def "does not create the task container until the tasks are used"() {
+        given:
+        def serviceRegistry = Mock(ServiceRegistry)
+        def tasks = Stub(TaskContainerInternal)
+
+        when:
+        def project = project('root', null, Stub(GradleInternal), serviceRegistry)
+        project.hasProperty('unknown')
+
+        then:
+        0 * serviceRegistry.newInstance(TaskContainerInternal)
+
+        when:
+        def first = project.tasks
+        def second = project.tasks
+
+        then:
+        1 * serviceRegistry.newInstance(TaskContainerInternal) >> tasks
+        first.is(tasks)
+        second.is(tasks)
+    }
+
+    def project(String name, ProjectInternal parent, GradleInternal build, ServiceRegistry serviceRegistry = Stub(ServiceRegistry)) {
         def instantiator = DirectInstantiator.INSTANCE
         def serviceRegistryFactory = Stub(ServiceRegistryFactory)
-        def serviceRegistry = Stub(ServiceRegistry)
 
         _ * serviceRegistryFactory.createFor(_) >> serviceRegistry
         _ * serviceRegistry.newInstance(TaskContainerInternal) >> Stub(TaskContainerInternal)
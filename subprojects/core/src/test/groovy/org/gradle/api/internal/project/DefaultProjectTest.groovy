@@ -491,9 +491,15 @@ class DefaultProjectTest {
 
     @Test
     void testCanAccessTaskAsAProjectProperty() {
+        createTaskContainer()
         assertThat(project.someTask, sameInstance(testTask))
     }
 
+    @Test(expected = MissingPropertyException)
+    void testTaskIsNotAProjectPropertyBeforeTaskContainerIsCreated() {
+        project.someTask
+    }
+
     @Test(expected = MissingPropertyException)
     void testPropertyShortCutForTaskCallWithNonExistingTask() {
         project.unknownTask
@@ -504,6 +510,14 @@ class DefaultProjectTest {
         project.unknownTask([dependsOn: '/task2'])
     }
 
+    /**
+     * A project creates its task container on first use, and only an existing container contributes tasks to the
+     * project's dynamic properties and methods. Tests that look up tasks that way have to create it first.
+     */
+    private void createTaskContainer() {
+        project.getTasks()
+    }
+
     private Set getListWithAllProjects() {
         [project, child1, child2, childchild]
     }
@@ -600,6 +614,7 @@ class DefaultProjectTest {
     void testMethodMissing() {
         boolean closureCalled = false
         Closure testConfigureClosure = { closureCalled = true }
+        createTaskContainer()
         project.someTask(testConfigureClosure)
         assert closureCalled
 
@@ -705,6 +720,7 @@ def scriptMethod(Closure closure) {
             allowing(serviceRegistryMock).get(ServiceRegistryFactory); will(returnValue({} as ServiceRegistryFactory))
         }
         project.ext.additional = 'additional'
+        createTaskContainer()
 
         Map properties = project.properties
         assertEquals(properties.name, 'root')
@@ -189,4 +189,43 @@ class LifecycleProjectEvaluatorTest extends Specification {
         details.projectPath == Path.path(':project1').path
     }
 
+    def "notifies evaluation listeners in their own operations when profiling"() {
+        def evaluator = new LifecycleProjectEvaluator(buildOperationExecutor, delegate, true)
+
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * listener.beforeEvaluate(project)
+        1 * listener.afterEvaluate(project, state)
+
+        and:
+        buildOperationExecutor.operations*.displayName == [
+            'Configure project :project1',
+            'Notify beforeEvaluate listeners of :project1',
+            'Notify afterEvaluate listeners of :project1'
+        ]
+        NotifyProjectEvaluationListenersBuildOperationType.Details beforeDetails = buildOperationExecutor.operations[1].details
+        beforeDetails.projectPath == ':project1'
+        beforeDetails.buildPath == ':'
+        beforeDetails.hook == 'beforeEvaluate'
+        NotifyProjectEvaluationListenersBuildOperationType.Details afterDetails = buildOperationExecutor.operations[2].details
+        afterDetails.projectPath == ':project1'
+        afterDetails.buildPath == ':'
+        afterDetails.hook == 'afterEvaluate'
+        buildOperationExecutor.log.all(NotifyProjectEvaluationListenersBuildOperationType).size() == 2
+    }
+
+    def "notifies evaluation listeners without operations when not profiling"() {
+        when:
+        evaluator.evaluate(project, state)
+
+        then:
+        1 * listener.beforeEvaluate(project)
+        1 * listener.afterEvaluate(project, state)
+
+        and:
+        buildOperationExecutor.operations*.displayName == ['Configure project :project1']
+    }
+
 }
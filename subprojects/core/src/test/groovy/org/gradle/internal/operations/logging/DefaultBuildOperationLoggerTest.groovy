@@ -87,6 +87,45 @@ class DefaultBuildOperationLoggerTest extends Specification {
         log.done()
     }
 
+    def "reads output of successful operation only when it is shown"() {
+        given:
+        log.start()
+
+        when:
+        log.operationSuccess("<operation>", new ByteArrayInputStream("<output>".bytes))
+
+        then:
+        1 * logger.isInfoEnabled() >> infoEnabled
+        1 * logger.log(DEBUG, "<operation> successful.")
+        (infoEnabled ? 1 : 0) * logger.log(INFO, "<output>")
+        logOutput() == """See $pathToLogStr for all output for <testTask>.
+<operation> successful.
+<output>
+"""
+        cleanup:
+        log.done()
+
+        where:
+        infoEnabled << [true, false]
+    }
+
+    def "streams output of failed operations that are no longer shown to the log file"() {
+        when:
+        log.start()
+        7.times { log.operationFailed("<operation>", new ByteArrayInputStream("<output>".bytes)) }
+        log.done()
+
+        then:
+        7 * logger.log(DEBUG, "<operation> failed.")
+        5 * logger.log(ERROR, "<output>")
+        1 * logger.log(ERROR, "...output for 2 more failed operation(s) continued in $pathToLogStr.")
+        logOutput() == """See $pathToLogStr for all output for <testTask>.
+""" + """<operation> failed.
+<output>
+""" * 7 + """Finished <testTask>, see full log $pathToLogStr.
+"""
+    }
+
     def "logs output from multiple operations"() {
         when:
         log.start()
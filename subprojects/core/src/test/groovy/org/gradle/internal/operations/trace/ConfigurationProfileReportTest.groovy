@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.operations.trace
+
+import org.gradle.api.internal.artifacts.configurations.ResolveConfigurationDependenciesBuildOperationType
+import org.gradle.api.internal.plugins.ApplyPluginBuildOperationType
+import org.gradle.configuration.ApplyScriptPluginBuildOperationType
+import org.gradle.configuration.project.NotifyProjectEvaluationListenersBuildOperationType
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ConfigurationProfileReportTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "groups operations by their details type, most expensive first"() {
+        def roots = [
+            record("Run build", null, 0, [
+                record("Apply script build.gradle", ApplyScriptPluginBuildOperationType.Details, 30, [
+                    record("Apply plugin java", ApplyPluginBuildOperationType.Details, 20, []),
+                    record("Apply plugin base", ApplyPluginBuildOperationType.Details, 40, [])
+                ]),
+                record("Notify afterEvaluate listeners of :", NotifyProjectEvaluationListenersBuildOperationType.Details, 5, []),
+                record("Resolve dependencies of :compile", ResolveConfigurationDependenciesBuildOperationType.Details, 10, []),
+                record("Resolve dependencies of something else", null, 100, [])
+            ])
+        ]
+        def file = tmpDir.file("profile.txt")
+
+        when:
+        new ConfigurationProfileReport(roots).writeTo(file)
+        def lines = file.readLines()
+
+        then:
+        def scriptPlugins = lines.indexOf(lines.find { it.startsWith("Script plugins (1 operations)") })
+        lines[scriptPlugins + 1].endsWith("Apply script build.gradle")
+
+        def plugins = lines.indexOf(lines.find { it.startsWith("Plugins (2 operations)") })
+        lines[plugins + 1].endsWith("Apply plugin base")
+        lines[plugins + 2].endsWith("Apply plugin java")
+
+        def listeners = lines.indexOf(lines.find { it.startsWith("Project evaluation listeners (1 operations)") })
+        lines[listeners + 1].endsWith("Notify afterEvaluate listeners of :")
+
+        def resolution = lines.indexOf(lines.find { it.startsWith("Dependency resolution (1 operations)") })
+        lines[resolution + 1].endsWith("Resolve dependencies of :compile")
+
+        !lines.any { it.endsWith("Resolve dependencies of something else") }
+        !lines.any { it.endsWith("Run build") }
+    }
+
+    private static BuildOperationRecord record(String displayName, Class<?> detailsType, long cpuTime, List<BuildOperationRecord> children) {
+        new BuildOperationRecord(displayName, null, displayName, 0, cpuTime, detailsType == null ? null : [:], detailsType?.name, null, null, null, cpuTime, cpuTime * 1024, children)
+    }
+}
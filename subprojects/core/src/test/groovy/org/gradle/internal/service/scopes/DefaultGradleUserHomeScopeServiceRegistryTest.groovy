@@ -167,6 +167,40 @@ class DefaultGradleUserHomeScopeServiceRegistryTest extends Specification {
         homeDirService.closed
     }
 
+    def "stops services that are not in use"() {
+        def dir1 = new File("home-dir-1")
+        def dir2 = new File("home-dir-2")
+
+        given:
+        def services1 = homeDirServices.getServicesFor(dir1)
+        def homeDir1Service = services1.get(SomeHomeDirService)
+        def services2 = homeDirServices.getServicesFor(dir2)
+        def homeDir2Service = services2.get(SomeHomeDirService)
+        homeDirServices.release(services1)
+
+        when:
+        def stopped = homeDirServices.stopUnusedServices()
+
+        then:
+        stopped
+        homeDir1Service.closed
+        !homeDir2Service.closed
+
+        when:
+        stopped = homeDirServices.stopUnusedServices()
+
+        then:
+        !stopped
+        !homeDir2Service.closed
+
+        when:
+        homeDirServices.release(services2)
+        def services = homeDirServices.getServicesFor(dir1)
+
+        then:
+        !services.get(SomeHomeDirService).is(homeDir1Service)
+    }
+
     def "fails when services already released"() {
         def dir = new File("home-dir")
 
@@ -55,6 +55,7 @@ import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.internal.service.ServiceRegistration
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.model.internal.core.ModelPath
 import org.gradle.model.internal.inspect.ModelRuleExtractor
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector
 import org.gradle.model.internal.registry.ModelRegistry
@@ -136,6 +137,17 @@ class ProjectScopeServicesTest extends Specification {
         registry.getFactory(TaskContainerInternal) instanceof DefaultTaskContainerFactory
     }
 
+    def "registers project elements when the model registry is created"() {
+        when:
+        def modelRegistry = registry.get(ModelRegistry)
+
+        then:
+        modelRegistry.state(ModelPath.path("serviceRegistry")) != null
+        modelRegistry.state(ModelPath.path("buildDir")) != null
+        modelRegistry.state(ModelPath.path("projectIdentifier")) != null
+        modelRegistry.state(ModelPath.path("extensionContainer")) != null
+    }
+
     def "provides a ToolingModelBuilderRegistry"() {
         expect:
         provides(ToolingModelBuilderRegistry, DefaultToolingModelBuilderRegistry)
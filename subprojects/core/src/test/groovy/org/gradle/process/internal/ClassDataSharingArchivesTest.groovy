@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal
+
+import org.gradle.api.JavaVersion
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ClassDataSharingArchivesTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def baseDir = tmpDir.file("archives")
+    def jar = tmpDir.file("lib/main.jar").createFile()
+    def archives = new ClassDataSharingArchives(baseDir, true)
+
+    def "does not use archives for JVMs other than Java 10"() {
+        expect:
+        archives.getJvmArgs("java", version, [jar]).empty
+
+        where:
+        version << [null, JavaVersion.VERSION_1_7, JavaVersion.VERSION_1_8, JavaVersion.VERSION_1_9]
+    }
+
+    def "does not use archives when disabled"() {
+        expect:
+        new ClassDataSharingArchives(baseDir, false).getJvmArgs("java", JavaVersion.VERSION_1_10, [jar]).empty
+    }
+
+    def "does not use archives for class paths containing directories or missing files"() {
+        expect:
+        archives.getJvmArgs("java", JavaVersion.VERSION_1_10, []).empty
+        archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar, tmpDir.createDir("classes")]).empty
+        archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar, tmpDir.file("missing.jar")]).empty
+    }
+
+    def "records the loaded classes on the first launch"() {
+        when:
+        def args = archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar])
+
+        then:
+        args.size() == 2
+        args[0] == "-XX:+UseAppCDS"
+        args[1].startsWith("-XX:DumpLoadedClassList=" + baseDir.absolutePath)
+        args[1].endsWith(".lst")
+    }
+
+    def "does not record the loaded classes again while the classes of an earlier launch are being recorded"() {
+        given:
+        def recordArgs = archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar])
+        classList(recordArgs).text = "java/lang/Object\n"
+
+        expect:
+        archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar]).empty
+    }
+
+    def "uses the archive once it has been created"() {
+        given:
+        def recordArgs = archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar])
+        def archive = new File(classList(recordArgs).parentFile, "classes.jsa")
+        archive.text = "archive"
+
+        expect:
+        archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar]) == ["-XX:+UseAppCDS", "-Xshare:auto", "-XX:SharedArchiveFile=" + archive.absolutePath]
+    }
+
+    def "uses a different archive when the Java installation or the class path changes"() {
+        given:
+        def recordArgs = archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar])
+        new File(classList(recordArgs).parentFile, "classes.jsa").text = "archive"
+
+        expect:
+        archives.getJvmArgs("/other/java", JavaVersion.VERSION_1_10, [jar])[1].startsWith("-XX:DumpLoadedClassList=")
+
+        when:
+        jar.text = "changed"
+
+        then:
+        archives.getJvmArgs("java", JavaVersion.VERSION_1_10, [jar])[1].startsWith("-XX:DumpLoadedClassList=")
+    }
+
+    private static File classList(List<String> recordArgs) {
+        def classList = new File(recordArgs[1].substring("-XX:DumpLoadedClassList=".length()))
+        assert classList.parentFile.directory
+        return classList
+    }
+}
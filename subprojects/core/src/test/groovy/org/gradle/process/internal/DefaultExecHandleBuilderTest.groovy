@@ -41,4 +41,17 @@ class DefaultExecHandleBuilderTest extends Specification {
         builder.args == ['1', '2', '3']
         builder.allArguments == ['1', '2', '3']
     }
+
+    def capturesOutputInsteadOfForwardingIt() {
+        when:
+        def output = builder.captureOutput(null)
+        builder.standardOutput.write("out".bytes)
+        builder.errorOutput.write("err".bytes)
+
+        then:
+        output.openInputStream().text == "outerr"
+
+        cleanup:
+        output?.discard()
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.streams
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SpillingOutputStreamTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "keeps output that fits into the window in memory"() {
+        def output = new SpillingOutputStream(tmpDir.testDirectory, 16)
+
+        when:
+        output.write("hello".bytes)
+        output.write(32)
+        output.write("world".bytes)
+        output.close()
+
+        then:
+        !output.spilled
+        output.size == 11
+        tmpDir.testDirectory.list().length == 0
+        output.openInputStream().text == "hello world"
+    }
+
+    def "spills output that outgrows the window to a file"() {
+        def output = new SpillingOutputStream(tmpDir.testDirectory, 16)
+        def text = (1..100).collect { "line $it\n" }.join("")
+
+        when:
+        text.bytes.each { output.write(it) }
+        output.write(text.bytes)
+        output.close()
+
+        then:
+        output.spilled
+        output.size == text.length() * 2
+        tmpDir.testDirectory.list().length == 1
+        output.openInputStream().text == text + text
+    }
+
+    def "can read output that has not been flushed yet"() {
+        def output = new SpillingOutputStream(tmpDir.testDirectory, 4)
+
+        when:
+        output.write("abcdef".bytes)
+        output.write("gh".bytes)
+
+        then:
+        output.openInputStream().text == "abcdefgh"
+
+        cleanup:
+        output.discard()
+    }
+
+    def "discarding output removes the spill file"() {
+        def output = new SpillingOutputStream(tmpDir.testDirectory, 4)
+        output.write("abcdef".bytes)
+        output.close()
+
+        when:
+        output.discard()
+
+        then:
+        !output.spilled
+        tmpDir.testDirectory.list().length == 0
+    }
+
+    def "cannot write to a closed stream before output has spilled"() {
+        def output = new SpillingOutputStream(tmpDir.testDirectory, 16)
+        output.write("abc".bytes)
+        output.close()
+
+        when:
+        output.write("def".bytes)
+
+        then:
+        thrown(IOException)
+
+        when:
+        output.write(1)
+
+        then:
+        thrown(IOException)
+        output.openInputStream().text == "abc"
+    }
+
+    def "cannot write to a closed stream once output has spilled"() {
+        def output = new SpillingOutputStream(tmpDir.testDirectory, 4)
+        output.write("abcdef".bytes)
+        output.close()
+
+        when:
+        output.write("ghijkl".bytes)
+
+        then:
+        thrown(IOException)
+
+        cleanup:
+        output.discard()
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.worker
+
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.worker.child.WorkerHostProtocol
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+
+class ReusableWorkerProcessPoolTest extends Specification {
+    def factory = Mock(WorkerProcessFactory)
+    def memoryManager = Mock(MemoryManager)
+    def pool = new ReusableWorkerProcessPool(factory, memoryManager)
+    def stopped = new CountDownLatch(1)
+    def hostProtocol = Stub(WorkerHostProtocol) {
+        stop() >> { stopped.countDown() }
+    }
+
+    def cleanup() {
+        stopped.countDown()
+        pool.stop()
+    }
+
+    def "reuses released process for worker with the same JVM configuration"() {
+        when:
+        def first = pool.reserve(command(["-Xmx64m"]), "Test Executor 1")
+        pool.release(first)
+        def second = pool.reserve(command(["-Xmx64m"]), "Test Executor 2")
+
+        then:
+        second.is(first)
+        1 * factory.create(_) >> builder()
+        0 * factory._
+    }
+
+    def "starts new process for worker with a different JVM configuration"() {
+        when:
+        def first = pool.reserve(command(["-Xmx64m"]), "Test Executor 1")
+        pool.release(first)
+        def second = pool.reserve(command(["-Xmx128m"]), "Test Executor 2")
+
+        then:
+        !second.is(first)
+        2 * factory.create(_) >> { builder() }
+    }
+
+    def "runs the next worker in the process used by the previous worker"() {
+        def protocol = Mock(WorkerHostProtocol)
+
+        when:
+        def first = pool.reserve(command([]), "Test Executor 1")
+        first.runSession("Test Executor 1", [], new byte[0], Stub(WorkerHostClient.SessionListener))
+        first.sessionCompleted(true, null)
+        pool.release(first)
+        def second = pool.reserve(command([]), "Test Executor 2")
+        second.runSession("Test Executor 2", [], new byte[0], Stub(WorkerHostClient.SessionListener))
+
+        then:
+        1 * factory.create(_) >> builder(protocol)
+        1 * protocol.runSession("Test Executor 1", [], _)
+        1 * protocol.runSession("Test Executor 2", [], _)
+        second.uses == 2
+    }
+
+    def "starts new process for worker that requests a different SecurityManager"() {
+        when:
+        def first = pool.reserve(command([]), "Test Executor 1")
+        pool.release(first)
+        def second = pool.reserve(command([], "128m", ["java.security.manager": "SomeSecurityManager"]), "Test Executor 2")
+
+        then:
+        !second.is(first)
+        2 * factory.create(_) >> { builder() }
+    }
+
+    def "does not reuse processes for workers that run with an agent"() {
+        expect:
+        ReusableWorkerProcessPool.canReuse(command(["-Xmx64m"]))
+        !ReusableWorkerProcessPool.canReuse(command(["-javaagent:jacocoagent.jar"]))
+        !ReusableWorkerProcessPool.canReuse(command(["-agentpath:/lib/profiler.so"]))
+    }
+
+    def "registers itself as a memory holder"() {
+        when:
+        def otherPool = new ReusableWorkerProcessPool(factory, memoryManager)
+        otherPool.stop()
+
+        then:
+        1 * memoryManager.addMemoryHolder({ it instanceof ReusableWorkerProcessPool })
+        1 * memoryManager.removeMemoryHolder({ it instanceof ReusableWorkerProcessPool })
+    }
+
+    def "stops idle processes to release memory"() {
+        when:
+        def first = pool.reserve(command([], "64m"), "Test Executor 1")
+        pool.release(first)
+        def released = pool.attemptToRelease(1)
+        def second = pool.reserve(command([], "64m"), "Test Executor 2")
+
+        then:
+        released == 64 * 1024 * 1024
+        !second.is(first)
+        2 * factory.create(_) >> { builder() }
+    }
+
+    def "stops process that reports it is no longer healthy"() {
+        when:
+        def host = pool.reserve(command([]), "Test Executor 1")
+        host.runSession("Test Executor 1", [], new byte[0], Stub(WorkerHostClient.SessionListener))
+        host.sessionCompleted(false, null)
+        pool.release(host)
+
+        then:
+        1 * factory.create(_) >> builder()
+        stopped.count == 0
+    }
+
+    private JavaExecHandleBuilder command(List<String> jvmArgs, String maxHeapSize = "128m", Map<String, Object> systemProperties = [:]) {
+        Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getWorkingDir() >> new File("work")
+            getEnvironment() >> [:]
+            getAllJvmArgs() >> jvmArgs
+            getMaxHeapSize() >> maxHeapSize
+            getSystemProperties() >> systemProperties
+        }
+    }
+
+    private WorkerProcessBuilder builder(WorkerHostProtocol protocol = hostProtocol) {
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(WorkerHostProtocol) >> protocol
+        }
+        def process = Stub(WorkerProcess) {
+            getConnection() >> connection
+            waitForStop() >> { stopped.await(); null }
+        }
+        Stub(WorkerProcessBuilder) {
+            getJavaCommand() >> Stub(JavaExecHandleBuilder)
+            build() >> process
+        }
+    }
+}
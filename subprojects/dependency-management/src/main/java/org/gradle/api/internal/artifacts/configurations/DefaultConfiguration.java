@@ -471,11 +471,13 @@ public class DefaultConfiguration extends AbstractFileCollection implements Conf
                 dependencyResolutionListeners.getSource().afterResolve(incoming);
                 // Discard listeners
                 dependencyResolutionListeners.removeAll();
+                context.setResult(ResolveConfigurationDependenciesBuildOperationType.RESULT);
             }
 
             @Override
             public BuildOperationDescriptor.Builder description() {
-                return BuildOperationDescriptor.displayName("Resolve dependencies of " + identityPath).progressDisplayName("Resolve dependencies " + identityPath);
+                return BuildOperationDescriptor.displayName("Resolve dependencies of " + identityPath).progressDisplayName("Resolve dependencies " + identityPath)
+                    .details(new ResolveConfigurationDependenciesBuildOperationType.DetailsImpl(identityPath.getPath()));
             }
         });
     }
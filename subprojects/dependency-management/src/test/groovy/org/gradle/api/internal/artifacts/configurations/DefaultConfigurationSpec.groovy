@@ -82,6 +82,7 @@ class DefaultConfigurationSpec extends Specification {
     def immutableAttributesFactory = new DefaultImmutableAttributesFactory()
     def moduleIdentifierFactory = Mock(ImmutableModuleIdentifierFactory)
     def rootComponentMetadataBuilder = Mock(RootComponentMetadataBuilder)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
 
     def setup() {
         _ * listenerManager.createAnonymousBroadcaster(DependencyResolutionListener) >> { new ListenerBroadcast<DependencyResolutionListener>(DependencyResolutionListener) }
@@ -301,6 +302,21 @@ class DefaultConfigurationSpec extends Specification {
         configuration.state == RESOLVED
     }
 
+    def "resolves graph in a build operation"() {
+        def configuration = conf("conf", ":project:conf")
+
+        given:
+        expectResolved([] as Set)
+
+        when:
+        configuration.resolve()
+
+        then:
+        def details = buildOperationExecutor.log.mostRecentDetails(ResolveConfigurationDependenciesBuildOperationType)
+        details.configurationPath == ":project:conf"
+        buildOperationExecutor.log.mostRecentResult(ResolveConfigurationDependenciesBuildOperationType) == ResolveConfigurationDependenciesBuildOperationType.RESULT
+    }
+
     def "get as path throws failure resolving"() {
         def configuration = conf()
         def failure = new RuntimeException()
@@ -1608,7 +1624,7 @@ All Artifacts:
     private DefaultConfiguration conf(String confName = "conf", String path = ":conf") {
         new DefaultConfiguration(Path.path(path), Path.path(path), confName, configurationsProvider, resolver, listenerManager, metaDataProvider,
             Factories.constant(resolutionStrategy), projectAccessListener, projectFinder, TestFiles.fileCollectionFactory(),
-            new TestBuildOperationExecutor(), instantiator, Stub(NotationParser), immutableAttributesFactory, rootComponentMetadataBuilder)
+            buildOperationExecutor, instantiator, Stub(NotationParser), immutableAttributesFactory, rootComponentMetadataBuilder)
     }
 
     private DefaultPublishArtifact artifact(String name) {
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.java.compile.incremental
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.CompilationOutputsFixture
+
+class AbiChangeIncrementalJavaCompilationIntegrationTest extends AbstractIntegrationSpec {
+
+    CompilationOutputsFixture outputs
+
+    def setup() {
+        executer.requireOwnGradleUserHomeDir()
+        executer.beforeExecute { it.withArgument("-Dorg.gradle.java.compile.followAbiChanges=true") }
+        outputs = new CompilationOutputsFixture(file("build/classes"))
+
+        buildFile << """
+            apply plugin: 'java'
+            compileJava.options.incremental = true
+        """
+    }
+
+    private File java(String... classBodies) {
+        File out
+        for (String body : classBodies) {
+            def className = (body =~ /(?s).*?class (\w+) .*/)[0][1]
+            assert className: "unable to find class name"
+            def f = file("src/main/java/${className}.java")
+            f.createFile()
+            f.text = body
+            out = f
+        }
+        out
+    }
+
+    def "does not recompile dependents when only a method body changes"() {
+        java "class A { int foo() { return 1; } }", "class B { int b = new A().foo(); }"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class A { int foo() { return 2; } }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A'
+    }
+
+    def "recompiles only the dependents that use a changed member"() {
+        java "class A { void foo() {} void bar() {} }", "class B { void b() { new A().foo(); } }", "class C { void c() { new A().bar(); } }"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class A { int foo() { return 1; } void bar() {} }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A', 'B'
+    }
+
+    def "recompiles the dependents that use a changed member from a field initializer"() {
+        java "class A { static int foo() { return 1; } }", "class B { long b = A.foo(); }", "class C { A a; }"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class A { static long foo() { return 1; } }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A', 'B'
+    }
+
+    def "recompiles the transitive dependents when the header of a class changes"() {
+        java "class A implements java.io.Serializable {}", "class B { A a; }", "class C { B b; }", "class D {}"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class A {}"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A', 'B', 'C'
+    }
+}
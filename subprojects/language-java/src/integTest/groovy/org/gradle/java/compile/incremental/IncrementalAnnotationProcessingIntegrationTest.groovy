@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.java.compile.incremental
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.CompilationOutputsFixture
+import org.gradle.internal.jvm.Jvm
+import org.gradle.util.TextUtil
+import spock.lang.IgnoreIf
+
+class IncrementalAnnotationProcessingIntegrationTest extends AbstractIntegrationSpec {
+
+    CompilationOutputsFixture outputs
+
+    def setup() {
+        executer.requireOwnGradleUserHomeDir()
+        outputs = new CompilationOutputsFixture(file("build/classes"))
+
+        settingsFile << "include 'processor'"
+        buildFile << """
+            apply plugin: 'java'
+
+            configurations {
+                annotationProcessor
+            }
+            dependencies {
+                compileOnly project(':processor')
+                annotationProcessor project(':processor')
+            }
+            compileJava {
+                options.incremental = true
+                options.annotationProcessorPath = configurations.annotationProcessor
+            }
+        """
+        file("processor/build.gradle") << "apply plugin: 'java'"
+
+        file("processor/src/main/java/Helper.java") << """
+            import java.lang.annotation.*;
+
+            @Retention(RetentionPolicy.SOURCE)
+            @Target(ElementType.TYPE)
+            public @interface Helper {}
+        """
+        file("processor/src/main/java/Service.java") << """
+            import java.lang.annotation.*;
+
+            @Retention(RetentionPolicy.SOURCE)
+            @Target(ElementType.TYPE)
+            public @interface Service {}
+        """
+        file("processor/src/main/java/HelperProcessor.java") << """
+            import java.io.*;
+            import java.util.*;
+            import javax.annotation.processing.*;
+            import javax.lang.model.SourceVersion;
+            import javax.lang.model.element.*;
+
+            @SupportedAnnotationTypes("Helper")
+            public class HelperProcessor extends AbstractProcessor {
+                @Override
+                public SourceVersion getSupportedSourceVersion() {
+                    return SourceVersion.latestSupported();
+                }
+
+                @Override
+                public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                    for (Element element : roundEnv.getElementsAnnotatedWith(Helper.class)) {
+                        String name = element.getSimpleName() + "Helper";
+                        try {
+                            Writer writer = processingEnv.getFiler().createSourceFile(name, element).openWriter();
+                            try {
+                                writer.write("class " + name + " {}");
+                            } finally {
+                                writer.close();
+                            }
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                    return true;
+                }
+            }
+        """
+        file("processor/src/main/java/ServiceRegistryProcessor.java") << """
+            import java.io.*;
+            import java.util.*;
+            import javax.annotation.processing.*;
+            import javax.lang.model.SourceVersion;
+            import javax.lang.model.element.*;
+
+            @SupportedAnnotationTypes("Service")
+            public class ServiceRegistryProcessor extends AbstractProcessor {
+                private boolean generated;
+
+                @Override
+                public SourceVersion getSupportedSourceVersion() {
+                    return SourceVersion.latestSupported();
+                }
+
+                @Override
+                public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                    Set<? extends Element> services = roundEnv.getElementsAnnotatedWith(Service.class);
+                    if (generated || services.isEmpty()) {
+                        return true;
+                    }
+                    generated = true;
+                    List<String> names = new ArrayList<String>();
+                    for (Element service : services) {
+                        names.add(service.getSimpleName().toString());
+                    }
+                    Collections.sort(names);
+                    try {
+                        Writer writer = processingEnv.getFiler().createSourceFile("ServiceRegistry", services.toArray(new Element[0])).openWriter();
+                        try {
+                            writer.write("class ServiceRegistry { static final String SERVICES = \\"" + names + "\\"; }");
+                        } finally {
+                            writer.close();
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return true;
+                }
+            }
+        """
+        file("processor/src/main/resources/META-INF/services/javax.annotation.processing.Processor") << """HelperProcessor
+ServiceRegistryProcessor
+"""
+        file("processor/src/main/resources/META-INF/gradle/incremental.annotation.processors") << """HelperProcessor,isolating
+ServiceRegistryProcessor,aggregating
+"""
+    }
+
+    private File java(String... classBodies) {
+        File out
+        for (String body : classBodies) {
+            def className = (body =~ /(?s).*?class (\w+) .*/)[0][1]
+            assert className: "unable to find class name"
+            def f = file("src/main/java/${className}.java")
+            f.createFile()
+            f.text = body
+            out = f
+        }
+        out
+    }
+
+    def "recompiles only the changed type and the files generated from it by an isolating processor"() {
+        java "@Helper class A {}", "@Helper class B {}", "class Unrelated {}"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "@Helper class A { /* change */ }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A', 'AHelper'
+    }
+
+    def "removes the files an isolating processor generated from a type that no longer needs them"() {
+        java "@Helper class A {}", "@Helper class B {}"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "class A {}"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'A'
+        outputs.deletedClasses 'AHelper'
+        !file("build/classes/java/main/AHelper.java").exists()
+        file("build/classes/java/main/BHelper.java").exists()
+    }
+
+    def "removes the files an isolating processor generated from a deleted type"() {
+        def a = java "@Helper class A {}"
+        java "@Helper class B {}"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        assert a.delete()
+        run "compileJava"
+
+        then:
+        outputs.noneRecompiled()
+        outputs.deletedClasses 'A', 'AHelper'
+    }
+
+    def "reprocesses all originating types of an aggregating processor when one of them changes"() {
+        java "@Service class ServiceA {}", "@Service class ServiceB {}", "class Unrelated {}"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "@Service class ServiceA { /* change */ }"
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'ServiceA', 'ServiceB', 'ServiceRegistry'
+        file("build/classes/java/main/ServiceRegistry.java").text.contains("[ServiceA, ServiceB]")
+    }
+
+    def "regenerates the files of an aggregating processor without a deleted originating type"() {
+        java "@Service class ServiceA {}", "@Service class ServiceB {}", "class Unrelated {}"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        assert file("src/main/java/ServiceA.java").delete()
+        run "compileJava"
+
+        then:
+        outputs.recompiledClasses 'ServiceB', 'ServiceRegistry'
+        outputs.deletedClasses 'ServiceA'
+        file("build/classes/java/main/ServiceRegistry.java").text.contains("[ServiceB]")
+    }
+
+    @IgnoreIf({ !Jvm.current().getExecutable("javac").exists() })
+    def "recompiles everything when the Java command line compiler runs the processors"() {
+        def javaHome = TextUtil.escapeString(Jvm.current().getJavaHome().getAbsolutePath())
+        buildFile << """
+            compileJava.options.with {
+                fork = true
+                forkOptions.javaHome = file("$javaHome")
+            }
+        """
+        java "@Helper class A {}", "@Helper class B {}"
+
+        outputs.snapshot { run "compileJava" }
+
+        when:
+        java "@Helper class A { /* change */ }"
+        run "compileJava", "--info"
+
+        then:
+        outputs.recompiledClasses 'A', 'AHelper', 'B', 'BHelper'
+        output.contains("the Java command line compiler does not record the files generated by annotation processors")
+    }
+}
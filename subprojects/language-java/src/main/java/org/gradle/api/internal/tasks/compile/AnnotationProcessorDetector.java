@@ -16,8 +16,12 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.io.CharStreams;
+import com.google.common.io.Files;
+import org.apache.tools.zip.ZipEntry;
 import org.apache.tools.zip.ZipFile;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
@@ -27,26 +31,67 @@ import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.file.collections.MinimalFileSet;
 import org.gradle.api.internal.tasks.AbstractTaskDependency;
 import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.FileUtils;
 import org.gradle.internal.nativeintegration.filesystem.FileType;
+import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.util.DeprecationLogger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 public class AnnotationProcessorDetector {
+    private static final String PROCESSOR_SERVICES_RESOURCE = "META-INF/services/javax.annotation.processing.Processor";
+    private static final String INCREMENTAL_PROCESSORS_RESOURCE = "META-INF/gradle/incremental.annotation.processors";
+
     private final FileCollectionFactory fileCollectionFactory;
     private final FileContentCache<Boolean> cache;
+    private final FileContentCache<List<AnnotationProcessorDeclaration>> declarationsCache;
 
     public AnnotationProcessorDetector(FileCollectionFactory fileCollectionFactory, FileContentCacheFactory cacheFactory) {
         this.fileCollectionFactory = fileCollectionFactory;
         cache = cacheFactory.newCache("annotation-processors", 20000, new AnnotationServiceLocator(), BaseSerializerFactory.BOOLEAN_SERIALIZER);
+        declarationsCache = cacheFactory.newCache("annotation-processor-declarations", 20000, new AnnotationProcessorDeclarationLocator(), new ListSerializer<AnnotationProcessorDeclaration>(new AnnotationProcessorDeclarationSerializer()));
+    }
+
+    /**
+     * Returns the annotation processors that will run for the given compile options and annotation processor path, together with whether they
+     * support incremental compilation. Processors selected with the {@code -processor} compiler argument are treated as not incremental.
+     */
+    public List<AnnotationProcessorDeclaration> getAnnotationProcessorDeclarations(CompileOptions compileOptions, Iterable<File> annotationProcessorPath) {
+        int pos = compileOptions.getCompilerArgs().indexOf("-processor");
+        if (pos >= 0 && pos < compileOptions.getCompilerArgs().size() - 1) {
+            List<AnnotationProcessorDeclaration> declarations = new ArrayList<AnnotationProcessorDeclaration>();
+            for (String className : Splitter.on(',').omitEmptyStrings().trimResults().split(compileOptions.getCompilerArgs().get(pos + 1))) {
+                declarations.add(new AnnotationProcessorDeclaration(className, IncrementalAnnotationProcessorType.UNKNOWN));
+            }
+            return declarations;
+        }
+        Map<String, AnnotationProcessorDeclaration> declarations = new LinkedHashMap<String, AnnotationProcessorDeclaration>();
+        for (File file : annotationProcessorPath) {
+            for (AnnotationProcessorDeclaration declaration : declarationsCache.get(file)) {
+                if (!declarations.containsKey(declaration.getClassName())) {
+                    declarations.put(declaration.getClassName(), declaration);
+                }
+            }
+        }
+        return new ArrayList<AnnotationProcessorDeclaration>(declarations.values());
     }
 
     /**
@@ -118,14 +163,14 @@ public class AnnotationProcessorDetector {
         @Override
         public Boolean calculate(File file, FileType fileType) {
             if (fileType == FileType.Directory) {
-                return new File(file, "META-INF/services/javax.annotation.processing.Processor").isFile();
+                return new File(file, PROCESSOR_SERVICES_RESOURCE).isFile();
             }
 
             if (fileType == FileType.RegularFile && FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
                 try {
                     ZipFile zipFile = new ZipFile(file);
                     try {
-                        return zipFile.getEntry("META-INF/services/javax.annotation.processing.Processor") != null;
+                        return zipFile.getEntry(PROCESSOR_SERVICES_RESOURCE) != null;
                     } finally {
                         zipFile.close();
                     }
@@ -137,4 +182,93 @@ public class AnnotationProcessorDetector {
             return false;
         }
     }
+
+    private static class AnnotationProcessorDeclarationLocator implements FileContentCacheFactory.Calculator<List<AnnotationProcessorDeclaration>> {
+        @Override
+        public List<AnnotationProcessorDeclaration> calculate(File file, FileType fileType) {
+            try {
+                if (fileType == FileType.Directory) {
+                    return toDeclarations(readLines(new File(file, PROCESSOR_SERVICES_RESOURCE)), readLines(new File(file, INCREMENTAL_PROCESSORS_RESOURCE)));
+                }
+                if (fileType == FileType.RegularFile && FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
+                    ZipFile zipFile = new ZipFile(file);
+                    try {
+                        return toDeclarations(readLines(zipFile, PROCESSOR_SERVICES_RESOURCE), readLines(zipFile, INCREMENTAL_PROCESSORS_RESOURCE));
+                    } finally {
+                        zipFile.close();
+                    }
+                }
+            } catch (IOException e) {
+                DeprecationLogger.nagUserWith("Malformed jar [" + file.getName() + "] found on annotation processor path. Gradle 5.0 will no longer allow malformed jars on annotation processor path.");
+            }
+            return Collections.emptyList();
+        }
+
+        private static List<String> readLines(File file) throws IOException {
+            return file.isFile() ? Files.readLines(file, Charsets.UTF_8) : Collections.<String>emptyList();
+        }
+
+        private static List<String> readLines(ZipFile zipFile, String entryName) throws IOException {
+            ZipEntry entry = zipFile.getEntry(entryName);
+            if (entry == null) {
+                return Collections.emptyList();
+            }
+            InputStream inputStream = zipFile.getInputStream(entry);
+            try {
+                return CharStreams.readLines(new InputStreamReader(inputStream, Charsets.UTF_8));
+            } finally {
+                inputStream.close();
+            }
+        }
+
+        private static List<AnnotationProcessorDeclaration> toDeclarations(List<String> processorNames, List<String> incrementalProcessors) {
+            if (processorNames.isEmpty()) {
+                return Collections.emptyList();
+            }
+            Map<String, IncrementalAnnotationProcessorType> types = new HashMap<String, IncrementalAnnotationProcessorType>();
+            for (String line : incrementalProcessors) {
+                List<String> parts = Splitter.on(',').trimResults().splitToList(stripComment(line));
+                if (parts.size() == 2) {
+                    types.put(parts.get(0), typeOf(parts.get(1)));
+                }
+            }
+            List<AnnotationProcessorDeclaration> declarations = new ArrayList<AnnotationProcessorDeclaration>();
+            for (String line : processorNames) {
+                String className = stripComment(line);
+                if (!className.isEmpty()) {
+                    IncrementalAnnotationProcessorType type = types.get(className);
+                    declarations.add(new AnnotationProcessorDeclaration(className, type == null ? IncrementalAnnotationProcessorType.UNKNOWN : type));
+                }
+            }
+            return declarations;
+        }
+
+        private static IncrementalAnnotationProcessorType typeOf(String name) {
+            try {
+                return IncrementalAnnotationProcessorType.valueOf(name.toUpperCase(Locale.US));
+            } catch (IllegalArgumentException e) {
+                return IncrementalAnnotationProcessorType.UNKNOWN;
+            }
+        }
+
+        private static String stripComment(String line) {
+            int comment = line.indexOf('#');
+            return (comment >= 0 ? line.substring(0, comment) : line).trim();
+        }
+    }
+
+    private static class AnnotationProcessorDeclarationSerializer extends AbstractSerializer<AnnotationProcessorDeclaration> {
+        @Override
+        public AnnotationProcessorDeclaration read(Decoder decoder) throws Exception {
+            String className = decoder.readString();
+            IncrementalAnnotationProcessorType type = IncrementalAnnotationProcessorType.values()[decoder.readSmallInt()];
+            return new AnnotationProcessorDeclaration(className, type);
+        }
+
+        @Override
+        public void write(Encoder encoder, AnnotationProcessorDeclaration value) throws Exception {
+            encoder.writeString(value.getClassName());
+            encoder.writeSmallInt(value.getType().ordinal());
+        }
+    }
 }
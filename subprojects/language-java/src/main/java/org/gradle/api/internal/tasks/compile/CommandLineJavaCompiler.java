@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.ForkOptions;
 import org.gradle.internal.jvm.Jvm;
@@ -28,6 +29,7 @@ import org.gradle.process.internal.ExecHandleBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.Serializable;
 
 /**
@@ -35,6 +37,7 @@ import java.io.Serializable;
  */
 public class CommandLineJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(CommandLineJavaCompiler.class);
+    private static final String UNTRACKED_PROCESSING_CAUSE = "the Java command line compiler does not record the files generated by annotation processors";
 
     private final CompileSpecToArguments<JavaCompileSpec> argumentsGenerator = new CommandLineJavaCompilerArgumentsGenerator();
 
@@ -46,10 +49,26 @@ public class CommandLineJavaCompiler implements Compiler<JavaCompileSpec>, Seria
 
         ExecHandle handle = createCompilerHandle(executable, spec);
         executeCompiler(handle);
+        recordUntrackedProcessing(spec);
 
         return new SimpleWorkResult(true);
     }
 
+    /**
+     * The annotation processors run inside the external compiler, where the files they generate cannot be traced back to the types
+     * they originate from. Records that the next compilation has to be a full recompilation, so that it does not leave stale generated files.
+     */
+    private static void recordUntrackedProcessing(JavaCompileSpec spec) {
+        File resultFile = spec.getAnnotationProcessingResultFile();
+        if (resultFile == null || spec.getEffectiveAnnotationProcessors() == null || spec.getEffectiveAnnotationProcessors().isEmpty()) {
+            return;
+        }
+        LOGGER.info("The next compilation will be a full recompilation, because {}.", UNTRACKED_PROCESSING_CAUSE);
+        AnnotationProcessingResult result = new AnnotationProcessingResult();
+        result.setFullRebuildCause(UNTRACKED_PROCESSING_CAUSE);
+        result.writeTo(resultFile);
+    }
+
     private ExecHandle createCompilerHandle(String executable, JavaCompileSpec spec) {
         ExecHandleBuilder builder = new DefaultExecHandleBuilder();
         builder.setWorkingDir(spec.getWorkingDir());
@@ -25,6 +25,12 @@ import javax.tools.JavaCompiler;
 import java.io.File;
 
 public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
+    /**
+     * When set to {@code true}, the Java compiler keeps its file managers open between compilations so that compilations in the same
+     * process (the build process or a long-lived compiler daemon) reuse the indexes of unchanged classpath jars.
+     */
+    public static final String REUSE_FILE_MANAGERS_PROPERTY = "org.gradle.java.compile.reuseFileManagers";
+
     private final File daemonWorkingDir;
     private final WorkerDaemonFactory workerDaemonFactory;
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
@@ -57,7 +63,7 @@ public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
             return new CommandLineJavaCompiler();
         }
 
-        Compiler<JavaCompileSpec> compiler = new JdkJavaCompiler(javaHomeBasedJavaCompilerFactory);
+        Compiler<JavaCompileSpec> compiler = new JdkJavaCompiler(javaHomeBasedJavaCompilerFactory, Boolean.getBoolean(REUSE_FILE_MANAGERS_PROPERTY));
         if (ForkingJavaCompileSpec.class.isAssignableFrom(type) && !jointCompilation) {
             return new DaemonJavaCompiler(daemonWorkingDir, compiler, workerDaemonFactory, fileResolver);
         }
@@ -16,8 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.compile.CompileOptions;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.List;
 
@@ -33,4 +35,20 @@ public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     List<File> getAnnotationProcessorPath();
 
     void setAnnotationProcessorPath(List<File> path);
+
+    /**
+     * The incremental annotation processors to run, tracking the files they generate. When null, the compiler discovers the processors on the annotation processor path itself.
+     */
+    @Nullable
+    List<AnnotationProcessorDeclaration> getEffectiveAnnotationProcessors();
+
+    void setEffectiveAnnotationProcessors(@Nullable List<AnnotationProcessorDeclaration> processors);
+
+    /**
+     * The file to record the files generated by the {@link #getEffectiveAnnotationProcessors() incremental annotation processors} in.
+     */
+    @Nullable
+    File getAnnotationProcessingResultFile();
+
+    void setAnnotationProcessingResultFile(@Nullable File file);
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the standard file managers of the Java compiler open between compilations in the same process. A file manager keeps the index of
+ * each jar it has read open until it is closed, so later compilations with an overlapping classpath do not need to open and scan those jars again.
+ *
+ * <p>A file manager is reused only for a compilation with the same compiler options, ignoring the paths that differ between compilations, and
+ * only when none of the jars it has indexed and that are on the classpath of the next compilation have changed since they were indexed. The path
+ * locations of a reused file manager are reset before it is handed out, so that the paths of the previous compilation do not leak into the next one.
+ * File managers are closed instead of being kept when the total size of the jars they have indexed exceeds the memory budget.</p>
+ */
+public class JavaFileManagerCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerCache.class);
+    private static final Set<String> PER_COMPILATION_PATH_OPTIONS = ImmutableSet.of(
+        "-classpath", "-cp", "--class-path", "-sourcepath", "--source-path", "-processorpath", "--processor-path", "-d", "-s", "-h");
+    // The module oriented locations of later Java versions are only set from options that are part of the key
+    private static final StandardLocation[] RESET_LOCATIONS = {
+        StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_OUTPUT, StandardLocation.NATIVE_HEADER_OUTPUT,
+        StandardLocation.CLASS_PATH, StandardLocation.SOURCE_PATH, StandardLocation.ANNOTATION_PROCESSOR_PATH, StandardLocation.PLATFORM_CLASS_PATH
+    };
+    private static final JavaFileManagerCache INSTANCE = new JavaFileManagerCache(Runtime.getRuntime().maxMemory() / 4, Runtime.getRuntime().availableProcessors());
+
+    private final Object lock = new Object();
+    private final long maxArchiveBytes;
+    private final int maxIdleFileManagers;
+    private final List<CachedFileManager> idle = new ArrayList<CachedFileManager>();
+    private long idleArchiveBytes;
+
+    public static JavaFileManagerCache getInstance() {
+        return INSTANCE;
+    }
+
+    JavaFileManagerCache(long maxArchiveBytes, int maxIdleFileManagers) {
+        this.maxArchiveBytes = maxArchiveBytes;
+        this.maxIdleFileManagers = maxIdleFileManagers;
+    }
+
+    /**
+     * Returns a file manager for the given compiler that is not used by any other compilation. The file manager must be returned using {@link #release(CachedFileManager)}.
+     *
+     * @param options the options the compiler is invoked with.
+     */
+    public CachedFileManager acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options, List<File> classpath) {
+        List<String> key = keyOf(options);
+        List<CachedFileManager> stale = new ArrayList<CachedFileManager>();
+        try {
+            synchronized (lock) {
+                Iterator<CachedFileManager> iterator = idle.iterator();
+                while (iterator.hasNext()) {
+                    CachedFileManager candidate = iterator.next();
+                    if (candidate.compilerType != compiler.getClass() || !Objects.equal(candidate.charset, charset) || !candidate.options.equals(key)) {
+                        continue;
+                    }
+                    iterator.remove();
+                    idleArchiveBytes -= candidate.archiveBytes;
+                    if (candidate.isUpToDate(classpath) && candidate.resetLocations()) {
+                        LOGGER.debug("Reusing Java compiler file manager with {} indexed archives.", candidate.archives.size());
+                        candidate.record(classpath);
+                        return candidate;
+                    }
+                    stale.add(candidate);
+                }
+            }
+        } finally {
+            closeAll(stale);
+        }
+        CachedFileManager fileManager = new CachedFileManager(compiler.getClass(), charset, key, compiler.getStandardFileManager(null, null, charset));
+        fileManager.record(classpath);
+        return fileManager;
+    }
+
+    /**
+     * Returns the given file manager to the cache once its compilation has completed.
+     */
+    public void release(CachedFileManager fileManager) {
+        List<CachedFileManager> evicted = new ArrayList<CachedFileManager>();
+        synchronized (lock) {
+            if (fileManager.archiveBytes > maxArchiveBytes) {
+                evicted.add(fileManager);
+            } else {
+                idle.add(0, fileManager);
+                idleArchiveBytes += fileManager.archiveBytes;
+                while (idle.size() > maxIdleFileManagers || idleArchiveBytes > maxArchiveBytes) {
+                    CachedFileManager eldest = idle.remove(idle.size() - 1);
+                    idleArchiveBytes -= eldest.archiveBytes;
+                    evicted.add(eldest);
+                }
+            }
+        }
+        closeAll(evicted);
+    }
+
+    /**
+     * Closes all idle file managers.
+     */
+    public void clear() {
+        List<CachedFileManager> evicted;
+        synchronized (lock) {
+            evicted = new ArrayList<CachedFileManager>(idle);
+            idle.clear();
+            idleArchiveBytes = 0;
+        }
+        closeAll(evicted);
+    }
+
+    /**
+     * Returns the given options without the paths that usually differ between compilations. These paths are applied to the file manager
+     * by each compilation, after its locations have been reset.
+     */
+    private static List<String> keyOf(List<String> options) {
+        List<String> key = new ArrayList<String>(options.size());
+        Iterator<String> iterator = options.iterator();
+        while (iterator.hasNext()) {
+            String option = iterator.next();
+            if (PER_COMPILATION_PATH_OPTIONS.contains(option)) {
+                if (iterator.hasNext()) {
+                    iterator.next();
+                }
+            } else {
+                key.add(option);
+            }
+        }
+        return key;
+    }
+
+    private static void closeAll(List<CachedFileManager> fileManagers) {
+        List<StandardJavaFileManager> toClose = new ArrayList<StandardJavaFileManager>(fileManagers.size());
+        for (CachedFileManager fileManager : fileManagers) {
+            toClose.add(fileManager.fileManager);
+        }
+        CompositeStoppable.stoppable(toClose).stop();
+    }
+
+    public static class CachedFileManager {
+        private final Class<?> compilerType;
+        private final Charset charset;
+        private final List<String> options;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, ArchiveSnapshot> archives = new HashMap<File, ArchiveSnapshot>();
+        private long archiveBytes;
+
+        private CachedFileManager(Class<?> compilerType, @Nullable Charset charset, List<String> options, StandardJavaFileManager fileManager) {
+            this.compilerType = compilerType;
+            this.charset = charset;
+            this.options = options;
+            this.fileManager = fileManager;
+        }
+
+        public StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        private boolean isUpToDate(List<File> classpath) {
+            for (File file : classpath) {
+                ArchiveSnapshot snapshot = archives.get(file);
+                if (snapshot != null && !snapshot.equals(ArchiveSnapshot.of(file))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Resets every path location of the file manager to its default, as if it had just been created. Returns false when the file manager does not support this.
+         */
+        private boolean resetLocations() {
+            try {
+                for (StandardLocation location : RESET_LOCATIONS) {
+                    fileManager.setLocation(location, null);
+                }
+                return true;
+            } catch (IOException e) {
+                LOGGER.debug("Could not reset the locations of Java compiler file manager.", e);
+                return false;
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not reset the locations of Java compiler file manager.", e);
+                return false;
+            }
+        }
+
+        private void record(List<File> classpath) {
+            for (File file : classpath) {
+                if (!archives.containsKey(file) && file.isFile()) {
+                    ArchiveSnapshot snapshot = ArchiveSnapshot.of(file);
+                    archives.put(file, snapshot);
+                    archiveBytes += snapshot.length;
+                }
+            }
+        }
+    }
+
+    private static class ArchiveSnapshot {
+        private final long length;
+        private final long lastModified;
+
+        private ArchiveSnapshot(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        static ArchiveSnapshot of(File file) {
+            return new ArchiveSnapshot(file.length(), file.lastModified());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ArchiveSnapshot)) {
+                return false;
+            }
+            ArchiveSnapshot other = (ArchiveSnapshot) obj;
+            return length == other.length && lastModified == other.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (length * 31 + lastModified);
+        }
+    }
+}
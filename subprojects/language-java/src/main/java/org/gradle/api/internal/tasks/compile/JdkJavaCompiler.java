@@ -16,37 +16,71 @@
 package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.JavaVersion;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalProcessor;
 import org.gradle.api.internal.tasks.compile.reflect.SourcepathIgnoringProxy;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.Factory;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.processing.Processor;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    private final boolean reuseFileManagers;
 
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+        this(javaHomeBasedJavaCompilerFactory, false);
+    }
+
+    /**
+     * @param reuseFileManagers whether to keep the file manager of the compiler open after the compilation, so that later compilations in the same process can reuse the jar indexes it holds.
+     */
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, boolean reuseFileManagers) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.reuseFileManagers = reuseFileManagers;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        CompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        boolean success;
+        if (reuseFileManagers) {
+            JavaFileManagerCache cache = JavaFileManagerCache.getInstance();
+            JavaFileManagerCache.CachedFileManager fileManager = cache.acquire(compiler, charset, options, spec.getCompileClasspath());
+            try {
+                success = compile(spec, compiler, fileManager.getFileManager(), options);
+            } finally {
+                cache.release(fileManager);
+            }
+        } else {
+            success = compile(spec, compiler, compiler.getStandardFileManager(null, null, charset), options);
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
@@ -54,11 +88,53 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return new SimpleWorkResult(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private boolean compile(JavaCompileSpec spec, JavaCompiler compiler, StandardJavaFileManager fileManager, List<String> options) {
+        JavaCompiler.CompilationTask task = createCompileTask(spec, compiler, fileManager, options);
+        List<AnnotationProcessorDeclaration> processors = spec.getEffectiveAnnotationProcessors();
+        File resultFile = spec.getAnnotationProcessingResultFile();
+        if (processors == null || resultFile == null) {
+            return task.call();
+        }
+
+        AnnotationProcessingResult result = new AnnotationProcessingResult();
+        ClassLoader processorClassLoader = createProcessorClassLoader(spec, fileManager);
+        try {
+            task.setProcessors(createIncrementalProcessors(processors, processorClassLoader, result));
+            boolean success = task.call();
+            if (success) {
+                result.writeTo(resultFile);
+            }
+            return success;
+        } finally {
+            ClassLoaderUtils.tryClose(processorClassLoader);
+        }
+    }
+
+    private static ClassLoader createProcessorClassLoader(JavaCompileSpec spec, StandardJavaFileManager fileManager) {
+        // A reused file manager has this location reset by JavaFileManagerCache before the next compilation uses it
+        try {
+            fileManager.setLocation(StandardLocation.ANNOTATION_PROCESSOR_PATH, spec.getAnnotationProcessorPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fileManager.getClassLoader(StandardLocation.ANNOTATION_PROCESSOR_PATH);
+    }
+
+    private static List<Processor> createIncrementalProcessors(List<AnnotationProcessorDeclaration> declarations, ClassLoader processorClassLoader, AnnotationProcessingResult result) {
+        List<Processor> processors = new ArrayList<Processor>(declarations.size());
+        for (AnnotationProcessorDeclaration declaration : declarations) {
+            Class<? extends Processor> processorClass;
+            try {
+                processorClass = processorClassLoader.loadClass(declaration.getClassName()).asSubclass(Processor.class);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException(String.format("Could not load annotation processor '%s'.", declaration.getClassName()), e);
+            }
+            processors.add(new IncrementalProcessor(DirectInstantiator.instantiate(processorClass), declaration.getType(), result));
+        }
+        return processors;
+    }
+
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, JavaCompiler compiler, StandardJavaFileManager standardFileManager, List<String> options) {
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
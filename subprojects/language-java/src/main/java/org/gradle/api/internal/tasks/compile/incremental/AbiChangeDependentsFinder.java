@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.io.Files;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.compile.incremental.asm.ClassAbiVisitor;
+import org.gradle.api.internal.tasks.compile.incremental.asm.MemberReferencesVisitor;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAbi;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAbiChange;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.compile.incremental.deps.MemberReferences;
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
+import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+import org.objectweb.asm.ClassReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the classes to recompile after a set of classes was recompiled, by comparing the ABI of those classes before and after the compilation.
+ * A dependent class is only recompiled when it extends a changed class, or when it references one of the changed members.
+ * When the header of a class has changed, or the class was removed, all of its transitive dependents are recompiled.
+ */
+class AbiChangeDependentsFinder {
+    private final PreviousCompilation previousCompilation;
+    private final File destinationDir;
+
+    AbiChangeDependentsFinder(PreviousCompilation previousCompilation, File destinationDir) {
+        this.previousCompilation = previousCompilation;
+        this.destinationDir = destinationDir;
+    }
+
+    /**
+     * Reads the ABI of the given top level classes and their nested classes from the destination directory.
+     */
+    Map<String, ClassAbi> readAbis(Collection<String> classNames) {
+        Map<String, ClassAbi> abis = Maps.newHashMap();
+        for (String className : classNames) {
+            int idx = className.lastIndexOf('.');
+            File packageDir = idx < 0 ? destinationDir : new File(destinationDir, className.substring(0, idx).replace('.', '/'));
+            String simpleName = className.substring(idx + 1);
+            File[] classFiles = packageDir.listFiles();
+            if (classFiles == null) {
+                continue;
+            }
+            for (File classFile : classFiles) {
+                String fileName = classFile.getName();
+                if (fileName.equals(simpleName + ".class") || (fileName.startsWith(simpleName + "$") && fileName.endsWith(".class"))) {
+                    ClassAbi abi = ClassAbiVisitor.analyze(readClass(classFile));
+                    abis.put(abi.getClassName(), abi);
+                }
+            }
+        }
+        return abis;
+    }
+
+    /**
+     * Adds the classes affected by the ABI changes to the given spec, except for the already compiled classes, or sets the full rebuild cause when the changes cannot be followed.
+     */
+    void addDependents(Map<String, ClassAbi> previousAbis, Map<String, ClassAbi> currentAbis, Collection<String> compiledClasses, RecompilationSpec spec) {
+        for (String className : Sets.union(previousAbis.keySet(), currentAbis.keySet())) {
+            ClassAbiChange change = ClassAbiChange.between(className, previousAbis.get(className), currentAbis.get(className));
+            if (change.getChangedConstant() != null) {
+                spec.setFullRebuildCause("constant '" + change.getChangedConstant() + "' of '" + className + "' has changed", null);
+                return;
+            }
+            if (!change.isEmpty() && !addDependents(change, compiledClasses, spec)) {
+                return;
+            }
+        }
+    }
+
+    private boolean addDependents(ClassAbiChange change, Collection<String> compiledClasses, RecompilationSpec spec) {
+        String className = change.getClassName();
+        Set<String> subtypes = collectSubtypes(className);
+        Set<String> owners = Sets.union(subtypes, Sets.newHashSet(className));
+        Set<String> candidates = Sets.newLinkedHashSet(subtypes);
+        for (String owner : owners) {
+            DependentsSet dependents = previousCompilation.getDirectDependents(owner);
+            if (dependents.isDependencyToAll()) {
+                spec.setFullRebuildCause(dependents.getDescription() != null ? dependents.getDescription() : "'" + owner + "' is a dependency to all classes", null);
+                return false;
+            }
+            candidates.addAll(dependents.getDependentClasses());
+        }
+        if (change.isHeaderChanged()) {
+            recurseDependents(Sets.newHashSet(owners), candidates, Sets.newLinkedHashSet(candidates));
+        }
+        for (String candidate : candidates) {
+            if (compiledClasses.contains(topLevelClassName(candidate))) {
+                continue;
+            }
+            if (subtypes.contains(candidate) || change.isHeaderChanged() || usesChangedMembers(candidate, change, owners)) {
+                spec.getClassNames().add(candidate);
+            }
+        }
+        return true;
+    }
+
+    private void recurseDependents(Set<String> visited, Set<String> result, Set<String> dependentClasses) {
+        for (String d : dependentClasses) {
+            if (!visited.add(d)) {
+                continue;
+            }
+            result.add(d);
+            DependentsSet currentDependents = previousCompilation.getDirectDependents(d);
+            if (!currentDependents.isDependencyToAll()) {
+                recurseDependents(visited, result, currentDependents.getDependentClasses());
+            }
+        }
+    }
+
+    private boolean usesChangedMembers(String className, ClassAbiChange change, Set<String> owners) {
+        File classFile = new File(destinationDir, className.replace('.', '/') + ".class");
+        if (!classFile.isFile()) {
+            // not one of the compiled classes, so we cannot tell
+            return true;
+        }
+        MemberReferences references = MemberReferencesVisitor.analyze(readClass(classFile));
+        return change.isUsedBy(references, owners);
+    }
+
+    private Set<String> collectSubtypes(String className) {
+        Set<String> subtypes = Sets.newLinkedHashSet();
+        Deque<String> queue = new ArrayDeque<String>(previousCompilation.getChildren(className));
+        while (!queue.isEmpty()) {
+            String subtype = queue.removeFirst();
+            if (subtypes.add(subtype)) {
+                queue.addAll(previousCompilation.getChildren(subtype));
+            }
+        }
+        return subtypes;
+    }
+
+    private static String topLevelClassName(String className) {
+        int idx = className.indexOf('$');
+        return idx > 0 ? className.substring(0, idx) : className;
+    }
+
+    private static ClassReader readClass(File classFile) {
+        try {
+            return new ClassReader(Files.toByteArray(classFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to read class file: '%s'", classFile), e);
+        }
+    }
+}
@@ -19,19 +19,21 @@ package org.gradle.api.internal.tasks.compile.incremental;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
-import org.gradle.api.internal.cache.Stash;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
 
 import java.io.File;
+import java.util.HashSet;
 import java.util.Set;
 
 public class ClassSetAnalysisUpdater {
@@ -44,19 +46,24 @@ public class ClassSetAnalysisUpdater {
         }
     };
 
-    private final Stash<ClassSetAnalysisData> stash;
+    private final LocalClassSetAnalysisStore stash;
     private final FileOperations fileOperations;
     private ClassDependenciesAnalyzer analyzer;
     private final FileHasher fileHasher;
 
-    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
+    public ClassSetAnalysisUpdater(LocalClassSetAnalysisStore stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
         this.stash = stash;
         this.fileOperations = fileOperations;
         this.analyzer = analyzer;
         this.fileHasher = fileHasher;
     }
 
-    public void updateAnalysis(JavaCompileSpec spec) {
+    /**
+     * Analyzes the compiled classes and stores the analysis for the next compilation.
+     *
+     * @return the stored analysis
+     */
+    public ClassSetAnalysisData updateAnalysis(JavaCompileSpec spec) {
         Timer clock = Timers.startTimer();
         Set<File> baseDirs = Sets.newLinkedHashSet();
         baseDirs.add(spec.getDestinationDir());
@@ -66,7 +73,22 @@ public class ClassSetAnalysisUpdater {
             fileOperations.fileTree(baseDir).visit(analyzer);
         }
         ClassSetAnalysisData data = analyzer.getAnalysis();
+        File annotationProcessingResultFile = spec.getAnnotationProcessingResultFile();
+        if (annotationProcessingResultFile != null && annotationProcessingResultFile.isFile()) {
+            data = data.withAnnotationProcessingResult(updateAnnotationProcessingResult(AnnotationProcessingResult.readFrom(annotationProcessingResultFile), data));
+            annotationProcessingResultFile.delete();
+        }
         stash.put(data);
         LOG.info("Class dependency analysis for incremental compilation took {}.", clock.getElapsed());
+        return data;
+    }
+
+    private AnnotationProcessingResult updateAnnotationProcessingResult(AnnotationProcessingResult current, ClassSetAnalysisData data) {
+        ClassSetAnalysisData previousData = stash.get();
+        AnnotationProcessingResult previous = previousData == null ? null : previousData.getAnnotationProcessingResult();
+        if (previous == null) {
+            return current;
+        }
+        return previous.updatedWith(current, new HashSet<String>(data.getClassNames()));
     }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+import javax.annotation.Nullable;
+
+/**
+ * The incremental compilation of the Java sources of a task, including the analysis of what to recompile and of the compiled classes.
+ */
+public final class CompileJavaBuildOperationType implements BuildOperationType<CompileJavaBuildOperationType.Details, CompileJavaBuildOperationType.Result> {
+
+    public interface Details {
+
+        String getTaskPath();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The reason why all the sources were recompiled, or null when only some of them were.
+         */
+        @Nullable
+        String getFullRecompilationCause();
+
+        /**
+         * The number of classes analyzed after the compilation, for the next incremental compilation.
+         */
+        int getAnalyzedClassCount();
+
+        /**
+         * The number of top level classes recompiled, which are all the top level classes when all the sources were recompiled.
+         */
+        int getRecompiledClassCount();
+
+        /**
+         * The number of stale class files removed before an incremental compilation.
+         */
+        int getStaleClassFileCount();
+
+        /**
+         * The time in milliseconds spent snapshotting the jars of the compile classpath.
+         */
+        long getClasspathSnapshotTime();
+
+        /**
+         * The time in milliseconds spent analyzing the compiled classes.
+         */
+        long getClassAnalysisTime();
+
+        /**
+         * The time in milliseconds spent detecting what to recompile and compiling, excluding the classpath snapshot.
+         */
+        long getCompilationTime();
+
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.language.base.internal.compile.Compiler;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Runs the incremental annotation processors of a compilation so that the files they generate are recorded in the result file,
+ * from where {@link ClassSetAnalysisUpdater} picks them up.
+ */
+class IncrementalAnnotationProcessingCompiler implements Compiler<JavaCompileSpec> {
+    private final Compiler<JavaCompileSpec> delegate;
+    private final List<AnnotationProcessorDeclaration> annotationProcessors;
+    private final File resultFile;
+
+    IncrementalAnnotationProcessingCompiler(Compiler<JavaCompileSpec> delegate, List<AnnotationProcessorDeclaration> annotationProcessors, File resultFile) {
+        this.delegate = delegate;
+        this.annotationProcessors = annotationProcessors;
+        this.resultFile = resultFile;
+    }
+
+    @Override
+    public WorkResult execute(JavaCompileSpec spec) {
+        resultFile.delete();
+        spec.setEffectiveAnnotationProcessors(annotationProcessors);
+        spec.setAnnotationProcessingResultFile(resultFile);
+        return delegate.execute(spec);
+    }
+}
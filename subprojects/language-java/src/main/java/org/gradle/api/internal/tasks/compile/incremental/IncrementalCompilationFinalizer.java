@@ -17,35 +17,103 @@
 package org.gradle.api.internal.tasks.compile.incremental;
 
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.CallableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.time.Timer;
+import org.gradle.internal.time.Timers;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import java.util.Collection;
+
 class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
+    /**
+     * Logs the statistics of each incremental Java compilation at lifecycle level rather than at info level, to find the compilations that do not benefit from it.
+     */
+    static final String LOG_STATISTICS_PROPERTY = "org.gradle.java.compile.logStatistics";
+
+    private static final Logger LOG = Logging.getLogger(IncrementalCompilationFinalizer.class);
 
     private final Compiler<JavaCompileSpec> delegate;
     private final JarClasspathSnapshotWriter writer;
     private final ClassSetAnalysisUpdater updater;
+    private final IncrementalCompilationStatistics statistics;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final String taskPath;
 
     public IncrementalCompilationFinalizer(Compiler<JavaCompileSpec> delegate, JarClasspathSnapshotWriter writer,
-                                           ClassSetAnalysisUpdater updater) {
+                                           ClassSetAnalysisUpdater updater, IncrementalCompilationStatistics statistics,
+                                           BuildOperationExecutor buildOperationExecutor, String taskPath) {
         this.delegate = delegate;
         this.writer = writer;
         this.updater = updater;
+        this.statistics = statistics;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.taskPath = taskPath;
     }
 
     @Override
-    public WorkResult execute(JavaCompileSpec spec) {
+    public WorkResult execute(final JavaCompileSpec spec) {
+        return buildOperationExecutor.call(new CallableBuildOperation<WorkResult>() {
+            @Override
+            public WorkResult call(BuildOperationContext context) {
+                WorkResult result = compileAndAnalyze(spec);
+                context.setResult(statistics);
+                LogLevel level = Boolean.getBoolean(LOG_STATISTICS_PROPERTY) ? LogLevel.LIFECYCLE : LogLevel.INFO;
+                LOG.log(level, "{} - incremental compilation: {}.", taskPath, statistics);
+                return result;
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName("Compile Java for " + taskPath).details(new CompileJavaBuildOperationType.Details() {
+                    @Override
+                    public String getTaskPath() {
+                        return taskPath;
+                    }
+                });
+            }
+        });
+    }
+
+    private WorkResult compileAndAnalyze(JavaCompileSpec spec) {
+        Timer clock = Timers.startTimer();
         WorkResult out = delegate.execute(spec);
+        statistics.setCompilationTime(clock.getElapsedMillis() - statistics.getClasspathSnapshotTime());
 
         if (!(out instanceof RecompilationNotNecessary)) {
             //if recompilation was skipped
             //there's no point in updating because we have exactly the same output classes)
-            updater.updateAnalysis(spec);
+            clock = Timers.startTimer();
+            ClassSetAnalysisData data = updater.updateAnalysis(spec);
+            statistics.setClassAnalysisTime(clock.getElapsedMillis());
+            if (data != null) {
+                statistics.setAnalyzedClassCount(data.getClassNames().size());
+                if (statistics.getFullRecompilationCause() != null) {
+                    statistics.setRecompiledClassCount(countTopLevelClasses(data.getClassNames()));
+                }
+            }
         }
 
         writer.storeJarSnapshots(spec.getCompileClasspath());
 
         return out;
     }
+
+    private static int countTopLevelClasses(Collection<String> classNames) {
+        int count = 0;
+        for (String className : classNames) {
+            if (className.indexOf('$') < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -17,12 +17,15 @@
 package org.gradle.api.internal.tasks.compile.incremental;
 
 import com.google.common.collect.Lists;
+import org.gradle.api.file.EmptyFileVisitor;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.internal.Factory;
+import org.gradle.util.GFileUtils;
 
 import java.io.File;
 import java.util.Collection;
@@ -35,10 +38,15 @@ class IncrementalCompilationInitializer {
         this.fileOperations = fileOperations;
     }
 
-    public void initializeCompilation(JavaCompileSpec spec, Collection<String> staleClasses) {
+    /**
+     * Restricts the compilation to the sources of the given classes and deletes their class files.
+     *
+     * @return the number of class files deleted
+     */
+    public int initializeCompilation(JavaCompileSpec spec, Collection<String> staleClasses) {
         if (staleClasses.isEmpty()) {
             spec.setSource(new SimpleFileCollection());
-            return; //do nothing. No classes need recompilation.
+            return 0; //do nothing. No classes need recompilation.
         }
 
         Factory<PatternSet> patternSetFactory = fileOperations.getFileResolver().getPatternSetFactory();
@@ -55,7 +63,28 @@ class IncrementalCompilationInitializer {
         spec.setCompileClasspath(classpath);
         //get rid of stale files
         FileTree deleteMe = fileOperations.fileTree(spec.getDestinationDir()).matching(classesToDelete);
-        fileOperations.delete(deleteMe);
+        StaleClassFileDeleter deleter = new StaleClassFileDeleter();
+        deleteMe.visit(deleter);
+        return deleter.deletedCount;
+    }
+
+    /**
+     * Deletes files that annotation processors have generated for the classes to recompile, so that no longer generated files do not linger.
+     */
+    public void deleteStaleGeneratedFiles(Collection<File> staleGeneratedFiles) {
+        if (!staleGeneratedFiles.isEmpty()) {
+            fileOperations.delete(staleGeneratedFiles);
+        }
+    }
+
+    private static class StaleClassFileDeleter extends EmptyFileVisitor {
+        private int deletedCount;
+
+        @Override
+        public void visitFile(FileVisitDetails fileDetails) {
+            GFileUtils.forceDelete(fileDetails.getFile());
+            deletedCount++;
+        }
     }
 
     void preparePatterns(Collection<String> staleClasses, PatternSet classesToDelete, PatternSet sourceToCompile) {
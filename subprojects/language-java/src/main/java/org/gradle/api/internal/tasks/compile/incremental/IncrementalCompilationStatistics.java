@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import javax.annotation.Nullable;
+
+/**
+ * Collects what happened during one incremental Java compilation, so that the compilations that do not benefit from it can be found.
+ */
+public class IncrementalCompilationStatistics implements CompileJavaBuildOperationType.Result {
+    private String fullRecompilationCause;
+    private int analyzedClassCount;
+    private int recompiledClassCount;
+    private int staleClassFileCount;
+    private long classpathSnapshotTime;
+    private long classAnalysisTime;
+    private long compilationTime;
+
+    @Nullable
+    @Override
+    public String getFullRecompilationCause() {
+        return fullRecompilationCause;
+    }
+
+    public void setFullRecompilationCause(String fullRecompilationCause) {
+        this.fullRecompilationCause = fullRecompilationCause;
+    }
+
+    @Override
+    public int getAnalyzedClassCount() {
+        return analyzedClassCount;
+    }
+
+    public void setAnalyzedClassCount(int analyzedClassCount) {
+        this.analyzedClassCount = analyzedClassCount;
+    }
+
+    @Override
+    public int getRecompiledClassCount() {
+        return recompiledClassCount;
+    }
+
+    public void setRecompiledClassCount(int recompiledClassCount) {
+        this.recompiledClassCount = recompiledClassCount;
+    }
+
+    @Override
+    public int getStaleClassFileCount() {
+        return staleClassFileCount;
+    }
+
+    public void addStaleClassFiles(int count) {
+        staleClassFileCount += count;
+    }
+
+    @Override
+    public long getClasspathSnapshotTime() {
+        return classpathSnapshotTime;
+    }
+
+    public void addClasspathSnapshotTime(long millis) {
+        classpathSnapshotTime += millis;
+    }
+
+    @Override
+    public long getClassAnalysisTime() {
+        return classAnalysisTime;
+    }
+
+    public void setClassAnalysisTime(long millis) {
+        this.classAnalysisTime = millis;
+    }
+
+    @Override
+    public long getCompilationTime() {
+        return compilationTime;
+    }
+
+    public void setCompilationTime(long millis) {
+        this.compilationTime = millis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (fullRecompilationCause != null) {
+            builder.append("full recompilation because ").append(fullRecompilationCause);
+        } else {
+            builder.append("recompiled ").append(recompiledClassCount).append(" classes");
+            builder.append(", removed ").append(staleClassFileCount).append(" stale class files");
+        }
+        builder.append(", analyzed ").append(analyzedClassCount).append(" classes");
+        builder.append(", compilation ").append(compilationTime).append("ms");
+        builder.append(", classpath snapshot ").append(classpathSnapshotTime).append("ms");
+        builder.append(", class analysis ").append(classAnalysisTime).append("ms");
+        return builder.toString();
+    }
+}
@@ -16,7 +16,6 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
-import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
@@ -24,12 +23,23 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotMaker;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.language.base.internal.compile.Compiler;
 
+import java.io.File;
+import java.util.List;
+
 public class IncrementalCompilerDecorator {
+    /**
+     * Enables recompiling the dependents of changed sources only when they use a part of the ABI that changed. Compile time constants still require a full recompilation when their value changes.
+     */
+    public static final String FOLLOW_ABI_CHANGES_PROPERTY = "org.gradle.java.compile.followAbiChanges";
 
     private static final Logger LOG = Logging.getLogger(IncrementalCompilerDecorator.class);
     private final JarClasspathSnapshotMaker jarClasspathSnapshotMaker;
@@ -39,13 +49,17 @@ public class IncrementalCompilerDecorator {
     private final RecompilationSpecProvider staleClassDetecter;
     private final ClassSetAnalysisUpdater classSetAnalysisUpdater;
     private final CompilationSourceDirs sourceDirs;
-    private final FileCollection annotationProcessorPath;
+    private final List<AnnotationProcessorDeclaration> annotationProcessors;
+    private final File annotationProcessingResultFile;
     private final IncrementalCompilationInitializer compilationInitializer;
+    private final IncrementalCompilationStatistics statistics;
+    private final BuildOperationExecutor buildOperationExecutor;
 
     public IncrementalCompilerDecorator(JarClasspathSnapshotMaker jarClasspathSnapshotMaker, CompileCaches compileCaches,
                                         IncrementalCompilationInitializer compilationInitializer, CleaningJavaCompiler cleaningCompiler, String displayName,
                                         RecompilationSpecProvider staleClassDetecter, ClassSetAnalysisUpdater classSetAnalysisUpdater,
-                                        CompilationSourceDirs sourceDirs, FileCollection annotationProcessorPath) {
+                                        CompilationSourceDirs sourceDirs, List<AnnotationProcessorDeclaration> annotationProcessors, File annotationProcessingResultFile,
+                                        IncrementalCompilationStatistics statistics, BuildOperationExecutor buildOperationExecutor) {
         this.jarClasspathSnapshotMaker = jarClasspathSnapshotMaker;
         this.compileCaches = compileCaches;
         this.compilationInitializer = compilationInitializer;
@@ -54,33 +68,68 @@ public class IncrementalCompilerDecorator {
         this.staleClassDetecter = staleClassDetecter;
         this.classSetAnalysisUpdater = classSetAnalysisUpdater;
         this.sourceDirs = sourceDirs;
-        this.annotationProcessorPath = annotationProcessorPath;
+        this.annotationProcessors = annotationProcessors;
+        this.annotationProcessingResultFile = annotationProcessingResultFile;
+        this.statistics = statistics;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public Compiler<JavaCompileSpec> prepareCompiler(IncrementalTaskInputs inputs) {
         Compiler<JavaCompileSpec> compiler = getCompiler(inputs, sourceDirs);
-        return new IncrementalCompilationFinalizer(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater);
+        if (!annotationProcessors.isEmpty() && findNonIncrementalProcessor() == null) {
+            compiler = new IncrementalAnnotationProcessingCompiler(compiler, annotationProcessors, annotationProcessingResultFile);
+        }
+        return new IncrementalCompilationFinalizer(compiler, jarClasspathSnapshotMaker, classSetAnalysisUpdater, statistics, buildOperationExecutor, displayName);
+    }
+
+    private AnnotationProcessorDeclaration findNonIncrementalProcessor() {
+        for (AnnotationProcessorDeclaration processor : annotationProcessors) {
+            if (processor.getType() == IncrementalAnnotationProcessorType.UNKNOWN) {
+                return processor;
+            }
+        }
+        return null;
     }
 
     private Compiler<JavaCompileSpec> getCompiler(IncrementalTaskInputs inputs, CompilationSourceDirs sourceDirs) {
         if (!inputs.isIncremental()) {
             LOG.info("{} - is not incremental (e.g. outputs have changed, no previous execution, etc.).", displayName);
+            statistics.setFullRecompilationCause("the task is not incremental (e.g. outputs have changed, no previous execution, etc.)");
             return cleaningCompiler;
         }
         if (!sourceDirs.canInferSourceRoots()) {
             LOG.info("{} - is not incremental. Unable to infer the source directories.", displayName);
+            statistics.setFullRecompilationCause("the source directories cannot be inferred");
             return cleaningCompiler;
         }
-        if (!annotationProcessorPath.isEmpty()) {
-            LOG.info("{} - is not incremental. Annotation processors are present.", displayName);
+        AnnotationProcessorDeclaration nonIncrementalProcessor = findNonIncrementalProcessor();
+        if (nonIncrementalProcessor != null) {
+            LOG.info("{} - is not incremental. Annotation processor '{}' does not support incremental compilation.", displayName, nonIncrementalProcessor.getClassName());
+            statistics.setFullRecompilationCause("annotation processor '" + nonIncrementalProcessor.getClassName() + "' does not support incremental compilation");
             return cleaningCompiler;
         }
         ClassSetAnalysisData data = compileCaches.getLocalClassSetAnalysisStore().get();
         if (data == null) {
             LOG.info("{} - is not incremental. No class analysis data available from the previous build.", displayName);
+            statistics.setFullRecompilationCause("no class analysis data is available from the previous build");
             return cleaningCompiler;
         }
+        if (!annotationProcessors.isEmpty()) {
+            AnnotationProcessingResult processingResult = data.getAnnotationProcessingResult();
+            if (processingResult == null) {
+                LOG.info("{} - is not incremental. No annotation processing data available from the previous build.", displayName);
+                statistics.setFullRecompilationCause("no annotation processing data is available from the previous build");
+                return cleaningCompiler;
+            }
+            if (processingResult.getFullRebuildCause() != null) {
+                LOG.info("{} - is not incremental. Full recompilation is required because {}.", displayName, processingResult.getFullRebuildCause());
+                statistics.setFullRecompilationCause(processingResult.getFullRebuildCause());
+                return cleaningCompiler;
+            }
+        }
         PreviousCompilation previousCompilation = new PreviousCompilation(new ClassSetAnalysis(data), compileCaches.getLocalJarClasspathSnapshotStore(), compileCaches.getJarSnapshotCache());
-        return new SelectiveCompiler(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker);
+        // the files generated by annotation processors are tracked per compilation, so the dependents are compiled in the same compilation for now
+        boolean followAbiChanges = annotationProcessors.isEmpty() && Boolean.getBoolean(FOLLOW_ABI_CHANGES_PROPERTY);
+        return new SelectiveCompiler(inputs, previousCompilation, cleaningCompiler, staleClassDetecter, compilationInitializer, jarClasspathSnapshotMaker, followAbiChanges, statistics);
     }
 }
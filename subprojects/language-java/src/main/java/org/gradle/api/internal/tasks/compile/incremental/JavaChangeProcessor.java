@@ -27,15 +27,31 @@ class JavaChangeProcessor {
 
     private final SourceToNameConverter sourceToNameConverter;
     private final PreviousCompilation previousCompilation;
+    private final boolean deferDependents;
 
     public JavaChangeProcessor(PreviousCompilation previousCompilation, SourceToNameConverter sourceToNameConverter) {
+        this(previousCompilation, sourceToNameConverter, false);
+    }
+
+    /**
+     * @param deferDependents whether to leave the dependents of the changed sources to be found from the ABI changes after the sources are recompiled.
+     */
+    public JavaChangeProcessor(PreviousCompilation previousCompilation, SourceToNameConverter sourceToNameConverter, boolean deferDependents) {
         this.previousCompilation = previousCompilation;
         this.sourceToNameConverter = sourceToNameConverter;
+        this.deferDependents = deferDependents;
     }
 
     public void processChange(InputFileDetails input, RecompilationSpec spec) {
         String className = sourceToNameConverter.getClassName(input.getFile());
         spec.getClassNames().add(className);
+        if (deferDependents) {
+            DependentsSet directDependents = previousCompilation.getDirectDependents(className);
+            if (directDependents.isDependencyToAll()) {
+                spec.setFullRebuildCause(directDependents.getDescription(), input.getFile());
+            }
+            return;
+        }
         DependentsSet actualDependents = previousCompilation.getDependents(className, Collections.<Integer>emptySet());
         if (actualDependents.isDependencyToAll()) {
             spec.setFullRebuildCause(actualDependents.getDescription(), input.getFile());
@@ -19,17 +19,23 @@ package org.gradle.api.internal.tasks.compile.incremental;
 import org.gradle.api.Action;
 import org.gradle.api.internal.changedetection.rules.FileChange;
 import org.gradle.api.internal.file.FileOperations;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarChangeProcessor;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.internal.nativeintegration.filesystem.FileType;
 import org.gradle.internal.util.Alignment;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -47,11 +53,18 @@ public class RecompilationSpecProvider {
     }
 
     public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot) {
+        return provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot, false);
+    }
+
+    /**
+     * @param deferSourceDependents whether the dependents of changed sources are left out, to be found from the ABI changes of the recompiled classes.
+     */
+    public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot, boolean deferSourceDependents) {
         //creating an action that will be executed against all changes
         RecompilationSpec spec = new RecompilationSpec();
         JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(fileOperations, jarClasspathSnapshot, previousCompilation);
         processJarChanges(previousCompilation.getJarSnapshots(), jarClasspathSnapshot, jarChangeProcessor, spec);
-        JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(previousCompilation, sourceToNameConverter);
+        JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(previousCompilation, sourceToNameConverter, deferSourceDependents);
         ClassChangeProcessor classChangeProcessor = new ClassChangeProcessor(previousCompilation);
         InputChangeAction action = new InputChangeAction(spec, javaChangeProcessor, classChangeProcessor);
 
@@ -62,9 +75,51 @@ public class RecompilationSpecProvider {
             return action.spec;
         }
         inputs.removed(action);
+        if (action.spec.getFullRebuildCause() == null) {
+            processGeneratedFiles(previousCompilation, action.spec);
+        }
         return action.spec;
     }
 
+    /**
+     * Adds the types generated by annotation processors from the classes to recompile, and the classes that depend on those generated types.
+     * Types generated by aggregating processors are always regenerated from all their originating types.
+     */
+    private void processGeneratedFiles(PreviousCompilation previousCompilation, RecompilationSpec spec) {
+        AnnotationProcessingResult processingResult = previousCompilation.getAnnotationProcessingResult();
+        if (processingResult == null || spec.getClassNames().isEmpty()) {
+            return;
+        }
+        Deque<String> origins = new ArrayDeque<String>(spec.getClassNames());
+        if (!processingResult.getAggregatingOrigins().isEmpty() || !processingResult.getAggregatedFiles().isEmpty()) {
+            origins.addAll(processingResult.getAggregatingOrigins());
+            addGeneratedFiles(processingResult.getAggregatedTypes(), processingResult.getAggregatedFiles(), previousCompilation, spec, origins);
+        }
+        Set<String> visited = new HashSet<String>();
+        while (!origins.isEmpty() && spec.getFullRebuildCause() == null) {
+            String origin = origins.removeFirst();
+            if (visited.add(origin)) {
+                spec.getClassNames().add(origin);
+                addGeneratedFiles(processingResult.getGeneratedTypes(origin), processingResult.getGeneratedFiles(origin), previousCompilation, spec, origins);
+            }
+        }
+    }
+
+    private void addGeneratedFiles(Set<String> generatedTypes, Set<String> generatedFiles, PreviousCompilation previousCompilation, RecompilationSpec spec, Deque<String> origins) {
+        for (String path : generatedFiles) {
+            spec.getStaleGeneratedFiles().add(new File(path));
+        }
+        for (String generatedType : generatedTypes) {
+            spec.getClassNames().add(generatedType);
+            DependentsSet dependents = previousCompilation.getDependents(generatedType, Collections.<Integer>emptySet());
+            if (dependents.isDependencyToAll()) {
+                spec.setFullRebuildCause(dependents.getDescription() != null ? dependents.getDescription() : "generated type '" + generatedType + "' is a dependency to all classes", null);
+                return;
+            }
+            origins.addAll(dependents.getDependentClasses());
+        }
+    }
+
     private void processJarChanges(Map<File, JarSnapshot> previousCompilationJarSnapshots, JarClasspathSnapshot currentJarSnapshots, JarChangeProcessor jarChangeProcessor, RecompilationSpec spec) {
         Set<File> previousCompilationJars = previousCompilationJarSnapshots.keySet();
         Set<File> currentCompilationJars = currentJarSnapshots.getJars();
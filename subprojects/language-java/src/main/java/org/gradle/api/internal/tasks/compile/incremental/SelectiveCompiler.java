@@ -16,8 +16,12 @@
 
 package org.gradle.api.internal.tasks.compile.incremental;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAbi;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
@@ -29,7 +33,11 @@ import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
 
+import java.io.File;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class SelectiveCompiler implements org.gradle.language.base.internal.compile.Compiler<JavaCompileSpec> {
     private static final Logger LOG = Logging.getLogger(SelectiveCompiler.class);
@@ -39,30 +47,44 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
     private final RecompilationSpecProvider recompilationSpecProvider;
     private final IncrementalCompilationInitializer incrementalCompilationInitilizer;
     private final JarClasspathSnapshotProvider jarClasspathSnapshotProvider;
+    private final boolean followAbiChanges;
+    private final IncrementalCompilationStatistics statistics;
 
+    /**
+     * @param followAbiChanges whether to compile the changed sources first, and then only the dependents that use the parts of their ABI that changed, instead of all their transitive dependents at once.
+     */
     public SelectiveCompiler(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, CleaningJavaCompiler cleaningCompiler,
-                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider) {
+                             RecompilationSpecProvider recompilationSpecProvider, IncrementalCompilationInitializer compilationInitializer, JarClasspathSnapshotProvider jarClasspathSnapshotProvider,
+                             boolean followAbiChanges, IncrementalCompilationStatistics statistics) {
         this.inputs = inputs;
         this.previousCompilation = previousCompilation;
         this.cleaningCompiler = cleaningCompiler;
         this.recompilationSpecProvider = recompilationSpecProvider;
         this.incrementalCompilationInitilizer = compilationInitializer;
         this.jarClasspathSnapshotProvider = jarClasspathSnapshotProvider;
+        this.followAbiChanges = followAbiChanges;
+        this.statistics = statistics;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
         Timer clock = Timers.startTimer();
         JarClasspathSnapshot jarClasspathSnapshot = jarClasspathSnapshotProvider.getJarClasspathSnapshot(spec.getCompileClasspath());
-        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot);
+        RecompilationSpec recompilationSpec = recompilationSpecProvider.provideRecompilationSpec(inputs, previousCompilation, jarClasspathSnapshot, followAbiChanges);
 
         if (recompilationSpec.isFullRebuildNeeded()) {
             LOG.info("Full recompilation is required because {}. Analysis took {}.", recompilationSpec.getFullRebuildCause(), clock.getElapsed());
+            statistics.setFullRecompilationCause(recompilationSpec.getFullRebuildCause());
             return cleaningCompiler.execute(spec);
         }
 
         Collection<String> classNames = recompilationSpec.getClassNames();
-        incrementalCompilationInitilizer.initializeCompilation(spec, classNames);
+        incrementalCompilationInitilizer.deleteStaleGeneratedFiles(recompilationSpec.getStaleGeneratedFiles());
+        if (followAbiChanges) {
+            return compileFollowingAbiChanges(spec, classNames, clock);
+        }
+        statistics.addStaleClassFiles(incrementalCompilationInitilizer.initializeCompilation(spec, classNames));
+        statistics.setRecompiledClassCount(classNames.size());
         if (spec.getSource().isEmpty()) {
             LOG.info("None of the classes needs to be compiled! Analysis took {}. ", clock.getElapsed());
             return new RecompilationNotNecessary();
@@ -72,8 +94,56 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
             //use the original compiler to avoid cleaning up all the files
             return cleaningCompiler.getCompiler().execute(spec);
         } finally {
-            LOG.info("Incremental compilation of {} classes completed in {}.", classNames.size(), clock.getElapsed());
+            LOG.info("Incremental compilation of {} completed in {}.", describeRecompiledClasses(classNames.size()), clock.getElapsed());
             LOG.debug("Recompiled classes {}", classNames);
         }
     }
+
+    private WorkResult compileFollowingAbiChanges(JavaCompileSpec spec, Collection<String> classNames, Timer clock) {
+        AbiChangeDependentsFinder dependentsFinder = new AbiChangeDependentsFinder(previousCompilation, spec.getDestinationDir());
+        FileCollection allSources = spec.getSource();
+        List<File> compileClasspath = Lists.newArrayList(spec.getCompileClasspath());
+        Set<String> compiledClasses = Sets.newLinkedHashSet();
+        WorkResult result = new RecompilationNotNecessary();
+        int passes = 0;
+        Collection<String> classesToCompile = classNames;
+        while (!classesToCompile.isEmpty()) {
+            Map<String, ClassAbi> previousAbis = dependentsFinder.readAbis(classesToCompile);
+            spec.setSource(allSources);
+            spec.setCompileClasspath(compileClasspath);
+            statistics.addStaleClassFiles(incrementalCompilationInitilizer.initializeCompilation(spec, classesToCompile));
+            if (!spec.getSource().isEmpty()) {
+                //use the original compiler to avoid cleaning up all the files
+                result = cleaningCompiler.getCompiler().execute(spec);
+                passes++;
+            }
+            compiledClasses.addAll(classesToCompile);
+            statistics.setRecompiledClassCount(compiledClasses.size());
+
+            RecompilationSpec dependentsSpec = new RecompilationSpec();
+            dependentsFinder.addDependents(previousAbis, dependentsFinder.readAbis(classesToCompile), compiledClasses, dependentsSpec);
+            if (dependentsSpec.isFullRebuildNeeded()) {
+                LOG.info("Full recompilation is required because {}. Analysis took {}.", dependentsSpec.getFullRebuildCause(), clock.getElapsed());
+                statistics.setFullRecompilationCause(dependentsSpec.getFullRebuildCause());
+                spec.setSource(allSources);
+                spec.setCompileClasspath(compileClasspath);
+                return cleaningCompiler.execute(spec);
+            }
+            classesToCompile = dependentsSpec.getClassNames();
+        }
+
+        if (passes == 0) {
+            LOG.info("None of the classes needs to be compiled! Analysis took {}. ", clock.getElapsed());
+        } else {
+            LOG.info("Incremental compilation of {} in {} passes completed in {}.", describeRecompiledClasses(compiledClasses.size()), passes, clock.getElapsed());
+        }
+        LOG.debug("Recompiled classes {}", compiledClasses);
+        return result;
+    }
+
+    private String describeRecompiledClasses(int recompiledCount) {
+        int classCount = Math.max(previousCompilation.getTopLevelClassCount(), recompiledCount);
+        int percentage = classCount == 0 ? 0 : recompiledCount * 100 / classCount;
+        return recompiledCount + " out of " + classCount + " classes (" + percentage + "%)";
+    }
 }
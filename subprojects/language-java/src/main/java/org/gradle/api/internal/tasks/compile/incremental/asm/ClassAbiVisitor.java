@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.asm;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAbi;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts the {@link ClassAbi} of a class file. Method bodies, private and synthetic members are ignored, as they cannot be seen by other classes.
+ */
+public class ClassAbiVisitor extends ClassVisitor {
+    // flags that do not affect how other classes compile against a member
+    private static final int IGNORED_ACCESS = Opcodes.ACC_SUPER | Opcodes.ACC_SYNCHRONIZED | Opcodes.ACC_NATIVE | Opcodes.ACC_STRICT | Opcodes.ACC_VOLATILE | Opcodes.ACC_TRANSIENT;
+
+    private final Map<String, String> members = Maps.newHashMap();
+    private final Set<String> constants = Sets.newHashSet();
+    private final StringBuilder header = new StringBuilder();
+    private String className;
+    private String internalName;
+    private boolean annotationType;
+
+    private ClassAbiVisitor() {
+        super(Opcodes.ASM6);
+    }
+
+    public static ClassAbi analyze(ClassReader reader) {
+        ClassAbiVisitor visitor = new ClassAbiVisitor();
+        reader.accept(visitor, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return new ClassAbi(visitor.className, visitor.header.toString(), visitor.annotationType, visitor.members, visitor.constants);
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+        className = name.replace('/', '.');
+        internalName = name;
+        annotationType = (access & Opcodes.ACC_ANNOTATION) != 0;
+        header.append(access & ~IGNORED_ACCESS).append('|').append(signature).append('|').append(superName).append('|').append(Arrays.toString(interfaces));
+    }
+
+    @Override
+    public void visitInnerClass(String name, String outerName, String innerName, int access) {
+        if (name.equals(internalName)) {
+            // the modifiers of a nested class, such as 'static', are only recorded in the inner class attribute
+            header.append("|inner ").append(access & ~IGNORED_ACCESS);
+        }
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+        if (isVisible(access)) {
+            members.put(name, (access & ~IGNORED_ACCESS) + "|" + desc + "|" + signature + "|" + value);
+            if (value != null && (access & Opcodes.ACC_STATIC) != 0 && (access & Opcodes.ACC_FINAL) != 0) {
+                constants.add(name);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+        if (isVisible(access)) {
+            String[] sortedExceptions = exceptions == null ? new String[0] : exceptions.clone();
+            Arrays.sort(sortedExceptions);
+            members.put(name + desc, (access & ~IGNORED_ACCESS) + "|" + signature + "|" + Arrays.toString(sortedExceptions));
+        }
+        return null;
+    }
+
+    private static boolean isVisible(int access) {
+        return (access & (Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC)) == 0;
+    }
+}
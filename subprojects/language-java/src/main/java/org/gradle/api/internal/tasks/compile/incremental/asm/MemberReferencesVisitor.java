@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.asm;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.gradle.api.internal.tasks.compile.incremental.deps.MemberReferences;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.TypePath;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the fields and methods of other classes that a class file references, from its method bodies, which include the field initializers,
+ * and from the values of its annotations.
+ */
+public class MemberReferencesVisitor extends ClassVisitor {
+    private final Map<String, Set<String>> membersByOwner = Maps.newHashMap();
+    private final AnnotationVisitor annotationVisitor = new MemberRecordingAnnotationVisitor();
+    private final FieldVisitor fieldVisitor = new MemberRecordingFieldVisitor();
+    private final MethodVisitor methodVisitor = new MemberRecordingMethodVisitor();
+    private String className;
+
+    private MemberReferencesVisitor() {
+        super(Opcodes.ASM6);
+    }
+
+    public static MemberReferences analyze(ClassReader reader) {
+        MemberReferencesVisitor visitor = new MemberReferencesVisitor();
+        reader.accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return new MemberReferences(visitor.className, visitor.membersByOwner);
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+        className = name.replace('/', '.');
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+        return annotationVisitor;
+    }
+
+    @Override
+    public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+        return annotationVisitor;
+    }
+
+    @Override
+    public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+        return fieldVisitor;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+        return methodVisitor;
+    }
+
+    private void addReference(String owner, String member) {
+        if (owner.startsWith("[")) {
+            // a method of an array type, such as clone()
+            return;
+        }
+        String ownerName = owner.replace('/', '.');
+        Set<String> members = membersByOwner.get(ownerName);
+        if (members == null) {
+            members = Sets.newHashSet();
+            membersByOwner.put(ownerName, members);
+        }
+        members.add(member);
+    }
+
+    private void addReference(Handle handle) {
+        if (handle.getTag() <= Opcodes.H_PUTSTATIC) {
+            addReference(handle.getOwner(), handle.getName());
+        } else {
+            addReference(handle.getOwner(), handle.getName() + handle.getDesc());
+        }
+    }
+
+    /**
+     * Records the enum constants used as annotation values. The elements of an annotation type are not recorded, as any change to an annotation type affects all of its users.
+     */
+    private class MemberRecordingAnnotationVisitor extends AnnotationVisitor {
+        MemberRecordingAnnotationVisitor() {
+            super(Opcodes.ASM6);
+        }
+
+        @Override
+        public void visitEnum(String name, String desc, String value) {
+            addReference(Type.getType(desc).getInternalName(), value);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String desc) {
+            return this;
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            return this;
+        }
+    }
+
+    private class MemberRecordingFieldVisitor extends FieldVisitor {
+        MemberRecordingFieldVisitor() {
+            super(Opcodes.ASM6);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+            return annotationVisitor;
+        }
+    }
+
+    private class MemberRecordingMethodVisitor extends MethodVisitor {
+        MemberRecordingMethodVisitor() {
+            super(Opcodes.ASM6);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotationDefault() {
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitInsnAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitTryCatchAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+            return annotationVisitor;
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+            addReference(owner, name);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+            addReference(owner, name + desc);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+            Type producedType = Type.getReturnType(desc);
+            for (Object arg : bsmArgs) {
+                if (arg instanceof Handle) {
+                    addReference((Handle) arg);
+                } else if (arg instanceof Type && ((Type) arg).getSort() == Type.METHOD && producedType.getSort() == Type.OBJECT) {
+                    // the functional interface method implemented by a lambda or method reference
+                    addReference(producedType.getInternalName(), name + ((Type) arg).getDescriptor());
+                }
+            }
+        }
+
+        @Override
+        public void visitLdcInsn(Object cst) {
+            if (cst instanceof Handle) {
+                addReference((Handle) cst);
+            }
+        }
+    }
+}
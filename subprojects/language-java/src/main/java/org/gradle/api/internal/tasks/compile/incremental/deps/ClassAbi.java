@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of a class file that classes compiled against it can see: the class header and the signature of each non-private, non-synthetic field and method.
+ *
+ * Members are keyed by their name for fields, and by their name and descriptor for methods.
+ */
+public class ClassAbi {
+    private final String className;
+    private final String header;
+    private final boolean annotationType;
+    private final Map<String, String> members;
+    private final Set<String> constants;
+
+    public ClassAbi(String className, String header, boolean annotationType, Map<String, String> members, Set<String> constants) {
+        this.className = className;
+        this.header = header;
+        this.annotationType = annotationType;
+        this.members = members;
+        this.constants = constants;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public boolean isAnnotationType() {
+        return annotationType;
+    }
+
+    public Map<String, String> getMembers() {
+        return members;
+    }
+
+    /**
+     * The keys of the accessible compile time constants, whose values are inlined into the classes that use them.
+     */
+    public Set<String> getConstants() {
+        return constants;
+    }
+
+    public static String memberName(String memberKey) {
+        int idx = memberKey.indexOf('(');
+        return idx < 0 ? memberKey : memberKey.substring(0, idx);
+    }
+}
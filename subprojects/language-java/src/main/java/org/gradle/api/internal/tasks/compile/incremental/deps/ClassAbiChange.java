@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import com.google.common.collect.Sets;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The difference between the ABI of a class before and after it was recompiled.
+ */
+public class ClassAbiChange {
+    private final String className;
+    private final boolean headerChanged;
+    private final String changedConstant;
+    private final Set<String> changedMembers;
+    private final Set<String> addedMemberNames;
+
+    private ClassAbiChange(String className, boolean headerChanged, @Nullable String changedConstant, Set<String> changedMembers, Set<String> addedMemberNames) {
+        this.className = className;
+        this.headerChanged = headerChanged;
+        this.changedConstant = changedConstant;
+        this.changedMembers = changedMembers;
+        this.addedMemberNames = addedMemberNames;
+    }
+
+    /**
+     * Compares two versions of a class. A missing previous version means that the class was added, which does not affect the classes compiled before. A missing current version means that the class was removed.
+     */
+    public static ClassAbiChange between(String className, @Nullable ClassAbi previous, @Nullable ClassAbi current) {
+        Set<String> changedMembers = Sets.newHashSet();
+        Set<String> addedMemberNames = Sets.newHashSet();
+        if (previous == null) {
+            return new ClassAbiChange(className, false, null, changedMembers, addedMemberNames);
+        }
+        Map<String, String> currentMembers = current == null ? null : current.getMembers();
+        String changedConstant = null;
+        for (Map.Entry<String, String> entry : previous.getMembers().entrySet()) {
+            String currentMember = currentMembers == null ? null : currentMembers.get(entry.getKey());
+            if (!entry.getValue().equals(currentMember)) {
+                changedMembers.add(entry.getKey());
+                if (changedConstant == null && previous.getConstants().contains(entry.getKey())) {
+                    changedConstant = entry.getKey();
+                }
+            }
+        }
+        if (currentMembers != null) {
+            for (String member : currentMembers.keySet()) {
+                if (!previous.getMembers().containsKey(member)) {
+                    addedMemberNames.add(ClassAbi.memberName(member));
+                }
+            }
+        }
+        boolean headerChanged = current == null || !previous.getHeader().equals(current.getHeader())
+            || (previous.isAnnotationType() && !(changedMembers.isEmpty() && addedMemberNames.isEmpty()));
+        return new ClassAbiChange(className, headerChanged, changedConstant, changedMembers, addedMemberNames);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Whether the class was removed, or changed in a way that affects every class referencing it, such as a changed super type.
+     */
+    public boolean isHeaderChanged() {
+        return headerChanged;
+    }
+
+    /**
+     * The first accessible constant that was changed or removed. Constants are inlined, so the classes using them cannot be found from their class files.
+     */
+    @Nullable
+    public String getChangedConstant() {
+        return changedConstant;
+    }
+
+    public Set<String> getChangedMembers() {
+        return changedMembers;
+    }
+
+    public Set<String> getAddedMemberNames() {
+        return addedMemberNames;
+    }
+
+    public boolean isEmpty() {
+        return !headerChanged && changedMembers.isEmpty() && addedMemberNames.isEmpty();
+    }
+
+    /**
+     * Whether the given class references a changed member, or a member with the same name as an added member, which might now resolve differently.
+     *
+     * @param owners the changed class and its subtypes, through which the members of the changed class can be referenced.
+     */
+    public boolean isUsedBy(MemberReferences references, Set<String> owners) {
+        for (String owner : owners) {
+            for (String member : references.getMembers(owner)) {
+                if (headerChanged || changedMembers.contains(member) || addedMemberNames.contains(ClassAbi.memberName(member))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
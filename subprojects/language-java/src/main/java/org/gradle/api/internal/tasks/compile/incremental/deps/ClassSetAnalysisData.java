@@ -19,12 +19,15 @@ package org.gradle.api.internal.tasks.compile.incremental.deps;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.SetSerializer;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,17 +41,28 @@ public class ClassSetAnalysisData {
     final Map<String, Set<Integer>> classesToConstants;
     final Map<Integer, Set<String>> literalsToClasses;
     final Map<String, Set<String>> classesToChildren;
+    final AnnotationProcessingResult annotationProcessingResult;
 
     public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Multimap<String, Integer> classesToConstants, Multimap<Integer, String> literalsToClasses, Multimap<String, String> classesToChildren) {
         this(filePathToClassName, dependents, asMap(classesToConstants), asMap(literalsToClasses), asMap(classesToChildren));
     }
 
     public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, Set<Integer>> classesToConstants, Map<Integer, Set<String>> literalsToClasses, Map<String, Set<String>> classesToChildren) {
+        this(filePathToClassName, dependents, classesToConstants, literalsToClasses, classesToChildren, null);
+    }
+
+    public ClassSetAnalysisData(Map<String, String> filePathToClassName, Map<String, DependentsSet> dependents, Map<String, Set<Integer>> classesToConstants, Map<Integer, Set<String>> literalsToClasses, Map<String, Set<String>> classesToChildren,
+                                @Nullable AnnotationProcessingResult annotationProcessingResult) {
         this.filePathToClassName = filePathToClassName;
         this.dependents = dependents;
         this.classesToConstants = classesToConstants;
         this.literalsToClasses = literalsToClasses;
         this.classesToChildren = classesToChildren;
+        this.annotationProcessingResult = annotationProcessingResult;
+    }
+
+    public ClassSetAnalysisData withAnnotationProcessingResult(AnnotationProcessingResult annotationProcessingResult) {
+        return new ClassSetAnalysisData(filePathToClassName, dependents, classesToConstants, literalsToClasses, classesToChildren, annotationProcessingResult);
     }
 
     private static <K, V> Map<K, Set<V>> asMap(Multimap<K, V> multimap) {
@@ -59,6 +73,18 @@ public class ClassSetAnalysisData {
         return builder.build();
     }
 
+    public Collection<String> getClassNames() {
+        return filePathToClassName.values();
+    }
+
+    /**
+     * Returns the files generated by the incremental annotation processors of the compilation, or null when they were not tracked.
+     */
+    @Nullable
+    public AnnotationProcessingResult getAnnotationProcessingResult() {
+        return annotationProcessingResult;
+    }
+
     public String getClassNameForFile(String filePath) {
         return filePathToClassName.get(filePath);
     }
@@ -82,6 +108,7 @@ public class ClassSetAnalysisData {
 
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
         private static final SetSerializer<Integer> INTEGER_SET_SERIALIZER = new SetSerializer<Integer>(INTEGER_SERIALIZER, false);
+        private static final AnnotationProcessingResult.Serializer ANNOTATION_PROCESSING_RESULT_SERIALIZER = new AnnotationProcessingResult.Serializer();
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
@@ -136,7 +163,9 @@ public class ClassSetAnalysisData {
                 classNameToChildren.put(parent, namesBuilder.build());
             }
 
-            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build());
+            AnnotationProcessingResult annotationProcessingResult = decoder.readBoolean() ? ANNOTATION_PROCESSING_RESULT_SERIALIZER.read(decoder) : null;
+
+            return new ClassSetAnalysisData(filePathToClassNameBuilder.build(), dependentsBuilder.build(), classesToConstantsBuilder.build(), literalsToClassesBuilder.build(), classNameToChildren.build(), annotationProcessingResult);
         }
 
         @Override
@@ -180,6 +209,11 @@ public class ClassSetAnalysisData {
                     writeClassName(className, classNameMap, encoder);
                 }
             }
+
+            encoder.writeBoolean(value.annotationProcessingResult != null);
+            if (value.annotationProcessingResult != null) {
+                ANNOTATION_PROCESSING_RESULT_SERIALIZER.write(encoder, value.annotationProcessingResult);
+            }
         }
 
         private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The members of other classes that a class file references from its method bodies and annotations, keyed by the class that owns the reference.
+ * Members use the same keys as {@link ClassAbi#getMembers()}.
+ */
+public class MemberReferences {
+    private final String className;
+    private final Map<String, Set<String>> membersByOwner;
+
+    public MemberReferences(String className, Map<String, Set<String>> membersByOwner) {
+        this.className = className;
+        this.membersByOwner = membersByOwner;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public Set<String> getMembers(String owner) {
+        Set<String> members = membersByOwner.get(owner);
+        return members == null ? Collections.<String>emptySet() : members;
+    }
+}
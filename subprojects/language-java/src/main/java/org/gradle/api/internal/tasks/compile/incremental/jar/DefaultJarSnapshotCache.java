@@ -20,6 +20,7 @@ import com.google.common.collect.Maps;
 import com.google.common.hash.HashCode;
 import org.gradle.api.internal.cache.MinimalPersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.internal.Factory;
 
 import java.io.File;
@@ -27,6 +28,8 @@ import java.util.Map;
 
 public class DefaultJarSnapshotCache implements JarSnapshotCache {
     private final MinimalPersistentCache<HashCode, JarSnapshotData> cache;
+    // the same jar is often on the classpath of many compile tasks running in parallel, so it is snapshotted only once
+    private final ProducerGuard<HashCode> producing = ProducerGuard.adaptive();
 
     public DefaultJarSnapshotCache(PersistentIndexedCache<HashCode, JarSnapshotData> persistentCache) {
         cache = new MinimalPersistentCache<HashCode, JarSnapshotData>(persistentCache);
@@ -47,11 +50,19 @@ public class DefaultJarSnapshotCache implements JarSnapshotCache {
     }
 
     @Override
-    public JarSnapshot get(HashCode key, final Factory<JarSnapshot> factory) {
-        return new JarSnapshot(cache.get(key, new Factory<JarSnapshotData>() {
-            public JarSnapshotData create() {
-                return factory.create().getData();
-            }
-        }));
+    public JarSnapshot get(final HashCode key, final Factory<JarSnapshot> factory) {
+        JarSnapshotData snapshotData = cache.get(key);
+        if (snapshotData == null) {
+            snapshotData = producing.guardByKey(key, new Factory<JarSnapshotData>() {
+                public JarSnapshotData create() {
+                    return cache.get(key, new Factory<JarSnapshotData>() {
+                        public JarSnapshotData create() {
+                            return factory.create().getData();
+                        }
+                    });
+                }
+            });
+        }
+        return new JarSnapshot(snapshotData);
     }
 }
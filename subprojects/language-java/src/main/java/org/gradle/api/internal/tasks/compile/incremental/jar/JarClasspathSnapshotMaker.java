@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilationStatistics;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.time.Timer;
@@ -30,13 +31,20 @@ public class JarClasspathSnapshotMaker implements JarClasspathSnapshotProvider,
     private final LocalJarClasspathSnapshotStore classpathSnapshotStore;
     private final ClasspathJarFinder classpathJarFinder;
     private final JarClasspathSnapshotFactory classpathSnapshotFactory;
+    private final IncrementalCompilationStatistics statistics;
 
     private JarClasspathSnapshot jarClasspathSnapshot;
 
     public JarClasspathSnapshotMaker(LocalJarClasspathSnapshotStore classpathSnapshotStore, JarClasspathSnapshotFactory classpathSnapshotFactory, ClasspathJarFinder classpathJarFinder) {
+        this(classpathSnapshotStore, classpathSnapshotFactory, classpathJarFinder, new IncrementalCompilationStatistics());
+    }
+
+    public JarClasspathSnapshotMaker(LocalJarClasspathSnapshotStore classpathSnapshotStore, JarClasspathSnapshotFactory classpathSnapshotFactory, ClasspathJarFinder classpathJarFinder,
+                                     IncrementalCompilationStatistics statistics) {
         this.classpathSnapshotStore = classpathSnapshotStore;
         this.classpathSnapshotFactory = classpathSnapshotFactory;
         this.classpathJarFinder = classpathJarFinder;
+        this.statistics = statistics;
     }
 
     @Override
@@ -61,6 +69,7 @@ public class JarClasspathSnapshotMaker implements JarClasspathSnapshotProvider,
         Iterable<JarArchive> jarArchives = classpathJarFinder.findJarArchives(classpath);
 
         jarClasspathSnapshot = classpathSnapshotFactory.createSnapshot(jarArchives);
+        statistics.addClasspathSnapshotTime(clock.getElapsedMillis());
         int duplicatesCount = jarClasspathSnapshot.getData().getDuplicateClasses().size();
         String duplicateClassesMessage = duplicatesCount == 0? "" : ". " + duplicatesCount + " duplicate classes found in classpath (see all with --debug)";
         LOG.info("Created jar classpath snapshot for incremental compilation in {}{}.", clock.getElapsed(), duplicateClassesMessage);
@@ -18,8 +18,11 @@ package org.gradle.api.internal.tasks.compile.incremental.jar;
 
 import com.google.common.collect.Sets;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Collections;
 import java.util.Map;
@@ -59,6 +62,33 @@ public class PreviousCompilation {
         return analysis.getRelevantDependents(className, constants);
     }
 
+    /**
+     * Returns the classes that directly depend on the given class, without the classes depending on those.
+     */
+    public DependentsSet getDirectDependents(String className) {
+        DependentsSet dependents = analysis.getData().getDependents(className);
+        return dependents == null ? DefaultDependentsSet.EMPTY : dependents;
+    }
+
+    public Set<String> getChildren(String className) {
+        return analysis.getData().getChildren(className);
+    }
+
+    public int getTopLevelClassCount() {
+        int count = 0;
+        for (String className : analysis.getData().getClassNames()) {
+            if (className.indexOf('$') < 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Nullable
+    public AnnotationProcessingResult getAnnotationProcessingResult() {
+        return analysis.getData().getAnnotationProcessingResult();
+    }
+
     public Map<File, JarSnapshot> getJarSnapshots() {
         if (jarSnapshots == null) {
             JarClasspathSnapshotData data = classpathSnapshotStore.get();
@@ -23,12 +23,20 @@ import java.util.LinkedHashSet;
 public class RecompilationSpec {
 
     private final Collection<String> classesToCompile = new NormalizingClassNamesSet();
+    private final Collection<File> staleGeneratedFiles = new LinkedHashSet<File>();
     private String fullRebuildCause;
 
     public Collection<String> getClassNames() {
         return classesToCompile;
     }
 
+    /**
+     * Files generated by annotation processors for the classes to compile, which need to be deleted before they are processed again.
+     */
+    public Collection<File> getStaleGeneratedFiles() {
+        return staleGeneratedFiles;
+    }
+
     public boolean isFullRebuildNeeded() {
         return fullRebuildCause != null;
     }
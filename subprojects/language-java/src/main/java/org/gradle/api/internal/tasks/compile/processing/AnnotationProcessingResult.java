@@ -0,0 +1,235 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.MapSerializer;
+import org.gradle.internal.serialize.SetSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.gradle.internal.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+
+/**
+ * Records which files the incremental annotation processors of a compilation have generated, and from which types.
+ *
+ * <p>Files generated by isolating processors are tracked per originating type. Files generated by aggregating processors are tracked as one
+ * group, together with all the types the aggregating processors have looked at.</p>
+ */
+public class AnnotationProcessingResult {
+    private final Set<String> processedTypes;
+    private final Map<String, Set<String>> generatedTypesByOrigin;
+    private final Map<String, Set<String>> generatedFilesByOrigin;
+    private final Set<String> aggregatingOrigins;
+    private final Set<String> aggregatedTypes;
+    private final Set<String> aggregatedFiles;
+    private String fullRebuildCause;
+
+    public AnnotationProcessingResult() {
+        this(new HashSet<String>(), new HashMap<String, Set<String>>(), new HashMap<String, Set<String>>(), new HashSet<String>(), new HashSet<String>(), new HashSet<String>(), null);
+    }
+
+    private AnnotationProcessingResult(Set<String> processedTypes, Map<String, Set<String>> generatedTypesByOrigin, Map<String, Set<String>> generatedFilesByOrigin,
+                                       Set<String> aggregatingOrigins, Set<String> aggregatedTypes, Set<String> aggregatedFiles, @Nullable String fullRebuildCause) {
+        this.processedTypes = processedTypes;
+        this.generatedTypesByOrigin = generatedTypesByOrigin;
+        this.generatedFilesByOrigin = generatedFilesByOrigin;
+        this.aggregatingOrigins = aggregatingOrigins;
+        this.aggregatedTypes = aggregatedTypes;
+        this.aggregatedFiles = aggregatedFiles;
+        this.fullRebuildCause = fullRebuildCause;
+    }
+
+    public void addProcessedType(String type) {
+        processedTypes.add(type);
+    }
+
+    public void addIsolatedFile(String originatingType, @Nullable String generatedType, String path) {
+        if (generatedType != null) {
+            add(generatedTypesByOrigin, originatingType, generatedType);
+        }
+        add(generatedFilesByOrigin, originatingType, path);
+    }
+
+    public void addAggregatingOrigin(String originatingType) {
+        aggregatingOrigins.add(originatingType);
+    }
+
+    public void addAggregatedFile(@Nullable String generatedType, String path) {
+        if (generatedType != null) {
+            aggregatedTypes.add(generatedType);
+        }
+        aggregatedFiles.add(path);
+    }
+
+    public void setFullRebuildCause(String fullRebuildCause) {
+        if (this.fullRebuildCause == null) {
+            this.fullRebuildCause = fullRebuildCause;
+        }
+    }
+
+    /**
+     * Returns why the next compilation cannot be incremental, or null when it can.
+     */
+    @Nullable
+    public String getFullRebuildCause() {
+        return fullRebuildCause;
+    }
+
+    public Set<String> getGeneratedTypes(String originatingType) {
+        return get(generatedTypesByOrigin, originatingType);
+    }
+
+    public Set<String> getGeneratedFiles(String originatingType) {
+        return get(generatedFilesByOrigin, originatingType);
+    }
+
+    public Set<String> getAggregatingOrigins() {
+        return aggregatingOrigins;
+    }
+
+    public Set<String> getAggregatedTypes() {
+        return aggregatedTypes;
+    }
+
+    public Set<String> getAggregatedFiles() {
+        return aggregatedFiles;
+    }
+
+    /**
+     * Combines the result of a previous compilation with the result of an incremental compilation that processed a subset of the types.
+     * Files of the previous compilation are kept for the types that were not processed again and that still exist.
+     */
+    public AnnotationProcessingResult updatedWith(AnnotationProcessingResult current, Collection<String> existingTypes) {
+        AnnotationProcessingResult merged = new AnnotationProcessingResult();
+        merged.processedTypes.addAll(current.processedTypes);
+        for (Map.Entry<String, Set<String>> entry : generatedFilesByOrigin.entrySet()) {
+            String origin = entry.getKey();
+            if (!current.processedTypes.contains(origin) && existingTypes.contains(origin)) {
+                merged.generatedFilesByOrigin.put(origin, new HashSet<String>(entry.getValue()));
+                if (generatedTypesByOrigin.containsKey(origin)) {
+                    merged.generatedTypesByOrigin.put(origin, new HashSet<String>(generatedTypesByOrigin.get(origin)));
+                }
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : current.generatedFilesByOrigin.entrySet()) {
+            for (String path : entry.getValue()) {
+                add(merged.generatedFilesByOrigin, entry.getKey(), path);
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : current.generatedTypesByOrigin.entrySet()) {
+            for (String type : entry.getValue()) {
+                add(merged.generatedTypesByOrigin, entry.getKey(), type);
+            }
+        }
+        // Aggregating processors see all their originating types again in every incremental compilation
+        merged.aggregatingOrigins.addAll(current.aggregatingOrigins);
+        merged.aggregatedTypes.addAll(current.aggregatedTypes);
+        merged.aggregatedFiles.addAll(current.aggregatedFiles);
+        merged.fullRebuildCause = current.fullRebuildCause;
+        return merged;
+    }
+
+    public static AnnotationProcessingResult readFrom(File file) {
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(file));
+            try {
+                return new Serializer().read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public void writeTo(File file) {
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(file));
+            try {
+                new Serializer().write(encoder, this);
+            } finally {
+                encoder.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static void add(Map<String, Set<String>> map, String key, String value) {
+        Set<String> values = map.get(key);
+        if (values == null) {
+            values = new HashSet<String>();
+            map.put(key, values);
+        }
+        values.add(value);
+    }
+
+    private static Set<String> get(Map<String, Set<String>> map, String key) {
+        Set<String> values = map.get(key);
+        return values == null ? Collections.<String>emptySet() : values;
+    }
+
+    public static class Serializer extends AbstractSerializer<AnnotationProcessingResult> {
+        private final SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER);
+        private final MapSerializer<String, Set<String>> mapSerializer = new MapSerializer<String, Set<String>>(STRING_SERIALIZER, setSerializer);
+
+        @Override
+        public AnnotationProcessingResult read(Decoder decoder) throws Exception {
+            Set<String> processedTypes = setSerializer.read(decoder);
+            Map<String, Set<String>> generatedTypesByOrigin = mapSerializer.read(decoder);
+            Map<String, Set<String>> generatedFilesByOrigin = mapSerializer.read(decoder);
+            Set<String> aggregatingOrigins = setSerializer.read(decoder);
+            Set<String> aggregatedTypes = setSerializer.read(decoder);
+            Set<String> aggregatedFiles = setSerializer.read(decoder);
+            String fullRebuildCause = decoder.readNullableString();
+            return new AnnotationProcessingResult(processedTypes, generatedTypesByOrigin, generatedFilesByOrigin, aggregatingOrigins, aggregatedTypes, aggregatedFiles, fullRebuildCause);
+        }
+
+        @Override
+        public void write(Encoder encoder, AnnotationProcessingResult value) throws Exception {
+            setSerializer.write(encoder, value.processedTypes);
+            mapSerializer.write(encoder, value.generatedTypesByOrigin);
+            mapSerializer.write(encoder, value.generatedFilesByOrigin);
+            setSerializer.write(encoder, value.aggregatingOrigins);
+            setSerializer.write(encoder, value.aggregatedTypes);
+            setSerializer.write(encoder, value.aggregatedFiles);
+            encoder.writeNullableString(value.fullRebuildCause);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+/**
+ * Describes how the files generated by an annotation processor relate to the types it processes. Processors declare their type in
+ * {@code META-INF/gradle/incremental.annotation.processors}, one {@code <processor class name>,<type>} entry per line.
+ */
+public enum IncrementalAnnotationProcessorType {
+    /**
+     * Generates each file from exactly one originating type, and only looks at that type and the types it references.
+     */
+    ISOLATING,
+
+    /**
+     * Generates files that can combine information from any number of originating types.
+     */
+    AGGREGATING,
+
+    /**
+     * Has not declared how its generated files relate to the types it processes, so every change needs a full recompilation.
+     */
+    UNKNOWN
+}
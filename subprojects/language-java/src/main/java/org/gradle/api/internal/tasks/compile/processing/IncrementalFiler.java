@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records the files an incremental annotation processor generates and the types they originate from.
+ */
+class IncrementalFiler implements Filer {
+    private final Filer delegate;
+    private final String processorName;
+    private final IncrementalAnnotationProcessorType type;
+    private final AnnotationProcessingResult result;
+
+    IncrementalFiler(Filer delegate, String processorName, IncrementalAnnotationProcessorType type, AnnotationProcessingResult result) {
+        this.delegate = delegate;
+        this.processorName = processorName;
+        this.type = type;
+        this.result = result;
+    }
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+        JavaFileObject file = delegate.createSourceFile(name, originatingElements);
+        recordGeneratedFile(typeName(name), file, originatingElements);
+        return file;
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+        JavaFileObject file = delegate.createClassFile(name, originatingElements);
+        recordGeneratedFile(typeName(name), file, originatingElements);
+        return file;
+    }
+
+    @Override
+    public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+        FileObject file = delegate.createResource(location, pkg, relativeName, originatingElements);
+        recordGeneratedFile(null, file, originatingElements);
+        return file;
+    }
+
+    @Override
+    public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+        return delegate.getResource(location, pkg, relativeName);
+    }
+
+    private void recordGeneratedFile(String generatedType, FileObject file, Element[] originatingElements) {
+        String path = new File(file.toUri()).getAbsolutePath();
+        Set<String> origins = topLevelTypesOf(Arrays.asList(originatingElements));
+        if (type == IncrementalAnnotationProcessorType.AGGREGATING) {
+            result.addAggregatedFile(generatedType, path);
+            for (String origin : origins) {
+                result.addAggregatingOrigin(origin);
+            }
+        } else if (origins.size() == 1) {
+            result.addIsolatedFile(origins.iterator().next(), generatedType, path);
+        } else {
+            result.setFullRebuildCause(String.format("the isolating annotation processor %s generated '%s' from %d originating types instead of exactly one", processorName, file.getName(), origins.size()));
+        }
+    }
+
+    /**
+     * Strips the module prefix that Java 9 allows in the names of generated types.
+     */
+    private static String typeName(CharSequence name) {
+        String typeName = name.toString();
+        return typeName.substring(typeName.indexOf('/') + 1);
+    }
+
+    static Set<String> topLevelTypesOf(Iterable<? extends Element> elements) {
+        Set<String> types = new LinkedHashSet<String>();
+        for (Element element : elements) {
+            String topLevelType = topLevelTypeOf(element);
+            if (topLevelType != null) {
+                types.add(topLevelType);
+            }
+        }
+        return types;
+    }
+
+    private static String topLevelTypeOf(Element element) {
+        Element current = element;
+        while (current != null && current.getKind() != ElementKind.PACKAGE) {
+            Element enclosing = current.getEnclosingElement();
+            if (enclosing == null || enclosing instanceof PackageElement) {
+                return current instanceof TypeElement ? ((TypeElement) current).getQualifiedName().toString() : null;
+            }
+            current = enclosing;
+        }
+        return null;
+    }
+}
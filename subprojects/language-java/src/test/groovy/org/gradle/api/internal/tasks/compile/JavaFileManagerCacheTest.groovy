@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+import javax.tools.StandardLocation
+import javax.tools.ToolProvider
+import java.nio.charset.Charset
+
+class JavaFileManagerCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def compiler = Mock(JavaCompiler)
+    def cache = new JavaFileManagerCache(1000, 2)
+
+    def "reuses released file manager for later compilation"() {
+        def jar = tmpDir.file("lib.jar") << "content"
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, [], [jar])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, [], [jar])
+
+        then:
+        second.is(first)
+        second.fileManager == fileManager
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        0 * fileManager.close()
+    }
+
+    def "does not share file manager between concurrent compilations"() {
+        when:
+        def first = cache.acquire(compiler, null, [], [])
+        def second = cache.acquire(compiler, null, [], [])
+
+        then:
+        !second.is(first)
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+    }
+
+    def "does not reuse file manager for a different encoding"() {
+        when:
+        def first = cache.acquire(compiler, null, [], [])
+        cache.release(first)
+        def second = cache.acquire(compiler, Charset.forName("UTF-8"), [], [])
+
+        then:
+        !second.is(first)
+        2 * compiler.getStandardFileManager(*_) >> { Mock(StandardJavaFileManager) }
+    }
+
+    def "reuses file manager for compilation with different per-compilation paths"() {
+        when:
+        def first = cache.acquire(compiler, null, ["-classpath", "a", "-sourcepath", "a", "-d", "a", "-g"], [])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, ["-classpath", "b", "-sourcepath", "", "-d", "b", "-processorpath", "b", "-g"], [])
+
+        then:
+        second.is(first)
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+    }
+
+    def "does not reuse file manager for different compiler options"() {
+        when:
+        def first = cache.acquire(compiler, null, ["-bootclasspath", "a"], [])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, ["-bootclasspath", "b"], [])
+
+        then:
+        !second.is(first)
+        2 * compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+    }
+
+    def "resets all path locations of reused file manager"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        def first = cache.acquire(compiler, null, [], [])
+
+        then:
+        0 * fileManager.setLocation(_, _)
+
+        when:
+        cache.release(first)
+        cache.acquire(compiler, null, [], [])
+
+        then:
+        1 * fileManager.setLocation(StandardLocation.CLASS_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.NATIVE_HEADER_OUTPUT, null)
+        1 * fileManager.setLocation(StandardLocation.CLASS_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.SOURCE_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.ANNOTATION_PROCESSOR_PATH, null)
+        1 * fileManager.setLocation(StandardLocation.PLATFORM_CLASS_PATH, null)
+        0 * fileManager.setLocation(_, _)
+    }
+
+    def "closes file manager whose locations cannot be reset"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, [], [])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, [], [])
+
+        then:
+        !second.is(first)
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        _ * fileManager.setLocation(_, null) >> { throw new IllegalArgumentException() }
+        1 * fileManager.close()
+    }
+
+    def "reused file manager does not see the source path of the previous compilation"() {
+        def javaCompiler = ToolProvider.getSystemJavaCompiler()
+        def classes = tmpDir.createDir("classes")
+        def classpath = tmpDir.createDir("classpath")
+        def sourcepath = tmpDir.createDir("sourcepath")
+        sourcepath.file("B.java") << "class B {}"
+        def first = tmpDir.file("first/A.java") << "class A { B b; }"
+        def second = tmpDir.file("second/C.java") << "class C { B b; }"
+
+        when:
+        def firstFileManager = cache.acquire(javaCompiler, null, [], [])
+        def firstResult = compile(javaCompiler, firstFileManager, ["-classpath", classpath.path, "-sourcepath", sourcepath.path, "-d", classes.path], first)
+        cache.release(firstFileManager)
+        def secondFileManager = cache.acquire(javaCompiler, null, [], [])
+        def secondResult = compile(javaCompiler, secondFileManager, ["-classpath", classpath.path, "-d", classes.path], second)
+        cache.release(secondFileManager)
+
+        then:
+        secondFileManager.is(firstFileManager)
+        firstResult
+        !secondResult
+
+        cleanup:
+        cache.clear()
+    }
+
+    private static boolean compile(JavaCompiler javaCompiler, JavaFileManagerCache.CachedFileManager fileManager, List<String> options, File source) {
+        def fileManagerForTask = fileManager.fileManager
+        def task = javaCompiler.getTask(new StringWriter(), fileManagerForTask, null, options, null, fileManagerForTask.getJavaFileObjects(source))
+        return task.call()
+    }
+
+    def "closes file manager when a jar it has indexed has changed"() {
+        def jar = tmpDir.file("lib.jar") << "content"
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, [], [jar])
+        cache.release(first)
+        jar << "more content"
+        def second = cache.acquire(compiler, null, [], [jar])
+
+        then:
+        !second.is(first)
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        1 * fileManager.close()
+    }
+
+    def "closes file manager when the jars it has indexed exceed the memory budget"() {
+        def jar = tmpDir.file("lib.jar") << ("x" * 1001)
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, [], [jar])
+        cache.release(first)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * fileManager.close()
+    }
+
+    def "closes least recently used file managers when too many are idle"() {
+        def fileManagers = [Mock(StandardJavaFileManager), Mock(StandardJavaFileManager), Mock(StandardJavaFileManager)]
+        compiler.getStandardFileManager(null, null, null) >>> fileManagers
+
+        when:
+        def acquired = (1..3).collect { cache.acquire(compiler, null, [], []) }
+        acquired.each { cache.release(it) }
+
+        then:
+        1 * fileManagers[0].close()
+        0 * fileManagers[1].close()
+        0 * fileManagers[2].close()
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAbi
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependencyToAll
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation
+import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec
+import org.gradle.api.internal.tasks.compile.incremental.test.SomeOtherClass
+import org.gradle.api.internal.tasks.compile.incremental.test.YetAnotherClass
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class AbiChangeDependentsFinderTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def previousCompilation = Stub(PreviousCompilation)
+    def finder = new AbiChangeDependentsFinder(previousCompilation, tmpDir.testDirectory)
+    def spec = new RecompilationSpec()
+
+    def "recompiles all transitive dependents when the header of a class has changed"() {
+        previousCompilation.getDirectDependents("A") >> dependents("B")
+        previousCompilation.getDirectDependents("B") >> dependents("C", "A")
+        previousCompilation.getDirectDependents("C") >> dependents("D")
+
+        when:
+        finder.addDependents([A: abi("A", "extends Object")], [A: abi("A", "extends Other")], ["A"], spec)
+
+        then:
+        !spec.fullRebuildNeeded
+        spec.classNames as List == ["B", "C", "D"]
+    }
+
+    def "recompiles all transitive dependents when a class was removed"() {
+        previousCompilation.getDirectDependents("A") >> dependents("B")
+        previousCompilation.getDirectDependents("B") >> dependents("C")
+
+        when:
+        finder.addDependents([A: abi("A")], [:], ["A"], spec)
+
+        then:
+        spec.classNames as List == ["B", "C"]
+    }
+
+    def "recompiles only the dependents that use a changed member"() {
+        def className = YetAnotherClass.name
+        copyClassFile(SomeOtherClass)
+        previousCompilation.getDirectDependents(className) >> dependents(SomeOtherClass.name)
+
+        when:
+        finder.addDependents([(className): abi(className, "header", ["<init>()V": "public", "unused()V": "public"])],
+            [(className): abi(className, "header", ["<init>()V": "public", "unused()V": "protected"])], [className], spec)
+
+        then:
+        spec.classNames.empty
+
+        when:
+        finder.addDependents([(className): abi(className, "header", ["<init>()V": "public"])],
+            [(className): abi(className, "header", ["<init>()V": "protected"])], [className], spec)
+
+        then:
+        spec.classNames as List == [SomeOtherClass.name]
+    }
+
+    def "recompiles dependents that are not part of the destination directory when a member has changed"() {
+        previousCompilation.getDirectDependents("A") >> dependents("B")
+
+        when:
+        finder.addDependents([A: abi("A", "header", ["foo()V": "public"])], [A: abi("A", "header", ["foo()V": "protected"])], ["A"], spec)
+
+        then:
+        spec.classNames as List == ["B"]
+    }
+
+    def "recompiles subtypes of a changed class"() {
+        previousCompilation.getChildren("A") >> (["B"] as Set)
+        previousCompilation.getChildren("B") >> (["C"] as Set)
+
+        when:
+        finder.addDependents([A: abi("A", "header", ["foo()V": "public"])], [A: abi("A", "header", [:])], ["A"], spec)
+
+        then:
+        spec.classNames as List == ["B", "C"]
+    }
+
+    def "requires full rebuild when a constant has changed"() {
+        when:
+        finder.addDependents([A: abi("A", "header", ["X": "public final I 1"], ["X"])], [A: abi("A", "header", ["X": "public final I 2"], ["X"])], ["A"], spec)
+
+        then:
+        spec.fullRebuildCause == "constant 'X' of 'A' has changed"
+    }
+
+    def "requires full rebuild when a changed class is a dependency to all"() {
+        previousCompilation.getDirectDependents("A") >> new DependencyToAll("A is special")
+
+        when:
+        finder.addDependents([A: abi("A", "extends Object")], [A: abi("A", "extends Other")], ["A"], spec)
+
+        then:
+        spec.fullRebuildCause == "A is special"
+    }
+
+    private static ClassAbi abi(String className, String header = "header", Map<String, String> members = [:], List<String> constants = []) {
+        return new ClassAbi(className, header, false, members, constants as Set)
+    }
+
+    private void copyClassFile(Class<?> type) {
+        def path = type.name.replace(".", "/") + ".class"
+        def target = tmpDir.file(path)
+        target.parentFile.mkdirs()
+        target.bytes = type.classLoader.getResourceAsStream(path).bytes
+    }
+}
@@ -17,8 +17,10 @@
 package org.gradle.api.internal.tasks.compile.incremental
 
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter
 import org.gradle.api.tasks.WorkResult
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.language.base.internal.compile.Compiler
 import spock.lang.Specification
 import spock.lang.Subject
@@ -29,8 +31,10 @@ class IncrementalCompilationFinalizerTest extends Specification {
     def writer = Mock(JarClasspathSnapshotWriter)
     def infoUpdater = Mock(ClassSetAnalysisUpdater)
     def compileSpec = Stub(JavaCompileSpec)
+    def statistics = new IncrementalCompilationStatistics()
+    def buildOperationExecutor = new TestBuildOperationExecutor()
 
-    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater)
+    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater, statistics, buildOperationExecutor, ":compileJava")
 
     def "performs finalization"() {
         when:
@@ -52,4 +56,53 @@ class IncrementalCompilationFinalizerTest extends Specification {
         1 * writer.storeJarSnapshots(_)
         0 * _
     }
+
+    def "exposes compilation statistics as build operation result"() {
+        def analysis = Stub(ClassSetAnalysisData) {
+            getClassNames() >> ["A", "B", "C"]
+        }
+
+        when:
+        finalizer.execute(compileSpec)
+
+        then:
+        1 * compiler.execute(compileSpec) >> {
+            statistics.setRecompiledClassCount(2)
+            statistics.addStaleClassFiles(3)
+            Mock(WorkResult)
+        }
+        1 * infoUpdater.updateAnalysis(compileSpec) >> analysis
+
+        and:
+        buildOperationExecutor.log.descriptors*.displayName == ["Compile Java for :compileJava"]
+        buildOperationExecutor.log.mostRecentDetails(CompileJavaBuildOperationType).taskPath == ":compileJava"
+        with(buildOperationExecutor.log.mostRecentResult(CompileJavaBuildOperationType)) {
+            fullRecompilationCause == null
+            analyzedClassCount == 3
+            recompiledClassCount == 2
+            staleClassFileCount == 3
+        }
+    }
+
+    def "reports all top level classes as recompiled after a full recompilation"() {
+        def analysis = Stub(ClassSetAnalysisData) {
+            getClassNames() >> ["A", 'A$Inner', "B", "C"]
+        }
+
+        when:
+        finalizer.execute(compileSpec)
+
+        then:
+        1 * compiler.execute(compileSpec) >> {
+            statistics.setFullRecompilationCause("of reasons")
+            Mock(WorkResult)
+        }
+        1 * infoUpdater.updateAnalysis(compileSpec) >> analysis
+
+        and:
+        def result = buildOperationExecutor.log.mostRecentResult(CompileJavaBuildOperationType)
+        result.fullRecompilationCause == "of reasons"
+        result.analyzedClassCount == 4
+        result.recompiledClassCount == 3
+    }
 }
@@ -19,12 +19,19 @@
 package org.gradle.api.internal.tasks.compile.incremental
 
 import org.gradle.api.internal.file.FileOperations
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec
 import org.gradle.api.tasks.util.PatternSet
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
 class IncrementalCompilationInitializerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
     def fileOperations = Mock(FileOperations)
     @Subject initializer = new IncrementalCompilationInitializer(fileOperations)
@@ -60,4 +67,25 @@ class IncrementalCompilationInitializerTest extends Specification {
         1 * compileSpec.setSource { it.files.empty }
         0 * _
     }
+
+    def "deletes and counts the class files of stale classes"() {
+        def initializer = new IncrementalCompilationInitializer(TestFiles.fileOperations(tmpDir.testDirectory))
+        def classes = tmpDir.createDir("classes")
+        classes.file("com/Foo.class").createFile()
+        classes.file('com/Foo$Inner.class').createFile()
+        classes.file("com/Bar.class").createFile()
+        def spec = new DefaultJavaCompileSpec()
+        spec.destinationDir = classes
+        spec.source = new SimpleFileCollection(tmpDir.file("src/com/Foo.java").createFile())
+        spec.compileClasspath = []
+
+        when:
+        def count = initializer.initializeCompilation(spec, ["com.Foo"])
+
+        then:
+        count == 2
+        !classes.file("com/Foo.class").exists()
+        !classes.file('com/Foo$Inner.class').exists()
+        classes.file("com/Bar.class").exists()
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler
+import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation
+import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class SelectiveCompilerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def previousCompilation = Stub(PreviousCompilation)
+    def compiler = Mock(Compiler)
+    def cleaningCompiler = Mock(CleaningJavaCompiler)
+    def recompilationSpecProvider = Stub(RecompilationSpecProvider)
+    def initializer = Mock(IncrementalCompilationInitializer)
+    def statistics = new IncrementalCompilationStatistics()
+    def selectiveCompiler = new SelectiveCompiler(Stub(IncrementalTaskInputs), previousCompilation, cleaningCompiler, recompilationSpecProvider, initializer, Stub(JarClasspathSnapshotProvider), true, statistics)
+    def spec = new DefaultJavaCompileSpec()
+
+    def setup() {
+        spec.destinationDir = tmpDir.createDir("classes")
+        spec.source = new SimpleFileCollection(tmpDir.file("src/A.java").createFile())
+        spec.compileClasspath = []
+        cleaningCompiler.getCompiler() >> compiler
+        previousCompilation.getDirectDependents("A") >> dependents("B", "C")
+        recompilationSpecProvider.provideRecompilationSpec(_, _, _, true) >> recompilation("A")
+    }
+
+    def "recompiles only the dependents that use a changed member of a recompiled class"() {
+        writeClass("A", Opcodes.ACC_PUBLIC)
+        writeClass("B", Opcodes.ACC_PUBLIC, "A")
+        writeClass("C", Opcodes.ACC_PUBLIC)
+
+        when:
+        selectiveCompiler.execute(spec)
+
+        then:
+        1 * initializer.initializeCompilation(spec, ["A"] as Set)
+        1 * compiler.execute(spec) >> { writeClass("A", Opcodes.ACC_PROTECTED); null }
+
+        then:
+        1 * initializer.initializeCompilation(spec, ["B"] as Set)
+        1 * compiler.execute(spec) >> { writeClass("B", Opcodes.ACC_PUBLIC, "A"); null }
+        0 * compiler._
+        0 * cleaningCompiler.execute(_)
+
+        and:
+        statistics.recompiledClassCount == 2
+    }
+
+    def "does not recompile dependents when the ABI of a recompiled class has not changed"() {
+        writeClass("A", Opcodes.ACC_PUBLIC)
+        writeClass("B", Opcodes.ACC_PUBLIC, "A")
+
+        when:
+        selectiveCompiler.execute(spec)
+
+        then:
+        1 * compiler.execute(spec) >> { writeClass("A", Opcodes.ACC_PUBLIC, "B"); null }
+        0 * compiler._
+        0 * cleaningCompiler.execute(_)
+
+        and:
+        statistics.recompiledClassCount == 1
+    }
+
+    def "recompiles all classes when a constant of a recompiled class has changed"() {
+        writeClass("A", Opcodes.ACC_PUBLIC, null, 1)
+
+        when:
+        selectiveCompiler.execute(spec)
+
+        then:
+        1 * compiler.execute(spec) >> { writeClass("A", Opcodes.ACC_PUBLIC, null, 2); null }
+
+        then:
+        1 * cleaningCompiler.execute(spec)
+        0 * compiler._
+
+        and:
+        statistics.fullRecompilationCause == "constant 'X' of 'A' has changed"
+    }
+
+    private static RecompilationSpec recompilation(String... classNames) {
+        def recompilationSpec = new RecompilationSpec()
+        recompilationSpec.classNames.addAll(classNames)
+        return recompilationSpec
+    }
+
+    /**
+     * Writes a class with a static method 'foo()V' of the given access, and a public method 'run()V' calling 'foo()V' of the given class.
+     */
+    private void writeClass(String name, int fooAccess, String calls = null, Integer constant = null) {
+        def writer = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null)
+        if (constant != null) {
+            writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "X", "I", null, constant).visitEnd()
+        }
+        def foo = writer.visitMethod(fooAccess | Opcodes.ACC_STATIC, "foo", "()V", null, null)
+        foo.visitCode()
+        foo.visitInsn(Opcodes.RETURN)
+        foo.visitMaxs(0, 0)
+        foo.visitEnd()
+        def run = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "run", "()V", null, null)
+        run.visitCode()
+        if (calls != null) {
+            run.visitMethodInsn(Opcodes.INVOKESTATIC, calls, "foo", "()V", false)
+        }
+        run.visitInsn(Opcodes.RETURN)
+        run.visitMaxs(0, 0)
+        run.visitEnd()
+        writer.visitEnd()
+        new File(spec.destinationDir, name + ".class").bytes = writer.toByteArray()
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.asm
+
+import org.gradle.api.internal.tasks.compile.incremental.test.HasInnerClass
+import org.gradle.api.internal.tasks.compile.incremental.test.HasPrivateConstants
+import org.gradle.api.internal.tasks.compile.incremental.test.HasPublicConstants
+import org.gradle.api.internal.tasks.compile.incremental.test.SomeClass
+import org.gradle.api.internal.tasks.compile.incremental.test.SomeOtherClass
+import org.gradle.api.internal.tasks.compile.incremental.test.UsesMembersOutsideMethods
+import org.gradle.api.internal.tasks.compile.incremental.test.YetAnotherClass
+import org.objectweb.asm.ClassReader
+import spock.lang.Specification
+
+import java.lang.annotation.RetentionPolicy
+
+class ClassAbiVisitorTest extends Specification {
+
+    def "extracts visible members of a class"() {
+        when:
+        def abi = ClassAbiVisitor.analyze(reader(SomeClass))
+
+        then:
+        abi.className == SomeClass.name
+        abi.members.keySet() == ["<init>()V", "field"] as Set
+        abi.constants.isEmpty()
+        !abi.annotationType
+    }
+
+    def "knows accessible constants"() {
+        expect:
+        ClassAbiVisitor.analyze(reader(HasPublicConstants)).constants == ["X"] as Set
+        ClassAbiVisitor.analyze(reader(HasPrivateConstants)).constants.isEmpty()
+    }
+
+    def "header includes super type and nested class modifiers"() {
+        expect:
+        ClassAbiVisitor.analyze(reader(SomeOtherClass)).header.contains("org/gradle/api/internal/tasks/compile/incremental/test/SomeClass")
+        ClassAbiVisitor.analyze(reader(HasInnerClass.InnerThing)).header.contains("|inner ")
+    }
+
+    def "collects referenced members by owner"() {
+        when:
+        def references = MemberReferencesVisitor.analyze(reader(SomeOtherClass))
+
+        then:
+        references.className == SomeOtherClass.name
+        references.getMembers(SomeClass.name) == ["<init>()V"] as Set
+        references.getMembers(YetAnotherClass.name) == ["<init>()V"] as Set
+        references.getMembers(System.name) == ["out"] as Set
+        references.getMembers(PrintStream.name) == ["println(Ljava/lang/Object;)V"] as Set
+        references.getMembers(HasPublicConstants.name).isEmpty()
+    }
+
+    def "collects members referenced from field initializers and annotation values"() {
+        when:
+        def references = MemberReferencesVisitor.analyze(reader(UsesMembersOutsideMethods))
+
+        then:
+        references.getMembers(Thread.name) == ["currentThread()Ljava/lang/Thread;"] as Set
+        references.getMembers(System.name) == ["getProperties()Ljava/util/Properties;"] as Set
+        references.getMembers(RetentionPolicy.name) == ["CLASS"] as Set
+    }
+
+    private static ClassReader reader(Class<?> type) {
+        def stream = type.classLoader.getResourceAsStream(type.name.replace(".", "/") + ".class")
+        try {
+            return new ClassReader(stream)
+        } finally {
+            stream.close()
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps
+
+import spock.lang.Specification
+
+class ClassAbiChangeTest extends Specification {
+
+    def "no change when only non-visible parts changed"() {
+        expect:
+        ClassAbiChange.between("A", abi(foo: "1"), abi(foo: "1")).empty
+    }
+
+    def "added class does not affect other classes"() {
+        expect:
+        ClassAbiChange.between("A", null, abi(foo: "1")).empty
+    }
+
+    def "removed class changes the header"() {
+        when:
+        def change = ClassAbiChange.between("A", abi(foo: "1"), null)
+
+        then:
+        change.headerChanged
+        change.changedMembers == ["foo"] as Set
+    }
+
+    def "knows changed, removed and added members"() {
+        when:
+        def change = ClassAbiChange.between("A", abi("foo()V": "1", "bar": "1", "baz": "1"), abi("foo()V": "2", "baz": "1", "foo(I)V": "1"))
+
+        then:
+        !change.headerChanged
+        change.changedMembers == ["foo()V", "bar"] as Set
+        change.addedMemberNames == ["foo"] as Set
+        change.changedConstant == null
+    }
+
+    def "knows changed constants"() {
+        expect:
+        ClassAbiChange.between("A", abi([X: "1"], ["X"]), abi([X: "2"], ["X"])).changedConstant == "X"
+        ClassAbiChange.between("A", abi([X: "1"], ["X"]), abi([:], [])).changedConstant == "X"
+        ClassAbiChange.between("A", abi([X: "1"], ["X"]), abi([X: "1", Y: "2"], ["X", "Y"])).changedConstant == null
+    }
+
+    def "class is affected by members referenced through the changed class or its subtypes"() {
+        def change = ClassAbiChange.between("A", abi("foo()V": "1", "bar()V": "1"), abi("foo()V": "2", "bar()V": "1", "baz": "1"))
+
+        expect:
+        change.isUsedBy(references(A: ["foo()V"]), ["A", "B"] as Set)
+        change.isUsedBy(references(B: ["foo()V"]), ["A", "B"] as Set)
+        change.isUsedBy(references(A: ["baz(I)V"]), ["A", "B"] as Set)
+        !change.isUsedBy(references(A: ["bar()V"]), ["A", "B"] as Set)
+        !change.isUsedBy(references(C: ["foo()V"]), ["A", "B"] as Set)
+    }
+
+    def "any reference is affected by a header change"() {
+        def change = ClassAbiChange.between("A", abi("foo()V": "1"), new ClassAbi("A", "other", false, ["foo()V": "1"], [] as Set))
+
+        expect:
+        change.isUsedBy(references(A: ["foo()V"]), ["A"] as Set)
+        !change.isUsedBy(references(C: ["foo()V"]), ["A"] as Set)
+    }
+
+    private static ClassAbi abi(Map<String, String> members, Collection<String> constants = []) {
+        new ClassAbi("A", "header", false, members, constants as Set)
+    }
+
+    private static MemberReferences references(Map<String, Collection<String>> members) {
+        def membersByOwner = [:]
+        members.each { owner, ownerMembers -> membersByOwner[owner] = ownerMembers as Set }
+        new MemberReferences("D", membersByOwner)
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
 import org.gradle.internal.serialize.InputStreamBackedDecoder
 import org.gradle.internal.serialize.OutputStreamBackedEncoder
 import spock.lang.Specification
@@ -55,5 +56,22 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         read.classesToConstants == [C: [1,2] as Set, D: [] as Set]
         read.literalsToClasses == [3: ['A', 'B'] as Set, 4: ['D'] as Set]
         read.classesToChildren == ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
+        read.annotationProcessingResult == null
+    }
+
+    def "serializes annotation processing result"() {
+        def processingResult = new AnnotationProcessingResult()
+        processingResult.addIsolatedFile("A", "A_Factory", "/gen/A_Factory.java")
+        def data = new ClassSetAnalysisData(["A.class": "A"], ["A": dependents()], [:], [:], [:], processingResult)
+        def os = new ByteArrayOutputStream()
+        def e = new OutputStreamBackedEncoder(os)
+
+        when:
+        serializer.write(e, data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.annotationProcessingResult.getGeneratedTypes("A") == ["A_Factory"] as Set
+        read.annotationProcessingResult.getGeneratedFiles("A") == ["/gen/A_Factory.java"] as Set
     }
 }
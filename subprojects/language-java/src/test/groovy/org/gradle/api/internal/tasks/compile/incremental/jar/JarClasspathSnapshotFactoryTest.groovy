@@ -18,13 +18,15 @@ package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import com.google.common.hash.HashCode
 import org.gradle.api.file.FileTree
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import spock.lang.Specification
 import spock.lang.Subject
 
 class JarClasspathSnapshotFactoryTest extends Specification {
 
     def snapshotter = Mock(JarSnapshotter)
-    @Subject factory = new JarClasspathSnapshotFactory(snapshotter)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    @Subject factory = new JarClasspathSnapshotFactory(snapshotter, buildOperationExecutor)
 
     def "creates classpath snapshot with correct duplicate classes"() {
         def jar1 = stubArchive("f1"); def jar2 = stubArchive("f2"); def jar3 = stubArchive("f3")
@@ -78,6 +80,21 @@ class JarClasspathSnapshotFactoryTest extends Specification {
         0 * snapshotter.createSnapshot(jar2)
     }
 
+    def "snapshots each jar in a build operation and keeps the classpath order"() {
+        def jar1 = stubArchive("f1")
+        def jar2 = stubArchive("f2")
+
+        when:
+        def s = factory.createSnapshot([jar2, jar1])
+
+        then:
+        1 * snapshotter.createSnapshot(jar1) >> Stub(JarSnapshot) { getHash() >> HashCode.fromString("1234") }
+        1 * snapshotter.createSnapshot(jar2) >> Stub(JarSnapshot) { getHash() >> HashCode.fromString("2345") }
+
+        s.data.jarHashes.keySet() as List == [new File("f2"), new File("f1")]
+        buildOperationExecutor.log.descriptors*.displayName == ["Snapshot f2 for incremental Java compilation", "Snapshot f1 for incremental Java compilation"]
+    }
+
     private JarArchive stubArchive(String name, boolean exists = true) {
         new JarArchive(new File(name) {
             boolean exists() { exists }
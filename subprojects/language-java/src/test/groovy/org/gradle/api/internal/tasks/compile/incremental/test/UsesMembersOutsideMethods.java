@@ -0,0 +1,34 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+public class UsesMembersOutsideMethods {
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface WithPolicy {
+        RetentionPolicy value();
+    }
+
+    static final Object STATIC_FIELD = Thread.currentThread();
+
+    Object field = System.getProperties();
+
+    @WithPolicy(RetentionPolicy.CLASS)
+    Object annotatedField;
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import org.gradle.internal.serialize.InputStreamBackedDecoder
+import org.gradle.internal.serialize.OutputStreamBackedEncoder
+import spock.lang.Specification
+
+class AnnotationProcessingResultTest extends Specification {
+
+    def "keeps files generated from types that were not processed again"() {
+        def previous = new AnnotationProcessingResult()
+        previous.addProcessedType("A")
+        previous.addProcessedType("B")
+        previous.addProcessedType("C")
+        previous.addIsolatedFile("A", "A_Factory", "/gen/A_Factory.java")
+        previous.addIsolatedFile("B", "B_Factory", "/gen/B_Factory.java")
+        previous.addIsolatedFile("C", null, "/gen/c.txt")
+        def current = new AnnotationProcessingResult()
+        current.addProcessedType("B")
+        current.addIsolatedFile("B", "B_Builder", "/gen/B_Builder.java")
+
+        when:
+        def merged = previous.updatedWith(current, ["A", "B", "A_Factory", "B_Builder"])
+
+        then:
+        merged.getGeneratedTypes("A") == ["A_Factory"] as Set
+        merged.getGeneratedFiles("A") == ["/gen/A_Factory.java"] as Set
+        merged.getGeneratedTypes("B") == ["B_Builder"] as Set
+        merged.getGeneratedFiles("B") == ["/gen/B_Builder.java"] as Set
+        merged.getGeneratedFiles("C").empty
+    }
+
+    def "replaces files generated by aggregating processors"() {
+        def previous = new AnnotationProcessingResult()
+        previous.addAggregatingOrigin("A")
+        previous.addAggregatedFile("Registry", "/gen/Registry.java")
+        def current = new AnnotationProcessingResult()
+        current.addAggregatingOrigin("B")
+        current.addAggregatedFile(null, "/gen/registry.txt")
+
+        when:
+        def merged = previous.updatedWith(current, ["A", "B"])
+
+        then:
+        merged.aggregatingOrigins == ["B"] as Set
+        merged.aggregatedTypes.empty
+        merged.aggregatedFiles == ["/gen/registry.txt"] as Set
+    }
+
+    def "keeps first full rebuild cause"() {
+        def result = new AnnotationProcessingResult()
+
+        when:
+        result.setFullRebuildCause("first")
+        result.setFullRebuildCause("second")
+
+        then:
+        result.fullRebuildCause == "first"
+    }
+
+    def "serializes result"() {
+        def result = new AnnotationProcessingResult()
+        result.addProcessedType("A")
+        result.addIsolatedFile("A", "A_Factory", "/gen/A_Factory.java")
+        result.addAggregatingOrigin("B")
+        result.addAggregatedFile("Registry", "/gen/Registry.java")
+        result.setFullRebuildCause("cause")
+
+        def serializer = new AnnotationProcessingResult.Serializer()
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), result)
+        def copy = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        copy.getGeneratedTypes("A") == ["A_Factory"] as Set
+        copy.getGeneratedFiles("A") == ["/gen/A_Factory.java"] as Set
+        copy.aggregatingOrigins == ["B"] as Set
+        copy.aggregatedTypes == ["Registry"] as Set
+        copy.aggregatedFiles == ["/gen/Registry.java"] as Set
+        copy.fullRebuildCause == "cause"
+    }
+}
@@ -38,7 +38,9 @@ import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.server.Daemon;
 import org.gradle.launcher.daemon.server.DaemonServices;
 import org.gradle.launcher.daemon.server.MasterExpirationStrategy;
+import org.gradle.launcher.daemon.server.StandbyDaemon;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
+import org.gradle.launcher.daemon.server.stats.DaemonRunningStats;
 import org.gradle.process.internal.shutdown.ShutdownHookActionRegister;
 import org.gradle.process.internal.streams.EncodedStream;
 
@@ -132,6 +134,11 @@ public class DaemonMain extends EntryPoint {
             // TODO: Stop all daemon services
             CompositeStoppable.stoppable(daemonServices.get(GradleUserHomeScopeServiceRegistry.class)).stop();
         }
+
+        StandbyDaemon standbyDaemon = daemonServices.get(StandbyDaemon.class);
+        if (standbyDaemon.isRequested(daemonServices.get(DaemonRunningStats.class).getBuildCount())) {
+            standbyDaemon.start(parameters, gradleHomeDir);
+        }
     }
 
     private static void invalidArgs(String message) {
@@ -92,7 +92,8 @@ public abstract class DaemonClientServicesSupport extends DefaultServiceRegistry
     }
 
     OutgoingConnector createOutgoingConnector() {
-        return new TcpOutgoingConnector();
+        // Clients may connect to daemons that have not enabled shared memory, so always use the socket
+        return new TcpOutgoingConnector(false);
     }
 
     ProgressLoggerFactory createProgressLoggerFactory() {
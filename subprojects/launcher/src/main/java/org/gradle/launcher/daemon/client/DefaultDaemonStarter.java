@@ -16,6 +16,7 @@
 package org.gradle.launcher.daemon.client;
 
 import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.classpath.DefaultModuleRegistry;
 import org.gradle.api.internal.classpath.Module;
@@ -37,12 +38,14 @@ import org.gradle.launcher.daemon.bootstrap.GradleDaemon;
 import org.gradle.launcher.daemon.configuration.DaemonParameters;
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.process.internal.ClassDataSharingArchives;
 import org.gradle.process.internal.ExecHandle;
 import org.gradle.process.internal.streams.EncodedStream;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.GFileUtils;
 import org.gradle.util.GradleVersion;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -67,6 +70,16 @@ public class DefaultDaemonStarter implements DaemonStarter {
     }
 
     public DaemonStartupInfo startDaemon() {
+        versionValidator.validate(daemonParameters);
+        return startDaemon(daemonDir, daemonGreeter, daemonParameters.getEffectiveJvm().getJavaExecutable(), versionValidator.getJavaVersion(daemonParameters), daemonParameters.getEffectiveJvmArgs(),
+            daemonParameters.getGradleUserHomeDir(), daemonParameters.getIdleTimeout(), daemonParameters.getPeriodicCheckInterval());
+    }
+
+    /**
+     * Starts a daemon with the given settings, rather than with those requested by a client. Used to replace a daemon that retires.
+     */
+    public static DaemonStartupInfo startDaemon(DaemonDir daemonDir, DaemonGreeter daemonGreeter, File javaExecutable, @Nullable JavaVersion javaVersion, List<String> daemonOpts,
+                                                File gradleUserHomeDir, int idleTimeout, int periodicCheckInterval) {
         String daemonUid = UUID.randomUUID().toString();
 
         GradleInstallation gradleInstallation = CurrentGradleInstallation.get();
@@ -89,13 +102,13 @@ public class DefaultDaemonStarter implements DaemonStarter {
             throw new IllegalStateException("Unable to construct a bootstrap classpath when starting the daemon");
         }
 
-        versionValidator.validate(daemonParameters);
-
         List<String> daemonArgs = new ArrayList<String>();
-        daemonArgs.add(daemonParameters.getEffectiveJvm().getJavaExecutable().getAbsolutePath());
+        daemonArgs.add(javaExecutable.getAbsolutePath());
 
-        List<String> daemonOpts = daemonParameters.getEffectiveJvmArgs();
         daemonArgs.addAll(daemonOpts);
+        // Not part of the daemon options, which decide whether a running daemon is compatible with a build
+        ClassDataSharingArchives classDataSharingArchives = new ClassDataSharingArchives(gradleUserHomeDir);
+        daemonArgs.addAll(classDataSharingArchives.getJvmArgs(daemonArgs.get(0), javaVersion, classpath.getAsFiles()));
         daemonArgs.add("-cp");
         daemonArgs.add(CollectionUtils.join(File.pathSeparator, classpath.getAsFiles()));
 
@@ -112,10 +125,10 @@ public class DefaultDaemonStarter implements DaemonStarter {
         StreamByteBuffer buffer = new StreamByteBuffer();
         FlushableEncoder encoder = new KryoBackedEncoder(new EncodedStream.EncodedOutput(buffer.getOutputStream()));
         try {
-            encoder.writeString(daemonParameters.getGradleUserHomeDir().getAbsolutePath());
+            encoder.writeString(gradleUserHomeDir.getAbsolutePath());
             encoder.writeString(daemonDir.getBaseDir().getAbsolutePath());
-            encoder.writeSmallInt(daemonParameters.getIdleTimeout());
-            encoder.writeSmallInt(daemonParameters.getPeriodicCheckInterval());
+            encoder.writeSmallInt(idleTimeout);
+            encoder.writeSmallInt(periodicCheckInterval);
             encoder.writeString(daemonUid);
             encoder.writeSmallInt(daemonOpts.size());
             for (String daemonOpt : daemonOpts) {
@@ -131,10 +144,10 @@ public class DefaultDaemonStarter implements DaemonStarter {
         }
         InputStream stdInput = buffer.getInputStream();
 
-        return startProcess(daemonArgs, daemonDir.getVersionedDir(), stdInput);
+        return startProcess(daemonArgs, daemonDir.getVersionedDir(), stdInput, daemonGreeter);
     }
 
-    private DaemonStartupInfo startProcess(List<String> args, File workingDir, InputStream stdInput) {
+    private static DaemonStartupInfo startProcess(List<String> args, File workingDir, InputStream stdInput, DaemonGreeter daemonGreeter) {
         LOGGER.debug("Starting daemon process: workingDir = {}, daemonArgs: {}", workingDir, args);
         Timer clock = Timers.startTimer();
         try {
@@ -37,4 +37,11 @@ public class JvmVersionValidator {
         JavaVersion javaVersion = versionDetector.getJavaVersion(parameters.getEffectiveJvm());
         UnsupportedJavaRuntimeException.assertUsingVersion("Gradle", JavaVersion.VERSION_1_7, javaVersion);
     }
+
+    public JavaVersion getJavaVersion(DaemonParameters parameters) {
+        if (parameters.getEffectiveJvm().equals(Jvm.current())) {
+            return JavaVersion.current();
+        }
+        return versionDetector.getJavaVersion(parameters.getEffectiveJvm());
+    }
 }
@@ -24,11 +24,13 @@ import org.gradle.internal.logging.events.ProgressCompleteEvent;
 import org.gradle.internal.logging.events.ProgressEvent;
 import org.gradle.internal.logging.events.ProgressStartEvent;
 import org.gradle.internal.logging.events.StyledTextOutputEvent;
+import org.gradle.internal.logging.serializer.InterningStringSerializer;
 import org.gradle.internal.logging.serializer.LogEventSerializer;
 import org.gradle.internal.logging.serializer.LogLevelChangeEventSerializer;
 import org.gradle.internal.logging.serializer.ProgressCompleteEventSerializer;
 import org.gradle.internal.logging.serializer.ProgressEventSerializer;
 import org.gradle.internal.logging.serializer.ProgressStartEventSerializer;
+import org.gradle.internal.logging.serializer.ProgressStatusSerializer;
 import org.gradle.internal.logging.serializer.SpanSerializer;
 import org.gradle.internal.logging.serializer.StyledTextOutputEventSerializer;
 import org.gradle.internal.logging.text.StyledTextOutput;
@@ -41,6 +43,9 @@ import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.internal.serialize.Serializer;
 
 public class DaemonMessageSerializer {
+    /**
+     * Creates a serializer for the messages of a single connection. The serializer keeps state about the messages previously read and written, to encode output events compactly, so must not be shared between connections.
+     */
     public static Serializer<Message> create() {
         BaseSerializerFactory factory = new BaseSerializerFactory();
         Serializer<LogLevel> logLevelSerializer = factory.getSerializerFor(LogLevel.class);
@@ -55,11 +60,13 @@ public class DaemonMessageSerializer {
         registry.register(CloseInput.class, new CloseInputSerializer());
 
         // Output events
-        registry.register(LogEvent.class, new LogEventSerializer(logLevelSerializer, throwableSerializer));
+        Serializer<String> stringSerializer = new InterningStringSerializer();
+        ProgressStatusSerializer statusSerializer = new ProgressStatusSerializer();
+        registry.register(LogEvent.class, new LogEventSerializer(logLevelSerializer, throwableSerializer, stringSerializer));
         registry.register(StyledTextOutputEvent.class, new StyledTextOutputEventSerializer(logLevelSerializer, new ListSerializer<StyledTextOutputEvent.Span>(new SpanSerializer(factory.getSerializerFor(StyledTextOutput.Style.class)))));
-        registry.register(ProgressStartEvent.class, new ProgressStartEventSerializer());
-        registry.register(ProgressCompleteEvent.class, new ProgressCompleteEventSerializer());
-        registry.register(ProgressEvent.class, new ProgressEventSerializer());
+        registry.register(ProgressStartEvent.class, new ProgressStartEventSerializer(stringSerializer, statusSerializer));
+        registry.register(ProgressCompleteEvent.class, new ProgressCompleteEventSerializer(stringSerializer, statusSerializer));
+        registry.register(ProgressEvent.class, new ProgressEventSerializer(statusSerializer));
         registry.register(LogLevelChangeEvent.class, new LogLevelChangeEventSerializer(logLevelSerializer));
         registry.register(OutputMessage.class, new OutputMessageSerializer(registry.build(OutputEvent.class)));
 
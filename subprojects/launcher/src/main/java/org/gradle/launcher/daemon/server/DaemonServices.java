@@ -16,6 +16,8 @@
 package org.gradle.launcher.daemon.server;
 
 import com.google.common.collect.ImmutableList;
+import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.classpath.ClassPath;
@@ -28,6 +30,7 @@ import org.gradle.internal.remote.internal.inet.InetAddressFactory;
 import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.GlobalScopeServices;
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
 import org.gradle.internal.time.Clock;
 import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
 import org.gradle.launcher.daemon.context.DaemonContext;
@@ -51,6 +54,7 @@ import org.gradle.launcher.daemon.server.exec.ResetDeprecationLogger;
 import org.gradle.launcher.daemon.server.exec.ReturnResult;
 import org.gradle.launcher.daemon.server.exec.StartBuildOrRespondWithBusy;
 import org.gradle.launcher.daemon.server.exec.WatchForDisconnection;
+import org.gradle.launcher.daemon.server.health.DaemonCacheShedding;
 import org.gradle.launcher.daemon.server.health.DaemonHealthCheck;
 import org.gradle.launcher.daemon.server.health.DaemonHealthStats;
 import org.gradle.launcher.daemon.server.health.DaemonMemoryStatus;
@@ -118,12 +122,20 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new DefaultDaemonScanInfo(runningStats, configuration.getIdleTimeout(), get(DaemonRegistry.class), listenerManager);
     }
 
-    protected MasterExpirationStrategy createMasterExpirationStrategy(Daemon daemon, HealthExpirationStrategy healthExpirationStrategy, ListenerManager listenerManager) {
-        return new MasterExpirationStrategy(daemon, configuration, healthExpirationStrategy, listenerManager);
+    protected MasterExpirationStrategy createMasterExpirationStrategy(Daemon daemon, HealthExpirationStrategy healthExpirationStrategy, ListenerManager listenerManager, StandbyDaemon standbyDaemon) {
+        return new MasterExpirationStrategy(daemon, configuration, healthExpirationStrategy, listenerManager, standbyDaemon);
     }
 
-    protected HealthExpirationStrategy createHealthExpirationStrategy(DaemonMemoryStatus memoryStatus) {
-        return new HealthExpirationStrategy(memoryStatus);
+    protected StandbyDaemon createStandbyDaemon() {
+        return new StandbyDaemon();
+    }
+
+    protected DaemonCacheShedding createDaemonCacheShedding(InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, CrossBuildInMemoryCacheFactory crossBuildInMemoryCacheFactory, GradleUserHomeScopeServiceRegistry userHomeScopeServiceRegistry) {
+        return new DaemonCacheShedding(inMemoryCacheDecoratorFactory, crossBuildInMemoryCacheFactory, userHomeScopeServiceRegistry);
+    }
+
+    protected HealthExpirationStrategy createHealthExpirationStrategy(DaemonMemoryStatus memoryStatus, DaemonCacheShedding cacheShedding) {
+        return new HealthExpirationStrategy(memoryStatus, cacheShedding);
     }
 
     protected DaemonHealthStats createDaemonHealthStats(DaemonRunningStats runningStats, ExecutorFactory executorFactory) {
@@ -49,7 +49,9 @@ public class DaemonTcpServerConnector implements DaemonServerConnector {
         this.incomingConnector = new TcpIncomingConnector(
                 executorFactory,
                 inetAddressFactory,
-                new UUIDGenerator()
+                new UUIDGenerator(),
+                // Clients may not have enabled shared memory, so always use the socket
+                false
         );
     }
 
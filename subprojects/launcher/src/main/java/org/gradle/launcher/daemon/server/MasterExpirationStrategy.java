@@ -33,11 +33,11 @@ public class MasterExpirationStrategy implements DaemonExpirationStrategy {
 
     private final DaemonExpirationStrategy strategy;
 
-    public MasterExpirationStrategy(Daemon daemon, DaemonServerConfiguration params, HealthExpirationStrategy healthExpirationStrategy, ListenerManager listenerManager) {
+    public MasterExpirationStrategy(Daemon daemon, DaemonServerConfiguration params, HealthExpirationStrategy healthExpirationStrategy, ListenerManager listenerManager, StandbyDaemon standbyDaemon) {
         ImmutableList.Builder<DaemonExpirationStrategy> strategies = ImmutableList.<DaemonExpirationStrategy>builder();
 
         // Expire under high JVM memory or GC pressure
-        strategies.add(healthExpirationStrategy);
+        strategies.add(standbyDaemon.startStandbyOnExpiration(healthExpirationStrategy));
 
         // Expire compatible, idle, not recently used Daemons after a short time
         strategies.add(new AllDaemonExpirationStrategy(ImmutableList.of(
@@ -47,7 +47,7 @@ public class MasterExpirationStrategy implements DaemonExpirationStrategy {
         )));
 
         // Expire after normal idle timeout
-        strategies.add(new DaemonIdleTimeoutExpirationStrategy(daemon, params.getIdleTimeout(), TimeUnit.MILLISECONDS));
+        strategies.add(standbyDaemon.startStandbyOnExpiration(new DaemonIdleTimeoutExpirationStrategy(daemon, params.getIdleTimeout(), TimeUnit.MILLISECONDS)));
 
         // Expire recently unused Daemons when memory pressure is high
         addLowMemoryDaemonExpirationStrategyWhenSupported(daemon, strategies, listenerManager);
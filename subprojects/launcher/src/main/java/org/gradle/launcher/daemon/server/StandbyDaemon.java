@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.api.internal.DocumentationRegistry;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.jvm.Jvm;
+import org.gradle.launcher.daemon.bootstrap.DaemonGreeter;
+import org.gradle.launcher.daemon.client.DefaultDaemonStarter;
+import org.gradle.launcher.daemon.configuration.DaemonServerConfiguration;
+import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
+import org.gradle.launcher.daemon.registry.DaemonDir;
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult;
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus;
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Starts a standby daemon when this daemon retires because it has been idle for too long or is no longer healthy, so that the next build connects to a running daemon rather than waiting for one to start.
+ * The standby has the same JVM options as this daemon, so it is compatible with the same builds, and registers itself as idle like any other daemon.
+ *
+ * <p>Enabled by starting the daemon with {@code -Dorg.gradle.daemon.standby=true}, for example in {@code org.gradle.jvmargs}. A daemon that has not run any build does not start a standby,
+ * so an unused standby retires for good once it has been idle for too long.</p>
+ */
+public class StandbyDaemon {
+    public static final String ENABLED_PROPERTY = "org.gradle.daemon.standby";
+    private static final Logger LOGGER = Logging.getLogger(StandbyDaemon.class);
+
+    private final boolean enabled;
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    public StandbyDaemon() {
+        this(Boolean.getBoolean(ENABLED_PROPERTY));
+    }
+
+    StandbyDaemon(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Decorates the given strategy, so that a standby is started when this daemon expires because of it.
+     */
+    public DaemonExpirationStrategy startStandbyOnExpiration(final DaemonExpirationStrategy strategy) {
+        if (!enabled) {
+            return strategy;
+        }
+        return new DaemonExpirationStrategy() {
+            @Override
+            public DaemonExpirationResult checkExpiration() {
+                DaemonExpirationResult result = strategy.checkExpiration();
+                if (result.getStatus() != DaemonExpirationStatus.DO_NOT_EXPIRE) {
+                    requested.set(true);
+                }
+                return result;
+            }
+        };
+    }
+
+    public boolean isRequested(int buildCount) {
+        return enabled && requested.get() && buildCount > 0;
+    }
+
+    public void start(DaemonServerConfiguration configuration, File gradleUserHomeDir) {
+        LOGGER.lifecycle("Starting a standby daemon to replace this daemon.");
+        try {
+            DaemonStartupInfo startupInfo = DefaultDaemonStarter.startDaemon(new DaemonDir(configuration.getBaseDir()), new DaemonGreeter(new DocumentationRegistry()), Jvm.current().getJavaExecutable(),
+                JavaVersion.current(), configuration.getJvmOptions(), gradleUserHomeDir, configuration.getIdleTimeout(), configuration.getPeriodicCheckIntervalMs());
+            LOGGER.lifecycle("Started standby daemon {}.", startupInfo.getUid());
+        } catch (Exception e) {
+            LOGGER.warn("Could not start a standby daemon.", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.internal.cache.CrossBuildInMemoryCacheFactory;
+import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.service.scopes.GradleUserHomeScopeServiceRegistry;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Releases the state that the daemon keeps in memory between builds, one stage at a time, so that the daemon can recover from running low on memory instead of being expired.
+ * The stages are shed in priority order, starting with the state that is cheapest to rebuild.
+ */
+public class DaemonCacheShedding {
+    private final List<Stage> stages;
+    private int nextStage;
+
+    public DaemonCacheShedding(final InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory, final CrossBuildInMemoryCacheFactory crossBuildInMemoryCacheFactory, final GradleUserHomeScopeServiceRegistry userHomeScopeServiceRegistry) {
+        this(ImmutableList.of(
+            new Stage() {
+                @Override
+                public String getDisplayName() {
+                    return "in-memory copies of persistent caches";
+                }
+
+                @Override
+                public boolean shed() {
+                    return inMemoryCacheDecoratorFactory.discardInMemoryEntries() > 0;
+                }
+            },
+            new Stage() {
+                @Override
+                public String getDisplayName() {
+                    return "cross-build in-memory caches";
+                }
+
+                @Override
+                public boolean shed() {
+                    return crossBuildInMemoryCacheFactory.releaseRetainedValues() > 0;
+                }
+            },
+            new Stage() {
+                @Override
+                public String getDisplayName() {
+                    return "classloaders retained for the Gradle user home";
+                }
+
+                @Override
+                public boolean shed() {
+                    return userHomeScopeServiceRegistry.stopUnusedServices();
+                }
+            }
+        ));
+    }
+
+    public DaemonCacheShedding(List<? extends Stage> stages) {
+        this.stages = ImmutableList.copyOf(stages);
+    }
+
+    /**
+     * Sheds the next stage that has something to release.
+     *
+     * @return the display name of the stage that was shed, or {@code null} when all stages have already been shed.
+     */
+    @Nullable
+    public synchronized String shedNext() {
+        while (nextStage < stages.size()) {
+            Stage stage = stages.get(nextStage++);
+            if (stage.shed()) {
+                return stage.getDisplayName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts again from the first stage, once the daemon has recovered.
+     */
+    public synchronized void reset() {
+        nextStage = 0;
+    }
+
+    public interface Stage {
+        String getDisplayName();
+
+        /**
+         * Releases the state of this stage.
+         *
+         * @return true if anything was released.
+         */
+        boolean shed();
+    }
+}
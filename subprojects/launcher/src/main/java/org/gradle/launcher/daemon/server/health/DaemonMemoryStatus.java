@@ -69,6 +69,28 @@ public class DaemonMemoryStatus {
         });
     }
 
+    /**
+     * Returns whether the tenured space is still used above the threshold after the latest collection, whatever the collection rate.
+     */
+    public boolean isTenuredSpaceExhaustedAfterLastCollection() {
+        GarbageCollectionStats gcStats = stats.getGcMonitor().getTenuredStats();
+
+        return exceedsThreshold(TENURED, gcStats, new Spec<GarbageCollectionStats>() {
+            @Override
+            public boolean isSatisfiedBy(GarbageCollectionStats gcStats) {
+                return tenuredUsageThreshold != 0
+                    && gcStats.getLastUsage() >= tenuredUsageThreshold;
+            }
+        });
+    }
+
+    /**
+     * Returns the number of tenured collections that had happened when the garbage collector was last polled.
+     */
+    public long getTenuredCollectionCount() {
+        return stats.getGcMonitor().getTenuredStats().getLastCount();
+    }
+
     public boolean isPermGenSpaceExhausted() {
         GarbageCollectionStats gcStats = stats.getGcMonitor().getPermGenStats();
 
@@ -25,10 +25,10 @@ public class HealthExpirationStrategy implements DaemonExpirationStrategy {
 
     private final DaemonExpirationStrategy strategy;
 
-    public HealthExpirationStrategy(DaemonMemoryStatus memoryStatus) {
+    public HealthExpirationStrategy(DaemonMemoryStatus memoryStatus, DaemonCacheShedding cacheShedding) {
         this.strategy = new AnyDaemonExpirationStrategy(ImmutableList.of(
             new GcThrashingDaemonExpirationStrategy(memoryStatus),
-            new LowTenuredSpaceDaemonExpirationStrategy(memoryStatus),
+            new LowTenuredSpaceDaemonExpirationStrategy(memoryStatus, cacheShedding),
             new LowPermGenDaemonExpirationStrategy(memoryStatus)
         ));
     }
@@ -21,26 +21,64 @@ import org.gradle.api.logging.Logging;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
 
+import java.util.Collections;
+
 import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.GRACEFUL_EXPIRE;
 
 public class LowTenuredSpaceDaemonExpirationStrategy implements DaemonExpirationStrategy {
     private final DaemonMemoryStatus status;
+    private final DaemonCacheShedding cacheShedding;
+    private static final long NOT_SHED = -1;
+    private long collectionCountAtLastShed = NOT_SHED;
     private static final Logger LOG = Logging.getLogger(LowTenuredSpaceDaemonExpirationStrategy.class);
 
     public static final String EXPIRATION_REASON = "after running out of JVM memory";
     public static final String EXPIRE_DAEMON_MESSAGE = "Expiring Daemon because JVM Tenured space is exhausted";
 
+    public static final String SHED_CACHES_MESSAGE = "JVM Tenured space is exhausted, releasing the ";
+
     public LowTenuredSpaceDaemonExpirationStrategy(DaemonMemoryStatus status) {
+        this(status, new DaemonCacheShedding(Collections.<DaemonCacheShedding.Stage>emptyList()));
+    }
+
+    /**
+     * Each check that finds the tenured space exhausted sheds the next stage of the given caches. The daemon is expired only once there is nothing left to shed.
+     * After shedding a stage, the next check waits for a new tenured collection, and then looks at the usage after that collection rather than at the usage
+     * averaged over earlier collections, which still includes the state that was released.
+     */
+    public LowTenuredSpaceDaemonExpirationStrategy(DaemonMemoryStatus status, DaemonCacheShedding cacheShedding) {
         this.status = status;
+        this.cacheShedding = cacheShedding;
     }
 
     @Override
     public DaemonExpirationResult checkExpiration() {
-        if (status.isTenuredSpaceExhausted()) {
-            LOG.warn(EXPIRE_DAEMON_MESSAGE);
-            return new DaemonExpirationResult(GRACEFUL_EXPIRE, EXPIRATION_REASON);
-        } else {
+        if (collectionCountAtLastShed != NOT_SHED) {
+            if (status.getTenuredCollectionCount() <= collectionCountAtLastShed) {
+                // Cannot tell yet whether the last stage released enough
+                return DaemonExpirationResult.NOT_TRIGGERED;
+            }
+            if (!status.isTenuredSpaceExhaustedAfterLastCollection()) {
+                recovered();
+                return DaemonExpirationResult.NOT_TRIGGERED;
+            }
+        } else if (!status.isTenuredSpaceExhausted()) {
+            recovered();
             return DaemonExpirationResult.NOT_TRIGGERED;
         }
+
+        String shed = cacheShedding.shedNext();
+        if (shed != null) {
+            LOG.warn(SHED_CACHES_MESSAGE + shed);
+            collectionCountAtLastShed = status.getTenuredCollectionCount();
+            return DaemonExpirationResult.NOT_TRIGGERED;
+        }
+        LOG.warn(EXPIRE_DAEMON_MESSAGE);
+        return new DaemonExpirationResult(GRACEFUL_EXPIRE, EXPIRATION_REASON);
+    }
+
+    private void recovered() {
+        collectionCountAtLastShed = NOT_SHED;
+        cacheShedding.reset();
     }
 }
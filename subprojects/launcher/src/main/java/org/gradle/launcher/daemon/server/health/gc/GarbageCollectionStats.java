@@ -26,12 +26,20 @@ public class GarbageCollectionStats {
     final private long used;
     final private long max;
     final private long eventCount;
+    final private long lastCount;
+    final private long lastUsed;
 
     public GarbageCollectionStats(Set<GarbageCollectionEvent> events) {
         this.rate = calculateRate(events);
         this.used = calculateAverageUsage(events);
         this.max = calculateMaxSize(events);
         this.eventCount = events.size();
+        GarbageCollectionEvent last = null;
+        for (GarbageCollectionEvent event : events) {
+            last = event;
+        }
+        this.lastCount = last == null ? 0 : last.getCount();
+        this.lastUsed = last == null ? -1 : last.getUsage().getUsed();
     }
 
     static double calculateRate(Set<GarbageCollectionEvent> events) {
@@ -130,4 +138,22 @@ public class GarbageCollectionStats {
     public long getEventCount() {
         return eventCount;
     }
+
+    /**
+     * Returns the number of collections that had happened when the latest event was recorded.
+     */
+    public long getLastCount() {
+        return lastCount;
+    }
+
+    /**
+     * Returns the usage of the pool after the latest collection, as a percentage of its maximum size, rather than averaged over the window.
+     */
+    public int getLastUsage() {
+        if (lastUsed > 0 && max > 0) {
+            return NumberUtil.percentOf(lastUsed, max);
+        } else {
+            return -1;
+        }
+    }
 }
@@ -18,7 +18,12 @@ package org.gradle.launcher.daemon.protocol
 
 import org.gradle.api.logging.LogLevel
 import org.gradle.internal.logging.events.LogLevelChangeEvent
+import org.gradle.internal.logging.events.OperationIdentifier
 import org.gradle.internal.logging.events.OutputEvent
+import org.gradle.internal.logging.events.ProgressCompleteEvent
+import org.gradle.internal.logging.events.ProgressEvent
+import org.gradle.internal.logging.events.ProgressStartEvent
+import org.gradle.internal.progress.BuildOperationCategory
 import org.gradle.internal.serialize.PlaceholderException
 import org.gradle.internal.serialize.Serializer
 import org.gradle.internal.serialize.SerializerSpec
@@ -42,6 +47,27 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         result.newLogLevel == LogLevel.LIFECYCLE
     }
 
+    def "writes strings repeated across progress events once"() {
+        def start1 = new ProgressStartEvent(new OperationIdentifier(1), null, 1234L, "org.gradle.internal.progress.DefaultBuildOperationExecutor", "Execute task ':someTask'", null, null, "", 0, null, null, BuildOperationCategory.TASK)
+        def start2 = new ProgressStartEvent(new OperationIdentifier(2), null, 1234L, "org.gradle.internal.progress.DefaultBuildOperationExecutor", "Execute task ':someTask'", null, null, "", 0, null, null, BuildOperationCategory.TASK)
+
+        expect:
+        def bytes1 = toBytes(new OutputMessage(start1), serializer)
+        fromBytes(bytes1, serializer).event.category == start1.category
+        def bytes2 = toBytes(new OutputMessage(start2), serializer)
+        bytes2.length < bytes1.length - start1.category.length() - start1.description.length()
+        def result = fromBytes(bytes2, serializer).event
+        result.category == start2.category
+        result.description == start2.description
+
+        def progress1 = serialize(new ProgressEvent(new OperationIdentifier(1), "> 1 of 10", false), serializer)
+        progress1.status == "> 1 of 10"
+        def progress2 = serialize(new ProgressEvent(new OperationIdentifier(1), "> 2 of 10", false), serializer)
+        progress2.status == "> 2 of 10"
+        def complete = serialize(new ProgressCompleteEvent(new OperationIdentifier(1), 1234L, "UP-TO-DATE"), serializer)
+        complete.status == "UP-TO-DATE"
+    }
+
     def "can serialize Failure messages"() {
         expect:
         def failure = new RuntimeException()
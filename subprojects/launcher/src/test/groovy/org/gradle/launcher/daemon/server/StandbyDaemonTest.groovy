@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server
+
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy
+import spock.lang.Specification
+
+import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.*
+
+class StandbyDaemonTest extends Specification {
+    final DaemonExpirationStrategy strategy = Mock(DaemonExpirationStrategy)
+
+    def "requests a standby when the decorated strategy expires the daemon"() {
+        given:
+        def standbyDaemon = new StandbyDaemon(true)
+        def decorated = standbyDaemon.startStandbyOnExpiration(strategy)
+
+        when:
+        def result = decorated.checkExpiration()
+
+        then:
+        1 * strategy.checkExpiration() >> new DaemonExpirationResult(status, "reason")
+        result.status == status
+        result.reason == "reason"
+        standbyDaemon.isRequested(1)
+
+        where:
+        status << [QUIET_EXPIRE, GRACEFUL_EXPIRE, IMMEDIATE_EXPIRE]
+    }
+
+    def "does not request a standby while the decorated strategy does not expire the daemon"() {
+        given:
+        def standbyDaemon = new StandbyDaemon(true)
+        def decorated = standbyDaemon.startStandbyOnExpiration(strategy)
+
+        when:
+        def result = decorated.checkExpiration()
+
+        then:
+        1 * strategy.checkExpiration() >> DaemonExpirationResult.NOT_TRIGGERED
+        result.status == DO_NOT_EXPIRE
+        !standbyDaemon.isRequested(1)
+    }
+
+    def "does not request a standby when the daemon has not run any build"() {
+        given:
+        def standbyDaemon = new StandbyDaemon(true)
+        strategy.checkExpiration() >> new DaemonExpirationResult(QUIET_EXPIRE, "reason")
+
+        when:
+        standbyDaemon.startStandbyOnExpiration(strategy).checkExpiration()
+
+        then:
+        !standbyDaemon.isRequested(0)
+    }
+
+    def "does not decorate the strategy when disabled"() {
+        given:
+        def standbyDaemon = new StandbyDaemon(false)
+
+        expect:
+        standbyDaemon.startStandbyOnExpiration(strategy).is(strategy)
+        !standbyDaemon.isRequested(1)
+    }
+}
@@ -90,6 +90,30 @@ class DaemonMemoryStatusTest extends Specification {
         1.0           | 75             | 1.0  | 100  | true
     }
 
+    @Unroll
+    def "knows when tenured space is still exhausted after the latest collection (#usageThreshold <= #lastUsage)"() {
+        when:
+        System.setProperty(TENURED_USAGE_EXPIRE_AT, usageThreshold.toString())
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> 100
+                getLastUsage() >> lastUsage
+                getRate() >> 0
+            }
+        }
+
+        then:
+        status.isTenuredSpaceExhaustedAfterLastCollection() == unhealthy
+
+        where:
+        usageThreshold | lastUsage | unhealthy
+        90             | 95        | true
+        90             | 90        | true
+        90             | 60        | false
+        90             | -1        | false
+        0              | 100       | false
+    }
+
     @Unroll
     def "knows when perm gen space is exhausted (#usageThreshold <= #used, #usageThreshold <= #used)"() {
         when:
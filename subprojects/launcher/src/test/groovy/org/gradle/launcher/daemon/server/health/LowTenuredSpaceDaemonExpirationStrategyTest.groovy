@@ -50,4 +50,118 @@ class LowTenuredSpaceDaemonExpirationStrategyTest extends Specification {
         and:
         result == DaemonExpirationResult.NOT_TRIGGERED
     }
+
+    def "sheds caches in order before the daemon is expired when tenured space is low" () {
+        def stage1 = Mock(DaemonCacheShedding.Stage)
+        def stage2 = Mock(DaemonCacheShedding.Stage)
+        def stage3 = Mock(DaemonCacheShedding.Stage)
+        LowTenuredSpaceDaemonExpirationStrategy strategy = new LowTenuredSpaceDaemonExpirationStrategy(status, new DaemonCacheShedding([stage1, stage2, stage3]))
+
+        when:
+        DaemonExpirationResult result = strategy.checkExpiration()
+
+        then:
+        1 * status.isTenuredSpaceExhausted() >> true
+        1 * stage1.shed() >> true
+        _ * stage1.displayName >> "stage 1"
+        _ * status.tenuredCollectionCount >> 10
+        0 * stage2._
+        0 * stage3._
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+
+        when:
+        result = strategy.checkExpiration()
+
+        then:
+        _ * status.tenuredCollectionCount >> 11
+        1 * status.isTenuredSpaceExhaustedAfterLastCollection() >> true
+        0 * status.isTenuredSpaceExhausted()
+        1 * stage2.shed() >> false
+        1 * stage3.shed() >> true
+        _ * stage3.displayName >> "stage 3"
+        0 * stage1._
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+
+        when:
+        result = strategy.checkExpiration()
+
+        then:
+        _ * status.tenuredCollectionCount >> 12
+        1 * status.isTenuredSpaceExhaustedAfterLastCollection() >> true
+        0 * stage1._
+        0 * stage2._
+        0 * stage3._
+
+        and:
+        result.status == GRACEFUL_EXPIRE
+        result.reason == LowTenuredSpaceDaemonExpirationStrategy.EXPIRATION_REASON
+    }
+
+    def "waits for a tenured collection after shedding a stage before shedding the next one" () {
+        def stage1 = Mock(DaemonCacheShedding.Stage)
+        def stage2 = Mock(DaemonCacheShedding.Stage)
+        LowTenuredSpaceDaemonExpirationStrategy strategy = new LowTenuredSpaceDaemonExpirationStrategy(status, new DaemonCacheShedding([stage1, stage2]))
+
+        when:
+        DaemonExpirationResult result = strategy.checkExpiration()
+
+        then:
+        1 * status.isTenuredSpaceExhausted() >> true
+        _ * status.tenuredCollectionCount >> 10
+        1 * stage1.shed() >> true
+        0 * stage2._
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+
+        when:
+        result = strategy.checkExpiration()
+        result = strategy.checkExpiration()
+
+        then:
+        _ * status.tenuredCollectionCount >> 10
+        0 * status.isTenuredSpaceExhausted()
+        0 * status.isTenuredSpaceExhaustedAfterLastCollection()
+        0 * stage1._
+        0 * stage2._
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+
+        when:
+        result = strategy.checkExpiration()
+
+        then:
+        _ * status.tenuredCollectionCount >> 11
+        1 * status.isTenuredSpaceExhaustedAfterLastCollection() >> true
+        0 * status.isTenuredSpaceExhausted()
+        1 * stage2.shed() >> true
+        0 * stage1._
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+    }
+
+    def "sheds caches again once tenured space has recovered after a collection" () {
+        def stage = Mock(DaemonCacheShedding.Stage)
+        LowTenuredSpaceDaemonExpirationStrategy strategy = new LowTenuredSpaceDaemonExpirationStrategy(status, new DaemonCacheShedding([stage]))
+
+        when:
+        strategy.checkExpiration()
+        strategy.checkExpiration()
+        DaemonExpirationResult result = strategy.checkExpiration()
+
+        then:
+        _ * status.tenuredCollectionCount >>> [10, 11, 12]
+        2 * status.isTenuredSpaceExhausted() >> true
+        1 * status.isTenuredSpaceExhaustedAfterLastCollection() >> false
+        2 * stage.shed() >> true
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+    }
 }
@@ -31,6 +31,20 @@ public class GarbageCollectionStatsTest extends Specification {
         new GarbageCollectionStats(checkStream).usage == 73
     }
 
+    def "knows the usage after the latest collection"() {
+        expect:
+        def stats = new GarbageCollectionStats(checkStream)
+        stats.lastUsage == 90
+        stats.lastCount == 10
+    }
+
+    def "has no latest collection without events"() {
+        expect:
+        def stats = new GarbageCollectionStats([] as Set)
+        stats.lastUsage == -1
+        stats.lastCount == 0
+    }
+
     Set<GarbageCollectionEvent> getCheckStream() {
         Set<GarbageCollectionEvent> checks = [
             new GarbageCollectionEvent(1000, new MemoryUsage(0, 250, 1000, 1000), 2),
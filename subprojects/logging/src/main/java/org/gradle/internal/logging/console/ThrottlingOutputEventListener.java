@@ -17,19 +17,34 @@
 package org.gradle.internal.logging.console;
 
 import org.gradle.internal.logging.events.EndOutputEvent;
+import org.gradle.internal.logging.events.OperationIdentifier;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
+import org.gradle.internal.logging.events.ProgressCompleteEvent;
+import org.gradle.internal.logging.events.ProgressEvent;
+import org.gradle.internal.logging.events.ProgressStartEvent;
 import org.gradle.internal.logging.events.UpdateNowEvent;
 import org.gradle.internal.time.TimeProvider;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Queue output events to be forwarded and schedule flush when time passed or if end of build is signalled.
+ *
+ * The threads that generate events only add them to a lock-free queue, and never wait for the events to be rendered. The queue is drained in batches by the executor thread, except for the end of output, which is forwarded before the generating thread returns.
+ * Within a batch, a progress event that is followed by another progress event for the same operation is discarded, as only the latest status of an operation is displayed.
+ * Progress events of build phases are always forwarded, as each of them advances the build progress bar.
  */
 public class ThrottlingOutputEventListener implements OutputEventListener {
     private final static long UPDATE_NOW_FLUSH_INITIAL_DELAY_AND_PERIOD_MS = 100L;
@@ -38,10 +53,21 @@ public class ThrottlingOutputEventListener implements OutputEventListener {
     private final ScheduledExecutorService executor;
     private final TimeProvider timeProvider;
     private final int throttleMs;
-    private final Object lock = new Object();
 
-    private long lastUpdate;
-    private final List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private final Queue<OutputEvent> queue = new ConcurrentLinkedQueue<OutputEvent>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean rendering = new AtomicBoolean();
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            // Reset before draining, so that an event queued after the queue has been drained schedules another flush
+            flushScheduled.set(false);
+            renderNow();
+        }
+    };
+    private volatile long lastUpdate;
+    // Only accessed while rendering
+    private final Set<OperationIdentifier> buildPhases = new HashSet<OperationIdentifier>();
 
     public ThrottlingOutputEventListener(OutputEventListener listener, TimeProvider timeProvider) {
         this(listener, Integer.getInteger("org.gradle.console.throttle", 85), Executors.newSingleThreadScheduledExecutor(), timeProvider);
@@ -65,50 +91,99 @@ public class ThrottlingOutputEventListener implements OutputEventListener {
     }
 
     public void onOutput(OutputEvent newEvent) {
-        synchronized (lock) {
-            queue.add(newEvent);
-
-            if (newEvent instanceof EndOutputEvent) {
-                // Flush and clean up
-                renderNow(timeProvider.getCurrentTime());
-                executor.shutdown();
-                return;
+        queue.add(newEvent);
+
+        if (newEvent instanceof EndOutputEvent) {
+            // Flush and clean up. Wait for the executor thread if it is currently rendering, to keep the events in order
+            while (!renderNow()) {
+                Thread.yield();
             }
+            executor.shutdown();
+            return;
+        }
+
+        if (!flushScheduled.compareAndSet(false, true)) {
+            // A flush is already scheduled and will pick up this event
+            return;
+        }
+
+        // Flush as soon as it has been long enough since the last update
+        long delay = Math.max(0, lastUpdate + throttleMs - timeProvider.getCurrentTime());
+        executor.schedule(flush, delay, TimeUnit.MILLISECONDS);
+    }
 
-            if (queue.size() > 1) {
-                // Currently queuing events, a thread is scheduled to flush the queue later
-                return;
+    /**
+     * Forwards the queued events, unless another thread is already doing so.
+     *
+     * @return false if another thread is forwarding events.
+     */
+    private boolean renderNow() {
+        if (!rendering.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            List<OutputEvent> batch = new ArrayList<OutputEvent>();
+            OutputEvent event;
+            while ((event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                // Already rendered - don't update anything
+                return true;
             }
 
-            long now = timeProvider.getCurrentTime();
-            if (now - lastUpdate >= throttleMs) {
-                // Has been long enough since last update - flush now
-                renderNow(now);
-                return;
+            for (OutputEvent queued : coalesce(batch)) {
+                listener.onOutput(queued);
             }
+            lastUpdate = timeProvider.getCurrentTime();
+            return true;
+        } finally {
+            rendering.set(false);
+        }
+    }
+
+    private List<OutputEvent> coalesce(List<OutputEvent> batch) {
+        for (OutputEvent event : batch) {
+            if (event instanceof ProgressStartEvent && BuildStatusRenderer.BUILD_PROGRESS_CATEGORY.equals(((ProgressStartEvent) event).getCategory())) {
+                buildPhases.add(((ProgressStartEvent) event).getProgressOperationId());
+            }
+        }
 
-            // This is the first queued event - schedule a thread to flush later
-            executor.schedule(new Runnable() {
-                @Override
-                public void run() {
-                    synchronized (lock) {
-                        renderNow(timeProvider.getCurrentTime());
-                    }
+        // Walk backwards, remembering for each operation whether the next event seen for it is a progress event
+        Map<OperationIdentifier, Boolean> followedByProgress = new HashMap<OperationIdentifier, Boolean>();
+        boolean discarded = false;
+        OutputEvent[] kept = new OutputEvent[batch.size()];
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            OutputEvent event = batch.get(i);
+            if (event instanceof ProgressEvent) {
+                OperationIdentifier id = ((ProgressEvent) event).getProgressOperationId();
+                if (!buildPhases.contains(id) && Boolean.TRUE.equals(followedByProgress.put(id, Boolean.TRUE))) {
+                    discarded = true;
+                    continue;
                 }
-            }, throttleMs, TimeUnit.MILLISECONDS);
+            } else if (event instanceof ProgressStartEvent) {
+                followedByProgress.put(((ProgressStartEvent) event).getProgressOperationId(), Boolean.FALSE);
+            } else if (event instanceof ProgressCompleteEvent) {
+                followedByProgress.put(((ProgressCompleteEvent) event).getProgressOperationId(), Boolean.FALSE);
+            }
+            kept[i] = event;
         }
-    }
 
-    private void renderNow(long now) {
-        if (queue.isEmpty()) {
-            // Already rendered - don't update anything
-            return;
+        for (OutputEvent event : batch) {
+            if (event instanceof ProgressCompleteEvent) {
+                buildPhases.remove(((ProgressCompleteEvent) event).getProgressOperationId());
+            }
         }
 
-        for (OutputEvent event : queue) {
-            listener.onOutput(event);
+        if (!discarded) {
+            return batch;
+        }
+        List<OutputEvent> result = new ArrayList<OutputEvent>(batch.size());
+        for (OutputEvent event : kept) {
+            if (event != null) {
+                result.add(event);
+            }
         }
-        queue.clear();
-        lastUpdate = now;
+        return result;
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.serializer;
+
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.Serializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes each distinct string once, and refers to it by its index in a table on later occurrences. Used for strings that are repeated across many output events, such as categories and operation descriptions.
+ *
+ * <p>Both sides build their table in the order in which the strings are written, so values must be read in the same order that they were written, as they are over a connection.
+ * The reading and writing tables are separate, so that a connection can read and write at the same time. The tables stop growing once they are full, after which new strings are written in full.</p>
+ */
+public class InterningStringSerializer implements Serializer<String> {
+    private static final int NULL = 0;
+    private static final int NEW = 1;
+    private static final int FIRST_INDEX = 2;
+    private static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private final int maxEntries;
+    private final Map<String, Integer> writeTable = new HashMap<String, Integer>();
+    private final List<String> readTable = new ArrayList<String>();
+
+    public InterningStringSerializer() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    InterningStringSerializer(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public void write(Encoder encoder, String value) throws Exception {
+        if (value == null) {
+            encoder.writeSmallInt(NULL);
+            return;
+        }
+        Integer index = writeTable.get(value);
+        if (index != null) {
+            encoder.writeSmallInt(FIRST_INDEX + index);
+            return;
+        }
+        encoder.writeSmallInt(NEW);
+        encoder.writeString(value);
+        if (writeTable.size() < maxEntries) {
+            writeTable.put(value, writeTable.size());
+        }
+    }
+
+    @Override
+    public String read(Decoder decoder) throws Exception {
+        int tag = decoder.readSmallInt();
+        if (tag == NULL) {
+            return null;
+        }
+        if (tag != NEW) {
+            return readTable.get(tag - FIRST_INDEX);
+        }
+        String value = decoder.readString();
+        if (readTable.size() < maxEntries) {
+            readTable.add(value);
+        }
+        return value;
+    }
+}
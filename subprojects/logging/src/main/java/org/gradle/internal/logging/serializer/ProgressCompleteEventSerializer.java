@@ -23,18 +23,28 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 
 public class ProgressCompleteEventSerializer implements Serializer<ProgressCompleteEvent> {
+    private final Serializer<String> stringSerializer;
+    private final ProgressStatusSerializer statusSerializer;
+
+    public ProgressCompleteEventSerializer(Serializer<String> stringSerializer, ProgressStatusSerializer statusSerializer) {
+        this.stringSerializer = stringSerializer;
+        this.statusSerializer = statusSerializer;
+    }
+
     @Override
     public void write(Encoder encoder, ProgressCompleteEvent event) throws Exception {
         encoder.writeSmallLong(event.getProgressOperationId().getId());
         encoder.writeLong(event.getTimestamp());
-        encoder.writeString(event.getStatus());
+        stringSerializer.write(encoder, event.getStatus());
+        statusSerializer.writeCompleted(event.getProgressOperationId());
     }
 
     @Override
     public ProgressCompleteEvent read(Decoder decoder) throws Exception {
         OperationIdentifier id = new OperationIdentifier(decoder.readSmallLong());
         long timestamp = decoder.readLong();
-        String status = decoder.readString();
+        String status = stringSerializer.read(decoder);
+        statusSerializer.readCompleted(id);
         return new ProgressCompleteEvent(id, timestamp, status);
     }
 }
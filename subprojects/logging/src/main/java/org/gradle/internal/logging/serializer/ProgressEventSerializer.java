@@ -23,17 +23,23 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
 
 public class ProgressEventSerializer implements Serializer<ProgressEvent> {
+    private final ProgressStatusSerializer statusSerializer;
+
+    public ProgressEventSerializer(ProgressStatusSerializer statusSerializer) {
+        this.statusSerializer = statusSerializer;
+    }
+
     @Override
     public void write(Encoder encoder, ProgressEvent event) throws Exception {
         encoder.writeSmallLong(event.getProgressOperationId().getId());
-        encoder.writeString(event.getStatus());
+        statusSerializer.write(encoder, event.getProgressOperationId(), event.getStatus());
         encoder.writeBoolean(event.isFailing());
     }
 
     @Override
     public ProgressEvent read(Decoder decoder) throws Exception {
         OperationIdentifier id = new OperationIdentifier(decoder.readSmallLong());
-        String status = decoder.readString();
+        String status = statusSerializer.read(decoder, id);
         boolean failing = decoder.readBoolean();
         return new ProgressEvent(id, status, failing);
     }
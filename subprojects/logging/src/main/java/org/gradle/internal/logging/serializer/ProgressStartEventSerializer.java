@@ -29,6 +29,7 @@ import org.gradle.internal.serialize.Serializer;
  * fields instead of writing an "absent" byte for each of them like most of our serializers do.
  * It also encodes the {@link BuildOperationCategory} in this byte, since that enum only has 3 values
  * for the forseeable future.
+ * The strings that repeat across events are interned, and the status is written as a change to the previous status of the operation.
  */
 public class ProgressStartEventSerializer implements Serializer<ProgressStartEvent> {
     private static final byte PARENT_PROGRESS_ID = 1;
@@ -38,6 +39,13 @@ public class ProgressStartEventSerializer implements Serializer<ProgressStartEve
     private static final byte PARENT_BUILD_OPERATION_ID = 16;
     private static final byte BUILD_OPERATION_CATEGORY_TASK = 32;
     private static final byte BUILD_OPERATION_CATEGORY_PROJECT = 64;
+    private final Serializer<String> stringSerializer;
+    private final ProgressStatusSerializer statusSerializer;
+
+    public ProgressStartEventSerializer(Serializer<String> stringSerializer, ProgressStatusSerializer statusSerializer) {
+        this.stringSerializer = stringSerializer;
+        this.statusSerializer = statusSerializer;
+    }
 
     @Override
     public void write(Encoder encoder, ProgressStartEvent event) throws Exception {
@@ -78,15 +86,15 @@ public class ProgressStartEventSerializer implements Serializer<ProgressStartEve
             encoder.writeSmallLong(parentProgressOperationId.getId());
         }
         encoder.writeLong(event.getTimestamp());
-        encoder.writeString(event.getCategory());
-        encoder.writeString(event.getDescription());
+        stringSerializer.write(encoder, event.getCategory());
+        stringSerializer.write(encoder, event.getDescription());
         if (shortDescription != null) {
-            encoder.writeString(shortDescription);
+            stringSerializer.write(encoder, shortDescription);
         }
         if (loggingHeader != null) {
-            encoder.writeString(loggingHeader);
+            stringSerializer.write(encoder, loggingHeader);
         }
-        encoder.writeString(event.getStatus());
+        statusSerializer.write(encoder, event.getProgressOperationId(), event.getStatus());
         encoder.writeInt(event.getTotalProgress());
         if (buildOperationId != null) {
             encoder.writeSmallLong(((OperationIdentifier) buildOperationId).getId());
@@ -107,20 +115,20 @@ public class ProgressStartEventSerializer implements Serializer<ProgressStartEve
         }
 
         long timestamp = decoder.readLong();
-        String category = decoder.readString();
-        String description = decoder.readString();
+        String category = stringSerializer.read(decoder);
+        String description = stringSerializer.read(decoder);
 
         String shortDescription = null;
         if ((flags & SHORT_DESCRIPTION) != 0) {
-            shortDescription = decoder.readString();
+            shortDescription = stringSerializer.read(decoder);
         }
 
         String loggingHeader = null;
         if ((flags & LOGGING_HEADER) != 0) {
-            loggingHeader = decoder.readString();
+            loggingHeader = stringSerializer.read(decoder);
         }
 
-        String status = decoder.readString();
+        String status = statusSerializer.read(decoder, progressOperationId);
         int totalProgress = decoder.readInt();
 
         Object buildOperationId = null;
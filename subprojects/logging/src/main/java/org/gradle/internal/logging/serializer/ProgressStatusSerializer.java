@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.serializer;
+
+import org.gradle.internal.logging.events.OperationIdentifier;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the status of a progress operation as a change to the previous status written for the same operation: the length of the unchanged prefix and suffix, followed by the characters in between.
+ * Successive statuses of an operation usually differ only in a few characters, such as a percentage or a count.
+ *
+ * <p>Values must be read in the same order that they were written, as they are over a connection. The reading and writing state are separate, so that a connection can read and write at the same time.</p>
+ */
+public class ProgressStatusSerializer {
+    private final Map<OperationIdentifier, String> written = new HashMap<OperationIdentifier, String>();
+    private final Map<OperationIdentifier, String> read = new HashMap<OperationIdentifier, String>();
+
+    public void write(Encoder encoder, OperationIdentifier operationId, String status) throws Exception {
+        String previous = written.put(operationId, status);
+        if (previous == null) {
+            previous = "";
+        }
+        int maxLength = Math.min(previous.length(), status.length());
+        int prefix = 0;
+        while (prefix < maxLength && previous.charAt(prefix) == status.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxLength - prefix && previous.charAt(previous.length() - 1 - suffix) == status.charAt(status.length() - 1 - suffix)) {
+            suffix++;
+        }
+        encoder.writeSmallInt(prefix);
+        encoder.writeSmallInt(suffix);
+        encoder.writeString(status.substring(prefix, status.length() - suffix));
+    }
+
+    public String read(Decoder decoder, OperationIdentifier operationId) throws Exception {
+        String previous = read.get(operationId);
+        if (previous == null) {
+            previous = "";
+        }
+        int prefix = decoder.readSmallInt();
+        int suffix = decoder.readSmallInt();
+        String changed = decoder.readString();
+        String status = previous.substring(0, prefix) + changed + previous.substring(previous.length() - suffix);
+        read.put(operationId, status);
+        return status;
+    }
+
+    /**
+     * Discards the status written for the given operation, once the operation has completed.
+     */
+    public void writeCompleted(OperationIdentifier operationId) {
+        written.remove(operationId);
+    }
+
+    /**
+     * Discards the status read for the given operation, once the operation has completed.
+     */
+    public void readCompleted(OperationIdentifier operationId) {
+        read.remove(operationId);
+    }
+}
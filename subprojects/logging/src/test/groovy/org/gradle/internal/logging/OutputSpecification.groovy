@@ -97,7 +97,8 @@ abstract class OutputSpecification extends Specification {
         BuildOperationCategory buildOperationCategory = args.containsKey("buildOperationCategory") ? args.buildOperationCategory : BuildOperationCategory.UNCATEGORIZED
         Long id = args.containsKey("id") ? args.id : ++counter
         String category = args.containsKey("category") ? args.category : CATEGORY
-        return new ProgressStartEvent(new OperationIdentifier(id), parent, tenAm, category, args.description, args.shortDescription, args.loggingHeader, args.status, 0, buildOperationId, parentBuildOperationId, buildOperationCategory)
+        int totalProgress = args.containsKey("totalProgress") ? args.totalProgress : 0
+        return new ProgressStartEvent(new OperationIdentifier(id), parent, tenAm, category, args.description, args.shortDescription, args.loggingHeader, args.status, totalProgress, buildOperationId, parentBuildOperationId, buildOperationCategory)
     }
 
     ProgressEvent progress(String status) {
@@ -17,8 +17,13 @@ package org.gradle.internal.logging.console
 
 import org.gradle.internal.logging.OutputSpecification
 import org.gradle.internal.logging.events.EndOutputEvent
+import org.gradle.internal.logging.events.OperationIdentifier
 import org.gradle.internal.logging.events.OutputEventListener
+import org.gradle.internal.logging.events.ProgressEvent
 import org.gradle.internal.logging.events.UpdateNowEvent
+import org.gradle.internal.logging.text.StyledTextOutput
+import org.gradle.internal.nativeintegration.console.ConsoleMetaData
+import org.gradle.internal.time.TimeProvider
 import org.gradle.util.MockExecutor
 import org.gradle.util.MockTimeProvider
 import spock.lang.Subject
@@ -30,12 +35,18 @@ class ThrottlingOutputEventListenerTest extends OutputSpecification {
 
     @Subject renderer = new ThrottlingOutputEventListener(listener, 100, executor, timeProvider)
 
-    def "forwards events to listener"() {
+    def "forwards events to listener from executor"() {
         def event = event('message')
 
         when:
         renderer.onOutput(event)
 
+        then:
+        0 * _
+
+        when:
+        flushSingleScheduledActions()
+
         then:
         1 * listener.onOutput(event)
         0 * _
@@ -51,16 +62,15 @@ class ThrottlingOutputEventListenerTest extends OutputSpecification {
         renderer.onOutput(event1)
         renderer.onOutput(event2)
         renderer.onOutput(event3)
+        flushSingleScheduledActions()
 
         then:
         1 * listener.onOutput(event1)
-        0 * _
-
-        when:
-        flushSingleScheduledActions()
 
         then:
         1 * listener.onOutput(event2)
+
+        then:
         1 * listener.onOutput(event3)
         0 * _
 
@@ -69,31 +79,90 @@ class ThrottlingOutputEventListenerTest extends OutputSpecification {
 
         then:
         0 * _
-    }
 
-    def "forwards event received significantly after first"() {
-        def event1 = event('1')
-        def event2 = event('2')
-        def event3 = event('3')
+        when:
+        flushSingleScheduledActions()
 
-        given:
-        renderer.onOutput(event1)
+        then:
+        1 * listener.onOutput(event4)
+        0 * _
+    }
+
+    def "forwards only the latest progress of an operation within a batch"() {
+        def id1 = new OperationIdentifier(1)
+        def id2 = new OperationIdentifier(2)
+        def start1 = start(1L)
+        def progress1a = new ProgressEvent(id1, 'a', false)
+        def progress2a = new ProgressEvent(id2, 'a', false)
+        def progress1b = new ProgressEvent(id1, 'b', false)
+        def progress2b = new ProgressEvent(id2, 'b', false)
+        def complete1 = complete(1L)
+        def progress2c = new ProgressEvent(id2, 'c', false)
 
         when:
-        timeProvider.increment(100)
-        renderer.onOutput(event2)
+        [start1, progress1a, progress2a, progress1b, progress2b, complete1, progress2c].each { renderer.onOutput(it) }
+        flushSingleScheduledActions()
 
         then:
-        1 * listener.onOutput(event2)
+        1 * listener.onOutput(start1)
+
+        then:
+        1 * listener.onOutput(progress1b)
+
+        then:
+        1 * listener.onOutput(complete1)
+
+        then:
+        1 * listener.onOutput(progress2c)
         0 * _
+    }
+
+    def "forwards every progress event of a build phase within a batch"() {
+        def id = new OperationIdentifier(1)
+        def phase = start(id: 1L, parentId: null, category: BuildStatusRenderer.BUILD_PROGRESS_CATEGORY, shortDescription: 'EXECUTING')
+        def progress1 = new ProgressEvent(id, 'a', false)
+        def progress2 = new ProgressEvent(id, 'b', true)
+        def progress3 = new ProgressEvent(id, 'c', false)
 
         when:
-        renderer.onOutput(event3)
+        [phase, progress1, progress2, progress3].each { renderer.onOutput(it) }
+        flushSingleScheduledActions()
+
+        then:
+        1 * listener.onOutput(phase)
 
         then:
+        1 * listener.onOutput(progress1)
+
+        then:
+        1 * listener.onOutput(progress2)
+
+        then:
+        1 * listener.onOutput(progress3)
         0 * _
     }
 
+    def "build status renderer counts every progress event of a build phase forwarded in a batch"() {
+        def console = new ConsoleStub()
+        def consoleMetaData = Mock(ConsoleMetaData)
+        def statusRenderer = new BuildStatusRenderer(Mock(OutputEventListener), console.statusBar, console, consoleMetaData, Mock(TimeProvider))
+        def throttler = new ThrottlingOutputEventListener(statusRenderer, 100, executor, timeProvider)
+        def id = new OperationIdentifier(1)
+
+        when:
+        throttler.onOutput(start(id: 1L, parentId: null, category: BuildStatusRenderer.BUILD_PROGRESS_CATEGORY, shortDescription: 'EXECUTING', totalProgress: 4))
+        throttler.onOutput(new ProgressEvent(id, '', false))
+        throttler.onOutput(new ProgressEvent(id, '', true))
+        throttler.onOutput(new ProgressEvent(id, '', false))
+        throttler.onOutput(updateNow())
+        flushSingleScheduledActions()
+
+        then:
+        def statusBar = console.statusBar as TestStyledLabel
+        statusBar.display == '<=========----> 75% EXECUTING [0s]'
+        statusBar.styleOf('=========') == StyledTextOutput.Style.FailureHeader
+    }
+
     def forwardsQueuedEventsOnEndOfOutputEvent() {
         def event1 = event('1')
         def event2 = event('2')
@@ -106,13 +175,13 @@ class ThrottlingOutputEventListenerTest extends OutputSpecification {
         renderer.onOutput(event3)
 
         then:
-        1 * listener.onOutput(event1)
         0 * _
 
         when:
         renderer.onOutput(end)
 
         then:
+        1 * listener.onOutput(event1)
         1 * listener.onOutput(event2)
         1 * listener.onOutput(event3)
         1 * listener.onOutput(end)
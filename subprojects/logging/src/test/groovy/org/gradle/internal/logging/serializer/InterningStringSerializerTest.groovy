@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.serializer
+
+import spock.lang.Subject
+
+@Subject(InterningStringSerializer)
+class InterningStringSerializerTest extends LogSerializerSpec {
+    def serializer = new InterningStringSerializer(2)
+
+    def "writes each distinct string once"() {
+        expect:
+        def first = toBytes("some category", serializer)
+        fromBytes(first, serializer) == "some category"
+
+        def second = toBytes("some category", serializer)
+        second.length == 1
+        fromBytes(second, serializer) == "some category"
+    }
+
+    def "can serialize null and empty strings"() {
+        expect:
+        serialize(null, serializer) == null
+        serialize("", serializer) == ""
+        serialize("", serializer) == ""
+    }
+
+    def "writes strings in full once the table is full"() {
+        expect:
+        serialize("a", serializer) == "a"
+        serialize("b", serializer) == "b"
+        serialize("c", serializer) == "c"
+
+        toBytes("b", serializer).length == 1
+        toBytes("c", serializer).length > 1
+    }
+}
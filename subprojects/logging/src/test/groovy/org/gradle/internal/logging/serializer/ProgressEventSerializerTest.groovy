@@ -23,7 +23,7 @@ import spock.lang.Subject
 class ProgressEventSerializerTest extends LogSerializerSpec {
     private static final OperationIdentifier OPERATION_ID = new OperationIdentifier(1234L)
 
-    ProgressEventSerializer serializer = new ProgressEventSerializer()
+    ProgressEventSerializer serializer = new ProgressEventSerializer(new ProgressStatusSerializer())
 
     def "can serialize ProgressEvent messages"() {
         given:
@@ -30,7 +30,7 @@ class ProgressStartEventSerializerTest extends LogSerializerSpec {
     ProgressStartEventSerializer serializer
 
     def setup() {
-        serializer = new ProgressStartEventSerializer()
+        serializer = new ProgressStartEventSerializer(new InterningStringSerializer(), new ProgressStatusSerializer())
     }
 
     def "can serialize ProgressStartEvent messages"(BuildOperationCategory category) {
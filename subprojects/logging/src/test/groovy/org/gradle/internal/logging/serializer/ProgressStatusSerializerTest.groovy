@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.logging.serializer
+
+import org.gradle.internal.logging.events.OperationIdentifier
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import spock.lang.Subject
+
+@Subject(ProgressStatusSerializer)
+class ProgressStatusSerializerTest extends LogSerializerSpec {
+    private static final OperationIdentifier OPERATION_1 = new OperationIdentifier(1L)
+    private static final OperationIdentifier OPERATION_2 = new OperationIdentifier(2L)
+
+    def serializer = new ProgressStatusSerializer()
+
+    def "writes the change to the previous status of the same operation"() {
+        expect:
+        roundTrip(OPERATION_1, "> 12% CONFIGURING [3s]") == "> 12% CONFIGURING [3s]"
+        roundTrip(OPERATION_2, "other") == "other"
+
+        def bytes = write(OPERATION_1, "> 13% CONFIGURING [3s]")
+        bytes.length < "> 13% CONFIGURING [3s]".length()
+        read(bytes, OPERATION_1) == "> 13% CONFIGURING [3s]"
+
+        roundTrip(OPERATION_1, "> 100% DONE") == "> 100% DONE"
+        roundTrip(OPERATION_1, "") == ""
+        roundTrip(OPERATION_2, "other status") == "other status"
+    }
+
+    def "starts again from an empty status once the operation has completed"() {
+        given:
+        roundTrip(OPERATION_1, "status 1")
+
+        when:
+        serializer.writeCompleted(OPERATION_1)
+        def bytes = write(OPERATION_1, "status 2")
+        serializer.readCompleted(OPERATION_1)
+
+        then:
+        read(bytes, OPERATION_1) == "status 2"
+    }
+
+    String roundTrip(OperationIdentifier id, String status) {
+        return read(write(id, status), id)
+    }
+
+    byte[] write(OperationIdentifier id, String status) {
+        def bytes = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(bytes)
+        serializer.write(encoder, id, status)
+        encoder.flush()
+        return bytes.toByteArray()
+    }
+
+    String read(byte[] bytes, OperationIdentifier id) {
+        return serializer.read(new KryoBackedDecoder(new ByteArrayInputStream(bytes)), id)
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of small messages, similar to output and test events, sent over a socket connection in batches.
+ */
+@State(Scope.Benchmark)
+public class SocketConnectionThroughputBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    private SocketConnection<String> sender;
+    private SocketConnection<String> receiver;
+    private Thread receiverThread;
+    private final AtomicLong received = new AtomicLong();
+    private long sent;
+    private String message;
+
+    @Setup(Level.Trial)
+    public void connect() throws Exception {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        SocketChannel client = SocketChannel.open(server.socket().getLocalSocketAddress());
+        SocketChannel accepted = server.accept();
+        server.close();
+        sender = new SocketConnection<String>(client, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER));
+        receiver = new SocketConnection<String>(accepted, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER));
+        message = "> Task :compileJava - compiling 12 source files with the in-process compiler";
+        receiverThread = new Thread(new Runnable() {
+            public void run() {
+                while (receiver.receive() != null) {
+                    received.incrementAndGet();
+                }
+            }
+        });
+        receiverThread.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void disconnect() throws Exception {
+        sender.stop();
+        receiverThread.join();
+        receiver.stop();
+    }
+
+    @Benchmark
+    public long sendBatch() {
+        for (int i = 0; i < batchSize; i++) {
+            sender.dispatch(message);
+        }
+        sender.flush();
+        sent += batchSize;
+        while (received.get() < sent) {
+            Thread.yield();
+        }
+        return sent;
+    }
+}
@@ -21,6 +21,11 @@ import org.gradle.internal.concurrent.AsyncStoppable;
 public interface ConnectionAcceptor extends AsyncStoppable {
     Address getAddress();
 
+    /**
+     * Returns whether peers on the same machine that offer it may exchange messages with this endpoint through shared memory.
+     */
+    boolean isSharedMemoryAccepted();
+
     /**
      * Stops accepting incoming connections.
      */
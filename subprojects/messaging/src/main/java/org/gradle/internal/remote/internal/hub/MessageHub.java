@@ -30,6 +30,7 @@ import org.gradle.internal.remote.internal.hub.queue.EndPointQueue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -45,6 +46,8 @@ public class MessageHub implements AsyncStoppable {
     private enum State {Running, Stopping, Stopped}
 
     private static final Discard DISCARD = new Discard();
+    // How long outgoing messages may be held back while more messages keep being queued, so that they are written together
+    private static final long MAX_FLUSH_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
     private final ManagedExecutor workers;
     private final String displayName;
     private final Action<? super Throwable> errorHandler;
@@ -308,13 +311,24 @@ public class MessageHub implements AsyncStoppable {
             try {
                 List<InterHubMessage> messages = new ArrayList<InterHubMessage>();
                 try {
+                    long unflushedSince = -1;
                     while (true) {
                         lock.lock();
                         try {
-                            queue.take(messages);
+                            if (unflushedSince < 0) {
+                                queue.take(messages);
+                            } else {
+                                queue.drain(messages);
+                            }
                         } finally {
                             lock.unlock();
                         }
+                        if (messages.isEmpty()) {
+                            // Nothing more was queued while writing the previous messages
+                            connection.flush();
+                            unflushedSince = -1;
+                            continue;
+                        }
                         for (InterHubMessage message : messages) {
                             try {
                                 connection.dispatch(message);
@@ -326,8 +340,14 @@ public class MessageHub implements AsyncStoppable {
                                 return;
                             }
                         }
-                        connection.flush();
                         messages.clear();
+                        long now = System.nanoTime();
+                        if (unflushedSince < 0) {
+                            unflushedSince = now;
+                        } else if (now - unflushedSince >= MAX_FLUSH_DELAY_NANOS) {
+                            connection.flush();
+                            unflushedSince = -1;
+                        }
                     }
                 } finally {
                     lock.lock();
@@ -55,6 +55,16 @@ public class EndPointQueue implements Dispatch<InterHubMessage> {
         queue.clear();
     }
 
+    /**
+     * Moves the messages queued for this end point, along with the messages that the owner is holding until an end point asks for
+     * them, without waiting for more.
+     */
+    public void drain(Collection<InterHubMessage> drainTo) {
+        owner.poll(this);
+        drainTo.addAll(queue);
+        queue.clear();
+    }
+
     public void stop() {
         owner.stopped(this);
     }
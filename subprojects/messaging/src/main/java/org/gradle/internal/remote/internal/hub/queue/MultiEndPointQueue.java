@@ -46,6 +46,13 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
         flush();
     }
 
+    /**
+     * Forwards the queued messages to the given endpoint, without it having to wait for them.
+     */
+    void poll(EndPointQueue endPointQueue) {
+        flush(endPointQueue);
+    }
+
     void stopped(EndPointQueue queue) {
         waiting.remove(queue);
         endpoints.remove(queue);
@@ -60,7 +67,10 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
     private void flush() {
         // TODO - need to do a better job of routing messages when there are multiple endpoints. This is just going to forward all queued messages to the first
         // waiting endpoint, even if there are multiple waiting to do work
-        EndPointQueue selected = waiting.isEmpty() ? null : waiting.get(0);
+        flush(waiting.isEmpty() ? null : waiting.get(0));
+    }
+
+    private void flush(EndPointQueue selected) {
         while (!queue.isEmpty()) {
             InterHubMessage message = queue.get(0);
             switch (message.getDelivery()) {
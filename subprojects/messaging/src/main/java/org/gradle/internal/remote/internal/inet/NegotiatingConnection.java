@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.remote.internal.MessageIOException;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.StatefulSerializer;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A connection that waits for the peer to agree on how messages are exchanged when it is first used, rather than when it is created.
+ * See {@link SharedMemoryTransport}.
+ */
+class NegotiatingConnection<T> implements RemoteConnection<T> {
+    private final SocketChannel socket;
+    private final boolean accepted;
+    private final StatefulSerializer<T> serializer;
+    private final Lock lock = new ReentrantLock();
+    private volatile RemoteConnection<T> connection;
+    private volatile boolean negotiated;
+
+    /**
+     * @param accepted whether this side accepted the connection, rather than made it.
+     */
+    NegotiatingConnection(SocketChannel socket, boolean accepted, StatefulSerializer<T> serializer) {
+        this.socket = socket;
+        this.accepted = accepted;
+        this.serializer = serializer;
+    }
+
+    @Override
+    public String toString() {
+        return connection != null ? connection.toString() : "connection from " + socket.socket().getRemoteSocketAddress();
+    }
+
+    public void dispatch(T message) throws MessageIOException {
+        RemoteConnection<T> connection = getConnection();
+        if (connection == null) {
+            throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, socket.socket().getRemoteSocketAddress()), null);
+        }
+        connection.dispatch(message);
+    }
+
+    public void flush() throws MessageIOException {
+        RemoteConnection<T> connection = getConnection();
+        if (connection != null) {
+            connection.flush();
+        }
+    }
+
+    @Nullable
+    public T receive() throws MessageIOException {
+        RemoteConnection<T> connection = getConnection();
+        return connection == null ? null : connection.receive();
+    }
+
+    public void stop() {
+        if (!negotiated) {
+            // Wakes up any thread still waiting for the peer
+            CompositeStoppable.stoppable(socket).stop();
+        }
+        lock.lock();
+        try {
+            negotiated = true;
+            if (connection != null) {
+                connection.stop();
+            } else {
+                CompositeStoppable.stoppable(socket).stop();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return null when the peer has gone away, or this connection has been stopped, before agreeing.
+     */
+    @Nullable
+    private RemoteConnection<T> getConnection() {
+        if (negotiated) {
+            return connection;
+        }
+        lock.lock();
+        try {
+            if (!negotiated) {
+                try {
+                    connection = accepted ? SharedMemoryTransport.<T>completeAccept(socket, serializer) : SharedMemoryTransport.<T>completeConnect(socket, serializer);
+                } catch (IOException e) {
+                    if (socket.isOpen()) {
+                        throw new MessageIOException(String.format("Could not read message from '%s'.", socket.socket().getRemoteSocketAddress()), e);
+                    }
+                } finally {
+                    negotiated = true;
+                }
+            }
+            return connection;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
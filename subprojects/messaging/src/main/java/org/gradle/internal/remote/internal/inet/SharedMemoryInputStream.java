@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.gradle.internal.remote.internal.inet.SharedMemoryTransport.*;
+
+/**
+ * Reads the bytes written by a {@link SharedMemoryOutputStream} in another process to a ring buffer in a memory-mapped file.
+ *
+ * <p>The write position is read with a volatile read before the data it covers, and the read position is published with an ordered write after the data has been copied.
+ * A reader that has caught up with the writer spins for a short while, then announces that it is waiting and blocks on the socket until the writer wakes it up.</p>
+ */
+class SharedMemoryInputStream extends InputStream {
+    private final SharedMemoryMapping mapping;
+    private final int ringOffset;
+    private final ByteBuffer data;
+    private final SocketChannel socket;
+    private final Selector selector;
+    private final ByteBuffer wakeUps = ByteBuffer.allocate(256);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private int readPosition;
+    private volatile boolean peerGone;
+
+    SharedMemoryInputStream(SharedMemoryMapping mapping, int ringOffset, SocketChannel socket) throws IOException {
+        this.mapping = mapping;
+        this.ringOffset = ringOffset;
+        this.data = mapping.slice(ringOffset + DATA, CAPACITY);
+        this.socket = socket;
+        readPosition = mapping.getIntVolatile(ringOffset + READ_POSITION);
+        selector = Selector.open();
+        socket.register(selector, SelectionKey.OP_READ);
+    }
+
+    /**
+     * Whether the socket to the writing process has been closed, in which case it will not read anything written to this side anymore.
+     */
+    boolean isPeerGone() {
+        return peerGone;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] buffer = new byte[1];
+        return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] dest, int offset, int max) throws IOException {
+        if (max == 0) {
+            return 0;
+        }
+        if (!mapping.retain()) {
+            return -1;
+        }
+        try {
+            int available = awaitData();
+            if (available == 0) {
+                return -1;
+            }
+            int count = Math.min(available, max);
+            int index = readPosition & (CAPACITY - 1);
+            int first = Math.min(count, CAPACITY - index);
+            data.position(index);
+            data.get(dest, offset, first);
+            if (first < count) {
+                data.position(0);
+                data.get(dest, offset + first, count - first);
+            }
+            readPosition += count;
+            // Finish reading the data before the writer can reuse its space
+            mapping.putOrderedInt(ringOffset + READ_POSITION, readPosition);
+            return count;
+        } finally {
+            mapping.release();
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed.get() || !mapping.retain()) {
+            return 0;
+        }
+        try {
+            return availableBytes();
+        } finally {
+            mapping.release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            mapping.putIntVolatile(ringOffset + READER_CLOSED, 1);
+            selector.close();
+        } finally {
+            mapping.release();
+        }
+    }
+
+    /**
+     * @return the number of bytes that can be read, or 0 when the end of the stream has been reached.
+     */
+    private int awaitData() throws IOException {
+        for (int attempt = 0;; attempt++) {
+            boolean writerClosed = mapping.getIntVolatile(ringOffset + WRITER_CLOSED) != 0;
+            int available = availableBytes();
+            if (available > 0) {
+                return available;
+            }
+            if (writerClosed || peerGone || closed.get()) {
+                return 0;
+            }
+            if (shouldSpin(attempt)) {
+                backOff(attempt);
+            } else {
+                awaitWakeUp();
+            }
+        }
+    }
+
+    private int availableBytes() throws IOException {
+        int available = mapping.getIntVolatile(ringOffset + WRITE_POSITION) - readPosition;
+        if (available < 0 || available > CAPACITY) {
+            throw new IOException("The shared memory of this connection has been corrupted.");
+        }
+        return available;
+    }
+
+    private void awaitWakeUp() throws IOException {
+        // Either the writer sees that this reader is waiting, or this reader sees what the writer has published
+        mapping.putIntVolatile(ringOffset + READER_WAITING, 1);
+        try {
+            if (mapping.getIntVolatile(ringOffset + WRITE_POSITION) != readPosition || mapping.getIntVolatile(ringOffset + WRITER_CLOSED) != 0) {
+                return;
+            }
+            try {
+                selector.select();
+            } catch (ClosedSelectorException e) {
+                return;
+            }
+            if (!selector.isOpen()) {
+                return;
+            }
+            selector.selectedKeys().clear();
+            readWakeUps();
+        } finally {
+            mapping.putOrderedInt(ringOffset + READER_WAITING, 0);
+        }
+    }
+
+    private void readWakeUps() throws IOException {
+        try {
+            int nread;
+            do {
+                wakeUps.clear();
+                nread = socket.read(wakeUps);
+            } while (nread > 0);
+            if (nread < 0) {
+                peerGone = true;
+            }
+        } catch (IOException e) {
+            if (SocketConnection.isEndOfStream(e) || !selector.isOpen()) {
+                peerGone = true;
+            } else {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A memory-mapped file shared with another process, holding one ring buffer per direction.
+ *
+ * <p>The positions in the ring buffers are read and published with the ordered accesses of {@link Unsafe} on the address of the mapping, so that the data they cover
+ * is visible to the other process before they are. The data itself is copied through {@link ByteBuffer}s.</p>
+ *
+ * <p>The mapping is released once by each of the two streams using it, and unmapped when both have released it and no access is in progress.</p>
+ */
+class SharedMemoryMapping {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryMapping.class);
+    private static final Unsafe UNSAFE;
+    private static final long ADDRESS_OFFSET;
+
+    static {
+        Unsafe unsafe = null;
+        long addressOffset = -1;
+        try {
+            Field theUnsafe = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = (Unsafe) theUnsafe.get(null);
+            addressOffset = unsafe.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (Throwable e) {
+            LOGGER.debug("Ordered accesses to mapped memory are not available.", e);
+            unsafe = null;
+        }
+        UNSAFE = unsafe;
+        ADDRESS_OFFSET = addressOffset;
+    }
+
+    private final MappedByteBuffer buffer;
+    private final long address;
+    // One reference for each stream, plus one for each access in progress
+    private final AtomicInteger references = new AtomicInteger(2);
+
+    SharedMemoryMapping(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.address = UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+    }
+
+    /**
+     * Whether mapped memory can be accessed with the ordering guarantees the ring buffers need. When not, shared memory is never used.
+     */
+    static boolean isAvailable() {
+        return UNSAFE != null;
+    }
+
+    /**
+     * Returns a view of the given region of the mapping.
+     */
+    ByteBuffer slice(int offset, int length) {
+        ByteBuffer copy = buffer.duplicate();
+        copy.position(offset);
+        copy.limit(offset + length);
+        return copy.slice();
+    }
+
+    int getIntVolatile(int offset) {
+        return UNSAFE.getIntVolatile(null, address + offset);
+    }
+
+    /**
+     * Publishes a value after all the writes that precede it, without waiting for it to be visible.
+     */
+    void putOrderedInt(int offset, int value) {
+        UNSAFE.putOrderedInt(null, address + offset, value);
+    }
+
+    /**
+     * Publishes a value before any read that follows it.
+     */
+    void putIntVolatile(int offset, int value) {
+        UNSAFE.putIntVolatile(null, address + offset, value);
+    }
+
+    /**
+     * Keeps the mapping for an access. Every successful call must be followed by a call to {@link #release()}.
+     *
+     * @return false when the mapping has been unmapped already.
+     */
+    boolean retain() {
+        while (true) {
+            int current = references.get();
+            if (current == 0) {
+                return false;
+            }
+            if (references.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            unmap(buffer);
+        }
+    }
+
+    /**
+     * Unmaps the given buffer straight away, rather than when it is garbage collected. It must not be accessed anymore.
+     */
+    static void unmap(MappedByteBuffer buffer) {
+        try {
+            try {
+                // Java 9 and later
+                Method invokeCleaner = Unsafe.class.getMethod("invokeCleaner", ByteBuffer.class);
+                invokeCleaner.invoke(UNSAFE, buffer);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            // The buffer is unmapped when it is garbage collected instead
+            LOGGER.debug("Could not unmap shared memory.", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.gradle.internal.remote.internal.inet.SharedMemoryTransport.*;
+
+/**
+ * Writes bytes to a ring buffer in a memory-mapped file, for a {@link SharedMemoryInputStream} in another process to read.
+ *
+ * <p>The bytes are published as soon as they have been copied, with a volatile write of the write position, so {@link #flush()} has nothing to do.
+ * When the ring buffer is full, the writer polls until the reader has made some space.</p>
+ */
+class SharedMemoryOutputStream extends OutputStream {
+    private final SharedMemoryMapping mapping;
+    private final int ringOffset;
+    private final ByteBuffer data;
+    private final SocketChannel socket;
+    private final SharedMemoryInputStream input;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private int writePosition;
+
+    /**
+     * @param input the stream reading from the same peer, which finds out when the peer has gone away.
+     */
+    SharedMemoryOutputStream(SharedMemoryMapping mapping, int ringOffset, SocketChannel socket, SharedMemoryInputStream input) {
+        this.mapping = mapping;
+        this.ringOffset = ringOffset;
+        this.data = mapping.slice(ringOffset + DATA, CAPACITY);
+        this.socket = socket;
+        this.input = input;
+        writePosition = mapping.getIntVolatile(ringOffset + WRITE_POSITION);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] src, int offset, int length) throws IOException {
+        if (!mapping.retain()) {
+            throw new IOException("This stream has been closed.");
+        }
+        try {
+            while (length > 0) {
+                int count = Math.min(length, awaitSpace());
+                int index = writePosition & (CAPACITY - 1);
+                int first = Math.min(count, CAPACITY - index);
+                data.position(index);
+                data.put(src, offset, first);
+                if (first < count) {
+                    data.position(0);
+                    data.put(src, offset + first, count - first);
+                }
+                writePosition += count;
+                offset += count;
+                length -= count;
+                publishWritePosition();
+            }
+        } finally {
+            mapping.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            mapping.putIntVolatile(ringOffset + WRITER_CLOSED, 1);
+        } finally {
+            mapping.release();
+        }
+        wakeUpPeer(socket);
+    }
+
+    private int awaitSpace() throws IOException {
+        for (int attempt = 0;; attempt++) {
+            if (closed.get()) {
+                throw new IOException("This stream has been closed.");
+            }
+            // Do not overwrite the space before the reader has finished reading from it
+            int free = CAPACITY - (writePosition - mapping.getIntVolatile(ringOffset + READ_POSITION));
+            if (free < 0 || free > CAPACITY) {
+                throw new IOException("The shared memory of this connection has been corrupted.");
+            }
+            if (free > 0) {
+                return free;
+            }
+            if (mapping.getIntVolatile(ringOffset + READER_CLOSED) != 0 || input.isPeerGone() || !socket.isOpen()) {
+                throw new EOFException("The reading side of the connection has been closed.");
+            }
+            backOff(attempt);
+        }
+    }
+
+    private void publishWritePosition() {
+        // Makes the data visible before its position, and either the reader sees the new position, or this writer sees that the reader is waiting
+        mapping.putIntVolatile(ringOffset + WRITE_POSITION, writePosition);
+        if (mapping.getIntVolatile(ringOffset + READER_WAITING) != 0) {
+            wakeUpPeer(socket);
+        }
+    }
+}
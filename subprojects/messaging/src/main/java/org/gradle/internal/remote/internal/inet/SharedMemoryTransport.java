@@ -0,0 +1,369 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.os.OperatingSystem;
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.remote.internal.RemoteConnection;
+import org.gradle.internal.serialize.StatefulSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Chooses how the messages of a newly established TCP connection are exchanged.
+ *
+ * <p>Nothing is exchanged unless shared memory has been enabled on both sides, so connections between processes that have not enabled it, including those of older
+ * Gradle versions, are unchanged. When it has been enabled:</p>
+ *
+ * <ul>
+ *     <li>The connecting side sends a hello, made of a magic number, the version of this protocol, and whether it offers shared memory. It offers it when both
+ *     processes run on the same machine.</li>
+ *     <li>The accepting side accepts the offer when it supports the same version and can use shared memory itself. It creates a file holding one ring buffer per
+ *     direction, in a directory only the current user can access, maps it, and replies with its path. Otherwise it replies with a single byte declining the offer,
+ *     which every version understands.</li>
+ *     <li>The connecting side maps the file, without changing it, and tells the accepting side whether it could. The accepting side then deletes the file.</li>
+ * </ul>
+ *
+ * <p>Each side waits for the other when its connection is first used, rather than when it is created, so creating a connection does not block.</p>
+ *
+ * <p>The socket stays open when shared memory is used. A reader that has nothing left to read waits on the socket, and the writer sends a byte over it to wake the reader up.
+ * The socket also tells each side when the other one has gone away.</p>
+ */
+class SharedMemoryTransport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryTransport.class);
+    private static final int MAGIC = 0x47534d31;
+    private static final byte VERSION = 1;
+    private static final int HELLO_SIZE = 6;
+    // Sent by the connecting side in its hello
+    private static final byte SOCKET = 0;
+    private static final byte SHARED_MEMORY = 1;
+    // Sent by the accepting side in reply to an offer
+    private static final byte DECLINED = 0;
+    private static final byte ACCEPTED = 1;
+    // Sent by the connecting side once it has tried to map the file
+    private static final byte FAILED = 0;
+    private static final byte MAPPED = 1;
+
+    // The layout of each ring buffer. The fields written by the writer and those written by the reader are kept on separate cache lines.
+    static final int WRITE_POSITION = 0;
+    static final int WRITER_CLOSED = 4;
+    static final int READ_POSITION = 64;
+    static final int READER_WAITING = 68;
+    static final int READER_CLOSED = 72;
+    static final int DATA = 128;
+    static final int CAPACITY = 1024 * 1024;
+    static final int RING_SIZE = DATA + CAPACITY;
+    static final int FILE_SIZE = 2 * RING_SIZE;
+
+    private static final int SPINS = 100;
+    private static final long MAX_PARK_NANOS = 1000000;
+
+    static boolean isSupported() {
+        return !OperatingSystem.current().isWindows() && SharedMemoryMapping.isAvailable();
+    }
+
+    /**
+     * Creates the connection for the connecting side, offering shared memory to the accepting side when enabled and possible.
+     */
+    static <T> RemoteConnection<T> connect(SocketChannel socket, boolean sharedMemory, StatefulSerializer<T> serializer) {
+        if (!sharedMemory) {
+            return socketConnection(socket, serializer);
+        }
+        boolean offer = isSupported() && isLocal(socket);
+        try {
+            ByteBuffer hello = ByteBuffer.allocate(HELLO_SIZE);
+            hello.putInt(MAGIC);
+            hello.put(VERSION);
+            hello.put(offer ? SHARED_MEMORY : SOCKET);
+            hello.flip();
+            writeFully(socket, hello);
+        } catch (IOException e) {
+            // The peer has already gone away, let the connection report it
+            LOGGER.debug("Could not write connection header.", e);
+            return socketConnection(socket, serializer);
+        }
+        return offer ? new NegotiatingConnection<T>(socket, false, serializer) : socketConnection(socket, serializer);
+    }
+
+    /**
+     * Creates the connection for the accepting side, which expects a hello from the connecting side when shared memory is enabled.
+     */
+    static <T> RemoteConnection<T> accept(SocketChannel socket, boolean sharedMemory, StatefulSerializer<T> serializer) {
+        if (!sharedMemory) {
+            return socketConnection(socket, serializer);
+        }
+        return new NegotiatingConnection<T>(socket, true, serializer);
+    }
+
+    /**
+     * Completes the connection for the connecting side once it has offered shared memory. Blocks until the accepting side has replied.
+     *
+     * @return null when the accepting side has gone away without replying.
+     */
+    @Nullable
+    static <T> RemoteConnection<T> completeConnect(SocketChannel socket, StatefulSerializer<T> serializer) throws IOException {
+        ByteBuffer reply = ByteBuffer.allocate(3);
+        reply.limit(1);
+        if (!readFully(socket, reply)) {
+            return null;
+        }
+        if (reply.get(0) == DECLINED) {
+            return socketConnection(socket, serializer);
+        }
+        if (reply.get(0) != ACCEPTED) {
+            throw new IOException(String.format("Received unexpected connection header %s.", reply.get(0)));
+        }
+        reply.limit(3);
+        if (!readFully(socket, reply)) {
+            return null;
+        }
+        ByteBuffer path = ByteBuffer.allocate(reply.getShort(1) & 0xffff);
+        if (!readFully(socket, path)) {
+            return null;
+        }
+        File file = new File(new String(path.array(), "UTF-8"));
+        MappedByteBuffer buffer = null;
+        try {
+            buffer = mapExisting(file);
+        } catch (IOException e) {
+            LOGGER.debug("Could not map shared memory file {}, using the socket instead.", file, e);
+        }
+        writeFully(socket, ByteBuffer.wrap(new byte[]{buffer == null ? FAILED : MAPPED}));
+        if (buffer == null) {
+            return socketConnection(socket, serializer);
+        }
+        LOGGER.debug("Using shared memory file {} for connection to {}.", file, socket.socket().getRemoteSocketAddress());
+        return sharedMemoryConnection(socket, buffer, 0, RING_SIZE, serializer);
+    }
+
+    /**
+     * Completes the connection for the accepting side, following the hello of the connecting side. Blocks until the connecting side has sent it
+     * and, when shared memory is used, mapped the file.
+     *
+     * @return null when the connecting side has gone away before the connection was complete.
+     */
+    @Nullable
+    static <T> RemoteConnection<T> completeAccept(SocketChannel socket, StatefulSerializer<T> serializer) throws IOException {
+        ByteBuffer hello = ByteBuffer.allocate(HELLO_SIZE);
+        if (!readFully(socket, hello)) {
+            return null;
+        }
+        if (hello.getInt(0) != MAGIC) {
+            throw new IOException(String.format("Received unexpected connection header. Shared memory must be enabled with the %s system property on both sides of the connection.", TcpOutgoingConnector.SHARED_MEMORY_PROPERTY));
+        }
+        if (hello.get(5) != SHARED_MEMORY) {
+            return socketConnection(socket, serializer);
+        }
+        if (hello.get(4) != VERSION || !isSupported() || !isLocal(socket)) {
+            writeFully(socket, ByteBuffer.wrap(new byte[]{DECLINED}));
+            return socketConnection(socket, serializer);
+        }
+
+        File dir = null;
+        File file = null;
+        MappedByteBuffer buffer = null;
+        try {
+            dir = createPrivateDir();
+            file = new File(dir, "connection.bin");
+            buffer = createAndMap(file);
+        } catch (IOException e) {
+            LOGGER.debug("Could not set up shared memory, using the socket instead.", e);
+            delete(file, dir);
+            writeFully(socket, ByteBuffer.wrap(new byte[]{DECLINED}));
+            return socketConnection(socket, serializer);
+        }
+
+        try {
+            byte[] path = file.getAbsolutePath().getBytes("UTF-8");
+            ByteBuffer reply = ByteBuffer.allocate(3 + path.length);
+            reply.put(ACCEPTED);
+            reply.putShort((short) path.length);
+            reply.put(path);
+            reply.flip();
+            writeFully(socket, reply);
+            ByteBuffer answer = ByteBuffer.allocate(1);
+            if (!readFully(socket, answer)) {
+                SharedMemoryMapping.unmap(buffer);
+                return null;
+            }
+            if (answer.get(0) != MAPPED) {
+                SharedMemoryMapping.unmap(buffer);
+                return socketConnection(socket, serializer);
+            }
+        } catch (IOException e) {
+            SharedMemoryMapping.unmap(buffer);
+            throw e;
+        } finally {
+            // Either both sides have mapped the file now, or neither will, so its name is no longer needed
+            delete(file, dir);
+        }
+        LOGGER.debug("Using shared memory file {} for connection from {}.", file, socket.socket().getRemoteSocketAddress());
+        return sharedMemoryConnection(socket, buffer, RING_SIZE, 0, serializer);
+    }
+
+    private static <T> RemoteConnection<T> socketConnection(SocketChannel socket, StatefulSerializer<T> serializer) {
+        return new SocketConnection<T>(socket, new KryoBackedMessageSerializer(), serializer);
+    }
+
+    private static <T> RemoteConnection<T> sharedMemoryConnection(SocketChannel socket, MappedByteBuffer buffer, int inputOffset, int outputOffset, StatefulSerializer<T> serializer) throws IOException {
+        SharedMemoryMapping mapping = new SharedMemoryMapping(buffer);
+        SharedMemoryInputStream instr;
+        try {
+            socket.configureBlocking(false);
+            instr = new SharedMemoryInputStream(mapping, inputOffset, socket);
+        } catch (IOException e) {
+            SharedMemoryMapping.unmap(buffer);
+            throw e;
+        }
+        SharedMemoryOutputStream outstr = new SharedMemoryOutputStream(mapping, outputOffset, socket, instr);
+        return new SocketConnection<T>(socket, instr, outstr, new KryoBackedMessageSerializer(), serializer);
+    }
+
+    private static boolean isLocal(SocketChannel socket) {
+        InetSocketAddress remote = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+        return remote.getAddress().isLoopbackAddress() || remote.getAddress().equals(socket.socket().getLocalAddress());
+    }
+
+    /**
+     * Creates a new directory that only the current user can access. Messages may contain anything, and the file in it is created only once the directory is private.
+     */
+    private static File createPrivateDir() throws IOException {
+        // Prefer a file system backed by memory, so that the kernel does not write the pages out to disk
+        File sharedMemoryDir = new File("/dev/shm");
+        File baseDir = sharedMemoryDir.isDirectory() && sharedMemoryDir.canWrite() ? sharedMemoryDir : new File(System.getProperty("java.io.tmpdir"));
+        File dir = new File(baseDir, "gradle-connection-" + UUID.randomUUID());
+        if (!dir.mkdir()) {
+            throw new IOException(String.format("Could not create directory %s.", dir));
+        }
+        dir.deleteOnExit();
+        dir.setReadable(false, false);
+        dir.setWritable(false, false);
+        dir.setExecutable(false, false);
+        if (!dir.setReadable(true, true) || !dir.setWritable(true, true) || !dir.setExecutable(true, true)) {
+            dir.delete();
+            throw new IOException(String.format("Could not restrict the permissions of %s.", dir));
+        }
+        return dir;
+    }
+
+    /**
+     * Creates the given file, failing when it exists already, and maps it.
+     */
+    private static MappedByteBuffer createAndMap(File file) throws IOException {
+        if (!file.createNewFile()) {
+            throw new IOException(String.format("Could not create %s, as it exists already.", file));
+        }
+        file.deleteOnExit();
+        file.setReadable(false, false);
+        file.setWritable(false, false);
+        if (!file.setReadable(true, true) || !file.setWritable(true, true)) {
+            throw new IOException(String.format("Could not restrict the permissions of %s.", file));
+        }
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(FILE_SIZE);
+            // The mapping stays valid after the file has been closed
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Maps the file created by the peer, which must have exactly the expected size. The file is never created, resized or deleted by this side.
+     */
+    private static MappedByteBuffer mapExisting(File file) throws IOException {
+        if (!file.isFile() || file.length() != FILE_SIZE) {
+            throw new IOException(String.format("%s is not a shared memory file.", file));
+        }
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            if (randomAccessFile.length() != FILE_SIZE) {
+                throw new IOException(String.format("%s is not a shared memory file.", file));
+            }
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static void delete(@Nullable File file, @Nullable File dir) {
+        if (file != null) {
+            file.delete();
+        }
+        if (dir != null) {
+            dir.delete();
+        }
+    }
+
+    private static void writeFully(SocketChannel socket, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            socket.write(buffer);
+        }
+    }
+
+    /**
+     * Reads exactly the remaining bytes of the given buffer, leaving anything the peer sent afterwards in the socket.
+     */
+    private static boolean readFully(SocketChannel socket, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (socket.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits a little before polling a ring buffer again, first by giving up the processor and then by sleeping for increasingly long periods.
+     */
+    static void backOff(int attempt) {
+        if (attempt < SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L * (attempt - SPINS + 1)));
+        }
+    }
+
+    static boolean shouldSpin(int attempt) {
+        return attempt < SPINS;
+    }
+
+    /**
+     * Sends a byte to the peer to wake up its reader. Never blocks: when the socket buffer is full, the peer has wake ups pending already.
+     */
+    static void wakeUpPeer(SocketChannel socket) {
+        try {
+            socket.write(ByteBuffer.allocate(1));
+        } catch (IOException e) {
+            // The peer has gone away, and the reader on this side finds out through the socket
+            LOGGER.debug("Could not wake up the peer.", e);
+        }
+    }
+}
@@ -16,7 +16,6 @@
 
 package org.gradle.internal.remote.internal.inet;
 
-import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
 import org.gradle.internal.remote.internal.RemoteConnection;
 import org.gradle.internal.serialize.StatefulSerializer;
 import org.gradle.internal.remote.internal.ConnectCompletion;
@@ -25,9 +24,31 @@ import java.nio.channels.SocketChannel;
 
 class SocketConnectCompletion implements ConnectCompletion {
     private final SocketChannel socket;
+    private final boolean accepted;
+    private final boolean sharedMemory;
 
-    public SocketConnectCompletion(SocketChannel socket) {
+    private SocketConnectCompletion(SocketChannel socket, boolean accepted, boolean sharedMemory) {
         this.socket = socket;
+        this.accepted = accepted;
+        this.sharedMemory = sharedMemory;
+    }
+
+    /**
+     * A connection accepted by this process.
+     *
+     * @param sharedMemory whether to accept exchanging messages through shared memory when the peer offers it.
+     */
+    public static SocketConnectCompletion accepted(SocketChannel socket, boolean sharedMemory) {
+        return new SocketConnectCompletion(socket, true, sharedMemory);
+    }
+
+    /**
+     * A connection made by this process.
+     *
+     * @param sharedMemory whether to exchange messages through shared memory when the peer runs on the same machine.
+     */
+    public static SocketConnectCompletion connected(SocketChannel socket, boolean sharedMemory) {
+        return new SocketConnectCompletion(socket, false, sharedMemory);
     }
 
     @Override
@@ -36,6 +57,9 @@ class SocketConnectCompletion implements ConnectCompletion {
     }
 
     public <T> RemoteConnection<T> create(StatefulSerializer<T> serializer) {
-        return new SocketConnection<T>(socket, new KryoBackedMessageSerializer(), serializer);
+        if (accepted) {
+            return SharedMemoryTransport.accept(socket, sharedMemory, serializer);
+        }
+        return SharedMemoryTransport.connect(socket, sharedMemory, serializer);
     }
 }
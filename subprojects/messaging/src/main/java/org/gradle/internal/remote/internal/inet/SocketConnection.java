@@ -50,16 +50,16 @@ public class SocketConnection<T> implements RemoteConnection<T> {
     private final FlushableEncoder encoder;
 
     public SocketConnection(SocketChannel socket, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
+        this(socket, openInputStream(socket), openOutputStream(socket), streamSerializer, messageSerializer);
+    }
+
+    /**
+     * Creates a connection that exchanges messages through the given streams rather than through the socket itself. The socket is still closed when the connection is stopped.
+     */
+    SocketConnection(SocketChannel socket, InputStream instr, OutputStream outstr, MessageSerializer streamSerializer, StatefulSerializer<T> messageSerializer) {
         this.socket = socket;
-        try {
-            // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
-            // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
-            socket.configureBlocking(false);
-            outstr = new SocketOutputStream(socket);
-            instr = new SocketInputStream(socket);
-        } catch (IOException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
-        }
+        this.instr = instr;
+        this.outstr = outstr;
         InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
         localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
         InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
@@ -69,6 +69,25 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         objectWriter = messageSerializer.newWriter(encoder);
     }
 
+    private static InputStream openInputStream(SocketChannel socket) {
+        try {
+            // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
+            // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
+            socket.configureBlocking(false);
+            return new SocketInputStream(socket);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static OutputStream openOutputStream(SocketChannel socket) {
+        try {
+            return new SocketOutputStream(socket);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     @Override
     public String toString() {
         return "socket connection from " + localAddress + " to " + remoteAddress;
@@ -93,7 +112,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
     }
 
-    private static boolean isEndOfStream(Exception e) {
+    static boolean isEndOfStream(Exception e) {
         if (e instanceof EOFException) {
             return true;
         }
@@ -148,23 +167,22 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         private final Selector selector;
         private final ByteBuffer buffer;
         private final SocketChannel socket;
-        private final byte[] readBuffer = new byte[1];
 
         public SocketInputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            // Large enough to take a whole batch of messages written by the peer in one read
+            buffer = ByteBuffer.allocateDirect(64 * 1024);
             buffer.limit(0);
         }
 
         @Override
         public int read() throws IOException {
-            int nread = read(readBuffer, 0, 1);
-            if (nread <= 0) {
-                return nread;
+            if (buffer.remaining() == 0 && !fillBuffer()) {
+                return -1;
             }
-            return readBuffer[0];
+            return buffer.get() & 0xff;
         }
 
         @Override
@@ -173,38 +191,62 @@ public class SocketConnection<T> implements RemoteConnection<T> {
                 return 0;
             }
 
-            if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
-                if (!selector.isOpen()) {
-                    return -1;
-                }
+            if (buffer.remaining() == 0 && !fillBuffer()) {
+                return -1;
+            }
 
-                buffer.clear();
-                int nread;
-                try {
-                    nread = socket.read(buffer);
-                } catch (IOException e) {
-                    if (isEndOfStream(e)) {
-                        buffer.position(0);
-                        buffer.limit(0);
-                        return -1;
+            int count = Math.min(buffer.remaining(), max);
+            buffer.get(dest, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        /**
+         * Reads whatever is available from the socket, waiting for data only when none is available yet.
+         *
+         * @return false when the end of the stream has been reached.
+         */
+        private boolean fillBuffer() throws IOException {
+            if (!selector.isOpen()) {
+                // This stream has been closed
+                return endOfStream();
+            }
+            buffer.clear();
+            try {
+                int nread = socket.read(buffer);
+                while (nread == 0) {
+                    try {
+                        selector.select();
+                    } catch (ClosedSelectorException e) {
+                        return endOfStream();
+                    }
+                    if (!selector.isOpen()) {
+                        return endOfStream();
                     }
-                    throw e;
+                    selector.selectedKeys().clear();
+                    nread = socket.read(buffer);
                 }
-                buffer.flip();
-
                 if (nread < 0) {
-                    return -1;
+                    return endOfStream();
+                }
+            } catch (IOException e) {
+                if (isEndOfStream(e) || !selector.isOpen()) {
+                    return endOfStream();
                 }
+                throw e;
             }
+            buffer.flip();
+            return true;
+        }
 
-            int count = Math.min(buffer.remaining(), max);
-            buffer.get(dest, offset, count);
-            return count;
+        private boolean endOfStream() {
+            buffer.position(0);
+            buffer.limit(0);
+            return false;
         }
 
         @Override
@@ -218,7 +260,6 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         private Selector selector;
         private final SocketChannel socket;
         private final ByteBuffer buffer;
-        private final byte[] writeBuffer = new byte[1];
 
         public SocketOutputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
@@ -227,8 +268,10 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         @Override
         public void write(int b) throws IOException {
-            writeBuffer[0] = (byte) b;
-            write(writeBuffer);
+            while (buffer.remaining() == 0) {
+                writeBufferToChannel();
+            }
+            buffer.put((byte) b);
         }
 
         @Override
@@ -42,11 +42,21 @@ public class TcpIncomingConnector implements IncomingConnector {
     private final ExecutorFactory executorFactory;
     private final InetAddressFactory addressFactory;
     private final IdGenerator<UUID> idGenerator;
+    private final boolean sharedMemory;
 
     public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator) {
+        this(executorFactory, addressFactory, idGenerator, Boolean.getBoolean(TcpOutgoingConnector.SHARED_MEMORY_PROPERTY));
+    }
+
+    /**
+     * @param sharedMemory whether to accept exchanging messages through shared memory with connecting processes on the same machine that offer it.
+     * See {@link TcpOutgoingConnector#SHARED_MEMORY_PROPERTY}.
+     */
+    public TcpIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory addressFactory, IdGenerator<UUID> idGenerator, boolean sharedMemory) {
         this.executorFactory = executorFactory;
         this.addressFactory = addressFactory;
         this.idGenerator = idGenerator;
+        this.sharedMemory = sharedMemory;
     }
 
     public ConnectionAcceptor accept(Action<ConnectCompletion> action, boolean allowRemote) {
@@ -73,6 +83,10 @@ public class TcpIncomingConnector implements IncomingConnector {
                 return address;
             }
 
+            public boolean isSharedMemoryAccepted() {
+                return sharedMemory;
+            }
+
             public void requestStop() {
                 CompositeStoppable.stoppable(serverSocket).stop();
             }
@@ -109,7 +123,7 @@ public class TcpIncomingConnector implements IncomingConnector {
                         }
                         LOGGER.debug("Accepted connection from {} to {}.", socket.socket().getRemoteSocketAddress(), socket.socket().getLocalSocketAddress());
                         try {
-                            action.execute(new SocketConnectCompletion(socket));
+                            action.execute(SocketConnectCompletion.accepted(socket, sharedMemory));
                         } catch (Throwable t) {
                             socket.close();
                             throw t;
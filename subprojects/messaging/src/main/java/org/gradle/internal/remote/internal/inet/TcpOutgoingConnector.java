@@ -32,6 +32,23 @@ public class TcpOutgoingConnector implements OutgoingConnector {
     private static final Logger LOGGER = LoggerFactory.getLogger(TcpOutgoingConnector.class);
     private static final int CONNECT_TIMEOUT = 10000;
 
+    /**
+     * Enables exchanging messages through memory-mapped files, rather than through the socket, with processes on the same machine.
+     * The processes still connect through TCP, and fall back to it when shared memory is not available, for example on Windows.
+     * It must be enabled in both processes, as a process that has enabled it expects its peer to take part in choosing the transport.
+     */
+    public static final String SHARED_MEMORY_PROPERTY = "org.gradle.internal.remote.sharedMemory";
+
+    private final boolean sharedMemory;
+
+    public TcpOutgoingConnector() {
+        this(Boolean.getBoolean(SHARED_MEMORY_PROPERTY));
+    }
+
+    public TcpOutgoingConnector(boolean sharedMemory) {
+        this.sharedMemory = sharedMemory;
+    }
+
     public ConnectCompletion connect(Address destinationAddress) throws org.gradle.internal.remote.internal.ConnectException {
         if (!(destinationAddress instanceof InetEndpoint)) {
             throw new IllegalArgumentException(String.format("Cannot create a connection to address of unknown type: %s.", destinationAddress));
@@ -61,7 +78,7 @@ public class TcpOutgoingConnector implements OutgoingConnector {
                     continue;
                 }
                 LOGGER.debug("Connected to address {}.", socketChannel.socket().getRemoteSocketAddress());
-                return new SocketConnectCompletion(socketChannel);
+                return SocketConnectCompletion.connected(socketChannel, sharedMemory);
             }
             throw new org.gradle.internal.remote.internal.ConnectException(String.format("Could not connect to server %s. Tried addresses: %s.",
                     destinationAddress, candidateAddresses), lastFailure);
@@ -196,6 +196,47 @@ class MessageHubTest extends ConcurrentSpec {
         connection.stop()
     }
 
+    def "outgoing messages queued while the connection is writing are flushed together"() {
+        def events = new CopyOnWriteArrayList()
+        def flushed = false
+        RemoteConnection<InterHubMessage> outgoing = Mock()
+        def connection = new MockOutgoingConnection(outgoing)
+
+        given:
+        outgoing.dispatch({ it instanceof ChannelMessage }) >> { ChannelMessage message ->
+            if (message.payload == "message1") {
+                instant.writing
+                thread.blockUntil.queued
+            }
+            events.add(message.payload)
+        }
+        outgoing.flush() >> {
+            events.add("flush")
+            if (!flushed && events.contains("message3")) {
+                flushed = true
+                instant.flushed
+            }
+        }
+
+        and:
+        hub.addConnection(connection)
+
+        when:
+        def dispatcher = hub.getOutgoing("channel", String)
+        dispatcher.dispatch("message1")
+        thread.blockUntil.writing
+        dispatcher.dispatch("message2")
+        dispatcher.dispatch("message3")
+        instant.queued
+        thread.blockUntil.flushed
+
+        then:
+        events == ["message1", "message2", "message3", "flush"]
+
+        cleanup:
+        connection.stop()
+    }
+
     def "each outgoing message is dispatched to exactly one connection"() {
         def messages = new CopyOnWriteArrayList()
         RemoteConnection<InterHubMessage> outgoing = Mock()
@@ -57,6 +57,31 @@ class MultiEndPointQueueTest extends AbstractQueueTest {
         messages == [message]
     }
 
+    def "forwards queued unicast messages to endpoint that drains without waiting"() {
+        given:
+        def message1 = unicast()
+        def message2 = unicast()
+        def endpoint = queue.newEndpoint()
+
+        and:
+        queue.dispatch(message1)
+        queue.dispatch(message2)
+
+        when:
+        def messages = []
+        endpoint.drain(messages)
+
+        then:
+        messages == [message1, message2]
+
+        when:
+        messages.clear()
+        endpoint.drain(messages)
+
+        then:
+        messages.empty
+    }
+
     def "forwards queued broadcast messages to all endpoints"() {
         given:
         def message1 = unicast()
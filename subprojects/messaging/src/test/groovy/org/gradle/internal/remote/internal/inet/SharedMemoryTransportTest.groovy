@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet
+
+import org.gradle.api.Action
+import org.gradle.internal.id.UUIDGenerator
+import org.gradle.internal.remote.internal.ConnectCompletion
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.internal.serialize.Serializers
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import spock.lang.Timeout
+
+import java.nio.ByteBuffer
+import java.nio.channels.SocketChannel
+import java.nio.file.Files
+import java.nio.file.attribute.PosixFilePermission
+
+import static java.nio.file.attribute.PosixFilePermission.*
+
+@Timeout(60)
+@Requires(TestPrecondition.NOT_WINDOWS)
+class SharedMemoryTransportTest extends ConcurrentSpec {
+    def serializer = Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER)
+    def incomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator(), true)
+
+    def "exchanges messages in both directions through shared memory"() {
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            def message
+            while ((message = connection.receive()) != null) {
+                connection.dispatch("echo " + message)
+                connection.flush()
+            }
+            connection.stop()
+        } as Action, false)
+
+        def connection = new TcpOutgoingConnector(true).connect(acceptor.address).create(serializer)
+        connection.dispatch("one")
+        connection.flush()
+        def first = connection.receive()
+        connection.dispatch("two")
+        connection.flush()
+        def second = connection.receive()
+
+        then:
+        connection.connection.instr instanceof SharedMemoryInputStream
+        connection.connection.outstr instanceof SharedMemoryOutputStream
+        first == "echo one"
+        second == "echo two"
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "can receive many messages larger than the ring buffer"() {
+        def messages = (1..30000).collect { "message ${it} ".padRight(100, "é") }
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            messages.each { connection.dispatch(it) }
+            connection.stop()
+        } as Action, false)
+
+        def connection = new TcpOutgoingConnector(true).connect(acceptor.address).create(serializer)
+        def received = []
+        def message
+        while ((message = connection.receive()) != null) {
+            received << message
+        }
+
+        then:
+        received == messages
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "receive returns null when peer stops before sending anything"() {
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            event.create(serializer).stop()
+        } as Action, false)
+
+        def connection = new TcpOutgoingConnector(true).connect(acceptor.address).create(serializer)
+
+        then:
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "exchanges nothing but messages through the socket when shared memory is not enabled"() {
+        when:
+        def acceptor = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator(), false).accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            connection.dispatch(connection.instr.class.simpleName)
+            connection.stop()
+        } as Action, false)
+
+        def connection = new TcpOutgoingConnector(false).connect(acceptor.address).create(serializer)
+
+        then:
+        connection instanceof SocketConnection
+        !(connection.instr instanceof SharedMemoryInputStream)
+        connection.receive() == "SocketInputStream"
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "acceptor reports whether its connector accepts shared memory"() {
+        when:
+        def accepting = incomingConnector.accept({} as Action, false)
+        def declining = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator(), false).accept({} as Action, false)
+
+        then:
+        accepting.sharedMemoryAccepted
+        !declining.sharedMemoryAccepted
+
+        cleanup:
+        accepting?.stop()
+        declining?.stop()
+    }
+
+    def "creates the file in a private directory and deletes it once the connecting side has mapped it"() {
+        def received = new LinkedList<String>()
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            received << connection.receive()
+            connection.stop()
+        } as Action, false)
+        def socket = connectTo(acceptor.address)
+        write(socket, hello(1, 1))
+        def reply = read(socket, 3)
+        def file = new File(new String(read(socket, reply.getShort(1)).array(), "UTF-8"))
+
+        then:
+        reply.get(0) == 1 as byte
+        file.isFile()
+        file.length() == SharedMemoryTransport.FILE_SIZE
+        Files.getPosixFilePermissions(file.parentFile.toPath()) == [OWNER_READ, OWNER_WRITE, OWNER_EXECUTE] as Set<PosixFilePermission>
+        Files.getPosixFilePermissions(file.toPath()) == [OWNER_READ, OWNER_WRITE] as Set<PosixFilePermission>
+
+        when:
+        write(socket, [0] as byte[])
+        socket.close()
+        acceptor.stop()
+
+        then:
+        !file.exists()
+        !file.parentFile.exists()
+        received == [null]
+    }
+
+    def "declines shared memory offered with another version of the protocol"() {
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            connection.receive()
+            connection.stop()
+        } as Action, false)
+        def socket = connectTo(acceptor.address)
+        write(socket, hello(2, 1))
+        def reply = read(socket, 1)
+
+        then:
+        reply.get(0) == 0 as byte
+
+        cleanup:
+        socket?.close()
+        acceptor?.stop()
+    }
+
+    private static SocketChannel connectTo(MultiChoiceAddress address) {
+        return SocketChannel.open(new InetSocketAddress(address.candidates.first(), address.port))
+    }
+
+    private static byte[] hello(int version, int transport) {
+        def buffer = ByteBuffer.allocate(6)
+        buffer.putInt(0x47534d31)
+        buffer.put(version as byte)
+        buffer.put(transport as byte)
+        return buffer.array()
+    }
+
+    private static void write(SocketChannel socket, byte[] bytes) {
+        def buffer = ByteBuffer.wrap(bytes)
+        while (buffer.hasRemaining()) {
+            socket.write(buffer)
+        }
+    }
+
+    private static ByteBuffer read(SocketChannel socket, int count) {
+        def buffer = ByteBuffer.allocate(count)
+        while (buffer.hasRemaining()) {
+            assert socket.read(buffer) >= 0
+        }
+        return buffer
+    }
+}
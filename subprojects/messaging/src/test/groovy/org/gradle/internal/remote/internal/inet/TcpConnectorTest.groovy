@@ -223,6 +223,31 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "can receive many messages larger than the read buffer"() {
+        def messages = (1..2000).collect { "message ${it} ".padRight(100, "\u00e9") }
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            messages.each { connection.dispatch(it) }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        def received = []
+        def message
+        while ((message = connection.receive()) != null) {
+            received << message
+        }
+
+        then:
+        received == messages
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     def "returns null on failure to receive due to truncated input"() {
         given:
         def incomingSerializer = { Encoder encoder, String value ->
@@ -17,17 +17,19 @@
 package org.gradle.nativeplatform.toolchain.internal;
 
 import com.google.common.base.Joiner;
-import org.gradle.internal.io.StreamByteBuffer;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.progress.BuildOperationDescriptor;
 import org.gradle.process.internal.ExecAction;
 import org.gradle.process.internal.ExecActionFactory;
 import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.streams.CapturedOutput;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
-import java.nio.charset.Charset;
+import java.io.IOException;
+import java.io.InputStream;
 
 public class DefaultCommandLineToolInvocationWorker implements CommandLineToolInvocationWorker {
     private final String name;
@@ -75,21 +77,27 @@ public class DefaultCommandLineToolInvocationWorker implements CommandLineToolIn
 
         toolExec.environment(invocation.getEnvironment());
 
-        StreamByteBuffer errOutput = new StreamByteBuffer();
-        StreamByteBuffer stdOutput = new StreamByteBuffer();
-        toolExec.setErrorOutput(errOutput.getOutputStream());
-        toolExec.setStandardOutput(stdOutput.getOutputStream());
+        // Keep at most a small window of the output in memory, the logger only reads all of it when it needs to show it
+        CapturedOutput output = toolExec.captureOutput(invocation.getLogger().getTempDir());
 
         try {
-            toolExec.execute();
-            invocation.getLogger().operationSuccess(description.getDisplayName(), combineOutput(stdOutput, errOutput));
-        } catch (ExecException e) {
-            invocation.getLogger().operationFailed(description.getDisplayName(), combineOutput(stdOutput, errOutput));
-            throw new CommandLineToolInvocationFailure(invocation, String.format("%s failed while %s.", name, description.getDisplayName()));
+            try {
+                toolExec.execute();
+            } catch (ExecException e) {
+                invocation.getLogger().operationFailed(description.getDisplayName(), openInputStream(output));
+                throw new CommandLineToolInvocationFailure(invocation, String.format("%s failed while %s.", name, description.getDisplayName()));
+            }
+            invocation.getLogger().operationSuccess(description.getDisplayName(), openInputStream(output));
+        } finally {
+            output.discard();
         }
     }
 
-    private String combineOutput(StreamByteBuffer stdOutput, StreamByteBuffer errOutput) {
-        return stdOutput.readAsString(Charset.defaultCharset()) + errOutput.readAsString(Charset.defaultCharset());
+    private InputStream openInputStream(CapturedOutput output) {
+        try {
+            return output.openInputStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
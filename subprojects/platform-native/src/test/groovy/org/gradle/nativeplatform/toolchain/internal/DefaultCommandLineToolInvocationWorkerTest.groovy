@@ -21,9 +21,14 @@ import org.gradle.internal.operations.logging.BuildOperationLogger
 import org.gradle.process.internal.ExecAction
 import org.gradle.process.internal.ExecActionFactory
 import org.gradle.process.internal.ExecException
+import org.gradle.process.internal.streams.CapturedOutput
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class DefaultCommandLineToolInvocationWorkerTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDirProvider = new TestNameTestDirectoryProvider()
+
     def "throws exception when exec fails"() {
         given:
         def execAction = Mock(ExecAction)
@@ -34,16 +39,49 @@ class DefaultCommandLineToolInvocationWorkerTest extends Specification {
         def context = new DefaultMutableCommandLineToolContext()
         def executable = Mock(File)
         def commandLineTool = new DefaultCommandLineToolInvocationWorker("Tool", executable, execActionFactory)
-        def invocation = new DefaultCommandLineToolInvocation("doing something", null, [], context, Mock(BuildOperationLogger))
+        def logger = Stub(BuildOperationLogger) {
+            getTempDir() >> tmpDirProvider.testDirectory
+        }
+        def invocation = new DefaultCommandLineToolInvocation("doing something", null, [], context, logger)
 
         when:
         commandLineTool.execute(invocation, null)
 
         then:
+        1 * execAction.captureOutput(tmpDirProvider.testDirectory) >> new CapturedOutput(tmpDirProvider.testDirectory)
         1 * execAction.executable(executable)
         1 * execAction.execute() >> { throw new ExecException("fail") }
         BuildOperationFailure e = thrown()
         e.getMessage().contains('Tool failed while doing something')
 
     }
+
+    def "passes the output of the tool to the logger"() {
+        given:
+        def execAction = Mock(ExecAction)
+        def execActionFactory = Stub(ExecActionFactory) {
+            newExecAction() >> execAction
+        }
+        def logger = Mock(BuildOperationLogger)
+        def output = new CapturedOutput(tmpDirProvider.testDirectory)
+
+        def context = new DefaultMutableCommandLineToolContext()
+        def commandLineTool = new DefaultCommandLineToolInvocationWorker("Tool", Mock(File), execActionFactory)
+        def invocation = new DefaultCommandLineToolInvocation("doing something", null, [], context, logger)
+
+        when:
+        commandLineTool.execute(invocation, null)
+
+        then:
+        _ * logger.tempDir >> tmpDirProvider.testDirectory
+        1 * execAction.captureOutput(tmpDirProvider.testDirectory) >> output
+        1 * execAction.execute() >> {
+            output.standardOutput.write("<out>".bytes)
+            output.errorOutput.write("<err>".bytes)
+            null
+        }
+        1 * logger.operationSuccess("doing something", _ as InputStream) >> { String description, InputStream captured ->
+            assert captured.text == "<out><err>"
+        }
+    }
 }
@@ -27,16 +27,30 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors.
+ *
+ * <p>When the durations of test classes from a previous run are known, those test classes are planned up front, longest first,
+ * onto the processor with the least planned work. Each test class is then sent to its planned processor as soon as it is
+ * discovered, so no test class waits for discovery to finish. A test class without a known duration is estimated using the mean
+ * of the known durations, and goes to the processor with the least planned work when it is discovered. Otherwise, a simple
+ * round-robin algorithm is used to assign test classes to processors.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Map<String, Long> previousClassDurations;
+    private final long defaultDuration;
+    private final Map<String, Integer> plannedProcessors;
+    private final long[] plannedDurations;
+    private final TestClassProcessor[] plannedProcessorInstances;
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
@@ -44,9 +58,41 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private Actor resultProcessorActor;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, Collections.<String, Long>emptyMap());
+    }
+
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> previousClassDurations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.previousClassDurations = previousClassDurations;
+        this.defaultDuration = meanDuration(previousClassDurations);
+        if (previousClassDurations.isEmpty()) {
+            this.plannedProcessors = Collections.emptyMap();
+            this.plannedDurations = new long[0];
+            this.plannedProcessorInstances = new TestClassProcessor[0];
+        } else {
+            this.plannedProcessors = new HashMap<String, Integer>(previousClassDurations.size());
+            this.plannedDurations = new long[maxProcessors];
+            this.plannedProcessorInstances = new TestClassProcessor[maxProcessors];
+            planLongestFirst();
+        }
+    }
+
+    private void planLongestFirst() {
+        List<Map.Entry<String, Long>> classes = new ArrayList<Map.Entry<String, Long>>(previousClassDurations.entrySet());
+        Collections.sort(classes, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> left, Map.Entry<String, Long> right) {
+                int result = right.getValue().compareTo(left.getValue());
+                return result != 0 ? result : left.getKey().compareTo(right.getKey());
+            }
+        });
+        for (Map.Entry<String, Long> testClass : classes) {
+            int index = leastPlannedProcessor();
+            plannedDurations[index] += testClass.getValue();
+            plannedProcessors.put(testClass.getKey(), index);
+        }
     }
 
     @Override
@@ -58,14 +104,13 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
+        if (!previousClassDurations.isEmpty()) {
+            plannedProcessor(testClass).processTestClass(testClass);
+            return;
+        }
         TestClassProcessor processor;
         if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
+            processor = startProcessor();
         } else {
             processor = processors.get(pos);
             pos = (pos + 1) % processors.size();
@@ -73,6 +118,51 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         processor.processTestClass(testClass);
     }
 
+    private TestClassProcessor startProcessor() {
+        TestClassProcessor processor = factory.create();
+        Actor actor = actorFactory.createActor(processor);
+        processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(processor);
+        processor.startProcessing(resultProcessor);
+        return processor;
+    }
+
+    private TestClassProcessor plannedProcessor(TestClassRunInfo testClass) {
+        Integer index = plannedProcessors.get(testClass.getTestClassName());
+        if (index == null) {
+            index = leastPlannedProcessor();
+            plannedDurations[index] += defaultDuration;
+        }
+        TestClassProcessor processor = plannedProcessorInstances[index];
+        if (processor == null) {
+            processor = startProcessor();
+            plannedProcessorInstances[index] = processor;
+        }
+        return processor;
+    }
+
+    private int leastPlannedProcessor() {
+        int index = 0;
+        for (int i = 1; i < plannedDurations.length; i++) {
+            if (plannedDurations[i] < plannedDurations[index]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private static long meanDuration(Map<String, Long> durations) {
+        if (durations.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (Long duration : durations.values()) {
+            total += duration;
+        }
+        return total / durations.size();
+    }
+
     @Override
     public void stop() {
         try {
@@ -167,4 +167,85 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         then:
         1 * asyncProcessor2.processTestClass(test)
     }
+
+    def sendsEachTestClassAsItIsDiscoveredToTheProcessorPlannedLongestFirstWhenDurationsAreKnown() {
+        def durationAwareProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, [Long1: 100L, Long2: 90L, Short1: 10L, Short2: 20L])
+        TestClassRunInfo short1 = testClass("Short1")
+        TestClassRunInfo long1 = testClass("Long1")
+        TestClassRunInfo unknown = testClass("Unknown")
+        TestClassRunInfo short2 = testClass("Short2")
+        TestClassRunInfo long2 = testClass("Long2")
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        durationAwareProcessor.startProcessing(resultProcessor)
+
+        // Planned longest first: Long1 and Short1 on one processor, Long2 and Short2 on the other
+
+        when:
+        durationAwareProcessor.processTestClass(short1)
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.processTestClass(short1)
+
+        when:
+        durationAwareProcessor.processTestClass(long1)
+        durationAwareProcessor.processTestClass(unknown)
+
+        then:
+        1 * asyncProcessor1.processTestClass(long1)
+        1 * asyncProcessor1.processTestClass(unknown)
+        0 * factory.create()
+
+        when:
+        durationAwareProcessor.processTestClass(short2)
+        durationAwareProcessor.processTestClass(long2)
+
+        then:
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.processTestClass(short2)
+        1 * asyncProcessor2.processTestClass(long2)
+        0 * asyncProcessor1.processTestClass(_)
+    }
+
+    def plansUnknownTestClassesOntoTheProcessorWithTheLeastPlannedWork() {
+        def durationAwareProcessor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, [Long1: 100L, Short1: 10L])
+        TestClassRunInfo unknown1 = testClass("Unknown1")
+        TestClassRunInfo unknown2 = testClass("Unknown2")
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        Actor actor1 = Mock()
+
+        actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        durationAwareProcessor.startProcessing(resultProcessor)
+
+        when:
+        durationAwareProcessor.processTestClass(unknown1)
+        durationAwareProcessor.processTestClass(unknown2)
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.processTestClass(unknown1)
+        1 * asyncProcessor1.processTestClass(unknown2)
+    }
+
+    private TestClassRunInfo testClass(String name) {
+        TestClassRunInfo testClass = Stub()
+        testClass.testClassName >> name
+        return testClass
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.api.tasks.testing.TestResult;
+import org.gradle.internal.io.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the XML report and reads the captured output of a synthetic result set, with output of test classes interleaved in the
+ * output store as it is when test classes run in parallel forks.
+ */
+@State(Scope.Benchmark)
+public class TestReportGenerationBenchmark {
+    private static final int CLASS_COUNT = 500;
+    private static final int METHOD_COUNT = 20;
+    private static final int FORK_COUNT = 4;
+
+    @Param({"0", "20"})
+    int linesPerTest;
+
+    private File resultsDir;
+    private List<TestClassResult> results;
+    private InMemoryTestResultsProvider resultsProvider;
+    private JUnitXmlResultWriter xmlWriter;
+
+    @Setup
+    public void setup() throws IOException {
+        resultsDir = File.createTempFile("test-results", "");
+        resultsDir.delete();
+        resultsDir.mkdirs();
+
+        results = new ArrayList<TestClassResult>(CLASS_COUNT);
+        TestOutputStore outputStore = new TestOutputStore(resultsDir);
+        TestOutputStore.Writer outputWriter = outputStore.writer();
+        long id = 1;
+        for (int batch = 0; batch < CLASS_COUNT; batch += FORK_COUNT) {
+            List<TestClassResult> running = new ArrayList<TestClassResult>(FORK_COUNT);
+            for (int fork = 0; fork < FORK_COUNT && batch + fork < CLASS_COUNT; fork++) {
+                TestClassResult classResult = new TestClassResult(id++, "org.gradle.sample" + (batch % 50) + ".SampleTest" + (batch + fork), 0);
+                running.add(classResult);
+                results.add(classResult);
+            }
+            for (int method = 0; method < METHOD_COUNT; method++) {
+                for (TestClassResult classResult : running) {
+                    long methodId = id++;
+                    classResult.add(new TestMethodResult(methodId, "test" + method, TestResult.ResultType.SUCCESS, 10, 10));
+                    for (int line = 0; line < linesPerTest; line++) {
+                        outputWriter.onOutput(classResult.getId(), methodId, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "Some output from " + classResult.getClassName() + " <line " + line + ">\n"));
+                    }
+                }
+            }
+        }
+        outputWriter.close();
+
+        resultsProvider = new InMemoryTestResultsProvider(results, outputStore);
+        xmlWriter = new JUnitXmlResultWriter("localhost", resultsProvider, TestOutputAssociation.WITH_SUITE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        resultsProvider.close();
+        FileUtils.deleteDirectory(resultsDir);
+    }
+
+    @Benchmark
+    public void writeXmlReports() {
+        for (TestClassResult result : results) {
+            xmlWriter.write(result, NullOutputStream.INSTANCE);
+        }
+    }
+
+    @Benchmark
+    public long readClassOutput() {
+        CountingWriter writer = new CountingWriter();
+        for (TestClassResult result : results) {
+            resultsProvider.writeAllOutput(result.getId(), TestOutputEvent.Destination.StdOut, writer);
+        }
+        return writer.count;
+    }
+
+    private static class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
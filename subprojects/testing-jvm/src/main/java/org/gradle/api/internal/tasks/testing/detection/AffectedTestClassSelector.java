@@ -0,0 +1,441 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.hash.FileHasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.id.CompositeIdGenerator;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.id.LongIdGenerator;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Selects the test classes that need to run because of changes to the test runtime classpath since the previous execution.
+ *
+ * <p>The classes found in the directories of the classpath are hashed and analyzed for their class dependencies, using the same
+ * analysis as incremental Java compilation. A test class is selected when it transitively depends on a class that was added, changed
+ * or removed, when it failed or did not run in the previous execution, or when it is new. Any change to a jar or to a resource on the
+ * classpath selects all test classes, as their use cannot be tracked. So does any change to the other inputs of the test execution,
+ * such as the JVM arguments, system properties, environment or filters, or when those inputs are not known. The results and output
+ * of the test classes that are not selected are carried forward from the previous execution, by replaying them as test events once the
+ * selected test classes have run. Test listeners, reports and the check for tests matching the filters see them as if they ran.</p>
+ */
+public class AffectedTestClassSelector {
+    /**
+     * Enables the selection of affected test classes when set to {@code true}.
+     */
+    public static final String ENABLED_PROPERTY = "org.gradle.testing.affectedTestsOnly";
+
+    private static final Logger LOGGER = Logging.getLogger(AffectedTestClassSelector.class);
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final HashCodeSerializer HASH_CODE_SERIALIZER = new HashCodeSerializer();
+
+    private final File snapshotFile;
+    private final Iterable<File> classpath;
+    private final FileHasher fileHasher;
+    private final ClassDependenciesAnalyzer classDependenciesAnalyzer;
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final HashCode executionInputsHash;
+    private final File binaryResultsDir;
+    private final File previousOutputDir;
+    private final Set<String> skippedTestClasses = new LinkedHashSet<String>();
+    private ClasspathSnapshot currentSnapshot;
+    private Map<String, TestClassResult> previousResults;
+    private TestOutputStore previousOutput;
+    private Set<String> affectedClasses;
+
+    /**
+     * @param executionInputsHash a hash of the inputs of the test execution other than the classpath, or null when they cannot be determined.
+     * @param previousOutputDir a directory to keep the output of the previous execution in while the binary results are replaced.
+     */
+    public AffectedTestClassSelector(File binaryResultsDir, File previousOutputDir, Iterable<File> classpath, @Nullable HashCode executionInputsHash, FileHasher fileHasher, ClassDependenciesAnalyzer classDependenciesAnalyzer, DirectoryFileTreeFactory directoryFileTreeFactory) {
+        this.binaryResultsDir = binaryResultsDir;
+        this.snapshotFile = new File(binaryResultsDir, "classpath.bin");
+        this.previousOutputDir = previousOutputDir;
+        this.classpath = classpath;
+        this.executionInputsHash = executionInputsHash;
+        this.fileHasher = fileHasher;
+        this.classDependenciesAnalyzer = classDependenciesAnalyzer;
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Determines the affected classes. Must be called before the results of the previous execution are discarded.
+     */
+    public void prepare(Map<String, TestClassResult> previousResults) {
+        if (executionInputsHash == null) {
+            LOGGER.info("The inputs of the test execution cannot be compared with the previous execution, running all test classes.");
+            return;
+        }
+        currentSnapshot = snapshotClasspath();
+        ClasspathSnapshot previousSnapshot = readPreviousSnapshot();
+        if (previousSnapshot == null || previousResults.isEmpty()) {
+            LOGGER.info("No previous test execution to compare with, running all test classes.");
+            return;
+        }
+        if (!previousSnapshot.executionInputsHash.equals(currentSnapshot.executionInputsHash)) {
+            LOGGER.info("The inputs of the test execution have changed, running all test classes.");
+            return;
+        }
+        affectedClasses = findAffectedClasses(previousSnapshot, currentSnapshot);
+        if (affectedClasses == null) {
+            LOGGER.info("Resources or libraries on the test runtime classpath have changed, running all test classes.");
+            return;
+        }
+        this.previousResults = previousResults;
+        this.previousOutput = new TestOutputStore(binaryResultsDir).moveTo(previousOutputDir);
+    }
+
+    /**
+     * Returns a processor that drops the test classes that do not need to run, and replays their previous results and output to the
+     * result processor when stopped.
+     */
+    public TestClassProcessor decorate(final TestClassProcessor processor) {
+        return new TestClassProcessor() {
+            private TestResultProcessor resultProcessor;
+
+            @Override
+            public void startProcessing(TestResultProcessor resultProcessor) {
+                this.resultProcessor = resultProcessor;
+                processor.startProcessing(resultProcessor);
+            }
+
+            @Override
+            public void processTestClass(TestClassRunInfo testClass) {
+                if (isSelected(testClass.getTestClassName())) {
+                    processor.processTestClass(testClass);
+                } else {
+                    skippedTestClasses.add(testClass.getTestClassName());
+                }
+            }
+
+            @Override
+            public void stop() {
+                processor.stop();
+                replaySkippedTestClasses(resultProcessor);
+            }
+        };
+    }
+
+    private boolean isSelected(String className) {
+        if (previousResults == null) {
+            return true;
+        }
+        TestClassResult previousResult = previousResults.get(className);
+        return previousResult == null || previousResult.getFailuresCount() > 0 || affectedClasses.contains(className);
+    }
+
+    /**
+     * Discards the output of the previous execution and records the inputs for the next execution.
+     */
+    public void complete() {
+        if (previousOutput != null) {
+            previousOutput.delete();
+        }
+        if (currentSnapshot != null) {
+            writeSnapshot(currentSnapshot);
+        }
+    }
+
+    private void replaySkippedTestClasses(TestResultProcessor resultProcessor) {
+        if (skippedTestClasses.isEmpty()) {
+            return;
+        }
+        LOGGER.info("Skipped {} test classes not affected by changes to the test runtime classpath.", skippedTestClasses.size());
+        IdGenerator<?> idGenerator = new CompositeIdGenerator(AffectedTestClassSelector.class.getSimpleName(), new LongIdGenerator());
+        TestOutputStore.Reader outputReader = previousOutput.reader();
+        try {
+            for (String className : skippedTestClasses) {
+                replay(previousResults.get(className), idGenerator, outputReader, resultProcessor);
+            }
+        } finally {
+            try {
+                outputReader.close();
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static void replay(TestClassResult previousResult, IdGenerator<?> idGenerator, TestOutputStore.Reader outputReader, TestResultProcessor resultProcessor) {
+        Object classId = idGenerator.generateId();
+        resultProcessor.started(new DefaultTestClassDescriptor(classId, previousResult.getClassName()), new TestStartEvent(previousResult.getStartTime()));
+        replayOutput(outputReader, previousResult.getId(), 0, resultProcessor, classId);
+        long endTime = previousResult.getStartTime();
+        for (TestMethodResult methodResult : previousResult.getResults()) {
+            Object testId = idGenerator.generateId();
+            DefaultTestMethodDescriptor test = new DefaultTestMethodDescriptor(testId, previousResult.getClassName(), methodResult.getName());
+            resultProcessor.started(test, new TestStartEvent(methodResult.getEndTime() - methodResult.getDuration(), classId));
+            replayOutput(outputReader, previousResult.getId(), methodResult.getId(), resultProcessor, testId);
+            resultProcessor.completed(testId, new TestCompleteEvent(methodResult.getEndTime(), methodResult.getResultType()));
+            endTime = Math.max(endTime, methodResult.getEndTime());
+        }
+        resultProcessor.completed(classId, new TestCompleteEvent(endTime));
+    }
+
+    private static void replayOutput(TestOutputStore.Reader reader, long previousClassId, long previousTestId, TestResultProcessor resultProcessor, Object testId) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            if (!reader.hasOutput(previousClassId, destination)) {
+                continue;
+            }
+            Writer output = new OutputEventWriter(resultProcessor, testId, destination);
+            if (previousTestId == 0) {
+                reader.writeNonTestOutput(previousClassId, destination, output);
+            } else {
+                reader.writeTestOutput(previousClassId, previousTestId, destination, output);
+            }
+        }
+    }
+
+    /**
+     * Returns the classes affected by the changes between the given snapshots, or null when all classes should be considered affected.
+     */
+    @Nullable
+    static Set<String> findAffectedClasses(ClasspathSnapshot previous, ClasspathSnapshot current) {
+        if (!previous.nonClassInputsHash.equals(current.nonClassInputsHash)) {
+            return null;
+        }
+
+        Deque<String> queue = new ArrayDeque<String>();
+        for (Map.Entry<String, HashCode> entry : current.classHashes.entrySet()) {
+            if (!entry.getValue().equals(previous.classHashes.get(entry.getKey()))) {
+                queue.add(entry.getKey());
+            }
+        }
+        for (String className : previous.classHashes.keySet()) {
+            if (!current.classHashes.containsKey(className)) {
+                queue.add(className);
+            }
+        }
+
+        Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+        for (ClassAnalysis analysis : current.classAnalyses.values()) {
+            for (String dependency : analysis.getClassDependencies()) {
+                Set<String> classDependents = dependents.get(dependency);
+                if (classDependents == null) {
+                    classDependents = new HashSet<String>();
+                    dependents.put(dependency, classDependents);
+                }
+                classDependents.add(analysis.getClassName());
+            }
+        }
+
+        Set<String> affected = new HashSet<String>();
+        while (!queue.isEmpty()) {
+            String className = queue.removeFirst();
+            if (!affected.add(className)) {
+                continue;
+            }
+            ClassAnalysis analysis = current.classAnalyses.get(className);
+            if (analysis != null && analysis.isDependencyToAll()) {
+                return null;
+            }
+            Set<String> classDependents = dependents.get(className);
+            if (classDependents != null) {
+                queue.addAll(classDependents);
+            }
+        }
+        return affected;
+    }
+
+    private ClasspathSnapshot snapshotClasspath() {
+        final Map<String, HashCode> classHashes = new LinkedHashMap<String, HashCode>();
+        final Map<String, ClassAnalysis> classAnalyses = new HashMap<String, ClassAnalysis>();
+        final Map<String, HashCode> nonClassInputs = new TreeMap<String, HashCode>();
+        for (File entry : classpath) {
+            if (entry.isFile()) {
+                nonClassInputs.put(entry.getAbsolutePath(), fileHasher.hash(entry));
+            } else if (entry.isDirectory()) {
+                final String root = entry.getAbsolutePath();
+                directoryFileTreeFactory.create(entry).visit(new FileVisitor() {
+                    @Override
+                    public void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        String path = fileDetails.getRelativePath().getPathString();
+                        HashCode hash = fileHasher.hash(fileDetails);
+                        if (path.endsWith(".class")) {
+                            String className = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+                            if (!classHashes.containsKey(className)) {
+                                classHashes.put(className, hash);
+                                classAnalyses.put(className, classDependenciesAnalyzer.getClassAnalysis(hash, fileDetails));
+                            }
+                        } else {
+                            nonClassInputs.put(root + File.separator + path, hash);
+                        }
+                    }
+                });
+            }
+        }
+        Hasher hasher = Hashing.md5().newHasher();
+        for (Map.Entry<String, HashCode> entry : nonClassInputs.entrySet()) {
+            hasher.putUnencodedChars(entry.getKey());
+            hasher.putBytes(entry.getValue().asBytes());
+        }
+        return new ClasspathSnapshot(classHashes, classAnalyses, hasher.hash(), executionInputsHash);
+    }
+
+    @Nullable
+    private ClasspathSnapshot readPreviousSnapshot() {
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(snapshotFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != SNAPSHOT_VERSION) {
+                    return null;
+                }
+                HashCode executionInputsHash = HASH_CODE_SERIALIZER.read(decoder);
+                HashCode nonClassInputsHash = HASH_CODE_SERIALIZER.read(decoder);
+                int count = decoder.readSmallInt();
+                Map<String, HashCode> classHashes = new HashMap<String, HashCode>(count);
+                for (int i = 0; i < count; i++) {
+                    classHashes.put(decoder.readString(), HASH_CODE_SERIALIZER.read(decoder));
+                }
+                return new ClasspathSnapshot(classHashes, null, nonClassInputsHash, executionInputsHash);
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read test runtime classpath snapshot from {}.", snapshotFile, e);
+            return null;
+        }
+    }
+
+    private void writeSnapshot(ClasspathSnapshot snapshot) {
+        try {
+            OutputStream outputStream = new FileOutputStream(snapshotFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                write(snapshot, encoder);
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static void write(ClasspathSnapshot snapshot, Encoder encoder) throws IOException {
+        encoder.writeSmallInt(SNAPSHOT_VERSION);
+        HASH_CODE_SERIALIZER.write(encoder, snapshot.executionInputsHash);
+        HASH_CODE_SERIALIZER.write(encoder, snapshot.nonClassInputsHash);
+        encoder.writeSmallInt(snapshot.classHashes.size());
+        for (Map.Entry<String, HashCode> entry : snapshot.classHashes.entrySet()) {
+            encoder.writeString(entry.getKey());
+            HASH_CODE_SERIALIZER.write(encoder, entry.getValue());
+        }
+    }
+
+    /**
+     * Sends each chunk of output read from the store as an output event, so that the output is not held in memory.
+     */
+    private static class OutputEventWriter extends Writer {
+        private final TestResultProcessor resultProcessor;
+        private final Object testId;
+        private final TestOutputEvent.Destination destination;
+
+        OutputEventWriter(TestResultProcessor resultProcessor, Object testId, TestOutputEvent.Destination destination) {
+            this.resultProcessor = resultProcessor;
+            this.testId = testId;
+            this.destination = destination;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            if (length > 0) {
+                resultProcessor.output(testId, new DefaultTestOutputEvent(destination, new String(chars, offset, length)));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    static class ClasspathSnapshot {
+        private final Map<String, HashCode> classHashes;
+        private final Map<String, ClassAnalysis> classAnalyses;
+        private final HashCode nonClassInputsHash;
+        private final HashCode executionInputsHash;
+
+        ClasspathSnapshot(Map<String, HashCode> classHashes, Map<String, ClassAnalysis> classAnalyses, HashCode nonClassInputsHash, HashCode executionInputsHash) {
+            this.classHashes = classHashes;
+            this.classAnalyses = classAnalyses;
+            this.nonClassInputsHash = nonClassInputsHash;
+            this.executionInputsHash = executionInputsHash;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.testing.detection;
 
 import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Action;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
@@ -30,20 +31,29 @@ import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.testing.Test;
+import org.gradle.internal.Actions;
 import org.gradle.internal.Factory;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.time.TrueTimeProvider;
 import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
+    /**
+     * Enables the reuse of test worker processes across test tasks and builds when set to {@code true}, see {@link WorkerProcessBuilder#enableProcessReuse(boolean)}.
+     */
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.testing.reuseWorkers";
 
     private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
 
@@ -53,14 +63,22 @@ public class DefaultTestExecuter implements TestExecuter {
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
     private final int maxWorkerCount;
+    private final Map<String, Long> previousClassDurations;
+    private final AffectedTestClassSelector affectedTestClassSelector;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount) {
+        this(workerFactory, actorFactory, moduleRegistry, workerLeaseRegistry, buildOperationExecutor, maxWorkerCount, Collections.<String, Long>emptyMap(), null);
+    }
+
+    public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount, Map<String, Long> previousClassDurations, @Nullable AffectedTestClassSelector affectedTestClassSelector) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
         this.maxWorkerCount = maxWorkerCount;
+        this.previousClassDurations = previousClassDurations;
+        this.affectedTestClassSelector = affectedTestClassSelector;
     }
 
     @Override
@@ -69,10 +87,11 @@ public class DefaultTestExecuter implements TestExecuter {
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
         final WorkerLeaseRegistry.WorkerLease currentWorkerLease = workerLeaseRegistry.getCurrentWorkerLease();
         final Set<File> classpath = ImmutableSet.copyOf(testTask.getClasspath());
+        final Action<WorkerProcessBuilder> workerConfigurationAction = getWorkerConfigurationAction(testTask, testFramework);
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testTask,
-                    classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry);
+                    classpath, workerConfigurationAction, moduleRegistry);
             }
         };
         final Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -80,7 +99,10 @@ public class DefaultTestExecuter implements TestExecuter {
                 return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testTask.getForkEvery());
             }
         };
-        TestClassProcessor processor = new MaxNParallelTestClassProcessor(getMaxParallelForks(testTask), reforkingProcessorFactory, actorFactory);
+        TestClassProcessor processor = new MaxNParallelTestClassProcessor(getMaxParallelForks(testTask), reforkingProcessorFactory, actorFactory, previousClassDurations);
+        if (affectedTestClassSelector != null) {
+            processor = affectedTestClassSelector.decorate(processor);
+        }
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -99,6 +121,20 @@ public class DefaultTestExecuter implements TestExecuter {
         new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider(), testTaskOperationId, testTask.getPath(), "Gradle Test Run " + testTask.getIdentityPath()).run();
     }
 
+    private Action<WorkerProcessBuilder> getWorkerConfigurationAction(Test testTask, TestFramework testFramework) {
+        Action<WorkerProcessBuilder> frameworkConfigurationAction = testFramework.getWorkerConfigurationAction();
+        // Workers are not reused when the build asks for a fresh process every so many test classes, or for a process to debug
+        if (!Boolean.getBoolean(REUSE_WORKERS_PROPERTY) || testTask.getForkEvery() != 0 || testTask.getDebug()) {
+            return frameworkConfigurationAction;
+        }
+        return Actions.composite(frameworkConfigurationAction, new Action<WorkerProcessBuilder>() {
+            @Override
+            public void execute(WorkerProcessBuilder builder) {
+                builder.enableProcessReuse(true);
+            }
+        });
+    }
+
     private int getMaxParallelForks(Test testTask) {
         int maxParallelForks = testTask.getMaxParallelForks();
         if (maxParallelForks > maxWorkerCount) {
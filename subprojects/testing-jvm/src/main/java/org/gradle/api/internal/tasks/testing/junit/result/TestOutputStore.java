@@ -21,13 +21,20 @@ import com.esotericsoftware.kryo.io.Output;
 import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
+import org.gradle.internal.io.FileChannelInputStream;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -49,6 +56,32 @@ public class TestOutputStore {
         return new File(resultsDir, getOutputsFile().getName() + ".idx");
     }
 
+    /**
+     * Moves the stored output into the given directory, so that it can still be read after the results directory has been deleted.
+     */
+    public TestOutputStore moveTo(File dir) {
+        TestOutputStore target = new TestOutputStore(dir);
+        GFileUtils.mkdirs(dir);
+        move(getOutputsFile(), target.getOutputsFile());
+        move(getIndexFile(), target.getIndexFile());
+        return target;
+    }
+
+    private static void move(File from, File to) {
+        GFileUtils.deleteQuietly(to);
+        if (from.exists() && !from.renameTo(to)) {
+            throw new UncheckedIOException(String.format("Could not move '%s' to '%s'.", from, to));
+        }
+    }
+
+    /**
+     * Deletes the stored output.
+     */
+    public void delete() {
+        GFileUtils.deleteQuietly(getOutputsFile());
+        GFileUtils.deleteQuietly(getIndexFile());
+    }
+
     private static class Region {
         long start;
         long stop;
@@ -217,9 +250,14 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Reads the captured output. The output file is read using positional reads, so a reader can be shared by threads that write
+     * reports concurrently, and the index is held in memory only once.
+     */
     public class Reader implements Closeable {
         private final Index index;
         private final RandomAccessFile dataFile;
+        private final FileChannel dataChannel;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -267,6 +305,7 @@ public class TestOutputStore {
                 } catch (FileNotFoundException e) {
                     throw new UncheckedIOException(e);
                 }
+                dataChannel = dataFile.getChannel();
             } else { // no outputs file
                 if (indexFile.exists()) {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
@@ -274,6 +313,7 @@ public class TestOutputStore {
 
                 index = null;
                 dataFile = null;
+                dataChannel = null;
             }
         }
 
@@ -335,9 +375,9 @@ public class TestOutputStore {
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
                 long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
+                KryoBackedDecoder decoder = new KryoBackedDecoder(new FileChannelInputStream(dataChannel, region.start));
+                MessageWriter messageWriter = new MessageWriter(writer);
                 while (decoder.getReadPosition() <= maxPos) {
                     boolean readStdout = decoder.readBoolean();
                     long readClassId = decoder.readSmallLong();
@@ -362,17 +402,7 @@ public class TestOutputStore {
                     }
 
                     if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
-
-                        writer.write(message);
+                        messageWriter.write(decoder, readLength);
                     } else {
                         decoder.skipBytes(readLength);
                     }
@@ -383,6 +413,44 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Decodes messages into a writer through reused buffers, rather than creating a string for each message.
+     */
+    private class MessageWriter {
+        private final java.io.Writer writer;
+        private final CharsetDecoder charsetDecoder = messageStorageCharset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer chars = CharBuffer.allocate(4096);
+        private byte[] bytes = new byte[4096];
+
+        MessageWriter(java.io.Writer writer) {
+            this.writer = writer;
+        }
+
+        void write(KryoBackedDecoder decoder, int length) throws IOException {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            decoder.readBytes(bytes, 0, length);
+            ByteBuffer input = ByteBuffer.wrap(bytes, 0, length);
+            charsetDecoder.reset();
+            CoderResult result;
+            do {
+                result = charsetDecoder.decode(input, chars, true);
+                flushChars();
+            } while (result.isOverflow());
+            do {
+                result = charsetDecoder.flush(chars);
+                flushChars();
+            } while (result.isOverflow());
+        }
+
+        private void flushChars() throws IOException {
+            chars.flip();
+            writer.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.clear();
+        }
+    }
+
     // IMPORTANT: return must be closed when done with.
     public Reader reader() {
         return new Reader();
@@ -16,6 +16,9 @@
 
 package org.gradle.api.tasks.testing;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import groovy.lang.Closure;
 import org.gradle.StartParameter;
 import org.gradle.api.Action;
@@ -29,12 +32,19 @@ import org.gradle.api.internal.ClosureBackedAction;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.hash.FileHasher;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.detection.AffectedTestClassSelector;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
@@ -75,6 +85,7 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.VerificationTask;
+import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.api.tasks.testing.logging.TestLogging;
 import org.gradle.api.tasks.testing.logging.TestLoggingContainer;
 import org.gradle.api.tasks.util.PatternFilterable;
@@ -102,12 +113,16 @@ import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
 import org.gradle.util.SingleMessageLogger;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import static org.gradle.util.ConfigureUtil.configureUsing;
 
@@ -629,6 +644,17 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         File binaryResultsDir = getBinResultsDir();
+        // Previous durations are only used to balance test classes across forks
+        boolean balanceForks = getMaxParallelForks() > 1;
+        boolean selectAffectedTestClasses = AffectedTestClassSelector.isEnabled();
+        Map<String, TestClassResult> previousResults = balanceForks || selectAffectedTestClasses
+            ? readPreviousResults(binaryResultsDir)
+            : Collections.<String, TestClassResult>emptyMap();
+        AffectedTestClassSelector affectedTestClassSelector = null;
+        if (selectAffectedTestClasses) {
+            affectedTestClassSelector = createAffectedTestClassSelector(binaryResultsDir);
+            affectedTestClassSelector.prepare(previousResults);
+        }
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
 
@@ -658,7 +684,9 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
             testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getModuleRegistry(),
                 getServices().get(WorkerLeaseRegistry.class),
                 getServices().get(BuildOperationExecutor.class),
-                getServices().get(StartParameter.class).getMaxWorkerCount());
+                getServices().get(StartParameter.class).getMaxWorkerCount(),
+                balanceForks ? previousClassDurations(previousResults) : Collections.<String, Long>emptyMap(),
+                affectedTestClassSelector);
         }
 
         JavaVersion javaVersion = getJavaVersion();
@@ -668,6 +696,9 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
         try {
             testExecuter.execute(this, resultProcessor);
+            if (affectedTestClassSelector != null) {
+                affectedTestClassSelector.complete();
+            }
         } finally {
             parentProgressLogger.completed();
             testExecuter = null;
@@ -1406,6 +1437,80 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         throw new AssertionError("could not determine current log level");
     }
 
+    /**
+     * Reads the results of each test class from the binary results of the previous execution, before they are discarded.
+     */
+    private Map<String, TestClassResult> readPreviousResults(File binaryResultsDir) {
+        final Map<String, TestClassResult> results = new HashMap<String, TestClassResult>();
+        TestResultSerializer serializer = new TestResultSerializer(binaryResultsDir);
+        if (!serializer.isHasResults()) {
+            return results;
+        }
+        try {
+            serializer.read(new Action<TestClassResult>() {
+                @Override
+                public void execute(TestClassResult result) {
+                    results.put(result.getClassName(), result);
+                }
+            });
+        } catch (Exception e) {
+            getLogger().debug("Could not read previous test results from {}.", binaryResultsDir, e);
+            results.clear();
+        }
+        return results;
+    }
+
+    /**
+     * Returns the duration of each test class in the previous execution, so that test classes can be balanced across forks.
+     */
+    private static Map<String, Long> previousClassDurations(Map<String, TestClassResult> previousResults) {
+        Map<String, Long> durations = new HashMap<String, Long>(previousResults.size());
+        for (TestClassResult result : previousResults.values()) {
+            durations.put(result.getClassName(), result.getDuration());
+        }
+        return durations;
+    }
+
+    private AffectedTestClassSelector createAffectedTestClassSelector(File binaryResultsDir) {
+        ClassDependenciesAnalyzer classDependenciesAnalyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(), getServices().get(GeneralCompileCaches.class).getClassAnalysisCache());
+        File previousOutputDir = new File(getTemporaryDir(), "previousOutput");
+        return new AffectedTestClassSelector(binaryResultsDir, previousOutputDir, getClasspath(), hashExecutionInputs(), getServices().get(FileHasher.class), classDependenciesAnalyzer, getServices().get(DirectoryFileTreeFactory.class));
+    }
+
+    /**
+     * Hashes the inputs of the test execution other than the test runtime classpath, or returns null when the test framework options are not known to be covered.
+     */
+    @Nullable
+    private HashCode hashExecutionInputs() {
+        if (!(getTestFramework() instanceof JUnitTestFramework)) {
+            return null;
+        }
+        JUnitOptions options = (JUnitOptions) getTestFramework().getOptions();
+        Hasher hasher = Hashing.md5().newHasher();
+        putStrings(hasher, Collections.singleton(getExecutable()));
+        putStrings(hasher, Collections.singleton(getWorkingDir().getAbsolutePath()));
+        putStrings(hasher, getAllJvmArgs());
+        putStrings(hasher, new TreeMap<String, Object>(getEnvironment()).entrySet());
+        putStrings(hasher, new TreeSet<String>(getIncludes()));
+        putStrings(hasher, new TreeSet<String>(getExcludes()));
+        putStrings(hasher, new TreeSet<String>(filter.getIncludePatterns()));
+        putStrings(hasher, new TreeSet<String>(filter.getCommandLineIncludePatterns()));
+        putStrings(hasher, new TreeSet<String>(options.getIncludeCategories()));
+        putStrings(hasher, new TreeSet<String>(options.getExcludeCategories()));
+        hasher.putBoolean(isScanForTestClasses());
+        return hasher.hash();
+    }
+
+    private static void putStrings(Hasher hasher, Iterable<?> values) {
+        int count = 0;
+        for (Object value : values) {
+            hasher.putUnencodedChars(String.valueOf(value));
+            hasher.putByte((byte) 0);
+            count++;
+        }
+        hasher.putInt(count);
+    }
+
     private TestExceptionFormatter getExceptionFormatter(TestLogging testLogging) {
         switch (testLogging.getExceptionFormat()) {
             case SHORT:
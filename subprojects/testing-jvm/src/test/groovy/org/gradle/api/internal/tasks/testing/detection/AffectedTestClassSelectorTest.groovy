@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import com.google.common.hash.HashCode
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory
+import org.gradle.api.internal.hash.FileHasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent
+import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.detection.AffectedTestClassSelector.ClasspathSnapshot
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore
+import org.gradle.api.internal.tasks.testing.processors.TestMainAction
+import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProcessor
+import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter
+import org.gradle.api.tasks.testing.TestOutputListener
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.time.TrueTimeProvider
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
+import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
+
+import static org.gradle.api.internal.tasks.testing.detection.AffectedTestClassSelector.findAffectedClasses
+
+class AffectedTestClassSelectorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def resources = HashCode.fromInt(0)
+    def inputs = HashCode.fromInt(0)
+
+    def "selects classes that transitively depend on a changed class"() {
+        def previous = snapshot([A: 1, B: 1, C: 1, ATest: 1, CTest: 1])
+        def current = snapshot([A: 2, B: 1, C: 1, ATest: 1, CTest: 1], [B: ["A"], ATest: ["B"], CTest: ["C"]])
+
+        expect:
+        findAffectedClasses(previous, current) == ["A", "B", "ATest"] as Set
+    }
+
+    def "selects dependents of added and removed classes"() {
+        def previous = snapshot([A: 1, ATest: 1])
+        def current = snapshot([B: 1, ATest: 1, BTest: 1], [BTest: ["B"], ATest: ["A"]])
+
+        expect:
+        findAffectedClasses(previous, current) == ["A", "B", "ATest", "BTest"] as Set
+    }
+
+    def "selects all classes when a resource or library changes"() {
+        def previous = snapshot([A: 1])
+        def current = new ClasspathSnapshot([A: HashCode.fromInt(1)], [A: analysis("A", [])], HashCode.fromInt(1), inputs)
+
+        expect:
+        findAffectedClasses(previous, current) == null
+    }
+
+    def "selects all classes when a changed class is a dependency to all classes"() {
+        def previous = snapshot([A: 1, ATest: 1])
+        def current = new ClasspathSnapshot([A: HashCode.fromInt(2), ATest: HashCode.fromInt(1)], [A: analysis("A", [], true), ATest: analysis("ATest", [])], resources, inputs)
+
+        expect:
+        findAffectedClasses(previous, current) == null
+    }
+
+    private ClasspathSnapshot snapshot(Map<String, Integer> hashes, Map<String, List<String>> dependencies = [:]) {
+        def classHashes = hashes.collectEntries { name, hash -> [name, HashCode.fromInt(hash)] }
+        def analyses = hashes.keySet().collectEntries { name -> [name, analysis(name, dependencies[name] ?: [])] }
+        new ClasspathSnapshot(classHashes, analyses, resources, inputs)
+    }
+
+    private AffectedTestClassSelector selector(TestFile resultsDir, HashCode executionInputsHash) {
+        new AffectedTestClassSelector(resultsDir, tmpDir.file("previousOutput"), [], executionInputsHash, Stub(FileHasher), Stub(ClassDependenciesAnalyzer), Stub(DirectoryFileTreeFactory))
+    }
+
+    private static TestClassRunInfo testClass(String name) {
+        Stub(TestClassRunInfo) {
+            getTestClassName() >> name
+        }
+    }
+
+    private static Map<String, TestClassResult> previousResults() {
+        def result = new TestClassResult(1, "ATest", 0)
+        result.add(new TestMethodResult(2, "ok", TestResult.ResultType.SUCCESS, 1, 1))
+        [ATest: result]
+    }
+
+    private TestFile resultsDirFromPreviousExecution(HashCode executionInputsHash) {
+        def resultsDir = tmpDir.createDir("results")
+        def writer = new TestOutputStore(resultsDir).writer()
+        selector(resultsDir, executionInputsHash).with {
+            prepare([:])
+            complete()
+        }
+        writer.onOutput(1, new DefaultTestOutputEvent(StdOut, "class output"))
+        writer.onOutput(1, 2, new DefaultTestOutputEvent(StdErr, "test output"))
+        writer.close()
+        resultsDir
+    }
+
+    def "replays results and output of test classes that are not affected when stopped"() {
+        def resultsDir = resultsDirFromPreviousExecution(inputs)
+        def processor = Mock(TestClassProcessor)
+        def resultProcessor = Mock(TestResultProcessor)
+        def selector = selector(resultsDir, inputs)
+
+        when:
+        selector.prepare(previousResults())
+        resultsDir.deleteDir().createDir()
+        def decorated = selector.decorate(processor)
+        decorated.startProcessing(resultProcessor)
+        decorated.processTestClass(testClass("ATest"))
+        decorated.stop()
+        selector.complete()
+
+        then:
+        0 * processor.processTestClass(_)
+        1 * processor.stop()
+
+        then:
+        1 * resultProcessor.started({ it.composite && it.className == "ATest" }, { it.parentId == null })
+
+        then:
+        1 * resultProcessor.output(_, new DefaultTestOutputEvent(StdOut, "class output"))
+
+        then:
+        1 * resultProcessor.started({ !it.composite && it.className == "ATest" && it.name == "ok" }, { it.parentId != null })
+
+        then:
+        1 * resultProcessor.output(_, new DefaultTestOutputEvent(StdErr, "test output"))
+
+        then:
+        1 * resultProcessor.completed(_, { it.resultType == TestResult.ResultType.SUCCESS })
+
+        then:
+        1 * resultProcessor.completed(_, { it.resultType == null })
+        0 * resultProcessor._
+    }
+
+    def "test classes that are carried forward count as tests matching the filters"() {
+        def resultsDir = resultsDirFromPreviousExecution(inputs)
+        def selector = selector(resultsDir, inputs)
+        def reporter = new NoMatchingTestsReporter("No tests found")
+        def resultProcessor = new StateTrackingTestResultProcessor(new TestListenerAdapter(reporter, Stub(TestOutputListener)))
+        selector.prepare(previousResults())
+        def decorated = selector.decorate(Mock(TestClassProcessor))
+        def detector = { decorated.processTestClass(testClass("ATest")) } as Runnable
+
+        when:
+        new TestMainAction(detector, decorated, resultProcessor, new TrueTimeProvider(), "operation", "root", "Test Run").run()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "runs all test classes when the inputs of the test execution have changed"() {
+        def resultsDir = resultsDirFromPreviousExecution(inputs)
+        def processor = Mock(TestClassProcessor)
+        def selector = selector(resultsDir, HashCode.fromInt(1))
+        def testClass = testClass("ATest")
+
+        when:
+        selector.prepare(previousResults())
+        selector.decorate(processor).processTestClass(testClass)
+
+        then:
+        1 * processor.processTestClass(testClass)
+    }
+
+    def "runs all test classes when the inputs of the test execution are not known"() {
+        def resultsDir = resultsDirFromPreviousExecution(inputs)
+        def processor = Mock(TestClassProcessor)
+        def selector = selector(resultsDir, null)
+        def testClass = testClass("ATest")
+
+        when:
+        selector.prepare(previousResults())
+        selector.decorate(processor).processTestClass(testClass)
+
+        then:
+        1 * processor.processTestClass(testClass)
+    }
+
+    private static ClassAnalysis analysis(String name, List<String> dependencies, boolean dependencyToAll = false) {
+        new ClassAnalysis(name, dependencies as Set, dependencyToAll, [] as Set, [] as Set, [] as Set)
+    }
+}
@@ -98,6 +98,44 @@ class TestOutputStoreSpec extends WorkspaceTest {
         reader.close()
     }
 
+    def "reads messages larger than the read buffer and with multi-byte characters"() {
+        def large = "é€-" * 5000
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, large))
+        writer.onOutput(1, 1, output(StdOut, "[中]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == large + "[中]"
+
+        cleanup:
+        reader.close()
+    }
+
+    def "reader can be shared by concurrent threads"() {
+        when:
+        def writer = output.writer()
+        10.times { classId ->
+            100.times { writer.onOutput(classId + 1, output(StdOut, "[${classId + 1}]")) }
+        }
+        writer.close()
+        def reader = output.reader()
+        def collected = Collections.synchronizedMap([:])
+        def threads = (1..10).collect { classId ->
+            Thread.start { collected[classId] = collectAllOutput(reader, classId, StdOut) }
+        }
+        threads*.join()
+
+        then:
+        (1..10).every { classId -> collected[classId] == "[$classId]" * 100 }
+
+        cleanup:
+        reader.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
@@ -97,6 +97,34 @@ class WorkerExecutorIntegrationTest extends AbstractWorkerExecutorIntegrationTes
         isolationMode << ISOLATION_MODES
     }
 
+    def "shares static state between work items in IsolationMode.CLASSLOADER only when ClassLoaders are reused"() {
+        withRunnableClassInBuildSrc()
+
+        buildFile << """
+            task runInWorker(type: WorkerTask) {
+                isolationMode = IsolationMode.CLASSLOADER
+            }
+
+            task runAgainInWorker(type: WorkerTask) {
+                isolationMode = IsolationMode.CLASSLOADER
+                dependsOn runInWorker
+            }
+        """
+
+        when:
+        succeeds("runAgainInWorker")
+
+        then:
+        assertDifferentDaemonsWereUsed("runInWorker", "runAgainInWorker")
+
+        when:
+        executer.withArgument("-D${WorkerClassLoaderCache.REUSE_CLASSLOADERS_PROPERTY}=true")
+        succeeds("runAgainInWorker")
+
+        then:
+        assertSameDaemonWasUsed("runInWorker", "runAgainInWorker")
+    }
+
     def "re-uses an existing idle worker daemon"() {
         executer.withWorkerDaemonsExpirationDisabled()
         withRunnableClassInBuildSrc()
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the round trip of work parameters shaped like the spec of a Java compilation: compiler arguments, source files, a classpath and annotation processor options.
+ */
+@State(Scope.Benchmark)
+public class WorkerParamsSerializerBenchmark {
+
+    private final WorkerParamsSerializer serializer = new WorkerParamsSerializer();
+    private Object[] params;
+
+    @Setup(Level.Trial)
+    public void createParams() {
+        List<String> compilerArgs = new ArrayList<String>();
+        for (String arg : new String[]{"-source", "1.8", "-target", "1.8", "-encoding", "UTF-8", "-g", "-sourcepath", "", "-proc:none", "-XDuseUnsharedTable=true"}) {
+            compilerArgs.add(arg);
+        }
+        List<File> sources = new ArrayList<File>();
+        for (int i = 0; i < 500; i++) {
+            sources.add(new File("/home/user/project/src/main/java/org/acme/module" + (i % 20) + "/Type" + i + ".java"));
+        }
+        List<File> classpath = new ArrayList<File>();
+        for (int i = 0; i < 150; i++) {
+            classpath.add(new File("/home/user/.gradle/caches/modules-2/files-2.1/org.acme/library" + i + "/1.0." + i + "/library" + i + "-1.0." + i + ".jar"));
+        }
+        Map<String, String> processorOptions = new LinkedHashMap<String, String>();
+        processorOptions.put("dagger.formatGeneratedSource", "disabled");
+        processorOptions.put("immutables.gradle.incremental", "true");
+        params = new Object[]{"compileJava", compilerArgs, sources, classpath, new File("/home/user/project/build/classes/java/main"), processorOptions, Boolean.TRUE};
+    }
+
+    @Benchmark
+    public void binary(Blackhole bh) {
+        bh.consume(serializer.deserialize(serializer.serialize(params), getClass().getClassLoader()));
+    }
+
+    @Benchmark
+    public void javaSerialization(Blackhole bh) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(params);
+        oos.close();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        bh.consume(ois.readObject());
+    }
+}
@@ -30,6 +30,7 @@ import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.classloader.MultiParentClassLoader;
 import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.event.DefaultListenerManager;
 import org.gradle.internal.io.ClassLoaderObjectInputStream;
@@ -58,12 +59,19 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
     private final ClassLoaderFactory classLoaderFactory;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerClassLoaderCache workerClassLoaderCache;
+    private final boolean reuseClassLoaders;
     private final GroovySystemLoaderFactory groovySystemLoaderFactory = new GroovySystemLoaderFactory();
 
-    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
+    /**
+     * @param reuseClassLoaders whether work with the same classpath reuses the ClassLoaders retained by the cache, sharing the static state of its classes.
+     */
+    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, WorkerClassLoaderCache workerClassLoaderCache, boolean reuseClassLoaders) {
         this.classLoaderFactory = classLoaderFactory;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
+        this.workerClassLoaderCache = workerClassLoaderCache;
+        this.reuseClassLoaders = reuseClassLoaders;
     }
 
     @Override
@@ -102,10 +110,19 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
     }
 
     private DefaultWorkResult executeInWorkerClassLoader(ActionExecutionSpec spec, DaemonForkOptions forkOptions) {
-        ClassLoader actionClasspathLoader = createActionClasspathLoader(forkOptions);
-        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
-
-        ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, forkOptions.getSharedPackages(), spec.getClass());
+        ClassPath actionClasspath = new DefaultClassPath(forkOptions.getClasspath());
+        WorkerClassLoaderCache.Key key = reuseClassLoaders ? workerClassLoaderCache.key(actionClasspath, forkOptions.getSharedPackages()) : null;
+        ClassLoader workerClassLoader = key != null ? workerClassLoaderCache.get(key) : null;
+        GroovySystemLoader actionClasspathGroovy = GroovySystemLoaderFactory.NOT_BROKEN;
+        if (workerClassLoader == null) {
+            ClassLoader actionClasspathLoader = classLoaderFactory.createIsolatedClassLoader(actionClasspath);
+            actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
+            workerClassLoader = createWorkerClassLoader(actionClasspathLoader, forkOptions.getSharedPackages(), spec.getClass());
+            // A leaky Groovy runtime has to be shut down after each use, so only reuse the ClassLoaders that do not load one
+            if (key != null && actionClasspathGroovy == GroovySystemLoaderFactory.NOT_BROKEN) {
+                workerClassLoaderCache.put(key, workerClassLoader, actionClasspathLoader);
+            }
+        }
 
         ClassLoader previousContextLoader = Thread.currentThread().getContextClassLoader();
         try {
@@ -122,10 +139,6 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
         }
     }
 
-    private ClassLoader createActionClasspathLoader(DaemonForkOptions forkOptions) {
-        return classLoaderFactory.createIsolatedClassLoader(new DefaultClassPath(forkOptions.getClasspath()));
-    }
-
     private ClassLoader createWorkerClassLoader(ClassLoader actionClasspathLoader, Iterable<String> sharedPackages, Class<?> actionClass) {
         FilteringClassLoader.Spec actionFilterSpec = new FilteringClassLoader.Spec();
         for (String packageName : sharedPackages) {
@@ -172,6 +185,9 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
      * This is serialized across into the worker ClassLoader and then executed.
      */
     private static class WorkerCallable implements Callable<Object>, Serializable {
+        // This class is loaded once per worker ClassLoader, so these services are shared by the work that reuses the ClassLoader
+        private static DefaultInstantiatorFactory instantiatorFactory;
+
         private final ActionExecutionSpec spec;
 
         private WorkerCallable(ActionExecutionSpec spec) {
@@ -180,10 +196,15 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
 
         @Override
         public Object call() throws Exception {
-            // TODO - reuse these services, either by making the global instances visible or by reusing the worker ClassLoaders and retaining a reference to them
-            DefaultInstantiatorFactory instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
-            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(instantiatorFactory.inject());
+            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(getInstantiatorFactory().inject());
             return worker.execute(spec);
         }
+
+        private static synchronized DefaultInstantiatorFactory getInstantiatorFactory() {
+            if (instantiatorFactory == null) {
+                instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+            }
+            return instantiatorFactory;
+        }
     }
 }
@@ -17,19 +17,15 @@
 package org.gradle.workers.internal;
 
 import org.gradle.internal.exceptions.Contextual;
-import org.gradle.internal.io.ClassLoaderObjectInputStream;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 /**
  * Represents a {@link WorkSpec} that contains constructor parameters.
  */
 public class SerializingActionExecutionSpec implements ActionExecutionSpec {
+    private static final WorkerParamsSerializer PARAMS_SERIALIZER = new WorkerParamsSerializer();
+
     private final String displayName;
     private final Class<? extends Runnable> implementationClass;
     private final File executionWorkingDir;
@@ -39,7 +35,7 @@ public class SerializingActionExecutionSpec implements ActionExecutionSpec {
         this.implementationClass = implementationClass;
         this.displayName = displayName;
         this.executionWorkingDir = executionWorkingDir;
-        this.params = serialize(params);
+        this.params = PARAMS_SERIALIZER.serialize(params);
     }
 
     @Override
@@ -59,30 +55,7 @@ public class SerializingActionExecutionSpec implements ActionExecutionSpec {
 
     @Override
     public Object[] getParams(ClassLoader classLoader) {
-        return deserialize(classLoader);
-    }
-
-    private byte[] serialize(Object[] params) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        try {
-            ObjectOutputStream oos = new ObjectOutputStream(bos);
-            oos.writeObject(params);
-        } catch (IOException e) {
-            throw new ParameterSerializationException("Could not serialize parameters", e);
-        }
-        return bos.toByteArray();
-    }
-
-    private Object[] deserialize(ClassLoader classLoader) {
-        ByteArrayInputStream bis = new ByteArrayInputStream(params);
-        try {
-            ObjectInputStream ois = new ClassLoaderObjectInputStream(bis, classLoader);
-            return (Object[])ois.readObject();
-        } catch (IOException e) {
-            throw new ParameterSerializationException("Could not deserialize parameters", e);
-        } catch (ClassNotFoundException e) {
-            throw new ParameterSerializationException("Could not deserialize parameters", e);
-        }
+        return PARAMS_SERIALIZER.deserialize(params, classLoader);
     }
 
     @Contextual
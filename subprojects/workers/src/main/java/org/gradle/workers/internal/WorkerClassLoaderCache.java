@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.concurrent.Stoppable;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retains the ClassLoaders used to run work in isolation, so that later work with the same classpath and shared packages, in the same build session or the next one, does not load its classes again.
+ *
+ * <p>Work that reuses a ClassLoader also shares the static state of the classes loaded by it, so the ClassLoaders are only reused when enabled with the
+ * {@value #REUSE_CLASSLOADERS_PROPERTY} system property. ClassLoaders that were not used during the current or the previous build session are closed when the session completes.</p>
+ */
+public class WorkerClassLoaderCache implements SessionLifecycleListener, Stoppable {
+    public static final String REUSE_CLASSLOADERS_PROPERTY = "org.gradle.workers.reuseClassLoaders";
+
+    private final Object lock = new Object();
+    private final Map<Key, CachedClassLoader> classLoaders = new HashMap<Key, CachedClassLoader>();
+    private final ClasspathHasher classpathHasher;
+    private int session;
+
+    public WorkerClassLoaderCache(ClasspathHasher classpathHasher) {
+        this.classpathHasher = classpathHasher;
+    }
+
+    public Key key(ClassPath classpath, Iterable<String> sharedPackages) {
+        return new Key(classpathHasher.hash(classpath), ImmutableList.copyOf(sharedPackages));
+    }
+
+    @Nullable
+    public ClassLoader get(Key key) {
+        synchronized (lock) {
+            CachedClassLoader classLoader = classLoaders.get(key);
+            if (classLoader == null) {
+                return null;
+            }
+            classLoader.lastUsedSession = session;
+            return classLoader.workerClassLoader;
+        }
+    }
+
+    /**
+     * Retains the given worker ClassLoader, unless another one has been retained for the same key in the meantime.
+     *
+     * @param actionClasspathLoader the ClassLoader of the action classpath that the worker ClassLoader delegates to, which is closed along with it.
+     * @return whether the ClassLoader was retained.
+     */
+    public boolean put(Key key, ClassLoader workerClassLoader, ClassLoader actionClasspathLoader) {
+        synchronized (lock) {
+            if (classLoaders.containsKey(key)) {
+                return false;
+            }
+            classLoaders.put(key, new CachedClassLoader(workerClassLoader, actionClasspathLoader, session));
+            return true;
+        }
+    }
+
+    @Override
+    public void afterStart() {
+    }
+
+    @Override
+    public void beforeComplete() {
+        List<CachedClassLoader> evicted = new ArrayList<CachedClassLoader>();
+        synchronized (lock) {
+            Iterator<CachedClassLoader> iterator = classLoaders.values().iterator();
+            while (iterator.hasNext()) {
+                CachedClassLoader classLoader = iterator.next();
+                if (classLoader.lastUsedSession < session - 1) {
+                    iterator.remove();
+                    evicted.add(classLoader);
+                }
+            }
+            session++;
+        }
+        closeAll(evicted);
+    }
+
+    @Override
+    public void stop() {
+        List<CachedClassLoader> evicted;
+        synchronized (lock) {
+            evicted = new ArrayList<CachedClassLoader>(classLoaders.values());
+            classLoaders.clear();
+        }
+        closeAll(evicted);
+    }
+
+    private static void closeAll(List<CachedClassLoader> classLoaders) {
+        for (CachedClassLoader classLoader : classLoaders) {
+            ClassLoaderUtils.tryClose(classLoader.workerClassLoader);
+            ClassLoaderUtils.tryClose(classLoader.actionClasspathLoader);
+        }
+    }
+
+    private static class CachedClassLoader {
+        private final ClassLoader workerClassLoader;
+        private final ClassLoader actionClasspathLoader;
+        private int lastUsedSession;
+
+        CachedClassLoader(ClassLoader workerClassLoader, ClassLoader actionClasspathLoader, int lastUsedSession) {
+            this.workerClassLoader = workerClassLoader;
+            this.actionClasspathLoader = actionClasspathLoader;
+            this.lastUsedSession = lastUsedSession;
+        }
+    }
+
+    public static class Key {
+        private final HashCode classpathHash;
+        private final ImmutableList<String> sharedPackages;
+
+        private Key(HashCode classpathHash, ImmutableList<String> sharedPackages) {
+            this.classpathHash = classpathHash;
+            this.sharedPackages = sharedPackages;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return classpathHash.equals(key.classpathHash) && sharedPackages.equals(key.sharedPackages);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(classpathHash, sharedPackages);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Serializes the parameters of work so that they can be passed to another ClassLoader or process.
+ *
+ * <p>Parameters that are made only of strings, files, primitive wrappers and of array lists, hash sets and hash maps of these are written with a compact binary encoding.
+ * Other parameters are written using Java serialization.</p>
+ */
+class WorkerParamsSerializer {
+    private static final byte JAVA_SERIALIZATION = 0;
+    private static final byte BINARY = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte FILE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte BYTE = 4;
+    private static final byte SHORT = 5;
+    private static final byte INTEGER = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte ARRAY_LIST = 10;
+    private static final byte HASH_SET = 11;
+    private static final byte LINKED_HASH_SET = 12;
+    private static final byte HASH_MAP = 13;
+    private static final byte LINKED_HASH_MAP = 14;
+
+    // Deeper structures, including cyclic ones, are left to Java serialization
+    private static final int MAX_DEPTH = 16;
+
+    public byte[] serialize(Object[] params) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            if (canWriteAll(params)) {
+                bos.write(BINARY);
+                KryoBackedEncoder encoder = new KryoBackedEncoder(bos);
+                encoder.writeSmallInt(params.length);
+                for (Object param : params) {
+                    write(encoder, param);
+                }
+                encoder.flush();
+            } else {
+                bos.write(JAVA_SERIALIZATION);
+                ObjectOutputStream oos = new ObjectOutputStream(bos);
+                oos.writeObject(params);
+                oos.flush();
+            }
+        } catch (Exception e) {
+            throw new SerializingActionExecutionSpec.ParameterSerializationException("Could not serialize parameters", e);
+        }
+        return bos.toByteArray();
+    }
+
+    public Object[] deserialize(byte[] bytes, ClassLoader classLoader) {
+        ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
+        try {
+            if (bis.read() == BINARY) {
+                KryoBackedDecoder decoder = new KryoBackedDecoder(bis);
+                Object[] params = new Object[decoder.readSmallInt()];
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = read(decoder);
+                }
+                return params;
+            }
+            ObjectInputStream ois = new ClassLoaderObjectInputStream(bis, classLoader);
+            return (Object[]) ois.readObject();
+        } catch (Exception e) {
+            throw new SerializingActionExecutionSpec.ParameterSerializationException("Could not deserialize parameters", e);
+        }
+    }
+
+    private static boolean canWriteAll(Object[] params) {
+        for (Object param : params) {
+            if (!canWrite(param, 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canWrite(Object value, int depth) {
+        if (value == null) {
+            return true;
+        }
+        Class<?> type = value.getClass();
+        if (type == String.class || type == File.class || type == Boolean.class || type == Byte.class || type == Short.class
+            || type == Integer.class || type == Long.class || type == Float.class || type == Double.class) {
+            return true;
+        }
+        if (depth >= MAX_DEPTH) {
+            return false;
+        }
+        if (type == ArrayList.class || type == HashSet.class || type == LinkedHashSet.class) {
+            for (Object element : (Collection<?>) value) {
+                if (!canWrite(element, depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (type == HashMap.class || type == LinkedHashMap.class) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!canWrite(entry.getKey(), depth + 1) || !canWrite(entry.getValue(), depth + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static void write(Encoder encoder, Object value) throws Exception {
+        if (value == null) {
+            encoder.writeByte(NULL);
+        } else if (value instanceof String) {
+            encoder.writeByte(STRING);
+            BaseSerializerFactory.STRING_SERIALIZER.write(encoder, (String) value);
+        } else if (value instanceof File) {
+            encoder.writeByte(FILE);
+            BaseSerializerFactory.FILE_SERIALIZER.write(encoder, (File) value);
+        } else if (value instanceof Boolean) {
+            encoder.writeByte(BOOLEAN);
+            BaseSerializerFactory.BOOLEAN_SERIALIZER.write(encoder, (Boolean) value);
+        } else if (value instanceof Byte) {
+            encoder.writeByte(BYTE);
+            BaseSerializerFactory.BYTE_SERIALIZER.write(encoder, (Byte) value);
+        } else if (value instanceof Short) {
+            encoder.writeByte(SHORT);
+            BaseSerializerFactory.SHORT_SERIALIZER.write(encoder, (Short) value);
+        } else if (value instanceof Integer) {
+            encoder.writeByte(INTEGER);
+            BaseSerializerFactory.INTEGER_SERIALIZER.write(encoder, (Integer) value);
+        } else if (value instanceof Long) {
+            encoder.writeByte(LONG);
+            BaseSerializerFactory.LONG_SERIALIZER.write(encoder, (Long) value);
+        } else if (value instanceof Float) {
+            encoder.writeByte(FLOAT);
+            BaseSerializerFactory.FLOAT_SERIALIZER.write(encoder, (Float) value);
+        } else if (value instanceof Double) {
+            encoder.writeByte(DOUBLE);
+            BaseSerializerFactory.DOUBLE_SERIALIZER.write(encoder, (Double) value);
+        } else if (value instanceof Map) {
+            encoder.writeByte(value instanceof LinkedHashMap ? LINKED_HASH_MAP : HASH_MAP);
+            Map<?, ?> map = (Map<?, ?>) value;
+            encoder.writeSmallInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(encoder, entry.getKey());
+                write(encoder, entry.getValue());
+            }
+        } else {
+            encoder.writeByte(value instanceof ArrayList ? ARRAY_LIST : value instanceof LinkedHashSet ? LINKED_HASH_SET : HASH_SET);
+            Collection<?> collection = (Collection<?>) value;
+            encoder.writeSmallInt(collection.size());
+            for (Object element : collection) {
+                write(encoder, element);
+            }
+        }
+    }
+
+    private static Object read(Decoder decoder) throws Exception {
+        byte tag = decoder.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return BaseSerializerFactory.STRING_SERIALIZER.read(decoder);
+            case FILE:
+                return BaseSerializerFactory.FILE_SERIALIZER.read(decoder);
+            case BOOLEAN:
+                return BaseSerializerFactory.BOOLEAN_SERIALIZER.read(decoder);
+            case BYTE:
+                return BaseSerializerFactory.BYTE_SERIALIZER.read(decoder);
+            case SHORT:
+                return BaseSerializerFactory.SHORT_SERIALIZER.read(decoder);
+            case INTEGER:
+                return BaseSerializerFactory.INTEGER_SERIALIZER.read(decoder);
+            case LONG:
+                return BaseSerializerFactory.LONG_SERIALIZER.read(decoder);
+            case FLOAT:
+                return BaseSerializerFactory.FLOAT_SERIALIZER.read(decoder);
+            case DOUBLE:
+                return BaseSerializerFactory.DOUBLE_SERIALIZER.read(decoder);
+            case ARRAY_LIST:
+                return readElements(decoder, new ArrayList<Object>());
+            case HASH_SET:
+                return readElements(decoder, new HashSet<Object>());
+            case LINKED_HASH_SET:
+                return readElements(decoder, new LinkedHashSet<Object>());
+            case HASH_MAP:
+                return readEntries(decoder, new HashMap<Object, Object>());
+            case LINKED_HASH_MAP:
+                return readEntries(decoder, new LinkedHashMap<Object, Object>());
+            default:
+                throw new IllegalArgumentException("Unexpected parameter tag " + tag);
+        }
+    }
+
+    private static Collection<Object> readElements(Decoder decoder, Collection<Object> collection) throws Exception {
+        int size = decoder.readSmallInt();
+        for (int i = 0; i < size; i++) {
+            collection.add(read(decoder));
+        }
+        return collection;
+    }
+
+    private static Map<Object, Object> readEntries(Decoder decoder, Map<Object, Object> map) throws Exception {
+        int size = decoder.readSmallInt();
+        for (int i = 0; i < size; i++) {
+            Object key = read(decoder);
+            map.put(key, read(decoder));
+        }
+        return map;
+    }
+}
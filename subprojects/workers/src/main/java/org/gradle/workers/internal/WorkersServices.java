@@ -20,6 +20,7 @@ import org.gradle.api.internal.InstantiatorFactory;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.initialization.GradleUserHomeDirProvider;
 import org.gradle.internal.classloader.ClassLoaderFactory;
+import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
@@ -56,8 +57,8 @@ public class WorkersServices extends AbstractPluginServiceRegistry {
             return new WorkerDaemonFactory(workerDaemonClientsManager, memoryManager, workerLeaseRegistry, buildOperationExecutor);
         }
 
-        IsolatedClassloaderWorkerFactory createIsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
-            return new IsolatedClassloaderWorkerFactory(classLoaderFactory, workerLeaseRegistry, buildOperationExecutor);
+        IsolatedClassloaderWorkerFactory createIsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, WorkerClassLoaderCache workerClassLoaderCache) {
+            return new IsolatedClassloaderWorkerFactory(classLoaderFactory, workerLeaseRegistry, buildOperationExecutor, workerClassLoaderCache, Boolean.getBoolean(WorkerClassLoaderCache.REUSE_CLASSLOADERS_PROPERTY));
         }
 
         WorkerDirectoryProvider createWorkerDirectoryProvider(GradleUserHomeDirProvider gradleUserHomeDirProvider) {
@@ -72,6 +73,12 @@ public class WorkersServices extends AbstractPluginServiceRegistry {
                                                                     ListenerManager listenerManager) {
             return new WorkerDaemonClientsManager(new WorkerDaemonStarter(workerFactory, loggingManager), listenerManager, loggingManager);
         }
+
+        WorkerClassLoaderCache createWorkerClassLoaderCache(ClasspathHasher classpathHasher, ListenerManager listenerManager) {
+            WorkerClassLoaderCache workerClassLoaderCache = new WorkerClassLoaderCache(classpathHasher);
+            listenerManager.addListener(workerClassLoaderCache);
+            return workerClassLoaderCache;
+        }
     }
 
     private static class ProjectScopeServices {
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import com.google.common.hash.HashCode
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.classpath.DefaultClassPath
+import spock.lang.Shared
+import spock.lang.Specification
+
+class WorkerClassLoaderCacheTest extends Specification {
+    def classpathHasher = Mock(ClasspathHasher)
+    def cache = new WorkerClassLoaderCache(classpathHasher)
+    @Shared
+    def classpath1 = new DefaultClassPath(new File("lib1.jar"))
+    @Shared
+    def classpath2 = new DefaultClassPath(new File("lib2.jar"))
+    def classLoader = new CloseableClassLoader()
+    def actionClasspathLoader = new CloseableClassLoader()
+
+    def setup() {
+        _ * classpathHasher.hash(classpath1) >> HashCode.fromInt(1)
+        _ * classpathHasher.hash(classpath2) >> HashCode.fromInt(2)
+    }
+
+    def "reuses ClassLoader for same classpath and shared packages"() {
+        when:
+        cache.put(cache.key(classpath1, ["foo.bar"]), classLoader, actionClasspathLoader)
+
+        then:
+        cache.get(cache.key(classpath1, ["foo.bar"])).is(classLoader)
+    }
+
+    def "does not reuse ClassLoader for different classpath or shared packages"() {
+        when:
+        cache.put(cache.key(classpath1, ["foo.bar"]), classLoader, actionClasspathLoader)
+
+        then:
+        cache.get(cache.key(classpath as ClassPath, sharedPackages)) == null
+
+        where:
+        classpath  | sharedPackages
+        classpath2 | ["foo.bar"]
+        classpath1 | ["foo.baz"]
+        classpath1 | []
+    }
+
+    def "reuses ClassLoader when the classpath content is unchanged"() {
+        def sameContent = new DefaultClassPath(new File("other/lib1.jar"))
+        _ * classpathHasher.hash(sameContent) >> HashCode.fromInt(1)
+
+        when:
+        cache.put(cache.key(classpath1, []), classLoader, actionClasspathLoader)
+
+        then:
+        cache.get(cache.key(sameContent, [])).is(classLoader)
+    }
+
+    def "keeps the ClassLoader retained first for the same key"() {
+        def other = new CloseableClassLoader()
+
+        when:
+        def first = cache.put(cache.key(classpath1, []), classLoader, actionClasspathLoader)
+        def second = cache.put(cache.key(classpath1, []), other, other)
+
+        then:
+        first
+        !second
+        cache.get(cache.key(classpath1, [])).is(classLoader)
+        !other.closed
+    }
+
+    def "closes ClassLoaders not used during the current or the previous build session"() {
+        def unused = new CloseableClassLoader()
+        def unusedActionClasspathLoader = new CloseableClassLoader()
+        cache.put(cache.key(classpath1, []), classLoader, actionClasspathLoader)
+        cache.put(cache.key(classpath2, []), unused, unusedActionClasspathLoader)
+
+        when:
+        cache.beforeComplete()
+        cache.get(cache.key(classpath1, []))
+        cache.beforeComplete()
+
+        then:
+        !classLoader.closed
+        !unused.closed
+
+        when:
+        cache.beforeComplete()
+
+        then:
+        !classLoader.closed
+        !actionClasspathLoader.closed
+        unused.closed
+        unusedActionClasspathLoader.closed
+        cache.get(cache.key(classpath2, [])) == null
+        cache.get(cache.key(classpath1, [])).is(classLoader)
+    }
+
+    def "closes all ClassLoaders when stopped"() {
+        cache.put(cache.key(classpath1, []), classLoader, actionClasspathLoader)
+
+        when:
+        cache.stop()
+
+        then:
+        classLoader.closed
+        actionClasspathLoader.closed
+        cache.get(cache.key(classpath1, [])) == null
+    }
+
+    static class CloseableClassLoader extends ClassLoader implements Closeable {
+        boolean closed
+
+        @Override
+        void close() {
+            closed = true
+        }
+    }
+}
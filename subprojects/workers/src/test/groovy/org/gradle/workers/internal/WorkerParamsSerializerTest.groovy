@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import spock.lang.Specification
+
+class WorkerParamsSerializerTest extends Specification {
+    def serializer = new WorkerParamsSerializer()
+
+    def "round trips common parameter types with binary encoding"() {
+        def params = ["text", new File("some/file"), true, (byte) 1, (short) 2, 3, 4L, 5.5f, 6.5d, null,
+                      ["a", new File("b")] as ArrayList, ["c"] as HashSet, ["d", "e"] as LinkedHashSet,
+                      [a: [1, 2]] as LinkedHashMap, [(new File("f")): null] as HashMap] as Object[]
+
+        when:
+        def bytes = serializer.serialize(params)
+        def result = serializer.deserialize(bytes, getClass().classLoader)
+
+        then:
+        bytes[0] == 1
+        result == params
+        result.collect { it?.getClass() } == params.collect { it?.getClass() }
+    }
+
+    def "falls back to Java serialization for other types"() {
+        def params = ["text", new Bean(value: "value"), [new Bean(value: "nested")] as ArrayList] as Object[]
+
+        when:
+        def bytes = serializer.serialize(params)
+        def result = serializer.deserialize(bytes, getClass().classLoader)
+
+        then:
+        bytes[0] == 0
+        result[0] == "text"
+        result[1].value == "value"
+        result[2][0].value == "nested"
+    }
+
+    def "falls back to Java serialization for cyclic collections"() {
+        def list = new ArrayList<Object>()
+        list.add(list)
+
+        when:
+        def bytes = serializer.serialize([list] as Object[])
+        def result = serializer.deserialize(bytes, getClass().classLoader)
+
+        then:
+        bytes[0] == 0
+        result[0][0].is(result[0])
+    }
+
+    def "fails with a helpful message when parameters cannot be serialized"() {
+        when:
+        serializer.serialize([new Object()] as Object[])
+
+        then:
+        def e = thrown(SerializingActionExecutionSpec.ParameterSerializationException)
+        e.message == "Could not serialize parameters"
+    }
+
+    static class Bean implements Serializable {
+        String value
+    }
+}